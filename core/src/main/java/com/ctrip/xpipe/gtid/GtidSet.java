@@ -193,8 +193,10 @@ public class GtidSet {
         if (split.length != 2) {
             return false;
         }
-        String sourceId = split[0];
-        long transactionId = Long.parseLong(split[1]);
+        return add(split[0], Long.parseLong(split[1]));
+    }
+
+    public boolean add(String sourceId, long transactionId) {
         UUIDSet uuidSet = map.get(sourceId);
         if (uuidSet == null) {
             map.put(sourceId, uuidSet = new UUIDSet(sourceId, new ArrayList<Interval>()));
@@ -628,8 +630,8 @@ public class GtidSet {
         }
 
         private void removeTil(int index) {
-            for (int i = 0; i < index; i++) {
-                intervals.remove(0);
+            if (index > 0) {
+                intervals.subList(0, index).clear();
             }
         }
 
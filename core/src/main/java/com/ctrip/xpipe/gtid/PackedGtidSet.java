@@ -0,0 +1,390 @@
+package com.ctrip.xpipe.gtid;
+
+import java.util.*;
+
+/**
+ * Gtid set for hot paths, with interned source ids and closed intervals packed in long[] as [start0, end0, start1, end1 ...].
+ * Gtid is added without string splitting, containment and intersection are checked without cloning.
+ * Same as {@link GtidSet}, it is not thread safe.
+ */
+public class PackedGtidSet {
+
+    private static final int INIT_SOURCES = 2;
+
+    private static final int INIT_INTERVALS = 4;
+
+    private static final long[] NO_INTERVALS = new long[0];
+
+    private String[] sourceIds = new String[INIT_SOURCES];
+
+    private long[][] intervals = new long[INIT_SOURCES][];
+
+    private int[] intervalCounts = new int[INIT_SOURCES];
+
+    private int sourceCount = 0;
+
+    public PackedGtidSet() {
+    }
+
+    public PackedGtidSet(String gtidSet) {
+        this(new GtidSet(gtidSet));
+    }
+
+    public PackedGtidSet(GtidSet gtidSet) {
+        for (GtidSet.UUIDSet uuidSet : gtidSet.getUUIDSets()) {
+            int source = sourceIndexOrCreate(uuidSet.getUUID());
+            for (GtidSet.Interval interval : uuidSet.getIntervals()) {
+                addInterval(source, interval.getStart(), interval.getEnd());
+            }
+        }
+    }
+
+    /**
+     * @param gtid GTID ("source_id:transaction_id")
+     * @return transaction id of gtid, or -1 if it is not a gtid
+     */
+    public static long transactionIdOf(String gtid) {
+        if (null == gtid) return -1;
+
+        int separator = gtid.indexOf(':');
+        if (separator <= 0 || separator == gtid.length() - 1) return -1;
+
+        long transactionId = 0;
+        for (int i = separator + 1; i < gtid.length(); i++) {
+            char c = gtid.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            transactionId = transactionId * 10 + (c - '0');
+        }
+        return transactionId;
+    }
+
+    /**
+     * @param gtid GTID ("source_id:transaction_id")
+     * @return whether or not gtid was added to the set (false if it was already there or not a gtid)
+     */
+    public boolean add(String gtid) {
+        long transactionId = transactionIdOf(gtid);
+        if (transactionId < 0) return false;
+
+        return add(sourceIndexOrCreateOfGtid(gtid), transactionId);
+    }
+
+    public boolean add(String sourceId, long transactionId) {
+        return add(sourceIndexOrCreate(sourceId), transactionId);
+    }
+
+    private boolean add(int source, long transactionId) {
+        if (contains(source, transactionId)) return false;
+
+        addInterval(source, transactionId, transactionId);
+        return true;
+    }
+
+    public void addInterval(String sourceId, long start, long end) {
+        if (start > end) return;
+        addInterval(sourceIndexOrCreate(sourceId), start, end);
+    }
+
+    /**
+     * add all gtids of other into this set
+     */
+    public void union(PackedGtidSet other) {
+        for (int o = 0; o < other.sourceCount; o++) {
+            int source = sourceIndexOrCreate(other.sourceIds[o]);
+            long[] otherIntervals = other.intervals[o];
+            for (int i = 0; i < other.intervalCounts[o]; i++) {
+                addInterval(source, otherIntervals[i << 1], otherIntervals[(i << 1) + 1]);
+            }
+        }
+    }
+
+    /**
+     * mark all gtids from 1 to transactionId as included
+     * @return low water mark before rise
+     */
+    public long rise(String sourceId, long transactionId) {
+        return rise(sourceIndexOrCreate(sourceId), transactionId);
+    }
+
+    /**
+     * same as {@link GtidSet#rise(String)}, without splitting gtid
+     * @return low water mark before rise, or -1 if gtid is not a gtid
+     */
+    public long rise(String gtid) {
+        long transactionId = transactionIdOf(gtid);
+        if (transactionId < 0) return -1;
+
+        return rise(sourceIndexOrCreateOfGtid(gtid), transactionId);
+    }
+
+    private long rise(int source, long transactionId) {
+        long last = lwm(source);
+        if (transactionId > 0) {
+            addInterval(source, 1, transactionId);
+            // place holder like uuid:0 is merged into the risen interval
+            intervals[source][0] = 1;
+        }
+        return last;
+    }
+
+    /**
+     * @param gtid GTID ("source_id:transaction_id")
+     * @return source id of gtid kept by this set, null if the source is not in the set
+     */
+    public String sourceIdOf(String gtid) {
+        int separator = null == gtid ? -1 : gtid.indexOf(':');
+        if (separator <= 0) return null;
+
+        int source = sourceIndex(gtid, separator);
+        return source < 0 ? null : sourceIds[source];
+    }
+
+    public long lwmSum() {
+        long sum = 0;
+        for (int s = 0; s < sourceCount; s++) {
+            sum += lwm(s);
+        }
+        return sum;
+    }
+
+    public long lwm(String sourceId) {
+        int source = sourceIndex(sourceId);
+        return source < 0 ? 0 : lwm(source);
+    }
+
+    private long lwm(int source) {
+        long[] packed = intervals[source];
+        if (intervalCounts[source] == 0 || packed[0] > 1) return 0;
+        return packed[1];
+    }
+
+    public boolean contains(String sourceId, long transactionId) {
+        int source = sourceIndex(sourceId);
+        return source >= 0 && contains(source, transactionId);
+    }
+
+    private boolean contains(int source, long transactionId) {
+        long[] packed = intervals[source];
+        int index = search(packed, intervalCounts[source], transactionId);
+        return index < intervalCounts[source] && packed[index << 1] <= transactionId;
+    }
+
+    public boolean isContainedWithin(PackedGtidSet other) {
+        if (null == other) return false;
+        if (this == other) return true;
+
+        for (int s = 0; s < sourceCount; s++) {
+            long[] packed = intervals[s];
+            int count = intervalCounts[s];
+            if (count == 0) continue;
+
+            int o = other.sourceIndex(sourceIds[s]);
+            long[] otherPacked = o < 0 ? NO_INTERVALS : other.intervals[o];
+            int otherCount = o < 0 ? 0 : other.intervalCounts[o];
+
+            for (int i = 0; i < count; i++) {
+                long start = packed[i << 1], end = packed[(i << 1) + 1];
+                // place holder like uuid:0 is contained by any set
+                if (end == 0) continue;
+
+                int index = search(otherPacked, otherCount, start);
+                if (index >= otherCount || otherPacked[index << 1] > start || otherPacked[(index << 1) + 1] < end) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean intersects(PackedGtidSet other) {
+        if (null == other) return false;
+
+        for (int s = 0; s < sourceCount; s++) {
+            int o = other.sourceIndex(sourceIds[s]);
+            if (o < 0) continue;
+
+            long[] mine = intervals[s], theirs = other.intervals[o];
+            int mCount = intervalCounts[s], oCount = other.intervalCounts[o];
+            int m = 0, t = 0;
+            while (m < mCount && t < oCount) {
+                long mStart = mine[m << 1], mEnd = mine[(m << 1) + 1];
+                long tStart = theirs[t << 1], tEnd = theirs[(t << 1) + 1];
+                if (mStart <= tEnd && tStart <= mEnd) return true;
+                if (mEnd < tEnd) m++;
+                else t++;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        for (int s = 0; s < sourceCount; s++) {
+            if (intervalCounts[s] > 0) return false;
+        }
+        return true;
+    }
+
+    public Set<String> getSourceIds() {
+        Set<String> result = new LinkedHashSet<>();
+        for (int s = 0; s < sourceCount; s++) {
+            result.add(sourceIds[s]);
+        }
+        return result;
+    }
+
+    public GtidSet toGtidSet() {
+        Map<String, GtidSet.UUIDSet> uuidSets = new LinkedHashMap<>();
+        for (int s = 0; s < sourceCount; s++) {
+            List<GtidSet.Interval> intervalList = new ArrayList<>(intervalCounts[s]);
+            for (int i = 0; i < intervalCounts[s]; i++) {
+                intervalList.add(new GtidSet.Interval(intervals[s][i << 1], intervals[s][(i << 1) + 1]));
+            }
+            uuidSets.put(sourceIds[s], new GtidSet.UUIDSet(sourceIds[s], intervalList));
+        }
+        return new GtidSet(uuidSets);
+    }
+
+    /**
+     * @return index of first interval whose end is not less than v, or count if there is none
+     */
+    private static int search(long[] packed, int count, long v) {
+        int l = 0, r = count;
+        while (l < r) {
+            int m = (l + r) >>> 1;
+            if (packed[(m << 1) + 1] < v) l = m + 1;
+            else r = m;
+        }
+        return l;
+    }
+
+    private void addInterval(int source, long start, long end) {
+        long[] packed = intervals[source];
+        int count = intervalCounts[source];
+
+        // intervals overlapped or adjacent with [start, end] are merged
+        int from = search(packed, count, start == Long.MIN_VALUE ? start : start - 1);
+        int to = from;
+        long mergedStart = start, mergedEnd = end;
+        while (to < count && (end == Long.MAX_VALUE || packed[to << 1] <= end + 1)) {
+            mergedStart = Math.min(mergedStart, packed[to << 1]);
+            mergedEnd = Math.max(mergedEnd, packed[(to << 1) + 1]);
+            to++;
+        }
+
+        if (from == to) {
+            packed = ensureIntervalCapacity(source, count + 1);
+            System.arraycopy(packed, from << 1, packed, (from + 1) << 1, (count - from) << 1);
+            intervalCounts[source] = count + 1;
+        } else if (to - from > 1) {
+            System.arraycopy(packed, to << 1, packed, (from + 1) << 1, (count - to) << 1);
+            intervalCounts[source] = count - (to - from - 1);
+        }
+        packed[from << 1] = mergedStart;
+        packed[(from << 1) + 1] = mergedEnd;
+    }
+
+    private long[] ensureIntervalCapacity(int source, int count) {
+        long[] packed = intervals[source];
+        if (packed.length >= count << 1) return packed;
+
+        packed = Arrays.copyOf(packed, Math.max(packed.length << 1, count << 1));
+        intervals[source] = packed;
+        return packed;
+    }
+
+    private int sourceIndex(String sourceId) {
+        for (int s = 0; s < sourceCount; s++) {
+            if (sourceIds[s] == sourceId) return s;
+        }
+        for (int s = 0; s < sourceCount; s++) {
+            if (sourceIds[s].equals(sourceId)) return s;
+        }
+        return -1;
+    }
+
+    private int sourceIndex(String gtid, int sourceIdLength) {
+        for (int s = 0; s < sourceCount; s++) {
+            String sourceId = sourceIds[s];
+            if (sourceId.length() == sourceIdLength && gtid.regionMatches(0, sourceId, 0, sourceIdLength)) return s;
+        }
+        return -1;
+    }
+
+    private int sourceIndexOrCreate(String sourceId) {
+        int source = sourceIndex(sourceId);
+        return source < 0 ? createSource(sourceId) : source;
+    }
+
+    // source of gtid, created from the part before ':' if absent
+    private int sourceIndexOrCreateOfGtid(String gtid) {
+        int separator = gtid.indexOf(':');
+        int source = sourceIndex(gtid, separator);
+        return source < 0 ? createSource(gtid.substring(0, separator)) : source;
+    }
+
+    private int createSource(String sourceId) {
+        if (sourceCount == sourceIds.length) {
+            int capacity = sourceCount << 1;
+            sourceIds = Arrays.copyOf(sourceIds, capacity);
+            intervals = Arrays.copyOf(intervals, capacity);
+            intervalCounts = Arrays.copyOf(intervalCounts, capacity);
+        }
+        // source ids are few and shared by sets of the same replication, so they are interned by jvm
+        sourceIds[sourceCount] = sourceId.intern();
+        intervals[sourceCount] = new long[INIT_INTERVALS << 1];
+        intervalCounts[sourceCount] = 0;
+        return sourceCount++;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof PackedGtidSet)) return false;
+
+        PackedGtidSet other = (PackedGtidSet) obj;
+        if (nonEmptySources() != other.nonEmptySources()) return false;
+        for (int s = 0; s < sourceCount; s++) {
+            if (intervalCounts[s] == 0) continue;
+
+            int o = other.sourceIndex(sourceIds[s]);
+            if (o < 0 || intervalCounts[s] != other.intervalCounts[o]) return false;
+            for (int i = 0; i < intervalCounts[s] << 1; i++) {
+                if (intervals[s][i] != other.intervals[o][i]) return false;
+            }
+        }
+        return true;
+    }
+
+    private int nonEmptySources() {
+        int nonEmpty = 0;
+        for (int s = 0; s < sourceCount; s++) {
+            if (intervalCounts[s] > 0) nonEmpty++;
+        }
+        return nonEmpty;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int s = 0; s < sourceCount; s++) {
+            if (intervalCounts[s] > 0) hash += sourceIds[s].hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0; s < sourceCount; s++) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(sourceIds[s]).append(':');
+            for (int i = 0; i < intervalCounts[s]; i++) {
+                if (i > 0) sb.append(':');
+                long start = intervals[s][i << 1], end = intervals[s][(i << 1) + 1];
+                sb.append(start);
+                if (start != end) sb.append('-').append(end);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -54,6 +54,10 @@ public class ByteBufUtils {
 	
 	public static int writeByteBufToFileChannel(ByteBuf byteBuf, FileChannel fileChannel, Logger tracelogger) throws IOException{
 
+		if(byteBuf.nioBufferCount() > 1){
+			return gatheringWriteByteBufToFileChannel(byteBuf, fileChannel);
+		}
+
 		int wrote = 0;
 		final int readerIndex = byteBuf.readerIndex();
 		final int readable = byteBuf.readableBytes();
@@ -89,4 +93,26 @@ public class ByteBufUtils {
 		return wrote;
 	}
 
+	private static int gatheringWriteByteBufToFileChannel(ByteBuf byteBuf, FileChannel fileChannel) throws IOException{
+
+		final int readerIndex = byteBuf.readerIndex();
+		final int readable = byteBuf.readableBytes();
+		ByteBuffer[] buffers = byteBuf.nioBuffers(readerIndex, readable);
+
+		long wrote = 0;
+		while(wrote < readable){
+			long current = fileChannel.write(buffers);
+			if(current <= 0){
+				break;
+			}
+			wrote += current;
+		}
+
+		if(wrote < readable){
+			logger.warn("[gatheringWriteByteBufToFileChannel][wrote < readable]{} < {}", wrote, readable);
+		}
+		byteBuf.readerIndex(readerIndex + (int) wrote);
+		return (int) wrote;
+	}
+
 }
@@ -73,6 +73,20 @@ public class ReferenceFileChannel implements Closeable, Releasable {
 		return readTilEnd(-1);
 	}
 
+	/**
+	 * read region at specified position without moving currentPos,
+	 * so that one file channel can be shared by readers at different positions
+	 */
+	public ReferenceFileRegion readRegion(long position, long count) throws IOException {
+
+		increase();
+		return new ReferenceFileRegion(file.getFileChannel(), position, count, this);
+	}
+
+	public long size() throws IOException {
+		return file.size();
+	}
+
 	private void increase() {
 		reference.incrementAndGet();
 	}
@@ -7,6 +7,7 @@ import com.ctrip.xpipe.endpoint.ClusterShardHostPortTest;
 import com.ctrip.xpipe.endpoint.DefaultEndPointTest;
 import com.ctrip.xpipe.endpoint.TestAbstractLifecycle;
 import com.ctrip.xpipe.gtid.GtidSetTest;
+import com.ctrip.xpipe.gtid.PackedGtidSetTest;
 import com.ctrip.xpipe.lifecycle.*;
 import com.ctrip.xpipe.netty.NettyPoolUtilTest;
 import com.ctrip.xpipe.netty.NettyTimeoutTtlListenerTest;
@@ -95,6 +96,7 @@ import org.junit.runners.Suite.SuiteClasses;
         DynamicDelayPeriodTaskTest.class,
         MdcUtilTest.class,
         GtidSetTest.class,
+        PackedGtidSetTest.class,
 })
 public class AllTests {
 
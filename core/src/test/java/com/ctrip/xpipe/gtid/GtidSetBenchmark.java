@@ -0,0 +1,126 @@
+package com.ctrip.xpipe.gtid;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare {@link PackedGtidSet} with {@link GtidSet} on operations of replication hot paths,
+ * run by main() or with jmh runner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GtidSetBenchmark {
+
+    private static final String UUID1 = "24bc7850-2c16-11e6-a073-0242ac110002";
+
+    private static final String UUID2 = "34bc7850-2c16-11e6-a073-0242ac110002";
+
+    @Param({"1", "64"})
+    public int gaps;
+
+    private String[] gtids;
+
+    private GtidSet gtidSet;
+
+    private GtidSet containedGtidSet;
+
+    private PackedGtidSet packedGtidSet;
+
+    private PackedGtidSet packedContainedGtidSet;
+
+    private long nextTxId;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        StringBuilder sb = new StringBuilder(UUID1).append(":1-1000000");
+        for (int i = 1; i < gaps; i++) {
+            long start = 1000000L + i * 10;
+            sb.append(':').append(start).append('-').append(start + 5);
+        }
+        sb.append(',').append(UUID2).append(":1-1000");
+
+        gtidSet = new GtidSet(sb.toString());
+        containedGtidSet = new GtidSet(UUID1 + ":100-200," + UUID2 + ":1-10");
+        packedGtidSet = new PackedGtidSet(gtidSet);
+        packedContainedGtidSet = new PackedGtidSet(containedGtidSet);
+
+        gtids = new String[1024];
+        for (int i = 0; i < gtids.length; i++) {
+            gtids[i] = UUID1 + ":" + (2000000 + i);
+        }
+        nextTxId = 3000000;
+    }
+
+    @Benchmark
+    public boolean addGtidString() {
+        return gtidSet.add(gtids[(int) (nextTxId++ & 1023)]);
+    }
+
+    @Benchmark
+    public boolean packedAddGtidString() {
+        return packedGtidSet.add(gtids[(int) (nextTxId++ & 1023)]);
+    }
+
+    @Benchmark
+    public boolean packedAddSourceAndTxId() {
+        return packedGtidSet.add(UUID1, nextTxId++);
+    }
+
+    @Benchmark
+    public long riseGtidString() {
+        return gtidSet.rise(gtids[(int) (nextTxId++ & 1023)]);
+    }
+
+    @Benchmark
+    public long packedRiseGtidString() {
+        return packedGtidSet.rise(gtids[(int) (nextTxId++ & 1023)]);
+    }
+
+    @Benchmark
+    public boolean isContainedWithin() {
+        return containedGtidSet.isContainedWithin(gtidSet);
+    }
+
+    @Benchmark
+    public boolean packedIsContainedWithin() {
+        return packedContainedGtidSet.isContainedWithin(packedGtidSet);
+    }
+
+    @Benchmark
+    public boolean intersects() {
+        return !containedGtidSet.retainAll(gtidSet).isEmpty();
+    }
+
+    @Benchmark
+    public boolean packedIntersects() {
+        return packedContainedGtidSet.intersects(packedGtidSet);
+    }
+
+    @Benchmark
+    public void union(Blackhole blackhole) {
+        blackhole.consume(gtidSet.union(containedGtidSet));
+    }
+
+    @Benchmark
+    public void packedUnion() {
+        packedGtidSet.union(packedContainedGtidSet);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GtidSetBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
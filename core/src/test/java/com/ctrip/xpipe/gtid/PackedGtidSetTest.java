@@ -0,0 +1,121 @@
+package com.ctrip.xpipe.gtid;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class PackedGtidSetTest {
+
+    private static final String UUID1 = "24bc7850-2c16-11e6-a073-0242ac110002";
+
+    private static final String UUID2 = "34bc7850-2c16-11e6-a073-0242ac110002";
+
+    private Random random = new Random();
+
+    @Test
+    public void testAdd() {
+        PackedGtidSet gtidSet = new PackedGtidSet();
+        Assert.assertTrue(gtidSet.add(UUID1 + ":1"));
+        Assert.assertTrue(gtidSet.add(UUID1 + ":3"));
+        Assert.assertFalse(gtidSet.add(UUID1 + ":3"));
+        Assert.assertTrue(gtidSet.add(UUID2, 5));
+        Assert.assertEquals(UUID1 + ":1:3," + UUID2 + ":5", gtidSet.toString());
+
+        Assert.assertTrue(gtidSet.add(UUID1 + ":2"));
+        Assert.assertEquals(UUID1 + ":1-3," + UUID2 + ":5", gtidSet.toString());
+
+        Assert.assertFalse(gtidSet.add(UUID1));
+        Assert.assertFalse(gtidSet.add(UUID1 + ":"));
+        Assert.assertFalse(gtidSet.add(UUID1 + ":a"));
+        Assert.assertFalse(gtidSet.add(null));
+    }
+
+    @Test
+    public void testAddInterval() {
+        PackedGtidSet gtidSet = new PackedGtidSet(UUID1 + ":1-3:5-7:9-11:20");
+        gtidSet.addInterval(UUID1, 4, 10);
+        Assert.assertEquals(UUID1 + ":1-11:20", gtidSet.toString());
+
+        gtidSet.addInterval(UUID1, 13, 15);
+        Assert.assertEquals(UUID1 + ":1-11:13-15:20", gtidSet.toString());
+
+        gtidSet.addInterval(UUID1, 12, 19);
+        Assert.assertEquals(UUID1 + ":1-20", gtidSet.toString());
+    }
+
+    @Test
+    public void testRiseAndLwm() {
+        PackedGtidSet gtidSet = new PackedGtidSet(UUID1 + ":3-5:7:10-12");
+        Assert.assertEquals(0, gtidSet.lwm(UUID1));
+        Assert.assertEquals(0, gtidSet.rise(UUID1, 8));
+        Assert.assertEquals(UUID1 + ":1-8:10-12", gtidSet.toString());
+        Assert.assertEquals(8, gtidSet.rise(UUID1, 9));
+        Assert.assertEquals(12, gtidSet.lwm(UUID1));
+        Assert.assertEquals(0, gtidSet.lwm(UUID2));
+    }
+
+    @Test
+    public void testRiseGtidString() {
+        PackedGtidSet gtidSet = new PackedGtidSet(UUID1 + ":0," + UUID2 + ":3-5");
+        Assert.assertEquals(0, gtidSet.rise(UUID1 + ":5"));
+        Assert.assertEquals(UUID1 + ":1-5," + UUID2 + ":3-5", gtidSet.toString());
+        Assert.assertEquals(5, gtidSet.rise(UUID1 + ":3"));
+        Assert.assertEquals(0, gtidSet.rise(UUID2 + ":2"));
+        Assert.assertEquals(5 + 5, gtidSet.lwmSum());
+        Assert.assertEquals(-1, gtidSet.rise(UUID1 + ":a"));
+
+        Assert.assertSame(gtidSet.sourceIdOf(UUID1 + ":100"), gtidSet.sourceIdOf(UUID1 + ":200"));
+        Assert.assertEquals(UUID2, gtidSet.sourceIdOf(UUID2 + ":1"));
+        Assert.assertNull(gtidSet.sourceIdOf("a1:1"));
+        Assert.assertNull(gtidSet.sourceIdOf("a1"));
+
+        Assert.assertEquals(12, PackedGtidSet.transactionIdOf("a1:12"));
+        Assert.assertEquals(-1, PackedGtidSet.transactionIdOf("a1:"));
+        Assert.assertEquals(-1, PackedGtidSet.transactionIdOf(null));
+    }
+
+    @Test
+    public void testContainedAndIntersects() {
+        PackedGtidSet gtidSet = new PackedGtidSet(UUID1 + ":1-10:20-30," + UUID2 + ":1-5");
+
+        Assert.assertTrue(new PackedGtidSet(UUID1 + ":2-5:21").isContainedWithin(gtidSet));
+        Assert.assertFalse(new PackedGtidSet(UUID1 + ":2-11").isContainedWithin(gtidSet));
+        Assert.assertFalse(new PackedGtidSet("a1:1").isContainedWithin(gtidSet));
+        Assert.assertTrue(new PackedGtidSet("a1:0").isContainedWithin(gtidSet));
+
+        Assert.assertTrue(new PackedGtidSet(UUID1 + ":11-20").intersects(gtidSet));
+        Assert.assertFalse(new PackedGtidSet(UUID1 + ":11-19," + UUID2 + ":6").intersects(gtidSet));
+        Assert.assertFalse(new PackedGtidSet("a1:1-100").intersects(gtidSet));
+    }
+
+    @Test
+    public void testSameAsGtidSet() {
+        for (int round = 0; round < 100; round++) {
+            GtidSet gtidSet = new GtidSet("");
+            PackedGtidSet packedGtidSet = new PackedGtidSet();
+            GtidSet other = new GtidSet("");
+
+            for (int i = 0; i < 200; i++) {
+                String gtid = (random.nextBoolean() ? UUID1 : UUID2) + ":" + (1 + random.nextInt(300));
+                Assert.assertEquals(gtidSet.add(gtid), packedGtidSet.add(gtid));
+                if (random.nextInt(4) == 0) other.add(gtid);
+            }
+            for (int i = 0; i < 20; i++) {
+                other.add(UUID1 + ":" + (1 + random.nextInt(300)));
+            }
+
+            PackedGtidSet packedOther = new PackedGtidSet(other);
+            Assert.assertEquals(gtidSet.toString(), packedGtidSet.toString());
+            Assert.assertEquals(gtidSet, packedGtidSet.toGtidSet());
+            Assert.assertEquals(other.isContainedWithin(gtidSet), packedOther.isContainedWithin(packedGtidSet));
+            Assert.assertEquals(gtidSet.isContainedWithin(other), packedGtidSet.isContainedWithin(packedOther));
+            Assert.assertEquals(!gtidSet.retainAll(other).isEmpty(), packedGtidSet.intersects(packedOther));
+            Assert.assertEquals(gtidSet.lwm(UUID1), packedGtidSet.lwm(UUID1));
+
+            packedGtidSet.union(packedOther);
+            Assert.assertEquals(gtidSet.union(other).toString(), packedGtidSet.toString());
+        }
+    }
+
+}
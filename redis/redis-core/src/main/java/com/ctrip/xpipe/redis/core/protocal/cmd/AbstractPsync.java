@@ -165,6 +165,7 @@ public abstract class AbstractPsync extends AbstractRedisCommand<Object> impleme
 							}
 							try {
 								appendCommands(byteBuf);
+								throttleIfNecessary(channel);
 							} catch (IOException e) {
 								getLogger().error("[doHandleResponse][write commands error]" + this, e);
 							}
@@ -233,6 +234,9 @@ public abstract class AbstractPsync extends AbstractRedisCommand<Object> impleme
 
 	protected abstract void appendCommands(ByteBuf byteBuf) throws IOException;
 
+	protected void throttleIfNecessary(Channel channel) {
+	}
+
 	protected abstract RdbBulkStringParser createRdbReader();
 
 	protected void doOnFullSync() throws IOException {
@@ -12,7 +12,9 @@ import com.ctrip.xpipe.redis.core.redis.rdb.parser.AuxOnlyRdbParser;
 import com.ctrip.xpipe.redis.core.store.RdbStore;
 import com.ctrip.xpipe.redis.core.store.ReplicationStore;
 import com.ctrip.xpipe.tuple.Pair;
+import com.ctrip.xpipe.utils.ChannelUtil;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
 
 import java.io.IOException;
 import java.util.Map;
@@ -119,6 +121,18 @@ public abstract class AbstractReplicationStorePsync extends AbstractPsync implem
 		currentReplicationStore.appendCommands(byteBuf);
 	}
 
+	@Override
+	protected void throttleIfNecessary(Channel channel) {
+		// reopen on the event loop, after auto read closed below
+		if (!currentReplicationStore.checkCommandsBacklog(() -> channel.eventLoop().execute(() -> {
+			getLogger().info("[throttleIfNecessary][commands drained] open auto read {}", ChannelUtil.getDesc(channel));
+			ChannelUtil.openChannelAutoRead(channel);
+		}))) {
+			getLogger().info("[throttleIfNecessary][commands backlog full] close auto read {}", ChannelUtil.getDesc(channel));
+			ChannelUtil.closeChannelAutoRead(channel);
+		}
+	}
+
 	protected abstract void doWhenFullSyncToNonFreshReplicationStore(String masterRunid) throws IOException;
 
 	@Override
@@ -15,6 +15,7 @@ import com.ctrip.xpipe.redis.core.protocal.RedisClientProtocol;
 import com.ctrip.xpipe.redis.core.protocal.Xsync;
 import com.ctrip.xpipe.redis.core.protocal.XsyncObserver;
 import com.ctrip.xpipe.redis.core.protocal.protocal.AbstractBulkStringParser;
+import com.ctrip.xpipe.redis.core.protocal.protocal.BulkStringArrayParser;
 import com.ctrip.xpipe.redis.core.protocal.protocal.EofType;
 import com.ctrip.xpipe.redis.core.protocal.protocal.RdbBulkStringParser;
 import com.ctrip.xpipe.redis.core.protocal.protocal.RequestStringParser;
@@ -46,6 +47,8 @@ public class DefaultXsync extends AbstractRedisCommand<Object> implements Xsync,
 
     private RdbBulkStringParser rdbReader;
 
+    private BulkStringArrayParser commandParser = new BulkStringArrayParser();
+
     private GtidSet rdbDataGtidSet;
 
     private long rdbOffset;
@@ -132,13 +135,14 @@ public class DefaultXsync extends AbstractRedisCommand<Object> implements Xsync,
 
                 case READING_COMMANDS:
                     int prevIndex = byteBuf.readerIndex();
-                    Object cmdPayload = super.doReceiveResponse(channel, byteBuf);
+                    RedisClientProtocol<Object[]> cmdProtocol = commandParser.read(byteBuf);
                     currentCommandOffset.addAndGet(byteBuf.readerIndex() - prevIndex);
-                    if (cmdPayload instanceof Object[]) {
-                        doOnCommand(currentCommandOffset.getAndSet(0), (Object[]) cmdPayload);
-                    } else if (null != cmdPayload) {
-                        getLogger().info("[doReceiveResponse][{}][unknown payload] {}, {}", READING_COMMANDS, this, cmdPayload);
-                        throw new RedisRuntimeException("unknown payload:" + cmdPayload);
+                    if (null != cmdProtocol) {
+                        Object[] cmdPayload = cmdProtocol.getPayload();
+                        commandParser.reset();
+                        // a null array is valid RESP but never a replicated command
+                        if (null == cmdPayload) throw new RedisRuntimeException("null array in command stream");
+                        doOnCommand(currentCommandOffset.getAndSet(0), cmdPayload);
                     }
 
                     break;
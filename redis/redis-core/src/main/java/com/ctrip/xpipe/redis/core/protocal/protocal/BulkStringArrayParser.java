@@ -0,0 +1,236 @@
+package com.ctrip.xpipe.redis.core.protocal.protocal;
+
+import com.ctrip.xpipe.redis.core.exception.RedisRuntimeException;
+import com.ctrip.xpipe.redis.core.protocal.RedisClientProtocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming parser for RESP arrays of bulk strings, which is the form of commands in replication stream.
+ * Array size and bulk length are parsed byte by byte, and bulk contents are copied from {@link ByteBuf}
+ * into exactly sized byte[] without any per-element parser or payload object.
+ * The parser itself is the result and should be {@link #reset()} before next command, payload is byte[][].
+ */
+public class BulkStringArrayParser extends AbstractRedisProtocol implements RedisClientProtocol<Object[]> {
+
+    private static final byte[][] EMPTY_ARGS = new byte[0][];
+
+    private enum STATE {
+        READ_ARRAY_SIZE,
+        READ_BULK_LENGTH,
+        READ_BULK_CONTENT,
+        READ_BULK_CR,
+        READ_BULK_LF,
+        END
+    }
+
+    private enum NUMBER_STATE {
+        PREFIX,
+        DIGITS,
+        LF
+    }
+
+    private STATE state = STATE.READ_ARRAY_SIZE;
+
+    private NUMBER_STATE numberState = NUMBER_STATE.PREFIX;
+
+    private long number;
+
+    private boolean negative;
+
+    private int digits;
+
+    private byte[][] args;
+
+    private int argIndex;
+
+    private byte[] currentArg;
+
+    private int currentArgRead;
+
+    public BulkStringArrayParser() {
+    }
+
+    public BulkStringArrayParser(byte[][] args) {
+        this.args = args;
+        this.state = STATE.END;
+    }
+
+    @Override
+    public RedisClientProtocol<Object[]> read(ByteBuf byteBuf) {
+
+        while (true) {
+            switch (state) {
+                case READ_ARRAY_SIZE:
+                    if (!readNumber(byteBuf, ASTERISK_BYTE)) return null;
+                    if (number <= 0) {
+                        args = number == 0 ? EMPTY_ARGS : null;
+                        state = STATE.END;
+                        break;
+                    }
+                    args = new byte[(int) number][];
+                    argIndex = 0;
+                    state = STATE.READ_BULK_LENGTH;
+                    break;
+                case READ_BULK_LENGTH:
+                    if (!readNumber(byteBuf, DOLLAR_BYTE)) return null;
+                    if (number == -1) {
+                        // null bulk string
+                        nextArg(null);
+                        break;
+                    }
+                    currentArg = new byte[(int) number];
+                    currentArgRead = 0;
+                    state = STATE.READ_BULK_CONTENT;
+                    break;
+                case READ_BULK_CONTENT:
+                    int len = Math.min(byteBuf.readableBytes(), currentArg.length - currentArgRead);
+                    byteBuf.readBytes(currentArg, currentArgRead, len);
+                    currentArgRead += len;
+                    if (currentArgRead < currentArg.length) return null;
+                    state = STATE.READ_BULK_CR;
+                    break;
+                case READ_BULK_CR:
+                    if (!byteBuf.isReadable()) return null;
+                    expect(byteBuf.readByte(), '\r');
+                    state = STATE.READ_BULK_LF;
+                    break;
+                case READ_BULK_LF:
+                    if (!byteBuf.isReadable()) return null;
+                    expect(byteBuf.readByte(), '\n');
+                    nextArg(currentArg);
+                    currentArg = null;
+                    break;
+                case END:
+                    return this;
+                default:
+                    throw new IllegalStateException("unknown state:" + state);
+            }
+        }
+    }
+
+    private void nextArg(byte[] arg) {
+        args[argIndex++] = arg;
+        state = argIndex == args.length ? STATE.END : STATE.READ_BULK_LENGTH;
+    }
+
+    /**
+     * read "{prefix}{number}\r\n" into {@link #number}, line breaks before prefix are skipped.
+     * number is either -1 or in [0, Integer.MAX_VALUE], anything else is rejected
+     * @return true if number is read completely, false if more data is needed
+     */
+    private boolean readNumber(ByteBuf byteBuf, byte prefix) {
+        int readerIndex = byteBuf.readerIndex();
+        int writerIndex = byteBuf.writerIndex();
+
+        try {
+            while (readerIndex < writerIndex) {
+                byte data = byteBuf.getByte(readerIndex++);
+                switch (numberState) {
+                    case PREFIX:
+                        if (data == '\r' || data == '\n') continue;
+                        if (data != prefix) {
+                            throw new RedisRuntimeException(String.format("expected %c but %c", (char) prefix, (char) data));
+                        }
+                        number = 0;
+                        negative = false;
+                        digits = 0;
+                        numberState = NUMBER_STATE.DIGITS;
+                        break;
+                    case DIGITS:
+                        if (data >= '0' && data <= '9') {
+                            number = number * 10 + (data - '0');
+                            digits++;
+                            if (number > Integer.MAX_VALUE) {
+                                throw new RedisRuntimeException("number too large, exceeds " + Integer.MAX_VALUE);
+                            }
+                        } else if (data == '-' && digits == 0 && !negative) {
+                            negative = true;
+                        } else if (data == '\r') {
+                            numberState = NUMBER_STATE.LF;
+                        } else {
+                            throw new RedisRuntimeException("unexpected char in number:" + (char) data);
+                        }
+                        break;
+                    case LF:
+                        expect(data, '\n');
+                        if (digits == 0 || (negative && number != 1)) {
+                            throw new RedisRuntimeException("invalid number:" + (negative ? "-" : "") + number);
+                        }
+                        if (negative) number = -number;
+                        numberState = NUMBER_STATE.PREFIX;
+                        return true;
+                    default:
+                        throw new IllegalStateException("unknown number state:" + numberState);
+                }
+            }
+            return false;
+        } finally {
+            byteBuf.readerIndex(readerIndex);
+        }
+    }
+
+    private void expect(byte data, char expected) {
+        if (data != expected) {
+            throw new RedisRuntimeException(String.format("expected %s but %c", expected == '\r' ? "\\r" : "\\n", (char) data));
+        }
+    }
+
+    @Override
+    public ByteBuf format() {
+        if (null == args) return Unpooled.wrappedBuffer(("*-1" + CRLF).getBytes(StandardCharsets.US_ASCII));
+
+        int size = headerLength(args.length);
+        for (byte[] arg : args) {
+            size += null == arg ? 5 : headerLength(arg.length) + arg.length + 2;
+        }
+
+        ByteBuf byteBuf = Unpooled.buffer(size);
+        writeHeader(byteBuf, ASTERISK_BYTE, args.length);
+        for (byte[] arg : args) {
+            if (null == arg) {
+                writeHeader(byteBuf, DOLLAR_BYTE, -1);
+                continue;
+            }
+            writeHeader(byteBuf, DOLLAR_BYTE, arg.length);
+            byteBuf.writeBytes(arg);
+            byteBuf.writeByte('\r').writeByte('\n');
+        }
+        return byteBuf;
+    }
+
+    private int headerLength(int number) {
+        return 1 + Integer.toString(number).length() + 2;
+    }
+
+    private void writeHeader(ByteBuf byteBuf, byte prefix, int number) {
+        byteBuf.writeByte(prefix);
+        byteBuf.writeCharSequence(Integer.toString(number), StandardCharsets.US_ASCII);
+        byteBuf.writeByte('\r').writeByte('\n');
+    }
+
+    @Override
+    public Object[] getPayload() {
+        return args;
+    }
+
+    @Override
+    public boolean supportes(Class<?> clazz) {
+        return byte[][].class.equals(clazz);
+    }
+
+    @Override
+    public void reset() {
+        state = STATE.READ_ARRAY_SIZE;
+        numberState = NUMBER_STATE.PREFIX;
+        number = 0;
+        negative = false;
+        digits = 0;
+        args = null;
+        argIndex = 0;
+        currentArg = null;
+        currentArgRead = 0;
+    }
+}
@@ -8,6 +8,7 @@ import com.ctrip.xpipe.redis.core.protocal.protocal.SimpleStringParser;
 import com.ctrip.xpipe.redis.core.proxy.PROXY_OPTION;
 import com.ctrip.xpipe.redis.core.proxy.exception.XPipeProxyResultException;
 import com.ctrip.xpipe.redis.core.proxy.monitor.PingStatsResult;
+import com.ctrip.xpipe.redis.core.proxy.monitor.TunnelCompressResult;
 import com.ctrip.xpipe.redis.core.proxy.monitor.TunnelSocketStatsResult;
 import com.ctrip.xpipe.redis.core.proxy.monitor.TunnelStatsResult;
 import com.ctrip.xpipe.redis.core.proxy.monitor.TunnelTrafficResult;
@@ -186,4 +187,31 @@ public abstract class AbstractProxyMonitorCommand<T> extends AbstractProxyComman
         }
 
     }
+
+    public static class ProxyMonitorCompressStatsCommand extends AbstractProxyMonitorCommand<TunnelCompressResult> {
+
+        public ProxyMonitorCompressStatsCommand(SimpleObjectPool<NettyClient> clientPool, ScheduledExecutorService scheduled) {
+            super(clientPool, scheduled);
+        }
+
+        public ProxyMonitorCompressStatsCommand(SimpleObjectPool<NettyClient> clientPool, ScheduledExecutorService scheduled, int commandTimeoutMilli) {
+            super(clientPool, scheduled, commandTimeoutMilli);
+        }
+
+        @Override
+        protected TunnelCompressResult[] initArray(Object[] objects) {
+            return new TunnelCompressResult[objects.length];
+        }
+
+        @Override
+        protected TunnelCompressResult parseObject(Object object) {
+            return TunnelCompressResult.parse(object);
+        }
+
+        @Override
+        protected ProxyMonitorParser.Type getType() {
+            return ProxyMonitorParser.Type.CompressStats;
+        }
+
+    }
 }
@@ -0,0 +1,90 @@
+package com.ctrip.xpipe.redis.core.proxy.monitor;
+
+import com.ctrip.xpipe.exception.XpipeRuntimeException;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class SessionCompressResult implements Serializable {
+
+    // level picked by the encoder, empty for decoder
+    private String level;
+
+    private long rawBytes;
+
+    private long compressedBytes;
+
+    private long nanos;
+
+    public SessionCompressResult() {
+    }
+
+    public SessionCompressResult(String level, long rawBytes, long compressedBytes, long nanos) {
+        this.level = level == null ? "" : level;
+        this.rawBytes = rawBytes;
+        this.compressedBytes = compressedBytes;
+        this.nanos = nanos;
+    }
+
+    public Object[] toArray() {
+        Object[] objects = new Object[4];
+        objects[0] = level;
+        objects[1] = rawBytes;
+        objects[2] = compressedBytes;
+        objects[3] = nanos;
+        return objects;
+    }
+
+    public static SessionCompressResult parseFromArray(Object[] objects) {
+        if(objects.length < 4
+                || !(objects[0] instanceof String)
+                || !(objects[1] instanceof Long)
+                || !(objects[2] instanceof Long)
+                || !(objects[3] instanceof Long)) {
+            throw new XpipeRuntimeException("Illegal SessionCompressResult meta data, should be level, raw, compressed and nanos");
+        }
+        return new SessionCompressResult((String) objects[0], (long) objects[1], (long) objects[2], (long) objects[3]);
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getRatio() {
+        return compressedBytes == 0 ? 0 : (double) rawBytes / compressedBytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SessionCompressResult that = (SessionCompressResult) o;
+        return rawBytes == that.rawBytes &&
+                compressedBytes == that.compressedBytes &&
+                nanos == that.nanos &&
+                Objects.equals(level, that.level);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(level, rawBytes, compressedBytes, nanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("level: %s, raw: %d, compressed: %d, ratio: %.2f, nanos: %d",
+                level, rawBytes, compressedBytes, getRatio(), nanos);
+    }
+}
@@ -0,0 +1,107 @@
+package com.ctrip.xpipe.redis.core.proxy.monitor;
+
+import com.ctrip.xpipe.exception.XpipeRuntimeException;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * compress and decompress stats of both sessions of a tunnel, null if the session doesn't compress
+ */
+public class TunnelCompressResult implements Serializable {
+
+    private static final Object[] ABSENT = new Object[0];
+
+    private String tunnelId;
+
+    private SessionCompressResult frontendCompress;
+
+    private SessionCompressResult frontendDecompress;
+
+    private SessionCompressResult backendCompress;
+
+    private SessionCompressResult backendDecompress;
+
+    public TunnelCompressResult() {
+    }
+
+    public TunnelCompressResult(String tunnelId, SessionCompressResult frontendCompress, SessionCompressResult frontendDecompress,
+                                SessionCompressResult backendCompress, SessionCompressResult backendDecompress) {
+        this.tunnelId = tunnelId;
+        this.frontendCompress = frontendCompress;
+        this.frontendDecompress = frontendDecompress;
+        this.backendCompress = backendCompress;
+        this.backendDecompress = backendDecompress;
+    }
+
+    public Object format() {
+        Object[] result = new Object[5];
+        result[0] = tunnelId;
+        result[1] = toArray(frontendCompress);
+        result[2] = toArray(frontendDecompress);
+        result[3] = toArray(backendCompress);
+        result[4] = toArray(backendDecompress);
+        return result;
+    }
+
+    public static TunnelCompressResult parse(Object obj) {
+        if(!obj.getClass().isArray()) {
+            throw new XpipeRuntimeException("Illegal TunnelCompressResult meta data, should be an array");
+        }
+        Object[] metaData = (Object[]) obj;
+        if(metaData.length < 5 || !(metaData[0] instanceof String)) {
+            throw new XpipeRuntimeException("Illegal TunnelCompressResult meta data, first element should be string");
+        }
+        return new TunnelCompressResult((String) metaData[0], parseSession(metaData[1]), parseSession(metaData[2]),
+                parseSession(metaData[3]), parseSession(metaData[4]));
+    }
+
+    private static Object[] toArray(SessionCompressResult result) {
+        return result == null ? ABSENT : result.toArray();
+    }
+
+    private static SessionCompressResult parseSession(Object obj) {
+        if(!(obj instanceof Object[])) {
+            throw new XpipeRuntimeException("Illegal TunnelCompressResult meta data, session stats should be an array");
+        }
+        Object[] objects = (Object[]) obj;
+        return objects.length == 0 ? null : SessionCompressResult.parseFromArray(objects);
+    }
+
+    public String getTunnelId() {
+        return tunnelId;
+    }
+
+    public SessionCompressResult getFrontendCompress() {
+        return frontendCompress;
+    }
+
+    public SessionCompressResult getFrontendDecompress() {
+        return frontendDecompress;
+    }
+
+    public SessionCompressResult getBackendCompress() {
+        return backendCompress;
+    }
+
+    public SessionCompressResult getBackendDecompress() {
+        return backendDecompress;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TunnelCompressResult that = (TunnelCompressResult) o;
+        return Objects.equals(tunnelId, that.tunnelId) &&
+                Objects.equals(frontendCompress, that.frontendCompress) &&
+                Objects.equals(frontendDecompress, that.frontendDecompress) &&
+                Objects.equals(backendCompress, that.backendCompress) &&
+                Objects.equals(backendDecompress, that.backendDecompress);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tunnelId, frontendCompress, frontendDecompress, backendCompress, backendDecompress);
+    }
+}
@@ -3,7 +3,7 @@ package com.ctrip.xpipe.redis.core.proxy.parser.monitor;
 public interface ProxyMonitorParser {
 
     public enum Type {
-        TunnelStats, SocketStats, PingStats, TrafficStats;
+        TunnelStats, SocketStats, PingStats, TrafficStats, CompressStats;
 
         public static Type parse(String typeStr) {
             Type[] types = Type.values();
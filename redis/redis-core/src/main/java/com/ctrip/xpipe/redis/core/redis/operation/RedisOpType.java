@@ -2,6 +2,8 @@ package com.ctrip.xpipe.redis.core.redis.operation;
 
 import com.ctrip.xpipe.utils.StringUtil;
 
+import java.util.Arrays;
+
 /**
  * @author lishanglin
  * date 2022/2/17
@@ -137,11 +139,83 @@ public enum RedisOpType {
     public static RedisOpType lookup(String name) {
         if (StringUtil.isEmpty(name)) return UNKNOWN;
 
-        try {
-            return valueOf(name.replace('.', '_').toUpperCase());
-        } catch (IllegalArgumentException illegalArgumentException) {
-            return UNKNOWN;
+        int node = 0;
+        for (int i = 0; i < name.length() && node >= 0; i++) {
+            node = NameTrie.next(node, name.charAt(i));
+        }
+        return NameTrie.typeOf(node);
+    }
+
+    /**
+     * case-insensitive lookup on raw command name, '.' is treated as '_'
+     */
+    public static RedisOpType lookup(byte[] name) {
+        if (null == name || 0 == name.length) return UNKNOWN;
+
+        int node = 0;
+        for (int i = 0; i < name.length && node >= 0; i++) {
+            node = NameTrie.next(node, name[i]);
+        }
+        return NameTrie.typeOf(node);
+    }
+
+    /**
+     * trie on names of all RedisOpType, nodes flattened into int[] with one slot per letter and '_'
+     */
+    private static class NameTrie {
+
+        private static final int ALPHABET = 27;
+
+        private static int[] children = new int[ALPHABET * 128];
+
+        private static RedisOpType[] types = new RedisOpType[128];
+
+        private static int nodes = 1;
+
+        static {
+            for (RedisOpType type : values()) {
+                int node = 0;
+                for (char c : type.name().toCharArray()) {
+                    int slot = node * ALPHABET + slot(c);
+                    if (0 == children[slot]) {
+                        ensureCapacity(nodes + 1);
+                        children[slot] = nodes++;
+                    }
+                    node = children[slot];
+                }
+                types[node] = type;
+            }
+        }
+
+        private static void ensureCapacity(int nodeCount) {
+            if (types.length >= nodeCount) return;
+            types = Arrays.copyOf(types, types.length << 1);
+            children = Arrays.copyOf(children, types.length * ALPHABET);
+        }
+
+        private static int slot(int c) {
+            if (c >= 'a' && c <= 'z') return c - 'a';
+            if (c >= 'A' && c <= 'Z') return c - 'A';
+            if (c == '_' || c == '.') return ALPHABET - 1;
+            return -1;
         }
+
+        /**
+         * @return child node, or -1 if not found
+         */
+        static int next(int node, int c) {
+            int slot = slot(c);
+            if (slot < 0) return -1;
+            int child = children[node * ALPHABET + slot];
+            return 0 == child ? -1 : child;
+        }
+
+        static RedisOpType typeOf(int node) {
+            if (node <= 0) return UNKNOWN;
+            RedisOpType type = types[node];
+            return null == type ? UNKNOWN : type;
+        }
+
     }
 
 }
@@ -17,6 +17,9 @@ public abstract class AbstractRedisOpParser implements RedisOpParser {
     }
 
     protected byte[][] decodeArgsAsBytesArray(Object[] args) {
+        // already decoded by BulkStringArrayParser
+        if (args instanceof byte[][]) return (byte[][]) args;
+
         byte[][] bytesArray = new byte[args.length][];
         for (int i = 0; i < args.length; i++) {
             Object arg = args[i];
@@ -3,12 +3,11 @@ package com.ctrip.xpipe.redis.core.redis.operation.parser;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParserManager;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOpType;
-import com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * @author lishanglin
@@ -17,21 +16,25 @@ import java.util.Map;
 @Service
 public class DefaultRedisOpParserManager implements RedisOpParserManager {
 
-    private Map<RedisOpType, RedisOpParser> parserMap = Maps.newConcurrentMap();
+    // indexed by ordinal of RedisOpType, replaced on register
+    private volatile RedisOpParser[] parsers = new RedisOpParser[RedisOpType.values().length];
 
     private Logger logger = LoggerFactory.getLogger(DefaultRedisOpParserManager.class);
 
     @Override
     public synchronized void registerParser(RedisOpType opType, RedisOpParser parser) {
-        if (!parserMap.containsKey(opType) || parserMap.get(opType).getOrder() > parser.getOrder()) {
+        RedisOpParser registered = parsers[opType.ordinal()];
+        if (null == registered || registered.getOrder() > parser.getOrder()) {
             logger.info("[registerParser] {}", parser);
-            parserMap.put(opType, parser);
+            RedisOpParser[] newParsers = Arrays.copyOf(parsers, parsers.length);
+            newParsers[opType.ordinal()] = parser;
+            parsers = newParsers;
         }
     }
 
     @Override
     public RedisOpParser findParser(RedisOpType opType) {
-        return parserMap.get(opType);
+        return parsers[opType.ordinal()];
     }
 
 }
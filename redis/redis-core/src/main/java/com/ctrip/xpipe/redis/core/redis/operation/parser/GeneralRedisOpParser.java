@@ -5,7 +5,7 @@ import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParserManager;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOpType;
 
-import static com.ctrip.xpipe.redis.core.redis.operation.parser.RedisOpGtidParser.KEY_GTID;
+import static com.ctrip.xpipe.redis.core.redis.operation.parser.RedisOpGtidParser.KEY_GTID_BYTES;
 
 /**
  * @author lishanglin
@@ -25,23 +25,31 @@ public class GeneralRedisOpParser extends AbstractRedisOpParser implements Redis
     @Override
     public RedisOp parse(byte[][] args) {
         if (0 == args.length) throw new IllegalArgumentException("illegal empty args");
-        String cmd = bytes2Str(args[0]);
-        boolean attachGtid = KEY_GTID.equalsIgnoreCase(cmd);
+        boolean attachGtid = isGtidCmd(args[0]);
 
         if (attachGtid) {
             return gtidParser.parse(args);
         } else {
-            RedisOpType redisOpType = RedisOpType.lookup(cmd);
+            RedisOpType redisOpType = RedisOpType.lookup(args[0]);
             if (!redisOpType.checkArgcNotStrictly(args)) {
-                throw new IllegalArgumentException("wrong number of args for " + cmd);
+                throw new IllegalArgumentException("wrong number of args for " + bytes2Str(args[0]));
             }
 
             RedisOpParser parser = parserManager.findParser(redisOpType);
-            if (null == parser) throw new UnsupportedOperationException("no parser for " + cmd);
+            if (null == parser) throw new UnsupportedOperationException("no parser for " + bytes2Str(args[0]));
             return parser.parse(args);
         }
     }
 
+    private boolean isGtidCmd(byte[] cmd) {
+        if (cmd.length != KEY_GTID_BYTES.length) return false;
+        for (int i = 0; i < cmd.length; i++) {
+            // upper case ascii letter
+            if ((cmd[i] & 0xDF) != KEY_GTID_BYTES[i]) return false;
+        }
+        return true;
+    }
+
     @Override
     public int getOrder() {
         return 0;
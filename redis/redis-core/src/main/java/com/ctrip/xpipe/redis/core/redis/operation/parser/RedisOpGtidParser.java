@@ -14,6 +14,8 @@ public class RedisOpGtidParser extends AbstractRedisOpParser implements RedisOpP
 
     public static final String KEY_GTID = "GTID";
 
+    public static final byte[] KEY_GTID_BYTES = KEY_GTID.getBytes();
+
     private RedisOpParserManager parserManager;
 
     public RedisOpGtidParser(RedisOpParserManager redisOpParserManager) {
@@ -27,15 +29,14 @@ public class RedisOpGtidParser extends AbstractRedisOpParser implements RedisOpP
         String gtid = bytes2Str(args[1]);
         byte[][] gtidArgs = Arrays.copyOfRange(args, 0, 3);
 
-        String subCmd = bytes2Str(args[3]);
-        RedisOpType subOpType = RedisOpType.lookup(subCmd);
+        RedisOpType subOpType = RedisOpType.lookup(args[3]);
         byte[][] subArgs = Arrays.copyOfRange(args, 3, args.length);
         if (!subOpType.checkArgcNotStrictly(subArgs)) {
-            throw new IllegalArgumentException("wrong number of args for " + subCmd);
+            throw new IllegalArgumentException("wrong number of args for " + bytes2Str(args[3]));
         }
 
         RedisOpParser subParser = parserManager.findParser(subOpType);
-        if (null == subParser) throw new UnsupportedOperationException("no parser for " + subCmd);
+        if (null == subParser) throw new UnsupportedOperationException("no parser for " + bytes2Str(args[3]));
         RedisOp redisOp = subParser.parse(subArgs);
 
         if (redisOp instanceof RedisSingleKeyOp) return new RedisSingleKeyOpGtidWrapper(gtidArgs, gtid, (RedisSingleKeyOp)redisOp);
@@ -0,0 +1,189 @@
+package com.ctrip.xpipe.redis.core.redis.rdb;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Serializes keys into rdb of {@link RdbConstant#REDIS_RDB_VERSION}, with plain encodings only:
+ * strings are written raw, and list, set, hash, zset in their non-compact types, which redis converts when loading.
+ * Bytes are buffered and handed to the {@link Sink} in chunks, the crc64 of rdb is written on {@link #writeEof()}.
+ */
+public class RdbWriter {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final Sink sink;
+
+    private ByteBuf buf = Unpooled.buffer(CHUNK_SIZE);
+
+    private long crc = 0;
+
+    private long length = 0;
+
+    public RdbWriter(Sink sink) {
+        this.sink = sink;
+    }
+
+    public void writeHeader() throws IOException {
+        buf.writeBytes(RdbConstant.REDIS_RDB_MAGIC);
+        buf.writeBytes(String.format("%04d", RdbConstant.REDIS_RDB_VERSION).getBytes(StandardCharsets.US_ASCII));
+        flushIfNeed();
+    }
+
+    public void writeAux(String key, String value) throws IOException {
+        buf.writeByte(RdbConstant.REDIS_RDB_OP_CODE_AUX);
+        writeRawString(key.getBytes(StandardCharsets.UTF_8));
+        writeRawString(value.getBytes(StandardCharsets.UTF_8));
+        flushIfNeed();
+    }
+
+    public void writeSelectDb(int dbId) throws IOException {
+        buf.writeByte(RdbConstant.REDIS_RDB_OP_CODE_SELECTDB);
+        writeLength(dbId);
+        flushIfNeed();
+    }
+
+    /**
+     * @param expireAtMilli expire time of the key written next, ignored if not positive
+     */
+    public void writeExpireAt(long expireAtMilli) {
+        if (expireAtMilli <= 0) return;
+        buf.writeByte(RdbConstant.REDIS_RDB_OP_CODE_EXPIRETIME_MS);
+        buf.writeLongLE(expireAtMilli);
+    }
+
+    public void writeString(byte[] key, byte[] value) throws IOException {
+        buf.writeByte(RdbConstant.REDIS_RDB_TYPE_STRING);
+        writeRawString(key);
+        writeRawString(value);
+        flushIfNeed();
+    }
+
+    public void writeList(byte[] key, Collection<byte[]> elements) throws IOException {
+        writeElements(RdbConstant.REDIS_RDB_TYPE_LIST, key, elements);
+    }
+
+    public void writeSet(byte[] key, Collection<byte[]> members) throws IOException {
+        writeElements(RdbConstant.REDIS_RDB_TYPE_SET, key, members);
+    }
+
+    public void writeHash(byte[] key, Map<byte[], byte[]> fields) throws IOException {
+        buf.writeByte(RdbConstant.REDIS_RDB_TYPE_HASH);
+        writeRawString(key);
+        writeLength(fields.size());
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            writeRawString(field.getKey());
+            writeRawString(field.getValue());
+            flushIfNeed();
+        }
+    }
+
+    public void writeZSet(byte[] key, Map<byte[], Double> members) throws IOException {
+        buf.writeByte(RdbConstant.REDIS_RDB_TYPE_ZSET2);
+        writeRawString(key);
+        writeLength(members.size());
+        for (Map.Entry<byte[], Double> member : members.entrySet()) {
+            writeRawString(member.getKey());
+            buf.writeDoubleLE(member.getValue());
+            flushIfNeed();
+        }
+    }
+
+    public void writeEof() throws IOException {
+        buf.writeByte(RdbConstant.REDIS_RDB_OP_CODE_EOF);
+        crc = Crc64.update(crc, buf);
+        buf.writeLongLE(crc);
+        length += buf.readableBytes();
+        sink.write(buf);
+        buf = Unpooled.EMPTY_BUFFER;
+    }
+
+    /**
+     * @return bytes handed to sink
+     */
+    public long length() {
+        return length;
+    }
+
+    private void writeElements(short type, byte[] key, Collection<byte[]> elements) throws IOException {
+        buf.writeByte(type);
+        writeRawString(key);
+        writeLength(elements.size());
+        for (byte[] element : elements) {
+            writeRawString(element);
+            flushIfNeed();
+        }
+    }
+
+    private void writeRawString(byte[] str) {
+        writeLength(str.length);
+        buf.writeBytes(str);
+    }
+
+    private void writeLength(long len) {
+        if (len < (1 << 6)) {
+            buf.writeByte((int) len);
+        } else if (len < (1 << 14)) {
+            buf.writeByte((int) (RdbConstant.REDIS_RDB_LEN_14BITLEN << 6 | len >> 8));
+            buf.writeByte((int) (len & 0xFF));
+        } else if (len <= 0xFFFFFFFFL) {
+            buf.writeByte(RdbConstant.REDIS_RDB_LEN_32BITLEN);
+            buf.writeInt((int) len);
+        } else {
+            buf.writeByte(RdbConstant.REDIS_RDB_LEN_64BITLEN);
+            buf.writeLong(len);
+        }
+    }
+
+    private void flushIfNeed() throws IOException {
+        if (buf.readableBytes() < CHUNK_SIZE) return;
+
+        crc = Crc64.update(crc, buf);
+        length += buf.readableBytes();
+        sink.write(buf);
+        buf = Unpooled.buffer(CHUNK_SIZE);
+    }
+
+    public interface Sink {
+
+        /**
+         * @param byteBuf owned by the sink after called
+         */
+        void write(ByteBuf byteBuf) throws IOException;
+
+    }
+
+    /**
+     * crc-64-jones, reflected, as redis checksums rdb
+     */
+    static class Crc64 {
+
+        private static final long POLY = 0x95AC9329AC4BC9B5L;
+
+        private static final long[] TABLE = new long[256];
+
+        static {
+            for (int i = 0; i < 256; i++) {
+                long crc = i;
+                for (int j = 0; j < 8; j++) {
+                    crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLY : crc >>> 1;
+                }
+                TABLE[i] = crc;
+            }
+        }
+
+        static long update(long crc, ByteBuf byteBuf) {
+            for (int i = byteBuf.readerIndex(); i < byteBuf.writerIndex(); i++) {
+                crc = TABLE[(int) ((crc ^ byteBuf.getByte(i)) & 0xFF)] ^ (crc >>> 8);
+            }
+            return crc;
+        }
+
+    }
+
+}
@@ -0,0 +1,319 @@
+package com.ctrip.xpipe.redis.core.store;
+
+import com.ctrip.xpipe.api.utils.ControllableFile;
+import com.ctrip.xpipe.gtid.GtidSet;
+import com.ctrip.xpipe.utils.DefaultControllableFile;
+import com.ctrip.xpipe.utils.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Index file of one cmd file in binary, appended by index generator and loaded by memory mapping.
+ * <pre>
+ * file:    magic record*
+ * record:  int bodyLength, byte type, long fileOffset, varint sourceCount, source*
+ * source:  varint sourceRef(0 for a new source id followed by varint length and bytes, n for the (n-1)th id),
+ *          varint intervalCount, (zigzag start - previous end, varint end - start)*
+ * </pre>
+ * A FULL record carries the whole gtid set and resets source ids, a DELTA record carries only sources
+ * changed since the previous record. FULL records are written every {@link #CHECKPOINT_INTERVAL} records
+ * as absolute checkpoints, so a record is decoded from the checkpoint before it, and a malformed record
+ * costs only the records up to the next checkpoint. A record torn by crash at the file tail is ignored on load.
+ * Files written in the former text format are still readable and converted on the next append.
+ */
+public class BinaryGtidIndexFile implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryGtidIndexFile.class);
+
+    private static final byte[] MAGIC = new byte[] {'X', 'G', 'I', 'D', 'X', 0, 0, 1};
+
+    private static final byte TYPE_FULL = 0;
+
+    private static final byte TYPE_DELTA = 1;
+
+    static final int CHECKPOINT_INTERVAL = Integer.parseInt(System.getProperty("GTID_INDEX_CHECKPOINT_INTERVAL", "64"));
+
+    private final File file;
+
+    private ControllableFile controllableFile;
+
+    private GtidSet lastWritten;
+
+    private Map<String, Integer> sourceRefs = new HashMap<>();
+
+    private int recordsSinceFull = 0;
+
+    public BinaryGtidIndexFile(File file) {
+        this.file = file;
+    }
+
+    public void append(CommandFileOffsetGtidIndex index) throws IOException {
+        FileChannel channel = openForAppend();
+
+        byte[] body = encodeRecord(index.getExcludedGtidSet(), index.getFileOffset());
+        ByteBuffer buffer = ByteBuffer.allocate(4 + body.length);
+        buffer.putInt(body.length).put(body).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private FileChannel openForAppend() throws IOException {
+        if (null == controllableFile) {
+            if (file.length() > 0 && !isBinary(file)) {
+                convertFromText();
+            }
+            controllableFile = new DefaultControllableFile(file);
+            lastWritten = null;
+            FileChannel channel = controllableFile.getFileChannel();
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.wrap(MAGIC));
+            } else {
+                truncateTornTail(channel);
+            }
+        }
+        return controllableFile.getFileChannel();
+    }
+
+    private void truncateTornTail(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long validLength = MAGIC.length;
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+        while (validLength + 4 <= size) {
+            lengthBuffer.clear();
+            channel.read(lengthBuffer, validLength);
+            int bodyLength = lengthBuffer.getInt(0);
+            if (bodyLength <= 0 || validLength + 4 + bodyLength > size) break;
+            validLength += 4 + bodyLength;
+        }
+
+        if (validLength < size) {
+            logger.info("[truncateTornTail][{}] {} -> {}", file, size, validLength);
+            channel.truncate(validLength);
+            channel.position(validLength);
+        }
+    }
+
+    private void convertFromText() throws IOException {
+        List<CommandFileOffsetGtidIndex> indexes = new LinkedList<>();
+        FileUtils.readFileAsStringLineByLine(file, idxStr -> {
+            CommandFileOffsetGtidIndex idx = CommandFileOffsetGtidIndex.createFromRawString(idxStr, null);
+            if (null != idx) indexes.add(idx);
+        });
+        logger.info("[convertFromText][{}] {} indexes", file, indexes.size());
+
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        // left by a conversion crashed before, records would be appended after its own
+        Files.deleteIfExists(tmp.toPath());
+        try (BinaryGtidIndexFile tmpIndexFile = new BinaryGtidIndexFile(tmp)) {
+            for (CommandFileOffsetGtidIndex idx : indexes) {
+                tmpIndexFile.append(idx);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private byte[] encodeRecord(GtidSet gtidSet, long fileOffset) throws IOException {
+        boolean full = null == lastWritten || recordsSinceFull >= CHECKPOINT_INTERVAL - 1
+                || !lastWritten.getUUIDs().stream().allMatch(gtidSet.getUUIDs()::contains);
+        if (full) {
+            sourceRefs.clear();
+            recordsSinceFull = 0;
+        } else {
+            recordsSinceFull++;
+        }
+
+        List<GtidSet.UUIDSet> sources = new ArrayList<>();
+        for (GtidSet.UUIDSet uuidSet : gtidSet.getUUIDSets()) {
+            if (full || !uuidSet.equals(lastWritten.getUUIDSet(uuidSet.getUUID()))) {
+                sources.add(uuidSet);
+            }
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeByte(full ? TYPE_FULL : TYPE_DELTA);
+        out.writeLong(fileOffset);
+        writeVarLong(out, sources.size());
+        for (GtidSet.UUIDSet uuidSet : sources) {
+            Integer ref = sourceRefs.get(uuidSet.getUUID());
+            if (null == ref) {
+                byte[] sourceId = uuidSet.getUUID().getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, 0);
+                writeVarLong(out, sourceId.length);
+                out.write(sourceId);
+                sourceRefs.put(uuidSet.getUUID(), sourceRefs.size());
+            } else {
+                writeVarLong(out, ref + 1);
+            }
+
+            List<GtidSet.Interval> intervals = uuidSet.getIntervals();
+            writeVarLong(out, intervals.size());
+            long previousEnd = 0;
+            for (GtidSet.Interval interval : intervals) {
+                writeVarLong(out, zigzag(interval.getStart() - previousEnd));
+                writeVarLong(out, interval.getEnd() - interval.getStart());
+                previousEnd = interval.getEnd();
+            }
+        }
+        out.flush();
+
+        lastWritten = gtidSet;
+        return baos.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (null != controllableFile) {
+            controllableFile.close();
+            controllableFile = null;
+        }
+    }
+
+    public static boolean isBinary(File file) throws IOException {
+        if (file.length() < MAGIC.length) return false;
+
+        byte[] head = new byte[MAGIC.length];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(head);
+        }
+        return Arrays.equals(MAGIC, head);
+    }
+
+    /**
+     * @return indexes in file order
+     */
+    public static List<CommandFileOffsetGtidIndex> load(File idxFile, CommandFile cmdFile) throws IOException {
+        if (!isBinary(idxFile)) {
+            List<CommandFileOffsetGtidIndex> indexes = new ArrayList<>();
+            FileUtils.readFileAsStringLineByLine(idxFile, idxStr -> {
+                CommandFileOffsetGtidIndex idx = CommandFileOffsetGtidIndex.createFromRawString(idxStr, cmdFile);
+                if (null != idx) indexes.add(idx);
+            });
+            return indexes;
+        }
+
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(idxFile, "r")) {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+        buffer.position(MAGIC.length);
+
+        List<CommandFileOffsetGtidIndex> indexes = new ArrayList<>();
+        List<String> sourceIds = new ArrayList<>();
+        Map<String, GtidSet.UUIDSet> current = new LinkedHashMap<>();
+        boolean waitCheckpoint = false;
+        while (buffer.remaining() >= 4) {
+            int bodyLength = buffer.getInt();
+            if (bodyLength <= 0 || bodyLength > buffer.remaining()) {
+                logger.info("[load][{}] torn record at {}, ignore", idxFile, buffer.position() - 4);
+                break;
+            }
+            int recordEnd = buffer.position() + bodyLength;
+            if (waitCheckpoint && TYPE_FULL != buffer.get(buffer.position())) {
+                buffer.position(recordEnd);
+                continue;
+            }
+            waitCheckpoint = false;
+            try {
+                indexes.add(decodeRecord(buffer, sourceIds, current, cmdFile));
+            } catch (RuntimeException e) {
+                // records after are deltas of a broken state till the next checkpoint
+                logger.warn("[load][{}] malformed record at {}, ignore till next checkpoint", idxFile, recordEnd - bodyLength - 4, e);
+                waitCheckpoint = true;
+            }
+            buffer.position(recordEnd);
+        }
+
+        return indexes;
+    }
+
+    private static CommandFileOffsetGtidIndex decodeRecord(ByteBuffer buffer, List<String> sourceIds,
+                                                           Map<String, GtidSet.UUIDSet> current, CommandFile cmdFile) {
+        byte type = buffer.get();
+        long fileOffset = buffer.getLong();
+        if (TYPE_FULL == type) {
+            sourceIds.clear();
+            current.clear();
+        }
+        long sourceCount = readVarLong(buffer);
+        for (long i = 0; i < sourceCount; i++) {
+            int ref = (int) readVarLong(buffer);
+            String sourceId;
+            if (0 == ref) {
+                byte[] bytes = new byte[(int) readVarLong(buffer)];
+                buffer.get(bytes);
+                sourceId = new String(bytes, StandardCharsets.UTF_8);
+                sourceIds.add(sourceId);
+            } else {
+                sourceId = sourceIds.get(ref - 1);
+            }
+
+            int intervalCount = (int) readVarLong(buffer);
+            List<GtidSet.Interval> intervals = new ArrayList<>(intervalCount);
+            long previousEnd = 0;
+            for (int j = 0; j < intervalCount; j++) {
+                long start = previousEnd + unzigzag(readVarLong(buffer));
+                long end = start + readVarLong(buffer);
+                intervals.add(new GtidSet.Interval(start, end));
+                previousEnd = end;
+            }
+            current.put(sourceId, new GtidSet.UUIDSet(sourceId, intervals));
+        }
+
+        return new CommandFileOffsetGtidIndex(copyOf(current), cmdFile, fileOffset);
+    }
+
+    // every index owns its gtid set, for GtidSet is mutable
+    private static GtidSet copyOf(Map<String, GtidSet.UUIDSet> uuidSets) {
+        Map<String, GtidSet.UUIDSet> copy = new LinkedHashMap<>();
+        for (GtidSet.UUIDSet uuidSet : uuidSets.values()) {
+            List<GtidSet.Interval> intervals = new ArrayList<>(uuidSet.getIntervals().size());
+            for (GtidSet.Interval interval : uuidSet.getIntervals()) {
+                intervals.add(new GtidSet.Interval(interval.getStart(), interval.getEnd()));
+            }
+            copy.put(uuidSet.getUUID(), new GtidSet.UUIDSet(uuidSet.getUUID(), intervals));
+        }
+        return new GtidSet(copy);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryGtidIndexFile:" + file;
+    }
+}
@@ -8,6 +8,16 @@ public interface CommandReader<R> {
 
 	R read(long milliSeconds) throws IOException;
 
+	/**
+	 * never block, return null if no command available or reading is throttled
+	 */
+	R tryRead() throws IOException;
+
+	/**
+	 * too many commands read but not flushed yet
+	 */
+	boolean isThrottled();
+
 	CommandFile getCurCmdFile();
 
 	long position() throws IOException;
@@ -18,7 +18,11 @@ public interface CommandReaderWriterFactory {
     CommandReader<ReferenceFileRegion> createCmdReader(OffsetReplicationProgress replProgress, CommandStore cmdStore,
                                                        OffsetNotifier offsetNotifier, long commandReaderFlyingThreshold) throws IOException;
 
-    CommandReader<RedisOp> createCmdReader(GtidSetReplicationProgress replProgress, CommandStore cmdStore,
-                                           OffsetNotifier offsetNotifier, long commandReaderFlyingThreshold) throws IOException;
+    /**
+     * reader for gtid slave reads {@link RedisOp}, or also {@link ReferenceFileRegion} if rawCommandsSupported
+     */
+    CommandReader<?> createCmdReader(GtidSetReplicationProgress replProgress, CommandStore cmdStore,
+                                     OffsetNotifier offsetNotifier, long commandReaderFlyingThreshold,
+                                     boolean rawCommandsSupported) throws IOException;
 
 }
@@ -13,6 +13,13 @@ public interface CommandStore extends Initializable, Closeable, Destroyable {
 
 	int appendCommands(ByteBuf byteBuf) throws IOException;
 
+	/**
+	 * @return false if commands written behind are piling up, caller should stop reading until onDrained runs
+	 */
+	default boolean checkCommandsBacklog(Runnable onDrained) {
+		return true;
+	}
+
 	boolean awaitCommandsOffset(long offset, int timeMilli) throws InterruptedException;
 	
 	long totalLength();
@@ -27,6 +34,12 @@ public interface CommandStore extends Initializable, Closeable, Destroyable {
 
 	void addCommandsListener(ReplicationProgress<?> replicationProgress, CommandsListener commandsListener) throws IOException;
 
+	/**
+	 * Unlike addCommandsListener, return immediately.
+	 * Commands are sent on the event loop of listener when appended and listener is writable
+	 */
+	CommandsPusher addPushCommandsListener(ReplicationProgress<?> replicationProgress, PushCommandsListener commandsListener) throws IOException;
+
 	boolean retainCommands(CommandsGuarantee commandsGuarantee);
 
 	long getCommandsLastUpdatedAt();
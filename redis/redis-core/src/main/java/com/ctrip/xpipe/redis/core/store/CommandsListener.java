@@ -16,5 +16,10 @@ public interface CommandsListener {
 	
 	void beforeCommand();
 
+	// whether gtid commands may be sent as ReferenceFileRegion of commands never parsed, other than RedisOp
+	default boolean supportRawCommands() {
+		return false;
+	}
+
 	Long processedOffset();
 }
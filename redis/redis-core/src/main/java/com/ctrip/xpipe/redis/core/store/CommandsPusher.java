@@ -0,0 +1,18 @@
+package com.ctrip.xpipe.redis.core.store;
+
+/**
+ * Handle of a PushCommandsListener registered to CommandStore
+ */
+public interface CommandsPusher {
+
+	/**
+	 * schedule a push round on event loop of listener,
+	 * called when new commands appended, listener become writable or flying commands flushed
+	 */
+	void wakeup();
+
+	boolean isClosed();
+
+	void close();
+
+}
@@ -76,4 +76,9 @@ public interface MetaStore {
 	boolean isFresh();
 
 	void releaseRdbFile(String rdbFile) throws IOException ;
+
+	/**
+	 * wait until all updates before are persisted
+	 */
+	void flush() throws IOException;
 }
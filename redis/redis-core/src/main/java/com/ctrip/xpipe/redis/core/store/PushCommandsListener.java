@@ -0,0 +1,15 @@
+package com.ctrip.xpipe.redis.core.store;
+
+import io.netty.channel.EventLoop;
+
+/**
+ * CommandsListener whose commands are pushed from its own event loop,
+ * driven by commands appending and channel writability instead of a blocking reading thread
+ */
+public interface PushCommandsListener extends CommandsListener {
+
+	EventLoop eventLoop();
+
+	boolean isWritable();
+
+}
@@ -34,6 +34,13 @@ public interface ReplicationStore extends Closeable, Destroyable {
 	// command related
 	int appendCommands(ByteBuf byteBuf) throws IOException;
 
+	/**
+	 * @return false if commands written behind are piling up, caller should stop reading until onDrained runs
+	 */
+	default boolean checkCommandsBacklog(Runnable onDrained) {
+		return true;
+	}
+
 	boolean awaitCommandsOffset(long offset, int timeMilli) throws InterruptedException;
 
 	// full sync
@@ -45,6 +52,8 @@ public interface ReplicationStore extends Closeable, Destroyable {
 	FULLSYNC_FAIL_CAUSE createIndexIfPossible(ExecutorService indexingExecutors);
 
 	void addCommandsListener(ReplicationProgress<?> progress, CommandsListener commandsListener) throws IOException;
+
+	CommandsPusher addPushCommandsListener(ReplicationProgress<?> progress, PushCommandsListener commandsListener) throws IOException;
 	// meta related
 	MetaStore getMetaStore();
 
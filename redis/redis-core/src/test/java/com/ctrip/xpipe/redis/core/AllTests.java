@@ -18,6 +18,7 @@ import com.ctrip.xpipe.redis.core.proxy.command.ProxyMonitorCommandTest;
 import com.ctrip.xpipe.redis.core.proxy.command.ProxyPingCommandTest;
 import com.ctrip.xpipe.redis.core.proxy.endpoint.DefaultProxyEndpointHealthCheckerTest;
 import com.ctrip.xpipe.redis.core.proxy.monitor.SessionTrafficResultTest;
+import com.ctrip.xpipe.redis.core.proxy.monitor.TunnelCompressResultTest;
 import com.ctrip.xpipe.redis.core.proxy.monitor.TunnelTrafficResultTest;
 import com.ctrip.xpipe.redis.core.proxy.parser.DefaultProxyConnectProtocolParserTest;
 import com.ctrip.xpipe.redis.core.proxy.parser.TestForAbstractProxyProtocolParser;
@@ -31,6 +32,7 @@ import com.ctrip.xpipe.redis.core.redis.parser.GeneralRedisOpParserTest;
 import com.ctrip.xpipe.redis.core.redis.parser.RedisReplStreamParseTest;
 import com.ctrip.xpipe.redis.core.redis.rdb.AllRdbTests;
 import com.ctrip.xpipe.redis.core.route.impl.Crc32HashRouteChooseStrategyTest;
+import com.ctrip.xpipe.redis.core.store.BinaryGtidIndexFileTest;
 import com.ctrip.xpipe.redis.core.store.ReplicationStoreMetaTest;
 import com.ctrip.xpipe.redis.core.util.SentinelUtilTest;
 import org.junit.runner.RunWith;
@@ -48,6 +50,7 @@ import org.junit.runners.Suite.SuiteClasses;
         ReadWriteSafeTest.class,
         DefaultRunIdGeneratorTest.class,
         ArrayParserTest.class,
+        BulkStringArrayParserTest.class,
         BulkStringParserTest.class,
         Crc32HashRouteChooseStrategyTest.class,
         ArrayParserTest.class,
@@ -57,6 +60,7 @@ import org.junit.runners.Suite.SuiteClasses;
         ClusterShardCounterTest.class,
         DefaultXpipeMetaManagerTest.class,
         ReplicationStoreMetaTest.class,
+        BinaryGtidIndexFileTest.class,
         DcMetaComparatorTest.class,
         ClusterMetaComparatorTest.class,
         KeeperContainerMetaComparatorTest.class,
@@ -87,6 +91,7 @@ import org.junit.runners.Suite.SuiteClasses;
         TestForAbstractProxyProtocolParser.class,
         SessionTrafficResultTest.class,
         TunnelTrafficResultTest.class,
+        TunnelCompressResultTest.class,
         DcRouteMetaComparatorTest.class,
         SentinelUtilTest.class,
         CrdtPublishCommandTest.class,
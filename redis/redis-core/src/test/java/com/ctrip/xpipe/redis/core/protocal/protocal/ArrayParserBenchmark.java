@@ -0,0 +1,89 @@
+package com.ctrip.xpipe.redis.core.protocal.protocal;
+
+import com.ctrip.xpipe.redis.core.protocal.RedisClientProtocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare {@link BulkStringArrayParser} with {@link ArrayParser} on parsing replication stream,
+ * run by main() or with jmh runner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayParserBenchmark {
+
+    private static final int COMMANDS = 1024;
+
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    private ByteBuf stream;
+
+    private ArrayParser arrayParser = new ArrayParser();
+
+    private BulkStringArrayParser bulkStringArrayParser = new BulkStringArrayParser();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        char[] value = new char[valueSize];
+        Arrays.fill(value, 'v');
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < COMMANDS; i++) {
+            String gtid = "a1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2:" + i;
+            String key = "key" + i;
+            sb.append("*5\r\n$4\r\nGTID\r\n");
+            sb.append('$').append(gtid.length()).append("\r\n").append(gtid).append("\r\n");
+            sb.append("$3\r\nSET\r\n");
+            sb.append('$').append(key.length()).append("\r\n").append(key).append("\r\n");
+            sb.append('$').append(valueSize).append("\r\n").append(value).append("\r\n");
+        }
+        stream = Unpooled.directBuffer(sb.length());
+        stream.writeBytes(sb.toString().getBytes());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stream.release();
+    }
+
+    @Benchmark
+    public void arrayParser(Blackhole blackhole) {
+        parseAll(arrayParser, blackhole);
+    }
+
+    @Benchmark
+    public void bulkStringArrayParser(Blackhole blackhole) {
+        parseAll(bulkStringArrayParser, blackhole);
+    }
+
+    private void parseAll(RedisClientProtocol<Object[]> parser, Blackhole blackhole) {
+        stream.readerIndex(0);
+        while (stream.isReadable()) {
+            RedisClientProtocol<Object[]> result = parser.read(stream);
+            blackhole.consume(result.getPayload());
+            parser.reset();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ArrayParserBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.ctrip.xpipe.redis.core.protocal.protocal;
+
+import com.ctrip.xpipe.netty.ByteBufUtils;
+import com.ctrip.xpipe.redis.core.exception.RedisRuntimeException;
+import com.ctrip.xpipe.redis.core.protocal.RedisClientProtocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BulkStringArrayParserTest extends AbstractRedisProtocolTest {
+
+    private BulkStringArrayParser parser = new BulkStringArrayParser();
+
+    @Test
+    public void testParse() {
+        String str = randomString(100);
+        String[] data = new String[]{
+                "*3\r\n",
+                "$3\r\nSET\r\n",
+                "$" + str.length() + "\r\n" + str + "\r\n",
+                "$0\r\n\r\n"
+        };
+
+        RedisClientProtocol<?> result = parse(parser, data);
+
+        Assert.assertSame(parser, result);
+        byte[][] args = (byte[][]) parser.getPayload();
+        Assert.assertEquals(3, args.length);
+        Assert.assertArrayEquals("SET".getBytes(), args[0]);
+        Assert.assertArrayEquals(str.getBytes(), args[1]);
+        Assert.assertArrayEquals(new byte[0], args[2]);
+    }
+
+    @Test
+    public void testParseSplitAtEveryByte() {
+        byte[] cmd = "\r\n*3\r\n$6\r\nGTID\r\n\r\n$-1\r\n$12\r\nhello\r\nworld\r\n".getBytes();
+        ByteBuf byteBuf = Unpooled.buffer();
+
+        for (int i = 0; i < cmd.length; i++) {
+            byteBuf.writeByte(cmd[i]);
+            RedisClientProtocol<Object[]> result = parser.read(byteBuf);
+            if (i < cmd.length - 1) Assert.assertNull(result);
+            else Assert.assertNotNull(result);
+            Assert.assertEquals(0, byteBuf.readableBytes());
+        }
+
+        byte[][] args = (byte[][]) parser.getPayload();
+        Assert.assertArrayEquals("GTID\r\n".getBytes(), args[0]);
+        Assert.assertNull(args[1]);
+        Assert.assertArrayEquals("hello\r\nworld".getBytes(), args[2]);
+    }
+
+    @Test
+    public void testParseContinuousCommands() {
+        ByteBuf byteBuf = Unpooled.wrappedBuffer("*1\r\n$4\r\nPING\r\n*2\r\n$3\r\nGET\r\n$1\r\nk\r\n*0\r\n*-1\r\n".getBytes());
+
+        Assert.assertNotNull(parser.read(byteBuf));
+        Assert.assertArrayEquals("PING".getBytes(), (byte[]) parser.getPayload()[0]);
+        parser.reset();
+
+        Assert.assertNotNull(parser.read(byteBuf));
+        Assert.assertArrayEquals("k".getBytes(), (byte[]) parser.getPayload()[1]);
+        parser.reset();
+
+        Assert.assertNotNull(parser.read(byteBuf));
+        Assert.assertEquals(0, parser.getPayload().length);
+        parser.reset();
+
+        Assert.assertNotNull(parser.read(byteBuf));
+        Assert.assertNull(parser.getPayload());
+        Assert.assertEquals(0, byteBuf.readableBytes());
+    }
+
+    @Test
+    public void testSameAsArrayParser() {
+        String[] data = new String[]{"*3\r\n$3\r\nSET\r\n$", "3\r\nkey\r\n$5\r", "\nvalue\r\n"};
+
+        Object[] expected = ((ArrayParser) parse(new ArrayParser(), data)).getPayload();
+        Object[] actual = parse(parser, data).getPayload();
+
+        Assert.assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals(expected[i].toString(), new String((byte[]) actual[i]));
+        }
+    }
+
+    @Test(expected = RedisRuntimeException.class)
+    public void testNotBulkString() {
+        parser.read(Unpooled.wrappedBuffer("*1\r\n:1\r\n".getBytes()));
+    }
+
+    @Test(expected = RedisRuntimeException.class)
+    public void testNegativeBulkLength() {
+        parser.read(Unpooled.wrappedBuffer("*1\r\n$-2\r\n".getBytes()));
+    }
+
+    @Test(expected = RedisRuntimeException.class)
+    public void testNegativeArraySize() {
+        parser.read(Unpooled.wrappedBuffer("*-3\r\n".getBytes()));
+    }
+
+    @Test(expected = RedisRuntimeException.class)
+    public void testBulkLengthOverflow() {
+        parser.read(Unpooled.wrappedBuffer("*1\r\n$4294967297\r\n".getBytes()));
+    }
+
+    @Test(expected = RedisRuntimeException.class)
+    public void testArraySizeOverflow() {
+        parser.read(Unpooled.wrappedBuffer("*99999999999999999999\r\n".getBytes()));
+    }
+
+    @Test(expected = RedisRuntimeException.class)
+    public void testNumberWithoutDigits() {
+        parser.read(Unpooled.wrappedBuffer("*1\r\n$-\r\n".getBytes()));
+    }
+
+    @Test
+    public void testFormat() {
+        BulkStringArrayParser formatter = new BulkStringArrayParser(new byte[][]{"SET".getBytes(), "k".getBytes(), null});
+        String str = ByteBufUtils.readToString(formatter.format());
+        Assert.assertEquals("*3\r\n$3\r\nSET\r\n$1\r\nk\r\n$-1\r\n", str);
+
+        Assert.assertNotNull(parser.read(Unpooled.wrappedBuffer(str.getBytes())));
+        Assert.assertArrayEquals(formatter.getPayload(), parser.getPayload());
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.ctrip.xpipe.redis.core.proxy.monitor;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TunnelCompressResultTest {
+
+    private TunnelCompressResult result;
+
+    private String tunnelId;
+
+    private SessionCompressResult frontendDecompress;
+
+    private SessionCompressResult backendCompress;
+
+    @Before
+    public void beforeTunnelCompressResultTest() {
+        tunnelId = "TCP://127.0.0.1:8080-PROXYTCP:127.0.0.1:8080";
+        frontendDecompress = new SessionCompressResult(null, 4000, 1000, 200);
+        backendCompress = new SessionCompressResult("FAST", 8000, 2000, 300);
+        result = new TunnelCompressResult(tunnelId, null, frontendDecompress, backendCompress, null);
+    }
+
+    @Test
+    public void format() {
+        Object objects = result.format();
+        Assert.assertTrue(objects instanceof Object[]);
+        Object[] data = (Object[]) objects;
+        Assert.assertEquals(5, data.length);
+        Assert.assertEquals(tunnelId, data[0]);
+        Assert.assertEquals(0, ((Object[]) data[1]).length);
+        Assert.assertEquals(frontendDecompress, SessionCompressResult.parseFromArray((Object[]) data[2]));
+        Assert.assertEquals(backendCompress, SessionCompressResult.parseFromArray((Object[]) data[3]));
+        Assert.assertEquals(0, ((Object[]) data[4]).length);
+    }
+
+    @Test
+    public void parse() {
+        TunnelCompressResult other = TunnelCompressResult.parse(result.format());
+        Assert.assertEquals(result, other);
+        Assert.assertNull(other.getFrontendCompress());
+        Assert.assertEquals("", other.getFrontendDecompress().getLevel());
+        Assert.assertEquals("FAST", other.getBackendCompress().getLevel());
+        Assert.assertEquals(4.0, other.getBackendCompress().getRatio(), 0.001);
+        Assert.assertNull(other.getBackendDecompress());
+    }
+}
@@ -163,6 +163,31 @@ public class GeneralRedisOpParserTest extends AbstractRedisOpParserTest {
         Assert.assertTrue(redisOp.getOpType().isSwallow());
     }
 
+    @Test
+    public void testLookup() {
+        for (RedisOpType redisOpType : RedisOpType.values()) {
+            String name = redisOpType.name();
+            Assert.assertEquals(redisOpType, RedisOpType.lookup(name));
+            Assert.assertEquals(redisOpType, RedisOpType.lookup(name.toLowerCase().replace('_', '.')));
+            Assert.assertEquals(redisOpType, RedisOpType.lookup(name.toLowerCase().getBytes()));
+            Assert.assertEquals(redisOpType, RedisOpType.lookup(name.replace('_', '.').getBytes()));
+        }
+
+        Assert.assertEquals(RedisOpType.UNKNOWN, RedisOpType.lookup("SE"));
+        Assert.assertEquals(RedisOpType.UNKNOWN, RedisOpType.lookup("SETT".getBytes()));
+        Assert.assertEquals(RedisOpType.UNKNOWN, RedisOpType.lookup("SET1".getBytes()));
+        Assert.assertEquals(RedisOpType.UNKNOWN, RedisOpType.lookup(new byte[0]));
+        Assert.assertEquals(RedisOpType.UNKNOWN, RedisOpType.lookup((byte[]) null));
+        Assert.assertEquals(RedisOpType.UNKNOWN, RedisOpType.lookup((String) null));
+    }
+
+    @Test
+    public void testGtidCmdCaseInsensitive() {
+        RedisOp redisOp = parser.parse(Arrays.asList("gTiD", "a1:1", "0", "set", "k", "v").toArray());
+        Assert.assertEquals(RedisOpType.SET, redisOp.getOpType());
+        Assert.assertEquals("a1:1", redisOp.getOpGtid());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testParamShorterParse() {
         parser.parse(Arrays.asList("SET").toArray());
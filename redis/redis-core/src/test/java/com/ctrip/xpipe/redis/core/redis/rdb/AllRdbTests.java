@@ -20,6 +20,7 @@ import org.junit.runners.Suite;
         AuxOnlyRdbParserTest.class,
         RdbAuxParserTest.class,
         RdbStringParserTest.class,
+        RdbWriterTest.class,
 
         ZiplistTest.class,
         IntsetTest.class,
@@ -0,0 +1,83 @@
+package com.ctrip.xpipe.redis.core.redis.rdb;
+
+import com.ctrip.xpipe.AbstractTest;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.redis.rdb.parser.DefaultRdbParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class RdbWriterTest extends AbstractTest implements RdbParseListener {
+
+    private ByteBuf rdb = Unpooled.buffer();
+
+    private RdbWriter writer = new RdbWriter(byteBuf -> {
+        rdb.writeBytes(byteBuf);
+        byteBuf.release();
+    });
+
+    private List<String> redisOps = new ArrayList<>();
+
+    private Map<String, String> aux = new HashMap<>();
+
+    @Test
+    public void testCrc64() {
+        Assert.assertEquals(0xe9c6d914c4b8d9caL, RdbWriter.Crc64.update(0, Unpooled.wrappedBuffer("123456789".getBytes())));
+    }
+
+    @Test
+    public void testWriteAndParse() throws Exception {
+        String longValue = randomString(20000);
+        Map<byte[], byte[]> hash = new LinkedHashMap<>();
+        hash.put("f1".getBytes(), "v1".getBytes());
+        Map<byte[], Double> zset = new LinkedHashMap<>();
+        zset.put("m1".getBytes(), 1.5);
+
+        writer.writeHeader();
+        writer.writeAux("repl-stream-db", "1");
+        writer.writeSelectDb(0);
+        writer.writeExpireAt(1655461780643L);
+        writer.writeString("k1".getBytes(), "v1".getBytes());
+        writer.writeString("k2".getBytes(), longValue.getBytes());
+        writer.writeList("l".getBytes(), Arrays.asList("a".getBytes(), "b".getBytes()));
+        writer.writeSelectDb(100);
+        writer.writeSet("s".getBytes(), Collections.singletonList("m".getBytes()));
+        writer.writeHash("h".getBytes(), hash);
+        writer.writeZSet("z".getBytes(), zset);
+        writer.writeEof();
+
+        Assert.assertEquals(rdb.readableBytes(), writer.length());
+        ByteBuf content = rdb.slice(0, rdb.readableBytes() - 8);
+        Assert.assertEquals(RdbWriter.Crc64.update(0, content), rdb.getLongLE(rdb.readableBytes() - 8));
+
+        DefaultRdbParser parser = new DefaultRdbParser();
+        parser.registerListener(this);
+        parser.read(rdb);
+        Assert.assertTrue(parser.isFinish());
+        Assert.assertEquals("1", aux.get("repl-stream-db"));
+        Assert.assertEquals(Arrays.asList("SELECT 0", "SET k1 v1", "PEXPIREAT k1 1655461780643", "SET k2 " + longValue,
+                "RPUSH l a", "RPUSH l b", "SELECT 100", "SADD s m", "HSET h f1 v1", "ZADD z 1.5 m1"), redisOps);
+    }
+
+    @Override
+    public void onRedisOp(RedisOp redisOp) {
+        redisOps.add(redisOp.toString());
+    }
+
+    @Override
+    public void onAux(String key, String value) {
+        aux.put(key, value);
+    }
+
+    @Override
+    public void onFinish(RdbParser<?> parser) {
+    }
+
+    @Override
+    public void onAuxFinish(Map<String, String> auxMap) {
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.ctrip.xpipe.redis.core.store;
+
+import com.ctrip.xpipe.gtid.GtidSet;
+import com.ctrip.xpipe.redis.core.AbstractRedisTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ctrip.xpipe.utils.OsUtils.LINE_SEPARATOR;
+
+public class BinaryGtidIndexFileTest extends AbstractRedisTest {
+
+    private static final String SRC_A = "a1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2";
+
+    private static final String SRC_B = "b1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2";
+
+    private File idxFile;
+
+    private CommandFile cmdFile;
+
+    @Before
+    public void beforeBinaryGtidIndexFileTest() {
+        idxFile = new File(getTestFileDir(), "idx_cmd_0");
+        cmdFile = new CommandFile(new File(getTestFileDir(), "cmd_0"), 0);
+    }
+
+    @Test
+    public void testAppendAndLoad() throws IOException {
+        List<CommandFileOffsetGtidIndex> expected = new ArrayList<>();
+        expected.add(index(SRC_A + ":1-100", 0));
+        expected.add(index(SRC_A + ":1-200," + SRC_B + ":5-10:12", 1024));
+        expected.add(index(SRC_A + ":1-200," + SRC_B + ":5-20", 2048));
+        expected.add(index(SRC_A + ":1-300:305," + SRC_B + ":5-20", 4096));
+
+        try (BinaryGtidIndexFile indexFile = new BinaryGtidIndexFile(idxFile)) {
+            for (CommandFileOffsetGtidIndex index : expected) {
+                indexFile.append(index);
+            }
+        }
+
+        Assert.assertTrue(BinaryGtidIndexFile.isBinary(idxFile));
+        Assert.assertEquals(expected, BinaryGtidIndexFile.load(idxFile, cmdFile));
+    }
+
+    @Test
+    public void testReopenAppend() throws IOException {
+        try (BinaryGtidIndexFile indexFile = new BinaryGtidIndexFile(idxFile)) {
+            indexFile.append(index(SRC_A + ":1-100", 0));
+            indexFile.append(index(SRC_A + ":1-200," + SRC_B + ":1-10", 100));
+        }
+        try (BinaryGtidIndexFile indexFile = new BinaryGtidIndexFile(idxFile)) {
+            indexFile.append(index(SRC_A + ":1-300," + SRC_B + ":1-10", 200));
+        }
+
+        List<CommandFileOffsetGtidIndex> indexes = BinaryGtidIndexFile.load(idxFile, cmdFile);
+        Assert.assertEquals(3, indexes.size());
+        Assert.assertEquals(index(SRC_A + ":1-300," + SRC_B + ":1-10", 200), indexes.get(2));
+    }
+
+    @Test
+    public void testTornTail() throws IOException {
+        try (BinaryGtidIndexFile indexFile = new BinaryGtidIndexFile(idxFile)) {
+            indexFile.append(index(SRC_A + ":1-100", 0));
+            indexFile.append(index(SRC_A + ":1-200", 100));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(idxFile, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        Assert.assertEquals(1, BinaryGtidIndexFile.load(idxFile, cmdFile).size());
+
+        try (BinaryGtidIndexFile indexFile = new BinaryGtidIndexFile(idxFile)) {
+            indexFile.append(index(SRC_A + ":1-300", 200));
+        }
+        List<CommandFileOffsetGtidIndex> indexes = BinaryGtidIndexFile.load(idxFile, cmdFile);
+        Assert.assertEquals(2, indexes.size());
+        Assert.assertEquals(index(SRC_A + ":1-300", 200), indexes.get(1));
+    }
+
+    @Test
+    public void testLoadAndConvertText() throws IOException {
+        CommandFileOffsetGtidIndex first = index(SRC_A + ":1-100", 0);
+        CommandFileOffsetGtidIndex second = index(SRC_A + ":1-200," + SRC_B + ":3", 100);
+        try (FileOutputStream out = new FileOutputStream(idxFile)) {
+            out.write((first.buildIdxStr() + LINE_SEPARATOR + second.buildIdxStr() + LINE_SEPARATOR).getBytes());
+        }
+
+        Assert.assertFalse(BinaryGtidIndexFile.isBinary(idxFile));
+        List<CommandFileOffsetGtidIndex> indexes = BinaryGtidIndexFile.load(idxFile, cmdFile);
+        Assert.assertEquals(2, indexes.size());
+        Assert.assertEquals(second, indexes.get(1));
+
+        CommandFileOffsetGtidIndex third = index(SRC_A + ":1-300," + SRC_B + ":3", 200);
+        try (BinaryGtidIndexFile indexFile = new BinaryGtidIndexFile(idxFile)) {
+            indexFile.append(third);
+        }
+        Assert.assertTrue(BinaryGtidIndexFile.isBinary(idxFile));
+        indexes = BinaryGtidIndexFile.load(idxFile, cmdFile);
+        Assert.assertEquals(3, indexes.size());
+        Assert.assertEquals(first, indexes.get(0));
+        Assert.assertEquals(third, indexes.get(2));
+    }
+
+    @Test
+    public void testConvertTextWithStaleTmp() throws IOException {
+        CommandFileOffsetGtidIndex first = index(SRC_A + ":1-100", 0);
+        try (FileOutputStream out = new FileOutputStream(idxFile)) {
+            out.write((first.buildIdxStr() + LINE_SEPARATOR).getBytes());
+        }
+        // tmp file of a conversion crashed before
+        try (BinaryGtidIndexFile staleTmp = new BinaryGtidIndexFile(new File(getTestFileDir(), "idx_cmd_0.tmp"))) {
+            staleTmp.append(index(SRC_A + ":1-50", 0));
+            staleTmp.append(index(SRC_A + ":1-80", 50));
+        }
+
+        CommandFileOffsetGtidIndex second = index(SRC_A + ":1-200", 100);
+        try (BinaryGtidIndexFile indexFile = new BinaryGtidIndexFile(idxFile)) {
+            indexFile.append(second);
+        }
+
+        List<CommandFileOffsetGtidIndex> indexes = BinaryGtidIndexFile.load(idxFile, cmdFile);
+        Assert.assertEquals(2, indexes.size());
+        Assert.assertEquals(first, indexes.get(0));
+        Assert.assertEquals(second, indexes.get(1));
+        Assert.assertFalse(new File(getTestFileDir(), "idx_cmd_0.tmp").exists());
+    }
+
+    @Test
+    public void testMalformedRecordSkippedTillCheckpoint() throws IOException {
+        int count = BinaryGtidIndexFile.CHECKPOINT_INTERVAL * 2 + 2;
+        List<CommandFileOffsetGtidIndex> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            expected.add(index(SRC_A + ":1-" + (100 * (i + 1)), 100 * i));
+        }
+        try (BinaryGtidIndexFile indexFile = new BinaryGtidIndexFile(idxFile)) {
+            for (CommandFileOffsetGtidIndex index : expected) {
+                indexFile.append(index);
+            }
+        }
+
+        int malformed = 10;
+        try (RandomAccessFile raf = new RandomAccessFile(idxFile, "rw")) {
+            long position = 8;
+            for (int i = 0; i < malformed; i++) {
+                raf.seek(position);
+                position += 4 + raf.readInt();
+            }
+            // source ref of the delta record, type and file offset before it
+            raf.seek(position + 4 + 1 + 8 + 1);
+            raf.writeByte(0x7F);
+        }
+
+        List<CommandFileOffsetGtidIndex> indexes = BinaryGtidIndexFile.load(idxFile, cmdFile);
+        List<CommandFileOffsetGtidIndex> loadable = new ArrayList<>(expected.subList(0, malformed));
+        loadable.addAll(expected.subList(BinaryGtidIndexFile.CHECKPOINT_INTERVAL, count));
+        Assert.assertEquals(loadable, indexes);
+    }
+
+    private CommandFileOffsetGtidIndex index(String gtidSet, long fileOffset) {
+        return new CommandFileOffsetGtidIndex(new GtidSet(gtidSet), cmdFile, fileOffset);
+    }
+
+}
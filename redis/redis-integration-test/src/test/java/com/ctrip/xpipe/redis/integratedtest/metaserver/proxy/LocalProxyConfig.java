@@ -51,6 +51,11 @@ public class LocalProxyConfig implements ProxyConfig {
         return 1000;
     }
 
+    @Override
+    public boolean isSocketStatsInProcess() {
+        return false;
+    }
+
     @Override
     public boolean noTlsNettyHandler() {
         return false;
@@ -81,6 +86,11 @@ public class LocalProxyConfig implements ProxyConfig {
         return compress;
     }
 
+    @Override
+    public boolean isCompressAdaptive() {
+        return false;
+    }
+
     @Override
     public CompressAlgorithm getCompressAlgorithm() {
         return new CompressAlgorithm() {
@@ -102,12 +112,42 @@ public class LocalProxyConfig implements ProxyConfig {
     }
 
     @Override
-    public ByteToMessageDecoder getCompressDecoder() {
+    public boolean isNativeTransportEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSpliceEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isMuxEnabled() {
+        return false;
+    }
+
+    @Override
+    public int getMuxLinksPerEndpoint() {
+        return 2;
+    }
+
+    @Override
+    public int getMuxStreamWindowBytes() {
+        return 8 * 1024 * 1024;
+    }
+
+    @Override
+    public boolean isCompressAlgorithmSupported(CompressAlgorithm algorithm) {
+        return "1.0".equals(algorithm.version());
+    }
+
+    @Override
+    public ByteToMessageDecoder getCompressDecoder(CompressAlgorithm algorithm) {
         return new ZstdDecoder();
     }
 
     @Override
-    public MessageToByteEncoder<ByteBuf> getCompressEncoder() {
+    public MessageToByteEncoder<ByteBuf> getCompressEncoder(CompressAlgorithm algorithm) {
         return new ZstdEncoder();
     }
     String certDir = "./src/test/resources/cert/";
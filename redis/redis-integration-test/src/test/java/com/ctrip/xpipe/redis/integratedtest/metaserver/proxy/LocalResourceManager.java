@@ -13,9 +13,11 @@ import com.ctrip.xpipe.redis.core.proxy.handler.NettySslHandlerFactory;
 import com.ctrip.xpipe.redis.proxy.config.ProxyConfig;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.SocketStatsManager;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.impl.DefaultSocketStatsManager;
+import com.ctrip.xpipe.redis.proxy.mux.MuxLinkManager;
 import com.ctrip.xpipe.redis.proxy.resource.ResourceManager;
 import com.ctrip.xpipe.redis.proxy.resource.SslEnabledNettyClientFactory;
 import com.ctrip.xpipe.utils.XpipeThreadFactory;
+import io.netty.channel.nio.NioEventLoopGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +42,8 @@ public class LocalResourceManager implements ResourceManager {
     private NextHopAlgorithm algorithm = new NaiveNextHopAlgorithm();
 
     private volatile SimpleKeyedObjectPool<Endpoint, NettyClient> keyedObjectPool;
+
+    private volatile MuxLinkManager muxLinkManager;
     public LocalResourceManager(ProxyConfig config) {
         this.config = config;
         clientSslHandlerFactory = new NettyClientSslHandlerFactory(config);
@@ -90,6 +94,18 @@ public class LocalResourceManager implements ResourceManager {
         return keyedObjectPool;
     }
 
+    @Override
+    public MuxLinkManager getMuxLinkManager() {
+        if(muxLinkManager == null) {
+            synchronized (this) {
+                if(muxLinkManager == null) {
+                    muxLinkManager = new MuxLinkManager(getProxyConfig(), clientSslHandlerFactory, new NioEventLoopGroup(1));
+                }
+            }
+        }
+        return muxLinkManager;
+    }
+
     public LocalResourceManager setConfig(ProxyConfig config) {
         this.config = config;
         return this;
@@ -1,21 +1,16 @@
 package com.ctrip.xpipe.redis.keeper;
 
-import com.ctrip.xpipe.api.utils.ControllableFile;
 import com.ctrip.xpipe.gtid.GtidSet;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
 import com.ctrip.xpipe.redis.core.store.*;
 import com.ctrip.xpipe.utils.CloseState;
-import com.ctrip.xpipe.utils.DefaultControllableFile;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
+import java.io.Closeable;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-
-import static com.ctrip.xpipe.utils.OsUtils.LINE_SEPARATOR;
 
 /**
  * @author Slight
@@ -34,22 +29,30 @@ public class Gtid2OffsetIndexGenerator implements CommandsListener {
 
     private CloseState closeState = new CloseState();
 
+    // guarded by this
     private GtidSet gtid_received;
 
-    private GtidSet last_indexed_gtid;
+    // lwm rise of gtid_received since last index, same as gtid_received.lwmDistance(last_indexed_gtid)
+    private long lwmDistanceSinceIndex;
 
+    // snapshot of gtid_received, null after gtid_received changed and published again only when read
     private volatile GtidSet endGtidSet;
 
+    // end gtid set stays null until the first cmd received
+    private boolean received = false;
+
+    private String lastSourceId;
+
     private CommandFile currentFile;
 
-    private ControllableFile indexControllableFile;
+    private BinaryGtidIndexFile indexFile;
 
     private EmbeddedChannel channel = new EmbeddedChannel();
 
     public Gtid2OffsetIndexGenerator(CommandStore cmdStore, GtidSet initGtidSet) {
         this.cmdStore = cmdStore;
         this.gtid_received = initGtidSet;
-        this.last_indexed_gtid = gtid_received.clone();
+        this.lwmDistanceSinceIndex = 0;
     }
 
     @Override
@@ -72,16 +75,13 @@ public class Gtid2OffsetIndexGenerator implements CommandsListener {
 
             rotateIndexFileIfNecessary(currentFile);
 
-            if(!gtid_received.add(cmdGtid)) {
+            if (!receiveGtid(cmdGtid)) {
                 //coming gtid already disposed of
                 return channel.newSucceededFuture();
             }
 
-            //avoid currency-problem
-            endGtidSet = gtid_received.clone();
-
             if (shouldInsert()) {
-                CommandFileOffsetGtidIndex index = new CommandFileOffsetGtidIndex(gtid_received.clone(), currentFile, filePosition);
+                CommandFileOffsetGtidIndex index = new CommandFileOffsetGtidIndex(getEndGtidSet(), currentFile, filePosition);
                 tryInsertIndex(index);
             }
 
@@ -98,38 +98,70 @@ public class Gtid2OffsetIndexGenerator implements CommandsListener {
             return;
         }
 
-        tryCloseFile(indexControllableFile);
+        tryCloseFile(indexFile);
 
-        File indexFile = cmdStore.findIndexFile(comingFile);
-        indexControllableFile = new DefaultControllableFile(indexFile);
+        indexFile = new BinaryGtidIndexFile(cmdStore.findIndexFile(comingFile));
         currentFile = comingFile;
     }
 
+    private synchronized boolean receiveGtid(String gtid) {
+        if (null == gtid) return false;
+
+        int split = gtid.indexOf(':');
+        if (split <= 0 || split != gtid.lastIndexOf(':')) return false;
+
+        // cmds from the same source come in a row, reuse its id
+        String sourceId = lastSourceId;
+        if (null == sourceId || sourceId.length() != split || !gtid.startsWith(sourceId)) {
+            sourceId = lastSourceId = gtid.substring(0, split);
+        }
+        long transactionId = parseTransactionId(gtid, split + 1);
+
+        long lwm = gtid_received.lwm(sourceId);
+        if (!gtid_received.add(sourceId, transactionId)) {
+            return false;
+        }
+
+        lwmDistanceSinceIndex += gtid_received.lwm(sourceId) - lwm;
+        received = true;
+        endGtidSet = null;
+        return true;
+    }
+
+    private long parseTransactionId(String gtid, int from) {
+        if (from >= gtid.length()) throw new NumberFormatException("For input string: \"" + gtid + "\"");
+
+        long result = 0;
+        for (int i = from; i < gtid.length(); i++) {
+            int digit = gtid.charAt(i) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("For input string: \"" + gtid + "\"");
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
     private boolean shouldInsert() {
-        if (gtid_received.lwmDistance(last_indexed_gtid) < DEFAULT_LWM_DISTANCE_BETWEEN_INDEX) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("shouldInsert = false, gtid_received: {}, last_indexed_gtid: {}", gtid_received.toString(), last_indexed_gtid.toString());
-            }
+        if (lwmDistanceSinceIndex < DEFAULT_LWM_DISTANCE_BETWEEN_INDEX) {
             return false;
         }
         if (logger.isDebugEnabled()) {
-            logger.debug("shouldInsert = true, gtid_received: {}, last_indexed_gtid: {}", gtid_received.toString(), last_indexed_gtid.toString());
+            logger.debug("shouldInsert = true, lwmDistanceSinceIndex: {}", lwmDistanceSinceIndex);
         }
-        last_indexed_gtid = gtid_received.clone();
+        lwmDistanceSinceIndex = 0;
         return true;
     }
 
     private void tryInsertIndex(CommandFileOffsetGtidIndex index) {
         try {
             //generator
-            this.indexControllableFile.getFileChannel().write(ByteBuffer.wrap((index.buildIdxStr() + LINE_SEPARATOR).getBytes()));
+            this.indexFile.append(index);
         } catch (Throwable throwable) {
             logger.info("[tryInsertIndex][fail] {}", index, throwable);
         }
         cmdStore.addIndex(index);
     }
 
-    private void tryCloseFile(ControllableFile file) {
+    private void tryCloseFile(Closeable file) {
         if (null == file) return;
 
         try {
@@ -151,6 +183,15 @@ public class Gtid2OffsetIndexGenerator implements CommandsListener {
     }
 
     public GtidSet getEndGtidSet() {
-        return endGtidSet;
+        GtidSet snapshot = endGtidSet;
+        if (null != snapshot) return snapshot;
+
+        synchronized (this) {
+            if (!received) return null;
+            if (null == endGtidSet) {
+                endGtidSet = gtid_received.clone();
+            }
+            return endGtidSet;
+        }
     }
 }
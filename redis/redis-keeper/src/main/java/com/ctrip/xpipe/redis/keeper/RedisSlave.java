@@ -3,7 +3,7 @@ package com.ctrip.xpipe.redis.keeper;
 import com.ctrip.xpipe.api.server.PartialAware;
 import com.ctrip.xpipe.netty.filechannel.ReferenceFileRegion;
 import com.ctrip.xpipe.redis.core.protocal.protocal.EofType;
-import com.ctrip.xpipe.redis.core.store.CommandsListener;
+import com.ctrip.xpipe.redis.core.store.PushCommandsListener;
 import com.ctrip.xpipe.redis.core.store.RdbStore;
 import com.ctrip.xpipe.redis.core.store.ReplicationProgress;
 import io.netty.channel.ChannelFuture;
@@ -14,7 +14,7 @@ import io.netty.channel.ChannelFuture;
  *
  * May 20, 2016 3:55:37 PM
  */
-public interface RedisSlave extends RedisClient<RedisKeeperServer>, PartialAware, CommandsListener{
+public interface RedisSlave extends RedisClient<RedisKeeperServer>, PartialAware, PushCommandsListener{
 	
 	void waitForRdbDumping();
 
@@ -58,4 +58,9 @@ public interface RedisSlave extends RedisClient<RedisKeeperServer>, PartialAware
 
 	boolean supportRdb(RdbStore.Type rdbType);
 
+	/**
+	 * resume pushing commands when channel become writable again
+	 */
+	void onChannelWritable();
+
 }
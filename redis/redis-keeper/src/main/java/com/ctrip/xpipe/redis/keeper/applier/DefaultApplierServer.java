@@ -117,6 +117,9 @@ public class DefaultApplierServer extends AbstractInstanceNode implements Applie
     @InstanceDependency
     public ScheduledExecutorService workerThreads;
 
+    @InstanceDependency
+    public ExecutorService[] laneThreads;
+
     @InstanceDependency
     public ScheduledExecutorService scheduled;
 
@@ -175,6 +178,13 @@ public class DefaultApplierServer extends AbstractInstanceNode implements Applie
         workerThreads = Executors.newScheduledThreadPool(8,
                 ClusterShardAwareThreadFactory.create(clusterId, shardId, "worker-" + makeApplierThreadName()));
 
+        int lanes = keeperConfig.getApplierSequenceLanes();
+        laneThreads = new ExecutorService[lanes > 1 ? lanes : 0];
+        for (int i = 0; i < laneThreads.length; i++) {
+            laneThreads[i] = Executors.newFixedThreadPool(1,
+                    ClusterShardAwareThreadFactory.create(clusterId, shardId, "lane-" + i + "-" + makeApplierThreadName()));
+        }
+
         /* TODO: dispose client when applier closed */
         this.client = AsyncRedisClientFactory.DEFAULT.createClient(clusterName, subenv, workerThreads);
 
@@ -230,6 +240,9 @@ public class DefaultApplierServer extends AbstractInstanceNode implements Applie
         bossGroup.shutdownGracefully();
         workerGroup.shutdownGracefully();
         stateThread.shutdownNow();
+        for (ExecutorService laneThread : laneThreads) {
+            laneThread.shutdownNow();
+        }
         client.shutdown();
         workerThreads.shutdownNow();
         scheduled.shutdownNow();
@@ -8,6 +8,7 @@ import com.google.common.collect.Lists;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Slight
@@ -19,7 +20,8 @@ public class SequenceCommand<V> extends AbstractCommand<V> implements Command<V>
 
     private final Collection<SequenceCommand<?>> pasts;
 
-    private int complete = 0;
+    // pasts may be completed on different lanes
+    private final AtomicInteger complete = new AtomicInteger(0);
 
     private final Command<V> inner;
 
@@ -68,7 +70,7 @@ public class SequenceCommand<V> extends AbstractCommand<V> implements Command<V>
         for (SequenceCommand<?> past : pasts) {
             past.future().addListener((f)->{
                 if (f.isSuccess()) {
-                    if (++complete == pasts.size()) {
+                    if (complete.incrementAndGet() == pasts.size()) {
                         executeSelf();
                     }
                 } else {
@@ -18,6 +18,9 @@ import com.ctrip.xpipe.utils.CloseState;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -43,6 +46,10 @@ public class DefaultSequenceController extends AbstractInstanceComponent impleme
     @InstanceDependency
     public AtomicLong offsetRecorder;
 
+    // more than one lane thread to sequence keys in striped lanes
+    @InstanceDependency
+    public ExecutorService[] laneThreads;
+
     public MemoryThreshold memoryThreshold;
 
     public ConcurrencyThreshold concurrencyThreshold;
@@ -55,6 +62,10 @@ public class DefaultSequenceController extends AbstractInstanceComponent impleme
 
     SequenceCommand<?> obstacle;
 
+    SequenceLane[] lanes;
+
+    private ScheduledFuture<?> laneStatsFuture;
+
     private long qpsThresholdValue;
 
     private long bytesPerSecondThresholdValue;
@@ -69,6 +80,8 @@ public class DefaultSequenceController extends AbstractInstanceComponent impleme
 
     public static final long DEFAULT_CONCURRENCY_THRESHOLD = 10000;
 
+    private static final int LANE_STATS_INTERVAL_SECONDS = 60;
+
     private final CloseState closeState = new CloseState();
 
     public DefaultSequenceController() {
@@ -86,6 +99,15 @@ public class DefaultSequenceController extends AbstractInstanceComponent impleme
     protected void doInitialize() throws Exception {
         qpsThreshold = new QPSThreshold(qpsThresholdValue, scheduled);
         bytesPerSecondThreshold = new BytesPerSecondThreshold(bytesPerSecondThresholdValue, scheduled);
+
+        if (null != laneThreads && laneThreads.length > 1) {
+            lanes = new SequenceLane[laneThreads.length];
+            for (int i = 0; i < laneThreads.length; i++) {
+                lanes[i] = new SequenceLane(i, laneThreads[i]);
+            }
+            laneStatsFuture = scheduled.scheduleWithFixedDelay(() -> logger.info("[laneStats] {}", Arrays.toString(lanes)),
+                    LANE_STATS_INTERVAL_SECONDS, LANE_STATS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
     }
 
     @Override
@@ -93,6 +115,10 @@ public class DefaultSequenceController extends AbstractInstanceComponent impleme
         super.doDispose();
         closeState.setClosed();
         runningCommands.clear();
+        if (null != laneStatsFuture) {
+            laneStatsFuture.cancel(false);
+            laneStatsFuture = null;
+        }
         memoryThreshold.reset();
         concurrencyThreshold.reset();
     }
@@ -121,6 +147,10 @@ public class DefaultSequenceController extends AbstractInstanceComponent impleme
             if (logger.isDebugEnabled()) {
                 logger.debug("[submit] commandName={} args={}", command.getName(), Arrays.stream(command.redisOp().buildRawOpArgs()).map(String::new).toArray(String[]::new));
             }
+            if (null != lanes) {
+                submitToLanes(command, commandOffsetToAccumulate);
+                return;
+            }
             switch (command.type()) {
                 case SINGLE_KEY:
                     submitSingleKeyCommand((RedisOpDataCommand<?>) command, commandOffsetToAccumulate);
@@ -138,6 +168,131 @@ public class DefaultSequenceController extends AbstractInstanceComponent impleme
         });
     }
 
+    public SequenceLane[] getLanes() {
+        return lanes;
+    }
+
+    /**
+     * only route commands on stateThread, single key commands are sequenced on their lanes,
+     * multi key commands and obstacles are registered in all lanes they touch
+     */
+    private void submitToLanes(RedisOpCommand<?> command, long commandOffset) {
+        switch (command.type()) {
+            case SINGLE_KEY:
+                RedisKey key = command.key();
+                SequenceLane lane = laneOf(key);
+                SequenceCommand<?> currentObstacle = obstacle;
+                lane.execute(() -> submitSingleKeyCommand(lane, (RedisOpDataCommand<?>) command, key, currentObstacle, commandOffset));
+                break;
+            case MULTI_KEY:
+                Map<SequenceLane, List<RedisKey>> laneKeys = new HashMap<>();
+                for (RedisKey redisKey : command.keys()) {
+                    laneKeys.computeIfAbsent(laneOf(redisKey), l -> new ArrayList<>()).add(redisKey);
+                }
+                submitCrossLanesCommand(command, commandOffset, laneKeys);
+                break;
+            case NONE_KEY:
+                submitNoneKeyCommand(command, commandOffset);
+                break;
+            case OTHER:
+                submitCrossLanesCommand(command, commandOffset, null);
+                break;
+        }
+    }
+
+    private SequenceLane laneOf(RedisKey key) {
+        return lanes[Math.floorMod(key.hashCode(), lanes.length)];
+    }
+
+    private void submitSingleKeyCommand(SequenceLane lane, RedisOpDataCommand<?> command, RedisKey key,
+                                        SequenceCommand<?> currentObstacle, long commandOffset) {
+
+        List<SequenceCommand<?>> dependencies = new ArrayList<>(2);
+
+        SequenceCommand<?> lastSameKey = lane.runningCommands.get(key);
+        if (lastSameKey != null) {
+            dependencies.add(lastSameKey);
+        }
+
+        if (currentObstacle != null) {
+            dependencies.add(currentObstacle);
+        }
+
+        SequenceCommand<?> current = new SequenceCommand<>(dependencies, wrapWithRetry(command), lane.getLaneThread(), workerThreads);
+
+        lane.runningCommands.put(key, current);
+        lane.forgetWhenDone(current, key);
+        lane.countWhenDone(current);
+
+        mergeGtidWhenSuccess(current, command.gtid());
+        releaseMemoryThresholdWhenDone(current, command.redisOp().estimatedSize());
+        increaseOffsetWhenSuccess(current, commandOffset);
+
+        current.execute();
+    }
+
+    /**
+     * @param laneKeys keys grouped by lane, null for obstacle which crosses all lanes
+     */
+    private void submitCrossLanesCommand(RedisOpCommand<?> command, long commandOffset, Map<SequenceLane, List<RedisKey>> laneKeys) {
+
+        boolean isObstacle = null == laneKeys;
+
+        /* dependencies are collected from each lane in its own order */
+
+        List<SequenceCommand<?>> dependencies = Collections.synchronizedList(new ArrayList<>());
+        if (obstacle != null) {
+            dependencies.add(obstacle);
+        }
+
+        SequenceCommand<?> current = new SequenceCommand<>(dependencies, wrapWithRetry(command), stateThread, workerThreads);
+
+        if (isObstacle) {
+            obstacle = current;
+            forgetObstacleWhenDone(current);
+        }
+
+        mergeGtidWhenSuccess(current, command.gtid());
+        releaseMemoryThresholdWhenDone(current, command.redisOp().estimatedSize());
+        increaseOffsetWhenSuccess(current, commandOffset);
+
+        Collection<SequenceLane> involvedLanes = isObstacle ? Arrays.asList(lanes) : laneKeys.keySet();
+        if (involvedLanes.isEmpty()) {
+            current.execute();
+            return;
+        }
+
+        AtomicInteger pendingLanes = new AtomicInteger(involvedLanes.size());
+        for (SequenceLane lane : involvedLanes) {
+            lane.execute(() -> {
+                if (isObstacle) {
+                    dependencies.addAll(lane.runningCommands.values());
+                    lane.runningCommands = new HashMap<>();
+                } else {
+                    for (RedisKey key : laneKeys.get(lane)) {
+                        SequenceCommand<?> lastSameKey = lane.runningCommands.get(key);
+                        if (lastSameKey == current) {
+                            // key repeated in the same command, e.g. MSET a 1 a 2
+                            continue;
+                        }
+                        if (lastSameKey != null) {
+                            dependencies.add(lastSameKey);
+                        }
+                        lane.runningCommands.put(key, current);
+                        lane.forgetWhenDone(current, key);
+                    }
+                }
+                lane.countWhenDone(current);
+
+                /* run self after all lanes are visited */
+
+                if (pendingLanes.decrementAndGet() == 0) {
+                    stateThread.execute(current::execute);
+                }
+            });
+        }
+    }
+
     private Command<?> wrapWithRetry(RedisOpCommand<?> command) {
         return command.needGuaranteeSuccess() ? new StubbornCommand<>(command, workerThreads) : command;
     }
@@ -277,7 +432,12 @@ public class DefaultSequenceController extends AbstractInstanceComponent impleme
             if (f.isSuccess()) {
                 if (gtid != null) {
                     if (lwmManager != null) {
-                        lwmManager.submit(gtid);
+                        if (null == lanes) {
+                            lwmManager.submit(gtid);
+                        } else {
+                            // gtid set of lwmManager is only updated on stateThread
+                            stateThread.execute(() -> lwmManager.submit(gtid));
+                        }
                     }
                 }
             }
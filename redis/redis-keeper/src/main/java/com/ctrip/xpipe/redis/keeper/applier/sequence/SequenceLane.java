@@ -0,0 +1,77 @@
+package com.ctrip.xpipe.redis.keeper.applier.sequence;
+
+import com.ctrip.xpipe.redis.core.redis.operation.RedisKey;
+import com.ctrip.xpipe.redis.keeper.applier.command.SequenceCommand;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ordering state of keys hashed to one lane, only accessed on the lane thread.
+ * Commands crossing lanes are registered in every lane they touch, obstacles reset the lane.
+ */
+public class SequenceLane {
+
+    private final int index;
+
+    private final ExecutorService laneThread;
+
+    Map<RedisKey, SequenceCommand<?>> runningCommands = new HashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong(0);
+
+    private final AtomicLong completed = new AtomicLong(0);
+
+    public SequenceLane(int index, ExecutorService laneThread) {
+        this.index = index;
+        this.laneThread = laneThread;
+    }
+
+    void execute(Runnable runnable) {
+        laneThread.execute(runnable);
+    }
+
+    Executor getLaneThread() {
+        return laneThread;
+    }
+
+    void forgetWhenDone(SequenceCommand<?> sequenceCommand, RedisKey key) {
+        sequenceCommand.future().addListener((f) -> laneThread.execute(() -> {
+            if (sequenceCommand == runningCommands.get(key)) {
+                runningCommands.remove(key);
+            }
+        }));
+    }
+
+    void countWhenDone(SequenceCommand<?> sequenceCommand) {
+        submitted.incrementAndGet();
+        sequenceCommand.future().addListener((f) -> completed.incrementAndGet());
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * commands submitted to this lane, crossing ones included
+     */
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getPending() {
+        return submitted.get() - completed.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SequenceLane{index=%d, submitted=%d, pending=%d}", index, getSubmitted(), getPending());
+    }
+}
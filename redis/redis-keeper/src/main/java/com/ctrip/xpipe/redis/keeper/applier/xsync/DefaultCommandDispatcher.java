@@ -4,6 +4,7 @@ import com.ctrip.xpipe.api.monitor.EventMonitor;
 import com.ctrip.xpipe.client.redis.AsyncRedisClient;
 import com.ctrip.xpipe.exception.XpipeRuntimeException;
 import com.ctrip.xpipe.gtid.GtidSet;
+import com.ctrip.xpipe.gtid.PackedGtidSet;
 import com.ctrip.xpipe.redis.core.protocal.protocal.EofType;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisMultiKeyOp;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
@@ -18,7 +19,6 @@ import com.ctrip.xpipe.redis.keeper.applier.InstanceDependency;
 import com.ctrip.xpipe.redis.keeper.applier.command.*;
 import com.ctrip.xpipe.redis.keeper.applier.sequence.ApplierSequenceController;
 import com.ctrip.xpipe.redis.keeper.applier.threshold.GTIDDistanceThreshold;
-import com.ctrip.xpipe.tuple.Pair;
 import com.ctrip.xpipe.utils.VisibleForTesting;
 import io.netty.buffer.ByteBuf;
 import org.apache.zookeeper.common.StringUtils;
@@ -67,8 +67,9 @@ public class DefaultCommandDispatcher extends AbstractInstanceComponent implemen
     @VisibleForTesting
     Set<String> receivedSids;
 
+    // updated per command, packed to rise without splitting gtid or cloning
     @VisibleForTesting
-    GtidSet gtid_received;
+    PackedGtidSet gtid_received;
 
     // in order to aggregate the entire transaction into one command
     private AtomicReference<TransactionCommand> transactionCommand;
@@ -89,7 +90,7 @@ public class DefaultCommandDispatcher extends AbstractInstanceComponent implemen
 
     @VisibleForTesting
     void resetState(GtidSet gtidSet) {
-        this.gtid_received = gtidSet.clone();
+        this.gtid_received = new PackedGtidSet(gtidSet);
         this.receivedSids = new HashSet<>();
         this.gtid_executed.set(gtidSet.clone());
         this.gtidDistanceThreshold.set(new GTIDDistanceThreshold(2000));
@@ -169,9 +170,9 @@ public class DefaultCommandDispatcher extends AbstractInstanceComponent implemen
 
     @Override
     public GtidSet getGtidReceived() {
-        GtidSet ref = gtid_received;
+        PackedGtidSet ref = gtid_received;
         if (ref != null) {
-            return ref.clone();
+            return ref.toGtidSet();
         }
         return null;
     }
@@ -218,17 +219,19 @@ public class DefaultCommandDispatcher extends AbstractInstanceComponent implemen
             return false;
         }
 
-        Pair<String, Long> parsed = Objects.requireNonNull(GtidSet.parseGtid(gtid));
+        long current = PackedGtidSet.transactionIdOf(gtid);
+        if (current < 0) {
+            throw new IllegalArgumentException("illegal gtid: " + gtid);
+        }
 
-        if (receivedSids.add(parsed.getKey())) {
-            //sid first received
-            gtid_received.rise(gtid);
+        long last = gtid_received.rise(gtid);
+        String sourceId = gtid_received.sourceIdOf(gtid);
 
+        if (receivedSids.add(sourceId)) {
+            //sid first received
             stateThread.execute(new GtidRiseJob(gtid));
         } else {
             //sid already received, transactionId may leap
-            long last = gtid_received.rise(gtid);
-            long current = parsed.getValue();
             if (current <= last) {
                 //gtid under low watermark
                 return true;
@@ -237,7 +240,7 @@ public class DefaultCommandDispatcher extends AbstractInstanceComponent implemen
                 logger.info("[updateGtidState] gtid leap a lot - last: {}, current: {}, gtid: {}, gtid_received: {}", last, current, gtid, gtid_received.toString());
             }
             if (current > last + 1) {
-                stateThread.execute(new GtidCompensateJob(parsed.getKey(), last, current));
+                stateThread.execute(new GtidCompensateJob(sourceId, last, current));
             }
         }
 
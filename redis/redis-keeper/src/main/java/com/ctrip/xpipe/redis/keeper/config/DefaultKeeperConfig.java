@@ -49,6 +49,23 @@ public class DefaultKeeperConfig extends AbstractCoreConfig implements KeeperCon
 
 	private static String KEY_CROSS_REGION_MAX_FSYNC_SLAVES = "crossregion.replication.loading.slaves.max";
 
+	private static String KEY_COMMANDS_PUSH_ENABLED = "keeper.commands.push.enabled";
+	private static String KEY_GTID_COMMANDS_ZERO_COPY_ENABLED = "keeper.gtid.commands.zero.copy.enabled";
+	private static String KEY_COMMANDS_FLUSH_BATCH_BYTES = "keeper.commands.flush.batch.bytes";
+	private static String KEY_COMMANDS_FLUSH_BATCH_MAX_DELAY_MICROS = "keeper.commands.flush.batch.max.delay.micros";
+
+	private static String KEY_APPLIER_SEQUENCE_LANES = "applier.sequence.lanes";
+
+	private static String KEY_REPLICATION_STORE_COMMAND_WRITE_BEHIND_BYTES = "replicationstore.commandfile.writebehind.bytes";
+	private static String KEY_REPLICATION_STORE_META_ASYNC_PERSIST = "replicationstore.meta.async.persist";
+	private static String KEY_REPLICATION_STORE_RDB_COMPACTION_ENABLED = "replicationstore.rdb.compaction.enabled";
+	private static String KEY_REPLICATION_STORE_RDB_COMPACTION_MAX_BYTES = "replicationstore.rdb.compaction.max.bytes";
+	private static String KEY_REPLICATION_STORE_COMMAND_COMPRESS_ENABLED = "replicationstore.commandfile.compress.enabled";
+	private static String KEY_REPLICATION_STORE_COMMAND_COMPRESS_LEVEL = "replicationstore.commandfile.compress.level";
+	private static String KEY_REPLICATION_STORE_COMMAND_COLD_DIR = "replicationstore.commandfile.cold.dir";
+	private static String KEY_REPLICATION_STORE_COMMAND_COLD_AFTER_SECONDS = "replicationstore.commandfile.cold.after.seconds";
+	private static String KEY_REPLICATION_STORE_COMMAND_BACKLOG_BUFFER_BYTES = "replicationstore.command.backlog.buffer.bytes";
+
 	public DefaultKeeperConfig(){
 
 		CompositeConfig compositeConfig = new CompositeConfig();
@@ -188,4 +205,74 @@ public class DefaultKeeperConfig extends AbstractCoreConfig implements KeeperCon
 	public int getCrossRegionMaxLoadingSlavesCnt() {
 		return getIntProperty(KEY_CROSS_REGION_MAX_FSYNC_SLAVES, 1);
 	}
+
+	@Override
+	public boolean isCommandsPushEnabled() {
+		return getBooleanProperty(KEY_COMMANDS_PUSH_ENABLED, false);
+	}
+
+	@Override
+	public boolean isGtidCommandsZeroCopyEnabled() {
+		return getBooleanProperty(KEY_GTID_COMMANDS_ZERO_COPY_ENABLED, false);
+	}
+
+	@Override
+	public int getApplierSequenceLanes() {
+		return getIntProperty(KEY_APPLIER_SEQUENCE_LANES, 1);
+	}
+
+	@Override
+	public long getReplicationStoreCommandWriteBehindBytes() {
+		return getLongProperty(KEY_REPLICATION_STORE_COMMAND_WRITE_BEHIND_BYTES, 0L);
+	}
+
+	@Override
+	public boolean isReplicationStoreMetaAsyncPersist() {
+		return getBooleanProperty(KEY_REPLICATION_STORE_META_ASYNC_PERSIST, false);
+	}
+
+	@Override
+	public boolean isReplicationStoreRdbCompactionEnabled() {
+		return getBooleanProperty(KEY_REPLICATION_STORE_RDB_COMPACTION_ENABLED, false);
+	}
+
+	@Override
+	public long getReplicationStoreRdbCompactionMaxBytes() {
+		return getLongProperty(KEY_REPLICATION_STORE_RDB_COMPACTION_MAX_BYTES, 512L * 1024 * 1024);
+	}
+
+	@Override
+	public boolean isReplicationStoreCommandFileCompressEnabled() {
+		return getBooleanProperty(KEY_REPLICATION_STORE_COMMAND_COMPRESS_ENABLED, false);
+	}
+
+	@Override
+	public int getReplicationStoreCommandFileCompressLevel() {
+		return getIntProperty(KEY_REPLICATION_STORE_COMMAND_COMPRESS_LEVEL, 3);
+	}
+
+	@Override
+	public String getReplicationStoreCommandFileColdDir() {
+		return getProperty(KEY_REPLICATION_STORE_COMMAND_COLD_DIR, "");
+	}
+
+	@Override
+	public int getReplicationStoreCommandFileColdAfterSeconds() {
+		return getIntProperty(KEY_REPLICATION_STORE_COMMAND_COLD_AFTER_SECONDS, 3600);
+	}
+
+	@Override
+	public int getReplicationStoreCommandBacklogBufferBytes() {
+		return getIntProperty(KEY_REPLICATION_STORE_COMMAND_BACKLOG_BUFFER_BYTES, 0);
+	}
+
+	@Override
+	public int getCommandsFlushBatchBytes() {
+		return getIntProperty(KEY_COMMANDS_FLUSH_BATCH_BYTES, 0);
+	}
+
+	@Override
+	public int getCommandsFlushBatchMaxDelayMicros() {
+		return getIntProperty(KEY_COMMANDS_FLUSH_BATCH_MAX_DELAY_MICROS, 500);
+	}
 }
@@ -72,4 +72,76 @@ public interface KeeperConfig extends CoreConfig{
 	 */
     int getCrossRegionMaxLoadingSlavesCnt();
 
+	/**
+	 * send commands to slaves from netty event loops driven by channel writability,
+	 * instead of a blocking thread for each slave
+	 */
+	boolean isCommandsPushEnabled();
+
+	/**
+	 * send cmds of gtid segments all needed by slave as file regions, without parsing them
+	 */
+	boolean isGtidCommandsZeroCopyEnabled();
+
+	/**
+	 * applier sequences keys in this many lanes with a thread for each, 1 means all on the state thread
+	 */
+	int getApplierSequenceLanes();
+
+	/**
+	 * commands from master are written to file off the event loop if positive,
+	 * master channel stops reading when bytes waiting for writing exceed it
+	 */
+	long getReplicationStoreCommandWriteBehindBytes();
+
+	/**
+	 * meta of replication store is persisted off the caller thread with updates coalesced,
+	 * updates replication position depends on still wait until persisted
+	 */
+	boolean isReplicationStoreMetaAsyncPersist();
+
+	/**
+	 * new rdb for full sync is compacted locally from current rdb and commands after it if possible,
+	 * instead of dumped from master, e.g. to save master and cross dc bandwidth for keepers of backup dc
+	 */
+	boolean isReplicationStoreRdbCompactionEnabled();
+
+	/**
+	 * rdb compaction is given up if rdb and commands to replay exceed it, as keys are loaded in memory
+	 */
+	long getReplicationStoreRdbCompactionMaxBytes();
+
+	/**
+	 * cmd files rotated are compressed in background and read with transparent decompression,
+	 * so that more commands are kept for partial sync on the same disk
+	 */
+	boolean isReplicationStoreCommandFileCompressEnabled();
+
+	/**
+	 * zstd level to compress cmd files
+	 */
+	int getReplicationStoreCommandFileCompressLevel();
+
+	/**
+	 * cmd files older than {@link #getReplicationStoreCommandFileColdAfterSeconds()} are moved under the dir,
+	 * e.g. on a large HDD volume, and read through links left in the store; empty to keep all cmd files in the store
+	 */
+	String getReplicationStoreCommandFileColdDir();
+
+	int getReplicationStoreCommandFileColdAfterSeconds();
+
+	/**
+	 * size of off-heap buffer of the latest commands in each store, from which caught up slaves are sent
+	 * instead of reading cmd files; 0 to disable
+	 */
+	int getReplicationStoreCommandBacklogBufferBytes();
+
+	/**
+	 * commands written to slave are flushed in batches of the bytes at most, see {@link com.ctrip.xpipe.redis.keeper.impl.CommandsFlushBatcher};
+	 * 0 to flush each command
+	 */
+	int getCommandsFlushBatchBytes();
+
+	int getCommandsFlushBatchMaxDelayMicros();
+
 }
@@ -269,4 +269,172 @@ public class TestKeeperConfig extends AbstractCoreConfig implements KeeperConfig
 	public int getApplierReadIdleSeconds() {
 		return 60;
 	}
+
+	private boolean commandsPushEnabled = false;
+
+	public TestKeeperConfig setCommandsPushEnabled(boolean commandsPushEnabled) {
+		this.commandsPushEnabled = commandsPushEnabled;
+		return this;
+	}
+
+	@Override
+	public boolean isCommandsPushEnabled() {
+		return commandsPushEnabled;
+	}
+
+	private boolean gtidCommandsZeroCopyEnabled = false;
+
+	public TestKeeperConfig setGtidCommandsZeroCopyEnabled(boolean gtidCommandsZeroCopyEnabled) {
+		this.gtidCommandsZeroCopyEnabled = gtidCommandsZeroCopyEnabled;
+		return this;
+	}
+
+	@Override
+	public boolean isGtidCommandsZeroCopyEnabled() {
+		return gtidCommandsZeroCopyEnabled;
+	}
+
+	private int applierSequenceLanes = 1;
+
+	public TestKeeperConfig setApplierSequenceLanes(int applierSequenceLanes) {
+		this.applierSequenceLanes = applierSequenceLanes;
+		return this;
+	}
+
+	@Override
+	public int getApplierSequenceLanes() {
+		return applierSequenceLanes;
+	}
+
+	private long commandWriteBehindBytes = 0;
+
+	public TestKeeperConfig setReplicationStoreCommandWriteBehindBytes(long commandWriteBehindBytes) {
+		this.commandWriteBehindBytes = commandWriteBehindBytes;
+		return this;
+	}
+
+	@Override
+	public long getReplicationStoreCommandWriteBehindBytes() {
+		return commandWriteBehindBytes;
+	}
+
+	private boolean metaAsyncPersist = false;
+
+	public TestKeeperConfig setReplicationStoreMetaAsyncPersist(boolean metaAsyncPersist) {
+		this.metaAsyncPersist = metaAsyncPersist;
+		return this;
+	}
+
+	@Override
+	public boolean isReplicationStoreMetaAsyncPersist() {
+		return metaAsyncPersist;
+	}
+
+	private boolean rdbCompactionEnabled = false;
+
+	private long rdbCompactionMaxBytes = 1 << 20;
+
+	public TestKeeperConfig setReplicationStoreRdbCompactionEnabled(boolean rdbCompactionEnabled) {
+		this.rdbCompactionEnabled = rdbCompactionEnabled;
+		return this;
+	}
+
+	@Override
+	public boolean isReplicationStoreRdbCompactionEnabled() {
+		return rdbCompactionEnabled;
+	}
+
+	public TestKeeperConfig setReplicationStoreRdbCompactionMaxBytes(long rdbCompactionMaxBytes) {
+		this.rdbCompactionMaxBytes = rdbCompactionMaxBytes;
+		return this;
+	}
+
+	@Override
+	public long getReplicationStoreRdbCompactionMaxBytes() {
+		return rdbCompactionMaxBytes;
+	}
+
+	private boolean commandFileCompressEnabled = false;
+
+	private int commandFileCompressLevel = 3;
+
+	public TestKeeperConfig setReplicationStoreCommandFileCompressEnabled(boolean commandFileCompressEnabled) {
+		this.commandFileCompressEnabled = commandFileCompressEnabled;
+		return this;
+	}
+
+	@Override
+	public boolean isReplicationStoreCommandFileCompressEnabled() {
+		return commandFileCompressEnabled;
+	}
+
+	public TestKeeperConfig setReplicationStoreCommandFileCompressLevel(int commandFileCompressLevel) {
+		this.commandFileCompressLevel = commandFileCompressLevel;
+		return this;
+	}
+
+	@Override
+	public int getReplicationStoreCommandFileCompressLevel() {
+		return commandFileCompressLevel;
+	}
+
+	private String commandFileColdDir = "";
+
+	private int commandFileColdAfterSeconds = 3600;
+
+	public TestKeeperConfig setReplicationStoreCommandFileColdDir(String commandFileColdDir) {
+		this.commandFileColdDir = commandFileColdDir;
+		return this;
+	}
+
+	@Override
+	public String getReplicationStoreCommandFileColdDir() {
+		return commandFileColdDir;
+	}
+
+	public TestKeeperConfig setReplicationStoreCommandFileColdAfterSeconds(int commandFileColdAfterSeconds) {
+		this.commandFileColdAfterSeconds = commandFileColdAfterSeconds;
+		return this;
+	}
+
+	@Override
+	public int getReplicationStoreCommandFileColdAfterSeconds() {
+		return commandFileColdAfterSeconds;
+	}
+
+	private int commandBacklogBufferBytes = 0;
+
+	public TestKeeperConfig setReplicationStoreCommandBacklogBufferBytes(int commandBacklogBufferBytes) {
+		this.commandBacklogBufferBytes = commandBacklogBufferBytes;
+		return this;
+	}
+
+	@Override
+	public int getReplicationStoreCommandBacklogBufferBytes() {
+		return commandBacklogBufferBytes;
+	}
+
+	private int commandsFlushBatchBytes = 0;
+
+	private int commandsFlushBatchMaxDelayMicros = 500;
+
+	public TestKeeperConfig setCommandsFlushBatchBytes(int commandsFlushBatchBytes) {
+		this.commandsFlushBatchBytes = commandsFlushBatchBytes;
+		return this;
+	}
+
+	@Override
+	public int getCommandsFlushBatchBytes() {
+		return commandsFlushBatchBytes;
+	}
+
+	public TestKeeperConfig setCommandsFlushBatchMaxDelayMicros(int commandsFlushBatchMaxDelayMicros) {
+		this.commandsFlushBatchMaxDelayMicros = commandsFlushBatchMaxDelayMicros;
+		return this;
+	}
+
+	@Override
+	public int getCommandsFlushBatchMaxDelayMicros() {
+		return commandsFlushBatchMaxDelayMicros;
+	}
 }
@@ -8,8 +8,10 @@ import com.ctrip.xpipe.redis.core.store.ReplicationStore;
 import com.ctrip.xpipe.redis.core.store.ReplicationStoreMeta;
 import com.ctrip.xpipe.redis.keeper.*;
 import com.ctrip.xpipe.redis.keeper.handler.AbstractCommandHandler;
+import com.ctrip.xpipe.redis.keeper.monitor.DelayHistogram;
 import com.ctrip.xpipe.redis.keeper.monitor.KeeperStats;
 import com.ctrip.xpipe.redis.keeper.monitor.MasterStats;
+import com.ctrip.xpipe.redis.keeper.monitor.ReplDelayStats;
 import com.ctrip.xpipe.redis.keeper.monitor.ReplicationStoreStats;
 import com.ctrip.xpipe.utils.DateTimeUtils;
 import com.ctrip.xpipe.utils.StringUtil;
@@ -97,6 +99,13 @@ public class InfoHandler extends AbstractCommandHandler {
 		protected String strAndStr(String key, String val) {
 			return String.format("%s:%s%s", key, val, RedisProtocol.CRLF);
 		}
+
+		protected String strAndPercentiles(String key, DelayHistogram histogram) {
+			return String.format("%s_p50_us:%d%s%s_p99_us:%d%s%s_p999_us:%d%s",
+					key, histogram.percentile(50), RedisProtocol.CRLF,
+					key, histogram.percentile(99), RedisProtocol.CRLF,
+					key, histogram.percentile(99.9), RedisProtocol.CRLF);
+		}
 	}
 
 	private class InfoAll extends AbstractInfoSection {
@@ -155,6 +164,14 @@ public class InfoHandler extends AbstractCommandHandler {
 
 		private static final String KEY_TOTAL_SYNC_PARTIAL_ERROR = "sync_partial_err";
 
+		private static final String KEY_REPL_SEND_DELAY = "repl_send_delay";
+
+		private static final String KEY_REPL_FLUSH_DELAY = "repl_flush_delay";
+
+		private static final String KEY_COMMANDS_FLUSHES = "commands_flushes";
+
+		private static final String KEY_COMMANDS_PER_FLUSH = "commands_per_flush";
+
 		@Override
 		public String getInfo(RedisKeeperServer keeperServer) {
 			long kilo = 1024;
@@ -174,6 +191,12 @@ public class InfoHandler extends AbstractCommandHandler {
 			if(stats.getLastPsyncFailReason() != null) {
 				sb.append(strAndStr(KEY_LAST_FAIL_REASON, stats.getLastPsyncFailReason().name()));
 			}
+			sb.append(strAndPercentiles(KEY_REPL_SEND_DELAY, stats.getReplDelayStats().getSendDelay()));
+			sb.append(strAndPercentiles(KEY_REPL_FLUSH_DELAY, stats.getReplDelayStats().getFlushDelay()));
+			long commandsFlushes = stats.getCommandsFlushCount();
+			sb.append(strAndLong(KEY_COMMANDS_FLUSHES, commandsFlushes));
+			sb.append(strAndFloat(KEY_COMMANDS_PER_FLUSH,
+					commandsFlushes == 0 ? 0 : (float) stats.getCommandsFlushedWrites() / commandsFlushes));
 			return sb.toString();
 		}
 
@@ -216,6 +239,9 @@ public class InfoHandler extends AbstractCommandHandler {
 
 			ReplicationStoreStats replicationStoreStats = keeperServer.getKeeperMonitor().getReplicationStoreStats();
 			sb.append("last_repl_down_time:" + DateTimeUtils.timeAsString(replicationStoreStats.getLastReplDownTime()) + RedisProtocol.CRLF);
+			sb.append("meta_updates:" + replicationStoreStats.getMetaUpdateCount() + RedisProtocol.CRLF);
+			sb.append("meta_flushes:" + replicationStoreStats.getMetaFlushCount() + RedisProtocol.CRLF);
+			sb.append(strAndPercentiles("meta_flush_latency", replicationStoreStats.getMetaFlushLatency()));
 			return sb.toString();
 		}
 
@@ -259,7 +285,9 @@ public class InfoHandler extends AbstractCommandHandler {
 			sb.append("connected_slaves:" + slaves.size() + RedisProtocol.CRLF);
 			int slaveIndex = 0;
 			for(RedisSlave slave : slaves){
-				sb.append(String.format("slave%d:%s" + RedisProtocol.CRLF, slaveIndex, slave.info()));
+				ReplDelayStats delayStats = redisKeeperServer.getKeeperMonitor().getKeeperStats().getReplDelayStats(slave);
+				sb.append(String.format("slave%d:%s,send_delay_p99_us=%d,flush_delay_p99_us=%d" + RedisProtocol.CRLF, slaveIndex, slave.info(),
+						delayStats.getSendDelay().percentile(99), delayStats.getFlushDelay().percentile(99)));
 				slaveIndex++;
 			}
 
@@ -0,0 +1,125 @@
+package com.ctrip.xpipe.redis.keeper.impl;
+
+import com.ctrip.xpipe.redis.keeper.monitor.KeeperStats;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.channel.FileRegion;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes commands to a slave and flushes them in batches, so that a trickle of small commands
+ * doesn't cost a syscall each.
+ * Pending commands are flushed when they reach maxBytes, when the channel becomes unwritable,
+ * or maxDelayMicros after written. A command written after an interval of maxDelayMicros, i.e. commands went idle,
+ * is flushed at once, as waiting for more gains nothing.
+ * State is confined to the event loop of the channel.
+ */
+public class CommandsFlushBatcher {
+
+    private final Channel channel;
+
+    private final int maxBytes;
+
+    private final long maxDelayNanos;
+
+    // null if not counted
+    private final KeeperStats keeperStats;
+
+    private final Runnable flushTask = this::onFlushTimeout;
+
+    private long pendingBytes = 0;
+
+    private int pendingWrites = 0;
+
+    private boolean flushScheduled = false;
+
+    private long lastWriteNanos;
+
+    private volatile long flushCount = 0;
+
+    private volatile long flushedWrites = 0;
+
+    public CommandsFlushBatcher(Channel channel, int maxBytes, int maxDelayMicros, KeeperStats keeperStats) {
+        this.channel = channel;
+        this.maxBytes = maxBytes;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.keeperStats = keeperStats;
+        this.lastWriteNanos = System.nanoTime() - maxDelayNanos;
+    }
+
+    public ChannelFuture write(Object msg) {
+        ChannelPromise promise = channel.newPromise();
+        EventLoop eventLoop = channel.eventLoop();
+        if (eventLoop.inEventLoop()) {
+            doWrite(msg, promise);
+            return promise;
+        }
+
+        try {
+            eventLoop.execute(() -> doWrite(msg, promise));
+        } catch (RejectedExecutionException e) {
+            ReferenceCountUtil.release(msg);
+            promise.setFailure(e);
+        }
+        return promise;
+    }
+
+    private void doWrite(Object msg, ChannelPromise promise) {
+        long now = System.nanoTime();
+        boolean idle = now - lastWriteNanos >= maxDelayNanos;
+        lastWriteNanos = now;
+
+        channel.write(msg, promise);
+        pendingBytes += bytesOf(msg);
+        pendingWrites++;
+
+        if (idle || pendingBytes >= maxBytes || !channel.isWritable()) {
+            flush();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            channel.eventLoop().schedule(flushTask, maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void onFlushTimeout() {
+        flushScheduled = false;
+        if (pendingWrites > 0) flush();
+    }
+
+    private void flush() {
+        channel.flush();
+
+        flushCount++;
+        flushedWrites += pendingWrites;
+        if (null != keeperStats) keeperStats.increaseCommandsFlush(pendingWrites);
+        pendingBytes = 0;
+        pendingWrites = 0;
+    }
+
+    private long bytesOf(Object msg) {
+        if (msg instanceof ByteBuf) return ((ByteBuf) msg).readableBytes();
+        if (msg instanceof FileRegion) return ((FileRegion) msg).count();
+        return 0;
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    public long getFlushedWrites() {
+        return flushedWrites;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CommandsFlushBatcher{maxBytes:%d, maxDelayMicros:%d, flushes:%d, writes:%d}",
+                maxBytes, TimeUnit.NANOSECONDS.toMicros(maxDelayNanos), flushCount, flushedWrites);
+    }
+
+}
@@ -42,6 +42,7 @@ import com.ctrip.xpipe.redis.keeper.monitor.KeeperMonitor;
 import com.ctrip.xpipe.redis.keeper.monitor.KeepersMonitorManager;
 import com.ctrip.xpipe.redis.keeper.netty.NettyMasterHandler;
 import com.ctrip.xpipe.redis.keeper.store.DefaultFullSyncListener;
+import com.ctrip.xpipe.redis.keeper.store.DefaultReplicationStore;
 import com.ctrip.xpipe.redis.keeper.store.DefaultReplicationStoreManager;
 import com.ctrip.xpipe.redis.keeper.util.KeeperReplIdAwareThreadFactory;
 import com.ctrip.xpipe.utils.*;
@@ -148,6 +149,7 @@ public class DefaultRedisKeeperServer extends AbstractRedisServer implements Red
 
 	private AtomicLong lastRdbDumpTime = new AtomicLong(-1);
 	private AtomicLong lastRordbDumpTime = new AtomicLong(-1);
+	private AtomicLong lastRdbCompactionFailTime = new AtomicLong(-1);
 
 	//for test
 	private AtomicInteger  rdbDumpTryCount = new AtomicInteger();
@@ -860,12 +862,43 @@ public class DefaultRedisKeeperServer extends AbstractRedisServer implements Red
 
 	private RdbDumper dumpNewRdb(boolean tryRordb) throws CreateRdbDumperException, SetRdbDumperException {
 		
-		RdbDumper rdbDumper = keeperRedisMaster.createRdbDumper(tryRordb);
+		RdbDumper rdbDumper = tryCreateRdbCompactionDumper(tryRordb);
+		if (null == rdbDumper) {
+			rdbDumper = keeperRedisMaster.createRdbDumper(tryRordb);
+		}
 		setRdbDumper(rdbDumper);
 		rdbDumper.execute();
 		return rdbDumper;
 	}
 
+	private RdbDumper tryCreateRdbCompactionDumper(boolean tryRordb) {
+
+		if (tryRordb || !keeperConfig.isReplicationStoreRdbCompactionEnabled() || null == redisOpParser) {
+			return null;
+		}
+		if (System.currentTimeMillis() - lastRdbCompactionFailTime.get() < keeperConfig.getRdbDumpMinIntervalMilli()) {
+			logger.info("[tryCreateRdbCompactionDumper][fail recently]{}", new Date(lastRdbCompactionFailTime.get()));
+			return null;
+		}
+
+		ReplicationStore replicationStore = getCurrentReplicationStore();
+		if (!(replicationStore instanceof DefaultReplicationStore) || replicationStore.supportGtidSet()) {
+			return null;
+		}
+
+		RdbDumper rdbDumper = new RdbCompactionDumper(this, (DefaultReplicationStore) replicationStore, redisOpParser,
+				keeperConfig.getReplicationStoreRdbCompactionMaxBytes());
+		rdbDumper.future().addListener(new CommandFutureListener<Void>() {
+			@Override
+			public void operationComplete(CommandFuture<Void> commandFuture) throws Exception {
+				if (!commandFuture.isSuccess()) {
+					lastRdbCompactionFailTime.set(System.currentTimeMillis());
+				}
+			}
+		});
+		return rdbDumper;
+	}
+
 	
 	public void setRdbDumper(RdbDumper rdbDumper) throws SetRdbDumperException {
 		setRdbDumper(rdbDumper, false);
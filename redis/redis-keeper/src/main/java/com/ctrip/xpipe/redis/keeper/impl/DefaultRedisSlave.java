@@ -16,7 +16,9 @@ import com.ctrip.xpipe.redis.keeper.RedisClient;
 import com.ctrip.xpipe.redis.keeper.RedisKeeperServer;
 import com.ctrip.xpipe.redis.keeper.RedisSlave;
 import com.ctrip.xpipe.redis.keeper.SLAVE_STATE;
+import com.ctrip.xpipe.redis.keeper.config.KeeperConfig;
 import com.ctrip.xpipe.redis.keeper.exception.RedisKeeperRuntimeException;
+import com.ctrip.xpipe.redis.keeper.monitor.KeeperStats;
 import com.ctrip.xpipe.redis.keeper.util.KeeperReplIdAwareThreadFactory;
 import com.ctrip.xpipe.utils.*;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -74,8 +76,13 @@ public class DefaultRedisSlave implements RedisSlave {
 
 	private AtomicBoolean writingCommands = new AtomicBoolean(false);
 
+	private volatile CommandsPusher commandsPusher;
+
 	private volatile boolean coldStart = false;
 
+	// null if each command flushed
+	private volatile CommandsFlushBatcher flushBatcher;
+
 	private ChannelFutureListener writeExceptionListener = new ChannelFutureListener() {
 
 		private AtomicLong atomicLong = new AtomicLong(0);
@@ -322,7 +329,11 @@ public class DefaultRedisSlave implements RedisSlave {
 				}
 				getLogger().info("[beginWriteCommands]{}, {}", this, progress);
 				slaveState = SLAVE_STATE.REDIS_REPL_ONLINE;
-				getRedisServer().getReplicationStore().addCommandsListener(progress, this);
+				if (isCommandsPushEnabled()) {
+					commandsPusher = getRedisServer().getReplicationStore().addPushCommandsListener(progress, this);
+				} else {
+					getRedisServer().getReplicationStore().addCommandsListener(progress, this);
+				}
 			} else {
 				getLogger().warn("[beginWriteCommands][already writing]{}, {}", this, progress);
 			}
@@ -331,6 +342,29 @@ public class DefaultRedisSlave implements RedisSlave {
 		}
 	}
 
+	private boolean isCommandsPushEnabled() {
+		KeeperConfig keeperConfig = getRedisServer().getKeeperConfig();
+		return null != keeperConfig && keeperConfig.isCommandsPushEnabled();
+	}
+
+	@Override
+	public EventLoop eventLoop() {
+		return channel().eventLoop();
+	}
+
+	@Override
+	public boolean isWritable() {
+		return channel().isWritable();
+	}
+
+	@Override
+	public void onChannelWritable() {
+		CommandsPusher pusher = commandsPusher;
+		if (null != pusher) {
+			pusher.wakeup();
+		}
+	}
+
 	protected void sendCommandForFullSync() {
 		
 		getLogger().info("[sendCommandForFullSync]{}, {}", this, progressAfterRdb);
@@ -363,11 +397,17 @@ public class DefaultRedisSlave implements RedisSlave {
 		    command = ((RedisOp) cmd).buildRESP();
 		}
 
-		ChannelFuture future = channel().writeAndFlush(command);
+		CommandsFlushBatcher batcher = flushBatcher;
+		ChannelFuture future = null == batcher ? channel().writeAndFlush(command) : batcher.write(command);
 		future.addListener(writeExceptionListener);
 		return future;
 	}
 
+	@Override
+	public boolean supportRawCommands() {
+		return true;
+	}
+
 	@Override
 	public String info() {
 		
@@ -486,6 +526,9 @@ public class DefaultRedisSlave implements RedisSlave {
 			getLogger().info("[doRealClose]{}", this);
 			closeState.setClosed();
 			redisClient.close();
+			if (null != commandsPusher) {
+				commandsPusher.close();
+			}
 			/* shutdown single thread pool after other tasks finished */
 			psyncExecutor.submit(psyncExecutor::shutdown);
 			scheduled.shutdownNow();
@@ -494,6 +537,14 @@ public class DefaultRedisSlave implements RedisSlave {
 	
 	@Override
 	public void beforeCommand() {
+		RedisKeeperServer redisKeeperServer = getRedisServer();
+		KeeperConfig keeperConfig = null == redisKeeperServer ? null : redisKeeperServer.getKeeperConfig();
+		if (null != keeperConfig && keeperConfig.getCommandsFlushBatchBytes() > 0 && null == flushBatcher) {
+			KeeperStats keeperStats = null == redisKeeperServer.getKeeperMonitor() ? null : redisKeeperServer.getKeeperMonitor().getKeeperStats();
+			flushBatcher = new CommandsFlushBatcher(channel(), keeperConfig.getCommandsFlushBatchBytes(),
+					keeperConfig.getCommandsFlushBatchMaxDelayMicros(), keeperStats);
+			getLogger().info("[beforeCommand]{}, {}", this, flushBatcher);
+		}
 	}
 	
 	
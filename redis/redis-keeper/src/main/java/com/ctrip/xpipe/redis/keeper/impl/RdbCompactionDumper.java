@@ -0,0 +1,124 @@
+package com.ctrip.xpipe.redis.keeper.impl;
+
+import com.ctrip.xpipe.concurrent.AbstractExceptionLogTask;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
+import com.ctrip.xpipe.redis.core.store.DumpedRdbStore;
+import com.ctrip.xpipe.redis.core.store.RdbStore;
+import com.ctrip.xpipe.redis.keeper.RedisKeeperServer;
+import com.ctrip.xpipe.redis.keeper.store.DefaultReplicationStore;
+import com.ctrip.xpipe.redis.keeper.store.RdbCompactor;
+import com.ctrip.xpipe.utils.OsUtils;
+import com.ctrip.xpipe.utils.XpipeThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Dumps new rdb by {@link RdbCompactor} without master involved.
+ * On failure slaves waiting are not closed, the dumper is cleared so that keeper redumps from master for them.
+ */
+public class RdbCompactionDumper extends AbstractRdbDumper {
+
+    private final Logger logger = LoggerFactory.getLogger(RdbCompactionDumper.class);
+
+    private final DefaultReplicationStore replicationStore;
+
+    private final RedisOpParser redisOpParser;
+
+    private final long maxBytes;
+
+    private final Executor executor;
+
+    private DumpedRdbStore dumpedRdbStore;
+
+    public RdbCompactionDumper(RedisKeeperServer redisKeeperServer, DefaultReplicationStore replicationStore,
+                               RedisOpParser redisOpParser, long maxBytes) {
+        this(redisKeeperServer, replicationStore, redisOpParser, maxBytes, CompactionExecutorHolder.EXECUTOR);
+    }
+
+    public RdbCompactionDumper(RedisKeeperServer redisKeeperServer, DefaultReplicationStore replicationStore,
+                               RedisOpParser redisOpParser, long maxBytes, Executor executor) {
+        super(redisKeeperServer);
+        this.replicationStore = replicationStore;
+        this.redisOpParser = redisOpParser;
+        this.maxBytes = maxBytes;
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean tryRordb() {
+        return false;
+    }
+
+    @Override
+    protected void doExecute() throws Exception {
+        executor.execute(new AbstractExceptionLogTask() {
+            @Override
+            protected void doRun() throws Exception {
+                compact();
+            }
+        });
+    }
+
+    private void compact() {
+        boolean confirmed = false;
+        try {
+            prepareRdbStore();
+            beginReceiveRdbData(null, -1);
+            new RdbCompactor(replicationStore, redisOpParser, maxBytes).compact(dumpedRdbStore);
+            if (future().isDone()) throw new IllegalStateException("dumper done " + future().isSuccess());
+
+            replicationStore.checkReplIdAndUpdateRdb(dumpedRdbStore);
+            confirmed = true;
+            auxParseFinished(RdbStore.Type.NORMAL);
+            dumpFinished();
+        } catch (Throwable th) {
+            compactFail(th, confirmed);
+        }
+    }
+
+    private void compactFail(Throwable th, boolean confirmed) {
+        logger.info("[compactFail]{}, {}", this, th.getMessage());
+        if (!confirmed && null != dumpedRdbStore) {
+            try {
+                dumpedRdbStore.close();
+                dumpedRdbStore.destroy();
+            } catch (Exception e) {
+                logger.warn("[compactFail] unable to release rdb file", e);
+            }
+        }
+
+        if (future().isDone()) return;
+        future().setFailure(th);
+        redisKeeperServer.clearRdbDumper(this);
+    }
+
+    @Override
+    public DumpedRdbStore prepareRdbStore() throws IOException {
+        dumpedRdbStore = replicationStore.prepareNewRdb();
+        logger.info("[prepareRdbStore]{}", dumpedRdbStore);
+        return dumpedRdbStore;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(%s)", getClass().getSimpleName(), replicationStore);
+    }
+
+    @Override
+    public Logger getLogger() {
+        return logger;
+    }
+
+    private static class CompactionExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Math.max(1, OsUtils.getCpuCount() / 8),
+                XpipeThreadFactory.create("RdbCompactor", true));
+
+    }
+
+}
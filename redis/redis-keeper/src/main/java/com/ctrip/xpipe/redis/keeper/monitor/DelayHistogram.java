@@ -0,0 +1,81 @@
+package com.ctrip.xpipe.redis.keeper.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of delays in fixed memory, buckets are log-linear like HdrHistogram:
+ * values below 32 are counted exactly, above that each power of two is split into 16 buckets,
+ * so a reported percentile is at most about 6% above the recorded value.
+ */
+public class DelayHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong totalCount = new AtomicLong();
+
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long value) {
+		if (value < 0) value = 0;
+
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.incrementAndGet();
+		long currentMax;
+		while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value));
+	}
+
+	/**
+	 * @param percentile in (0, 100]
+	 * @return the highest value equivalent to the bucket the percentile falls in, 0 if nothing recorded
+	 */
+	public long percentile(double percentile) {
+		long total = totalCount.get();
+		if (total <= 0) return 0;
+
+		long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long accumulated = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			accumulated += counts.get(i);
+			if (accumulated >= target) {
+				return Math.min(highestEquivalentValue(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	public long getCount() {
+		return totalCount.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	static int bucketIndex(long value) {
+		if (value < 2 * SUB_BUCKETS) return (int) value;
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return SUB_BUCKETS * (shift + 1) + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	static long highestEquivalentValue(int index) {
+		if (index < 2 * SUB_BUCKETS) return index;
+
+		int shift = index / SUB_BUCKETS - 1;
+		long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count:%d, p50:%d, p99:%d, p999:%d, max:%d",
+				getCount(), percentile(50), percentile(99), percentile(99.9), getMax());
+	}
+}
@@ -2,6 +2,7 @@ package com.ctrip.xpipe.redis.keeper.monitor;
 
 import com.ctrip.xpipe.api.lifecycle.Startable;
 import com.ctrip.xpipe.api.lifecycle.Stoppable;
+import com.ctrip.xpipe.redis.core.store.CommandsListener;
 
 /**
  * @author wenchao.meng
@@ -54,4 +55,23 @@ public interface KeeperStats extends Startable,Stoppable {
 
 	PsyncFailReason getLastPsyncFailReason();
 
+	/**
+	 * a flush of commands written to slave, see {@link com.ctrip.xpipe.redis.keeper.impl.CommandsFlushBatcher}
+	 */
+	void increaseCommandsFlush(int writes);
+
+	long getCommandsFlushCount();
+
+	long getCommandsFlushedWrites();
+
+	/**
+	 * @return replication delays of all slaves
+	 */
+	ReplDelayStats getReplDelayStats();
+
+	/**
+	 * @return replication delays of the slave, created on first call
+	 */
+	ReplDelayStats getReplDelayStats(CommandsListener slave);
+
 }
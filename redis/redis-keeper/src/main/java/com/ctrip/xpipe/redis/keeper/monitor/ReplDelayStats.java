@@ -0,0 +1,45 @@
+package com.ctrip.xpipe.redis.keeper.monitor;
+
+/**
+ * Replication delays in micro seconds: from commands written to command store until sent to slave,
+ * and from sent until flushed to the slave socket. Delays of one slave are also recorded to the keeper total.
+ */
+public class ReplDelayStats {
+
+	private final DelayHistogram sendDelay = new DelayHistogram();
+
+	private final DelayHistogram flushDelay = new DelayHistogram();
+
+	private final ReplDelayStats total;
+
+	public ReplDelayStats() {
+		this(null);
+	}
+
+	public ReplDelayStats(ReplDelayStats total) {
+		this.total = total;
+	}
+
+	public void recordSendDelay(long micro) {
+		sendDelay.record(micro);
+		if (null != total) total.recordSendDelay(micro);
+	}
+
+	public void recordFlushDelay(long micro) {
+		flushDelay.record(micro);
+		if (null != total) total.recordFlushDelay(micro);
+	}
+
+	public DelayHistogram getSendDelay() {
+		return sendDelay;
+	}
+
+	public DelayHistogram getFlushDelay() {
+		return flushDelay;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("send[%s], flush[%s]", sendDelay, flushDelay);
+	}
+}
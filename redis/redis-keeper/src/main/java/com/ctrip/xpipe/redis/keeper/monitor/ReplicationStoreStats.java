@@ -16,4 +16,15 @@ public interface ReplicationStoreStats {
 
 	void setMasterState(MASTER_STATE masterState);
 	long getLastReplDownTime();
+
+	/**
+	 * @param coalescedUpdates meta updates persisted by the flush
+	 */
+	void metaFlushed(int coalescedUpdates, long latencyMicro);
+
+	long getMetaUpdateCount();
+
+	long getMetaFlushCount();
+
+	DelayHistogram getMetaFlushLatency();
 }
@@ -1,140 +1,181 @@
 package com.ctrip.xpipe.redis.keeper.monitor.impl;
 
 
-import com.ctrip.xpipe.exception.ExceptionLogWrapper;
 import com.ctrip.xpipe.redis.core.store.CommandStore;
 import com.ctrip.xpipe.redis.core.store.CommandsListener;
 import com.ctrip.xpipe.redis.keeper.monitor.CommandStoreDelay;
+import com.ctrip.xpipe.redis.keeper.monitor.KeeperStats;
+import com.ctrip.xpipe.redis.keeper.monitor.ReplDelayStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.IntSupplier;
 
 /**
  * @author wenchao.meng
  *
  * Nov 24, 2016
+ *
+ * End time of recent writes are kept in a ring indexed by write sequence, the single writer publishes
+ * each write by the volatile sequence and slaves binary search the ring by offset. Send time of regions
+ * in flight are kept in a ring of each slave, from which flushes in order find their send time.
+ * Delays are recorded to {@link ReplDelayStats} of the slave without allocation.
  */
 public class DefaultCommandStoreDelay implements CommandStoreDelay{
-	
+
 	private static Logger logger = LoggerFactory.getLogger(DefaultCommandStoreDelay.class);
-	
+
 	public static int DEFAULT_DELAY_LOG_LIMIT_MICRO = Integer.parseInt(System.getProperty("DEFAULT_DELAY_LOG_LIMIT_MICRO", "5000"));
-	
-	private long lastActionTime = System.currentTimeMillis();
-	
-	public static int SUPPORT_SLAVES = Integer.parseInt(System.getProperty("SUPPORT_SLAVES", "10"));
-	
-	private int SUPPORT_OFFSETS = Integer.parseInt(System.getProperty("SUPPORT_OFFSETS", "30")); 
-	
+
+	public static int SUPPORT_OFFSETS = Integer.parseInt(System.getProperty("SUPPORT_OFFSETS", "1024"));
+
+	public static int SUPPORT_SENDS = Integer.parseInt(System.getProperty("SUPPORT_SENDS", "64"));
+
+	private volatile long lastActionTime = System.currentTimeMillis();
+
 	private IntSupplier delayLogLimitMicro;
 
-	private OffsetDelay[] offsetDelays = new OffsetDelay[SUPPORT_OFFSETS];
-	
-	private ExceptionLogWrapper exceptionLogWrapper = new ExceptionLogWrapper();
-	
 	private CommandStore commandStore;
-	
-	private int currentOffsetDelaysIndex = 0;
-	
+
+	private KeeperStats keeperStats;
+
+	private final int writeRingMask;
+
+	private final AtomicLongArray writeOffsets;
+
+	private final AtomicLongArray writeTimes;
+
+	private volatile long writeSeq;
+
+	private long beginWriteTime;
+
+	private Map<CommandsListener, ListenerDelay> listenerDelays = new ConcurrentHashMap<>();
 
 	public DefaultCommandStoreDelay(CommandStore commandStore){
 		this(commandStore, () -> DEFAULT_DELAY_LOG_LIMIT_MICRO);
 	}
 
-	
 	public DefaultCommandStoreDelay(CommandStore commandStore, IntSupplier delayLogLimitMicro){
-		
+		this(commandStore, delayLogLimitMicro, null);
+	}
+
+	public DefaultCommandStoreDelay(CommandStore commandStore, IntSupplier delayLogLimitMicro, KeeperStats keeperStats){
+
 		this.commandStore = commandStore;
 		this.delayLogLimitMicro = delayLogLimitMicro;
-		
-		for(int i=0;i<offsetDelays.length;i++){
-			offsetDelays[i] = new OffsetDelay();
-		}
+		this.keeperStats = keeperStats;
+
+		int ringSize = ringSize(SUPPORT_OFFSETS);
+		this.writeRingMask = ringSize - 1;
+		this.writeOffsets = new AtomicLongArray(ringSize);
+		this.writeTimes = new AtomicLongArray(ringSize);
 	}
-	
+
 	@Override
 	public void beginWrite(){
-		
-		exceptionLogWrapper.execute(new Runnable() {
-			
-			@Override
-			public void run() {
-				updateLastActionTime();
-				offsetDelays[currentOffsetDelaysIndex].beginWrite();
-			}
-		});
-		
+		updateLastActionTime();
+		beginWriteTime = System.nanoTime();
 	}
-	
+
 	@Override
 	public void endWrite(final long offset){
-		
-		exceptionLogWrapper.execute(new Runnable() {
-
-			@Override
-			public void run() {
-				
-				updateLastActionTime();
-				offsetDelays[currentOffsetDelaysIndex].endWrite(offset);
-				logger.trace("[endWrite]{}", offset);
-				
-				currentOffsetDelaysIndex = (currentOffsetDelaysIndex+1)%SUPPORT_OFFSETS;
-				offsetDelays[currentOffsetDelaysIndex].reset();
-			}
-		});
+
+		long endWriteTime = System.nanoTime();
+		updateLastActionTime();
+		logIfShould(beginWriteTime, endWriteTime, "[endWrite]");
+		logger.trace("[endWrite]{}", offset);
+
+		long seq = writeSeq;
+		int index = (int) (seq & writeRingMask);
+		writeOffsets.set(index, offset);
+		writeTimes.set(index, endWriteTime);
+		writeSeq = seq + 1;
 	}
 
+	/**
+	 * @param offset end of the region sent, exclusive
+	 */
 	@Override
 	public void beginSend(final CommandsListener commandsListener, final long offset){
-		
-		exceptionLogWrapper.execute(new Runnable() {
-
-			@Override
-			public void run() {
-				updateLastActionTime();
-				
-				OffsetDelay offsetDelay = getOffsetDelay(offset);
-				if(offsetDelay != null){
-					offsetDelay.beginSend(commandsListener, offset);
-				}
+
+		try {
+			updateLastActionTime();
+			long beginSendTime = System.nanoTime();
+
+			long seq = findWriteSeq(offset - 1);
+			ListenerDelay listenerDelay = getOrCreateListenerDelay(commandsListener);
+			if (seq >= 0) {
+				long endWriteTime = writeTimes.get((int) (seq & writeRingMask));
+				listenerDelay.replDelayStats.recordSendDelay((beginSendTime - endWriteTime) / 1000);
+				logIfShould(endWriteTime, beginSendTime, "[beginSend]");
 			}
-			
-		});
+			listenerDelay.beginSend(offset, beginSendTime);
+		} catch (Throwable th) {
+			logger.error("[beginSend]{}, {}", commandsListener, offset, th);
+		}
 	}
 
 	@Override
 	public void flushSucceed(final CommandsListener commandsListener, final long offset){
-		
-		exceptionLogWrapper.execute(new Runnable() {
-			@Override
-			public void run() {
-				updateLastActionTime();
-				
-				OffsetDelay offsetDelay = getOffsetDelay(offset);
-				if(offsetDelay != null){
-					offsetDelay.flushSucceed(commandsListener, offset);
-				}
+
+		try {
+			updateLastActionTime();
+			ListenerDelay listenerDelay = listenerDelays.get(commandsListener);
+			if (null != listenerDelay) {
+				listenerDelay.flushSucceed(offset, System.nanoTime());
 			}
-		});
+		} catch (Throwable th) {
+			logger.error("[flushSucceed]{}, {}", commandsListener, offset, th);
+		}
 	}
 
-	private OffsetDelay getOffsetDelay(long offset) {
-		
-		for(int i= 0; i < offsetDelays.length ; i++){
-			
-			OffsetDelay current = offsetDelays[i];
-			if(current.getOffset() == offset){
-				return current;
+	/**
+	 * @return sequence of the first write covering the offset,
+	 * or of the oldest write kept if the offset is older, for a lower bound of the delay;
+	 * -1 if the offset is not written yet
+	 */
+	private long findWriteSeq(long offset) {
+
+		long seq = writeSeq;
+		long high = seq - 1;
+		long oldest = Math.max(0, seq - writeRingMask - 1);
+		if (high < oldest || writeOffsets.get((int) (high & writeRingMask)) < offset) {
+			logger.debug("[findWriteSeq][not written]{}", offset);
+			return -1;
+		}
+
+		long low = oldest;
+		while (low < high) {
+			long mid = (low + high) >>> 1;
+			if (writeOffsets.get((int) (mid & writeRingMask)) < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
 			}
 		}
-		logger.debug("[getOffsetDelay][null]{}", offset);
-		return null;
+
+		// overwritten by writer while searching, the oldest write kept is newer than the one found
+		return Math.max(low, writeSeq - writeRingMask - 1);
+	}
+
+	private ListenerDelay getOrCreateListenerDelay(CommandsListener commandsListener) {
+
+		ListenerDelay listenerDelay = listenerDelays.get(commandsListener);
+		if (null != listenerDelay) return listenerDelay;
+
+		listenerDelays.keySet().removeIf(listener -> !listener.isOpen());
+		return listenerDelays.computeIfAbsent(commandsListener, listener -> new ListenerDelay(listener,
+				null == keeperStats ? new ReplDelayStats() : keeperStats.getReplDelayStats(listener)));
+	}
+
+	public ReplDelayStats getReplDelayStats(CommandsListener commandsListener) {
+		ListenerDelay listenerDelay = listenerDelays.get(commandsListener);
+		return null == listenerDelay ? null : listenerDelay.replDelayStats;
 	}
 
-	
 	public long getLastActionTime() {
 		return lastActionTime;
 	}
@@ -143,170 +184,75 @@ public class DefaultCommandStoreDelay implements CommandStoreDelay{
 		this.lastActionTime = System.currentTimeMillis();
 	}
 
-	public class OffsetDelay{
-		
-		private boolean begin = false;
-		private volatile long offset;
-		private AtomicLong beginWriteTime = new AtomicLong();
-		private AtomicLong endWriteTime = new AtomicLong();
-		private ListenerDelay []listenerDelays = new ListenerDelay[SUPPORT_SLAVES];
-		private AtomicInteger currentListenDelayIndex = new AtomicInteger();
-		
-		public OffsetDelay(){
-			
-			for(int i=0;i<listenerDelays.length;i++){
-				listenerDelays[i] = new ListenerDelay(); 
-			}
-		}
-		
-		public void reset(){
-			try{
-				if(!begin){
-					return;
-				}
-				if(currentListenDelayIndex.get() == 0){
-					logger.debug("[reset][has not sent yet]{}, {}", commandStore, offset);
-					return;
-				}
-				for(int i= 0; i < currentListenDelayIndex.get(); i++){
-					listenerDelays[i].reset();
-				}
-			}finally{
-				currentListenDelayIndex.set(0);
-				offset = 0;
-			}
-		}
+	private static int ringSize(int supported) {
+		return Integer.highestOneBit(Math.max(2, supported - 1)) << 1;
+	}
 
-		public void beginWrite(){
-			begin = true;
-			this.beginWriteTime.set(System.nanoTime());
-		}
-		
-		public void endWrite(long offset){
-			this.offset = offset;
-			this.endWriteTime.set(System.nanoTime());
-			logIfShould(beginWriteTime.get(), endWriteTime.get(), "[endWrite]");
-		}
+	/**
+	 * written by the sending thread of the slave and read by the thread flushing its channel
+	 */
+	private class ListenerDelay {
 
-		public void beginSend(CommandsListener commandsListener, long offset){
-			
-			ListenerDelay listenerDelay = getOrAddListenerDelay(commandsListener);
-			if(listenerDelay != null){
-				listenerDelay.beginSend();
-			}
-		}
+		private final CommandsListener commandsListener;
 
-		public void flushSucceed(CommandsListener commandsListener, long offset){
-			
-			ListenerDelay listenerDelay = getListenerDelay(commandsListener);
-			if(listenerDelay != null){
-				listenerDelay.flushSucceed();
-			}
-		}
-		
-		public long getOffset() {
-			return offset;
-		}
+		private final ReplDelayStats replDelayStats;
 
-		private ListenerDelay getListenerDelay(CommandsListener commandsListener) {
+		private final int sendRingMask = ringSize(SUPPORT_SENDS) - 1;
 
-			int i = 0;
-			for(; i < currentListenDelayIndex.get() ; i++){
-				if(listenerDelays[i].commandsListener == commandsListener){
-					return listenerDelays[i];
-				}
-			}
-			return null;
-		}
+		private final AtomicLongArray sendOffsets = new AtomicLongArray(sendRingMask + 1);
 
-		private ListenerDelay getOrAddListenerDelay(CommandsListener commandsListener) {
-			
-			int i = 0;
-			int current = currentListenDelayIndex.get();
-			for(; i < current ; i++){
-				if(listenerDelays[i].commandsListener == commandsListener){
-					return listenerDelays[i];
-				}
-			}
-			
-			while(true){
-			
-				if( current >= SUPPORT_SLAVES){
-					logger.error("[getOrAddListenerDelay][size exceend max support slaves]{}", SUPPORT_SLAVES);
-					return null;
-				}
-				
-				if(currentListenDelayIndex.compareAndSet(current, current + 1)){
-					
-					listenerDelays[current].setCommandsListener(commandsListener);
-					return listenerDelays[current];
-				}
-				
-				current++;
-			}
-		}
+		private final AtomicLongArray sendTimes = new AtomicLongArray(sendRingMask + 1);
+
+		private volatile long sendSeq;
+
+		private long flushSeq;
 
-		
-		public long currentOffset() {
-			return offset;
+		public ListenerDelay(CommandsListener commandsListener, ReplDelayStats replDelayStats) {
+			this.commandsListener = commandsListener;
+			this.replDelayStats = replDelayStats;
 		}
 
-		public void nextOffset(long offset) {
-			this.offset = offset;
+		public void beginSend(long offset, long beginSendTime) {
+			long seq = sendSeq;
+			int index = (int) (seq & sendRingMask);
+			sendOffsets.set(index, offset);
+			sendTimes.set(index, beginSendTime);
+			sendSeq = seq + 1;
 		}
-		
-		public class ListenerDelay{
-			
-			private CommandsListener commandsListener;
-			
-			private AtomicLong beginSendTime = new AtomicLong();
-			
-			private AtomicLong endSendTime = new AtomicLong();
-
-			public void beginSend(){
-				
-				this.beginSendTime.set(System.nanoTime());
-				logIfShould(endWriteTime.get(), beginSendTime.get(), "[beginSend]");
-				
-				logger.trace("[beginSend]{}", offset);
-			}
-			
-			public void reset() {
-				try{
-					if(endSendTime.get() == 0 && System.nanoTime() - beginSendTime.get() >= delayLogLimitMicro.getAsInt() * 1000){
-						logger.info("[reset][has not flushed]{}, off:{}, delay:{} micro", commandsListener, offset, (System.nanoTime() - beginSendTime.get())/1000);
-					}
-				}finally{
-					beginSendTime.set(0);
-					endSendTime.set(0);
-					this.commandsListener = null;
+
+		public void flushSucceed(long offset, long endSendTime) {
+			while (true) {
+				long seq = sendSeq;
+				if (seq - flushSeq > sendRingMask + 1) {
+					logger.debug("[flushSucceed][too many in flight]{}, {}", commandsListener, seq - flushSeq);
+					flushSeq = seq - sendRingMask - 1;
 				}
-			}
+				if (flushSeq >= seq) return;
 
-			public void flushSucceed(){
-				this.endSendTime.set(System.nanoTime());
-				logIfShould(beginSendTime.get(), endSendTime.get(), "[flushSucceed]");
-				
-			}
-			
-			public CommandsListener getCommandsListener() {
-				return commandsListener;
-			}
+				int index = (int) (flushSeq & sendRingMask);
+				long sendOffset = sendOffsets.get(index);
+				long beginSendTime = sendTimes.get(index);
+				if (sendSeq - flushSeq > sendRingMask + 1) continue;
 
-			public void setCommandsListener(CommandsListener commandsListener) {
-				this.commandsListener = commandsListener;
+				if (sendOffset > offset) return;
+				flushSeq++;
+				if (sendOffset == offset) {
+					replDelayStats.recordFlushDelay((endSendTime - beginSendTime) / 1000);
+					logIfShould(beginSendTime, endSendTime, "[flushSucceed]");
+					return;
+				}
 			}
-		} 
+		}
 	}
 
 	protected boolean logIfShould(long begin, long end, String message) {
-		
+
 		long delayMicro = (end - begin)/1000;
 		if(delayMicro >= delayLogLimitMicro.getAsInt()) {
-			logger.info("{}, {}, {}, delay:{} micro", message, begin, end, delayMicro);
+			logger.info("{}{}, {}, {}, delay:{} micro", message, commandStore, begin, end, delayMicro);
 			return true;
 		}
-		return false;  
+		return false;
 	}
 
 }
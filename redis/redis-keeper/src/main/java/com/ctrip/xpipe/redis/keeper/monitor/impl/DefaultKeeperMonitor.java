@@ -29,7 +29,7 @@ public class DefaultKeeperMonitor extends AbstractStartStoppable implements Keep
 	
 	@Override
 	public CommandStoreDelay createCommandStoreDelay(CommandStore commandStore) {
-		return new DefaultCommandStoreDelay(commandStore, () -> redisKeeperServer.getKeeperConfig().getDelayLogLimitMicro());
+		return new DefaultCommandStoreDelay(commandStore, () -> redisKeeperServer.getKeeperConfig().getDelayLogLimitMicro(), keeperStats);
 	}
 
 	@Override
@@ -4,9 +4,13 @@ import com.ctrip.xpipe.concurrent.AbstractExceptionLogTask;
 import com.ctrip.xpipe.lifecycle.AbstractStartStoppable;
 import com.ctrip.xpipe.redis.core.monitor.BaseInstantaneousMetric;
 import com.ctrip.xpipe.redis.core.monitor.InstantaneousMetric;
+import com.ctrip.xpipe.redis.core.store.CommandsListener;
 import com.ctrip.xpipe.redis.keeper.monitor.KeeperStats;
 import com.ctrip.xpipe.redis.keeper.monitor.PsyncFailReason;
+import com.ctrip.xpipe.redis.keeper.monitor.ReplDelayStats;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -47,10 +51,18 @@ public class DefaultKeeperStats extends AbstractStartStoppable implements Keeper
 
 	private AtomicLong psyncSendFailCount = new AtomicLong();
 
+	private AtomicLong commandsFlushCount = new AtomicLong();
+
+	private AtomicLong commandsFlushedWrites = new AtomicLong();
+
 	private AtomicLong peakInputInstantaneousInput = new AtomicLong();
 
 	private AtomicLong peakOutputInstantaneousOutput = new AtomicLong();
 
+	private ReplDelayStats replDelayStats = new ReplDelayStats();
+
+	private Map<CommandsListener, ReplDelayStats> slaveReplDelayStats = new ConcurrentHashMap<>();
+
 	public DefaultKeeperStats(String replId, ScheduledExecutorService scheduled) {
 		this.replId = replId;
 		this.scheduled = scheduled;
@@ -156,6 +168,22 @@ public class DefaultKeeperStats extends AbstractStartStoppable implements Keeper
 		return psyncSendFailCount.get();
 	}
 
+	@Override
+	public void increaseCommandsFlush(int writes) {
+		commandsFlushCount.incrementAndGet();
+		commandsFlushedWrites.addAndGet(writes);
+	}
+
+	@Override
+	public long getCommandsFlushCount() {
+		return commandsFlushCount.get();
+	}
+
+	@Override
+	public long getCommandsFlushedWrites() {
+		return commandsFlushedWrites.get();
+	}
+
 	@Override
 	public void setLastPsyncFailReason(PsyncFailReason reason) {
 		this.lastFailReason = reason;
@@ -166,6 +194,20 @@ public class DefaultKeeperStats extends AbstractStartStoppable implements Keeper
 		return this.lastFailReason;
 	}
 
+	@Override
+	public ReplDelayStats getReplDelayStats() {
+		return replDelayStats;
+	}
+
+	@Override
+	public ReplDelayStats getReplDelayStats(CommandsListener slave) {
+		ReplDelayStats stats = slaveReplDelayStats.get(slave);
+		if (null != stats) return stats;
+
+		slaveReplDelayStats.keySet().removeIf(listener -> !listener.isOpen());
+		return slaveReplDelayStats.computeIfAbsent(slave, listener -> new ReplDelayStats(replDelayStats));
+	}
+
 	private void updateTrafficStats() {
 		int interval = 100;
 		future = scheduled.scheduleAtFixedRate(new AbstractExceptionLogTask() {
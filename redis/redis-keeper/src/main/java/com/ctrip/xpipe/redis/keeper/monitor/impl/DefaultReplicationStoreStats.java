@@ -1,6 +1,7 @@
 package com.ctrip.xpipe.redis.keeper.monitor.impl;
 
 import com.ctrip.xpipe.redis.core.protocal.MASTER_STATE;
+import com.ctrip.xpipe.redis.keeper.monitor.DelayHistogram;
 import com.ctrip.xpipe.redis.keeper.monitor.ReplicationStoreStats;
 import com.ctrip.xpipe.utils.OsUtils;
 import com.ctrip.xpipe.utils.VisibleForTesting;
@@ -19,6 +20,12 @@ public class DefaultReplicationStoreStats implements ReplicationStoreStats{
 	private MASTER_STATE masterState;
 	private long 		lastReplDownTime = System.currentTimeMillis() - OsUtils.APPROXIMATE__RESTART_TIME_MILLI;//60s may be restart time
 
+	private AtomicLong metaUpdateCount = new AtomicLong();
+
+	private AtomicLong metaFlushCount = new AtomicLong();
+
+	private DelayHistogram metaFlushLatency = new DelayHistogram();
+
 	@Override
 	public void increateReplicationStoreCreateCount() {
 		replicationStoreCreateCount.incrementAndGet();
@@ -45,6 +52,28 @@ public class DefaultReplicationStoreStats implements ReplicationStoreStats{
 		return lastReplDownTime;
 	}
 
+	@Override
+	public void metaFlushed(int coalescedUpdates, long latencyMicro) {
+		metaUpdateCount.addAndGet(coalescedUpdates);
+		metaFlushCount.incrementAndGet();
+		metaFlushLatency.record(latencyMicro);
+	}
+
+	@Override
+	public long getMetaUpdateCount() {
+		return metaUpdateCount.get();
+	}
+
+	@Override
+	public long getMetaFlushCount() {
+		return metaFlushCount.get();
+	}
+
+	@Override
+	public DelayHistogram getMetaFlushLatency() {
+		return metaFlushLatency;
+	}
+
 	@VisibleForTesting
 	public void setLastReplDownTime(long lastReplDownTime) {
 		this.lastReplDownTime = lastReplDownTime;
@@ -52,6 +52,15 @@ public class NettyMasterHandler extends ChannelTrafficStatisticsHandler implemen
 		super.channelInactive(ctx);
 	}
 	
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+
+		if (ctx.channel().isWritable() && redisClient instanceof RedisSlave) {
+			((RedisSlave) redisClient).onChannelWritable();
+		}
+		super.channelWritabilityChanged(ctx);
+	}
+
 	@Override
 	protected void doChannelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
 		
@@ -4,8 +4,11 @@ import com.ctrip.xpipe.gtid.GtidSet;
 import com.ctrip.xpipe.redis.core.store.*;
 import com.ctrip.xpipe.redis.keeper.monitor.CommandStoreDelay;
 import com.ctrip.xpipe.redis.keeper.monitor.KeeperMonitor;
+import com.ctrip.xpipe.redis.keeper.store.cmd.ColdCommandFileMover;
+import com.ctrip.xpipe.redis.keeper.store.cmd.CommandBacklogBuffer;
+import com.ctrip.xpipe.redis.keeper.store.cmd.CommandFileCompressor;
+import com.ctrip.xpipe.redis.keeper.store.cmd.GroupCommitCommandAppender;
 import com.ctrip.xpipe.redis.keeper.util.KeeperLogger;
-import com.ctrip.xpipe.utils.FileUtils;
 import com.ctrip.xpipe.utils.OffsetNotifier;
 import io.netty.buffer.ByteBuf;
 import org.apache.commons.io.filefilter.PrefixFileFilter;
@@ -17,6 +20,8 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -34,6 +39,9 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
 
     public static final long DEFAULT_COMMAND_READER_FLYING_THRESHOLD = 1 << 15;
 
+    // readers may be opening cmd file when its compressed file appears, which is deleted after the delay
+    private static final long COMPRESSED_CMD_FILE_DELETE_DELAY_MILLI = 10000;
+
     private final File baseDir;
 
     private final String fileNamePrefix;
@@ -53,6 +61,11 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
 
     private final ConcurrentMap<CommandReader<?>, Boolean> readers = new ConcurrentHashMap<>();
 
+    // startOffset -> cmd file, maintained on rotate and delete to avoid scanning baseDir
+    private final ConcurrentNavigableMap<Long, CommandFile> cmdFiles = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentMap<CommandsPusher, Boolean> pushers = new ConcurrentHashMap<>();
+
     protected OffsetNotifier offsetNotifier;
 
     protected final long commandReaderFlyingThreshold;
@@ -63,6 +76,26 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
 
     private CommandWriter cmdWriter;
 
+    // null if commands written on the caller thread
+    private volatile GroupCommitCommandAppender writeBehind;
+
+    // null if commands read from cmd files only
+    private volatile CommandBacklogBuffer backlogBuffer;
+
+    // null if cmd files not compressed
+    private volatile CommandFileCompressor compressor;
+
+    // startOffset -> length of cmd file, for cmd files deleted after compressed
+    private final ConcurrentMap<Long, Long> compressedCmdFileLengths = new ConcurrentHashMap<>();
+
+    // startOffset -> time compressed, for cmd files not deleted yet after compressed
+    private final ConcurrentMap<Long, Long> cmdFilesCompressedAt = new ConcurrentHashMap<>();
+
+    // null if cmd files kept in baseDir
+    private volatile ColdCommandFileMover coldMover;
+
+    private volatile IntSupplier coldAfterSeconds;
+
     private List<CommandFileOffsetGtidIndex> cmdIndexList = new CopyOnWriteArrayList<>();
 
     protected GtidSet baseGtidSet;
@@ -99,6 +132,7 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
         idxFileFilter = new PrefixFileFilter(INDEX_FILE_PREFIX + fileNamePrefix);
         allFileFilter = new PrefixFileFilter(new String[] {fileNamePrefix, INDEX_FILE_PREFIX + fileNamePrefix});
 
+        loadCmdFiles();
         intiCmdFileIndex();
         cmdWriter = cmdReaderWriterFactory.createCmdWriter(this, maxFileSize, delayTraceLogger);
     }
@@ -120,23 +154,61 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
         }
     }
 
+    private void loadCmdFiles() {
+        for (File file: allCmdFiles()) {
+            if (CommandFileCompressor.isTmpFile(file) || ColdCommandFileMover.isTmpFile(file)) {
+                getLogger().info("[loadCmdFiles][{}] delete uncompleted file: {}", file, file.delete());
+                continue;
+            }
+            if (!file.exists()) {
+                // link to cold file, which is unavailable
+                getLogger().warn("[loadCmdFiles][{}] skip for cold file not found", file);
+                continue;
+            }
+
+            long startOffset = extractStartOffset(file);
+            if (CommandFileCompressor.isCompressedFile(file) && !loadCompressedCmdFile(startOffset, file)) {
+                continue;
+            }
+            cmdFiles.putIfAbsent(startOffset, new CommandFile(CommandFileCompressor.cmdFileOf(file), startOffset));
+        }
+        getLogger().info("[loadCmdFiles] {} cmd files, {} compressed", cmdFiles.size(), compressedCmdFileLengths.size());
+    }
+
+    private boolean loadCompressedCmdFile(long startOffset, File compressedFile) {
+        try {
+            compressedCmdFileLengths.put(startOffset, CommandFileCompressor.rawLengthOf(compressedFile));
+        } catch (Throwable th) {
+            getLogger().warn("[loadCompressedCmdFile][{}] delete for load fail: {}", compressedFile,
+                    ColdCommandFileMover.delete(compressedFile), th);
+            return false;
+        }
+
+        File cmdFile = CommandFileCompressor.cmdFileOf(compressedFile);
+        if (cmdFile.exists()) {
+            getLogger().info("[loadCompressedCmdFile][{}] delete for compressed already: {}", cmdFile, ColdCommandFileMover.delete(cmdFile));
+        }
+        return true;
+    }
+
     protected void intiCmdFileIndex() {
         File[] files = allIndexFiles();
-        List<CommandFileOffsetGtidIndex> localIndexList = new LinkedList<>();
+        List<CommandFileOffsetGtidIndex> localIndexList = new ArrayList<>();
         for (File idxFile: files) {
             String cmdFileName = idxFile.getName().substring(INDEX_FILE_PREFIX.length());
             File file = new File(baseDir, cmdFileName);
-            if (!file.exists()) {
+            if (!cmdFileExists(file)) {
                 getLogger().info("[intiCmdFileIndex][{}] skip for no cmd file", idxFile);
                 continue;
             }
 
             long startOffset = extractStartOffset(file);
             CommandFile commandFile = new CommandFile(file, startOffset);
-            FileUtils.readFileAsStringLineByLine(idxFile, idxStr -> {
-                CommandFileOffsetGtidIndex idx = CommandFileOffsetGtidIndex.createFromRawString(idxStr, commandFile);
-                if (null != idx) localIndexList.add(idx);
-            });
+            try {
+                localIndexList.addAll(BinaryGtidIndexFile.load(idxFile, commandFile));
+            } catch (Throwable th) {
+                getLogger().info("[intiCmdFileIndex][{}] load fail", idxFile, th);
+            }
         }
 
         Collections.sort(localIndexList);
@@ -164,23 +236,13 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
     }
 
     private long findMaxStartOffset() {
-
-        long maxStartOffset = 0;
-        File[] files = allCmdFiles();
-        if (files != null) {
-            for (File file : files) {
-                long startOffset = extractStartOffset(file);
-                if (startOffset > maxStartOffset) {
-                    maxStartOffset = startOffset;
-                }
-            }
-        }
-        return maxStartOffset;
+        Map.Entry<Long, CommandFile> lastEntry = cmdFiles.lastEntry();
+        return null == lastEntry ? 0 : lastEntry.getKey();
     }
 
     @Override
     public File findIndexFile(CommandFile commandFile) {
-        if (!commandFile.getFile().exists()) throw new IllegalArgumentException("command file must exist " + commandFile);
+        if (!cmdFileExists(commandFile.getFile())) throw new IllegalArgumentException("command file must exist " + commandFile);
         return new File(baseDir, INDEX_FILE_PREFIX + commandFile.getFile().getName());
     }
 
@@ -213,23 +275,111 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
         return files;
     }
 
-    private boolean delCmdFile(File cmdFile) {
+    private boolean delCmdFile(CommandFile commandFile) {
+        File cmdFile = commandFile.getFile();
+        cmdFiles.remove(commandFile.getStartOffset(), commandFile);
+        cmdFilesCompressedAt.remove(commandFile.getStartOffset());
+        compressedCmdFileLengths.remove(commandFile.getStartOffset());
+
+        File compressedFile = CommandFileCompressor.compressedFileOf(cmdFile);
+        if (compressedFile.exists() && !ColdCommandFileMover.delete(compressedFile)) {
+            getLogger().warn("[delCmdFile][{}] del compressed file fail", compressedFile);
+        }
+
         File idxFile = new File(baseDir, INDEX_FILE_PREFIX + cmdFile.getName());
         if (idxFile.exists()) {
             if (!idxFile.delete()) {
                 getLogger().warn("[delCmdFile][{}] del idx file fail", idxFile);
             }
 
-            this.cmdIndexList = cmdIndexList.stream()
-                    .filter(index -> !index.getCommandFile().getFile().equals(cmdFile))
-                    .collect(Collectors.toCollection(CopyOnWriteArrayList::new));
+            this.cmdIndexList.removeIf(index -> index.getCommandFile().getFile().equals(cmdFile));
         }
 
-        return cmdFile.delete();
+        return !cmdFile.exists() || ColdCommandFileMover.delete(cmdFile);
     }
 
     private long extractStartOffset(File file) {
-        return Long.parseLong(file.getName().substring(fileNamePrefix.length()));
+        return Long.parseLong(CommandFileCompressor.cmdFileOf(file).getName().substring(fileNamePrefix.length()));
+    }
+
+    private boolean cmdFileExists(File cmdFile) {
+        return cmdFile.isFile() || CommandFileCompressor.compressedFileOf(cmdFile).isFile();
+    }
+
+    private long cmdFileLength(long startOffset, File cmdFile) {
+        Long compressedLength = compressedCmdFileLengths.get(startOffset);
+        return null == compressedLength ? cmdFile.length() : compressedLength;
+    }
+
+    private long cmdFileLastModified(long startOffset, File cmdFile) {
+        if (compressedCmdFileLengths.containsKey(startOffset)) {
+            // modified time of cmd file is kept by compressed file
+            return CommandFileCompressor.compressedFileOf(cmdFile).lastModified();
+        }
+        return cmdFile.lastModified();
+    }
+
+    /**
+     * Keep the latest commands of capacity bytes in memory, from which readers read instead of cmd files
+     */
+    public void enableBacklogBuffer(int capacity) {
+        makeSureOpen();
+        if (capacity <= 0 || null != backlogBuffer) return;
+
+        getLogger().info("[enableBacklogBuffer]{}, capacity:{}", this, capacity);
+        backlogBuffer = new CommandBacklogBuffer(capacity, cmdWriter.totalLength());
+    }
+
+    /**
+     * @return null if not enabled
+     */
+    public CommandBacklogBuffer getBacklogBuffer() {
+        return backlogBuffer;
+    }
+
+    /**
+     * Compress cmd files rotated in background on gc, with transparent decompression on read
+     */
+    public void enableCompression(CommandFileCompressor compressor) {
+        makeSureOpen();
+        if (null == compressor || null != this.compressor) return;
+
+        getLogger().info("[enableCompression]{}", this);
+        this.compressor = compressor;
+    }
+
+    /**
+     * Move cmd files older than coldAfterSeconds to the cold dir on gc, see {@link ColdCommandFileMover}
+     */
+    public void enableColdTier(ColdCommandFileMover coldMover, IntSupplier coldAfterSeconds) {
+        makeSureOpen();
+        if (null == coldMover || null != this.coldMover) return;
+
+        getLogger().info("[enableColdTier]{}, {}", this, coldMover.getColdDir());
+        this.coldAfterSeconds = coldAfterSeconds;
+        this.coldMover = coldMover;
+    }
+
+    /**
+     * Write commands behind the caller thread, the caller should stop reading when backlog is over maxBacklogBytes
+     */
+    public void enableWriteBehind(long maxBacklogBytes) {
+        makeSureOpen();
+        if (maxBacklogBytes <= 0 || null != writeBehind) return;
+
+        getLogger().info("[enableWriteBehind]{}, maxBacklogBytes:{}", this, maxBacklogBytes);
+        writeBehind = new GroupCommitCommandAppender(cmdWriter.totalLength(), maxBacklogBytes, this::doAppendCommands,
+                this::onWriteBehindFail);
+    }
+
+    // commands accepted are lost, close so that the master link fails on next append and resyncs
+    private void onWriteBehindFail(IOException cause) {
+        getLogger().error("[onWriteBehindFail][close]{}", this, cause);
+        try {
+            close();
+        } catch (Throwable th) {
+            getLogger().warn("[onWriteBehindFail][close fail]{}", this, th);
+        }
     }
 
     @Override
@@ -237,22 +387,70 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
 
         makeSureOpen();
 
+        GroupCommitCommandAppender current = writeBehind;
+        if (null != current) {
+            return current.append(byteBuf);
+        }
+        return doAppendCommands(byteBuf);
+    }
+
+    @Override
+    public boolean checkCommandsBacklog(Runnable onDrained) {
+        GroupCommitCommandAppender current = writeBehind;
+        return null == current || current.checkBacklog(onDrained);
+    }
+
+    private int doAppendCommands(ByteBuf byteBuf) throws IOException {
+
         cmdWriter.rotateFileIfNecessary();
 
         commandStoreDelay.beginWrite();
 
+        int readerIndex = byteBuf.readerIndex();
         int wrote = cmdWriter.write(byteBuf);
 
         long offset = cmdWriter.totalLength() - 1;
         commandStoreDelay.endWrite(offset);
 
+        CommandBacklogBuffer currentBuffer = backlogBuffer;
+        if (null != currentBuffer) {
+            // after written to file, so that readers never read beyond cmd files
+            currentBuffer.append(offset + 1 - wrote, byteBuf, readerIndex, wrote);
+        }
+
         offsetNotifier.offsetIncreased(offset);
+        notifyPushers();
 
         return wrote;
     }
 
+    private void notifyPushers() {
+        if (pushers.isEmpty()) return;
+        for (CommandsPusher pusher : pushers.keySet()) {
+            pusher.wakeup();
+        }
+    }
+
+    protected void addPusher(CommandsPusher pusher) {
+        this.pushers.put(pusher, Boolean.TRUE);
+    }
+
+    protected void removePusher(CommandsPusher pusher) {
+        this.pushers.remove(pusher);
+    }
+
     @Override
     public long totalLength() {
+        GroupCommitCommandAppender current = writeBehind;
+        if (null != current) {
+            // commands accepted are counted, so that psync continues after them
+            return current.acceptedLength();
+        }
+        return cmdWriter.totalLength();
+    }
+
+    // length of commands already in cmd files, readers never go beyond it
+    long writtenLength() {
         return cmdWriter.totalLength();
     }
 
@@ -261,21 +459,18 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
     }
 
     public CommandFile findFileForOffset(long targetStartOffset) {
-        File[] files = baseDir.listFiles(cmdFileFilter);
-        if (files != null) {
-            for (File file : files) {
-                long startOffset = extractStartOffset(file);
-                if (targetStartOffset >= startOffset && (targetStartOffset < startOffset + file.length()
-                        || targetStartOffset < startOffset + maxFileSize)) {
-                    return new CommandFile(file, startOffset);
-                }
+        Map.Entry<Long, CommandFile> floorEntry = cmdFiles.floorEntry(targetStartOffset);
+        if (null != floorEntry) {
+            long startOffset = floorEntry.getKey();
+            File file = floorEntry.getValue().getFile();
+            if (targetStartOffset < startOffset + maxFileSize || targetStartOffset < startOffset + cmdFileLength(startOffset, file)) {
+                return floorEntry.getValue();
             }
         }
 
-        if (files != null) {
-            for (File file : files) {
-                getLogger().info("[findFileForOffset]{}, {}, {}", file.getName(), file.length(), targetStartOffset);
-            }
+        for (CommandFile commandFile : cmdFiles.values()) {
+            File file = commandFile.getFile();
+            getLogger().info("[findFileForOffset]{}, {}, {}", file.getName(), cmdFileLength(commandFile.getStartOffset(), file), targetStartOffset);
         }
         return null;
     }
@@ -283,7 +478,11 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
     @Override
     public CommandFile findLatestFile() throws IOException {
         long maxStartOffset = findMaxStartOffset();
-        return new CommandFile(fileForStartOffset(maxStartOffset), maxStartOffset);
+        return registerCmdFile(maxStartOffset);
+    }
+
+    private CommandFile registerCmdFile(long startOffset) {
+        return cmdFiles.computeIfAbsent(startOffset, offset -> new CommandFile(fileForStartOffset(offset), offset));
     }
 
     @Override
@@ -305,12 +504,13 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
         makeSureOpen();
 
         Set<String> interestedSrcIds = excludedGtidSet.getUUIDs();
-        Iterator<CommandFileOffsetGtidIndex> indexIterator = cmdIndexList.iterator();
+        CommandFileOffsetGtidIndex[] indexes = cmdIndexList.toArray(new CommandFileOffsetGtidIndex[0]);
+        int next = 0;
         CommandFileOffsetGtidIndex startIndex = getBaseIndex();
         if (null == startIndex) {
             getLogger().debug("[findFirstFileSegment] startIndex=null, iterate to next");
-            startIndex = indexIterator.next();
-            //throw NoSuchElementException when index not found
+            if (0 == indexes.length) throw new NoSuchElementException("no index in " + this);
+            startIndex = indexes[next++];
         }
         CommandFileOffsetGtidIndex endIndex = null;
 
@@ -320,10 +520,29 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
             throw new IllegalArgumentException("req cmd miss storeExcluded:" + storeExcludedGtidSet + " reqExcluded:" + excludedGtidSet);
         }
 
+        // gtid sets of indexes only grow, gtids from start to an index are all excluded by req
+        // if and only if so are gtids between every two indexes before it, binary search the last one
+        GtidSet firstExcludedGtidSet = startIndex.getExcludedGtidSet();
+        int low = next, high = indexes.length - 1, lastContained = next - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            GtidSet gtidSetFromStart = indexes[mid].getExcludedGtidSet().filterGtid(interestedSrcIds)
+                    .subtract(firstExcludedGtidSet);
+            if (gtidSetFromStart.isContainedWithin(excludedGtidSet)) {
+                lastContained = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (lastContained >= next) {
+            startIndex = indexes[lastContained];
+        }
+
         CommandFileOffsetGtidIndex preIndex = startIndex;
         boolean contained = true;
-        while (indexIterator.hasNext()) {
-            CommandFileOffsetGtidIndex index = indexIterator.next();
+        for (int i = lastContained + 1; i < indexes.length; i++) {
+            CommandFileOffsetGtidIndex index = indexes[i];
             GtidSet gtidSetBetweenIndex = index.getExcludedGtidSet().filterGtid(interestedSrcIds)
                     .subtract(preIndex.getExcludedGtidSet());
 
@@ -366,12 +585,12 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
         }
 
         long startOffset = extractStartOffset(curFile);
-        long fileLength = curFile.length();
+        long fileLength = cmdFileLength(startOffset, curFile);
         if (0 == fileLength) return null;
 
-        File nextFile = fileForStartOffset(startOffset + fileLength);
-        if (nextFile.isFile()) {
-            return new CommandFile(nextFile, extractStartOffset(nextFile));
+        CommandFile nextFile = cmdFiles.get(startOffset + fileLength);
+        if (null != nextFile && cmdFileExists(nextFile.getFile())) {
+            return nextFile;
         } else {
             return null;
         }
@@ -387,9 +606,9 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
         long lowestReadingOffset = Long.MAX_VALUE;
 
         for (CommandReader reader : readers.keySet()) {
-            File readingFile = reader.getCurCmdFile().getFile();
+            CommandFile readingFile = reader.getCurCmdFile();
             if (readingFile != null) {
-                lowestReadingOffset = Math.min(lowestReadingOffset, extractStartOffset(readingFile));
+                lowestReadingOffset = Math.min(lowestReadingOffset, readingFile.getStartOffset());
             }
         }
 
@@ -403,8 +622,7 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
         CommandFile commandFile = findFileForOffset(startOffset);
         if (null != commandFile) return commandFile;
 
-        File newFile = new File(baseDir, fileNamePrefix + startOffset);
-        return new CommandFile(newFile, startOffset);
+        return registerCmdFile(startOffset);
     }
 
     @Override
@@ -422,7 +640,12 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
 
         if(cmpAndSetClosed()){
             getLogger().info("[close]{}", this);
+            if (null != writeBehind) {
+                writeBehind.close();
+            }
             cmdWriter.close();
+            // pushers find store closed in next round and exit
+            notifyPushers();
         }else{
             getLogger().warn("[close][already closed]{}", this);
         }
@@ -435,10 +658,13 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
         File [] files = allFiles();
         if(files != null){
             for(File file : files){
-                boolean result = file.delete();
+                boolean result = ColdCommandFileMover.delete(file);
                 getLogger().info("[destroy][delete file]{}, {}", file, result);
             }
         }
+        cmdFiles.clear();
+        compressedCmdFileLengths.clear();
+        cmdFilesCompressedAt.clear();
     }
 
     @Override
@@ -461,18 +687,12 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
     @Override
     public long lowestAvailableOffset() {
 
-        long minCmdOffset = Long.MAX_VALUE; // start from zero
-        File[] files = allCmdFiles();
-
-        if (files == null || files.length == 0) {
+        Map.Entry<Long, CommandFile> firstEntry = cmdFiles.firstEntry();
+        if (null == firstEntry) {
             getLogger().info("[minCmdKeeperOffset][no cmd files][start offset 0]");
-            minCmdOffset = 0L;
-        } else {
-            for (File cmdFile : files) {
-                minCmdOffset = Math.min(extractStartOffset(cmdFile), minCmdOffset);
-            }
+            return 0L;
         }
-        return minCmdOffset;
+        return firstEntry.getKey();
     }
 
     @Override
@@ -524,14 +744,110 @@ public abstract class AbstractCommandStore extends AbstractStore implements Comm
             timeoutGuarantees();
             finishGuarantees();
 
-            for (File cmdFile : allCmdFiles()) {
-                long fileStartOffset = extractStartOffset(cmdFile);
-                if (canDeleteCmdFile(Long.min(lowestReadingOffset(), minGuaranteeOffset()), fileStartOffset, cmdFile.length(),
-                        cmdFile.lastModified())) {
+            long lowestOffset = Long.min(lowestReadingOffset(), minGuaranteeOffset());
+            for (CommandFile commandFile : cmdFiles.values()) {
+                File cmdFile = commandFile.getFile();
+                long fileStartOffset = commandFile.getStartOffset();
+                long fileLength = cmdFileLength(fileStartOffset, cmdFile);
+                if (fileStartOffset + fileLength >= lowestOffset) {
+                    // files are sorted by offset, none of the rest can be deleted
+                    break;
+                }
+                if (canDeleteCmdFile(lowestOffset, fileStartOffset, fileLength, cmdFileLastModified(fileStartOffset, cmdFile))) {
                     getLogger().info("[GC] delete command file {}", cmdFile);
-                    delCmdFile(cmdFile);
+                    delCmdFile(commandFile);
                 }
             }
+
+            CommandFileCompressor current = compressor;
+            if (null != current) {
+                compressCmdFiles(current);
+            }
+
+            ColdCommandFileMover currentMover = coldMover;
+            if (null != currentMover) {
+                moveCmdFilesToCold(currentMover);
+            }
+        } finally {
+            gcLock.unlock();
+        }
+    }
+
+    private void compressCmdFiles(CommandFileCompressor current) {
+        Map.Entry<Long, CommandFile> lastEntry = cmdFiles.lastEntry();
+        if (null == lastEntry) return;
+
+        long now = System.currentTimeMillis();
+        // the last file is being written, files before it are rotated
+        for (CommandFile commandFile : cmdFiles.headMap(lastEntry.getKey()).values()) {
+            long fileStartOffset = commandFile.getStartOffset();
+            File cmdFile = commandFile.getFile();
+            if (compressedCmdFileLengths.containsKey(fileStartOffset)) continue;
+
+            Long compressedAt = cmdFilesCompressedAt.get(fileStartOffset);
+            if (null == compressedAt) {
+                current.compressAsync(commandFile, this::onCmdFileCompressed);
+            } else if (now - compressedAt >= COMPRESSED_CMD_FILE_DELETE_DELAY_MILLI) {
+                compressedCmdFileLengths.put(fileStartOffset, cmdFile.length());
+                cmdFilesCompressedAt.remove(fileStartOffset);
+                getLogger().info("[GC] delete compressed command file {}: {}", cmdFile, ColdCommandFileMover.delete(cmdFile));
+            }
+        }
+    }
+
+    private void onCmdFileCompressed(CommandFile commandFile) {
+        try {
+            gcLock.lock();
+            if (commandFile.equals(cmdFiles.get(commandFile.getStartOffset()))) {
+                cmdFilesCompressedAt.put(commandFile.getStartOffset(), System.currentTimeMillis());
+            } else {
+                File compressedFile = CommandFileCompressor.compressedFileOf(commandFile.getFile());
+                getLogger().info("[onCmdFileCompressed][{}] delete for cmd file deleted: {}", compressedFile, ColdCommandFileMover.delete(compressedFile));
+            }
+        } finally {
+            gcLock.unlock();
+        }
+    }
+
+    private void moveCmdFilesToCold(ColdCommandFileMover currentMover) {
+        Map.Entry<Long, CommandFile> lastEntry = cmdFiles.lastEntry();
+        if (null == lastEntry) return;
+
+        long coldBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(coldAfterSeconds.getAsInt());
+        for (CommandFile commandFile : cmdFiles.headMap(lastEntry.getKey()).values()) {
+            long fileStartOffset = commandFile.getStartOffset();
+            File cmdFile = commandFile.getFile();
+            if (cmdFileLastModified(fileStartOffset, cmdFile) > coldBefore) {
+                // files are sorted by offset, the rest are newer
+                break;
+            }
+
+            File file;
+            if (compressedCmdFileLengths.containsKey(fileStartOffset)) {
+                file = CommandFileCompressor.compressedFileOf(cmdFile);
+            } else if (null == compressor) {
+                file = cmdFile;
+            } else {
+                // move after compressed, so that cmd file is neither read nor written while being moved
+                continue;
+            }
+            currentMover.copyAsync(file, (src, coldFile) -> onCmdFileCopiedToCold(commandFile, src, coldFile));
+        }
+    }
+
+    private void onCmdFileCopiedToCold(CommandFile commandFile, File src, File coldFile) {
+        try {
+            gcLock.lock();
+            ColdCommandFileMover currentMover = coldMover;
+            if (commandFile.equals(cmdFiles.get(commandFile.getStartOffset())) && src.isFile()
+                    && !ColdCommandFileMover.isCold(src) && null != currentMover) {
+                currentMover.link(src, coldFile);
+                getLogger().info("[onCmdFileCopiedToCold][{}] moved to {}", src, coldFile);
+            } else {
+                getLogger().info("[onCmdFileCopiedToCold][{}] delete for file deleted: {}", coldFile, coldFile.delete());
+            }
+        } catch (Throwable th) {
+            getLogger().warn("[onCmdFileCopiedToCold][{}] link fail, delete: {}", src, coldFile.delete(), th);
         } finally {
             gcLock.unlock();
         }
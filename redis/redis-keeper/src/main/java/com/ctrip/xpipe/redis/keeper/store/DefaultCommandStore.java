@@ -71,29 +71,7 @@ public class DefaultCommandStore extends AbstractCommandStore implements Command
 				final ReferenceFileRegion referenceFileRegion = cmdReader.read(1000);
 				if (null == referenceFileRegion) continue;
 
-				logger.debug("[addCommandsListener] {}", referenceFileRegion);
-
-				if(getDelayTraceLogger().isDebugEnabled()){
-					getDelayTraceLogger().debug("[write][begin]{}, {}", listener, referenceFileRegion.getTotalPos());
-				}
-				getCommandStoreDelay().beginSend(listener, referenceFileRegion.getTotalPos());
-
-				ChannelFuture future = listener.onCommand(cmdReader.getCurCmdFile(), cmdReader.position(), referenceFileRegion);
-
-				if(future != null){
-					CommandReader<ReferenceFileRegion> finalCmdReader = cmdReader;
-					future.addListener(new ChannelFutureListener() {
-						@Override
-						public void operationComplete(ChannelFuture future) throws Exception {
-
-							finalCmdReader.flushed(referenceFileRegion);
-							getCommandStoreDelay().flushSucceed(listener, referenceFileRegion.getTotalPos());
-							if(logger.isDebugEnabled()){
-								getDelayTraceLogger().debug("[write][ end ]{}, {}", listener, referenceFileRegion.getTotalPos());
-							}
-						}
-					});
-				}
+				sendRegion(cmdReader, listener, referenceFileRegion);
 
 				if (referenceFileRegion.count() <= 0) {
 					try {
@@ -111,6 +89,65 @@ public class DefaultCommandStore extends AbstractCommandStore implements Command
 		logger.info("[addCommandsListener][end] from {}, {}", progress, listener);
 	}
 
+	@Override
+	public CommandsPusher addPushCommandsListener(ReplicationProgress<?> progress, PushCommandsListener listener) throws IOException {
+
+		if (!(progress instanceof OffsetReplicationProgress)) {
+			throw new UnsupportedOperationException("unsupported progress " + progress);
+		}
+
+		makeSureOpen();
+		logger.info("[addPushCommandsListener] from offset {}, {}", progress, listener);
+
+		CommandReader<ReferenceFileRegion> cmdReader = null;
+
+		try {
+			cmdReader = beginRead((OffsetReplicationProgress) progress);
+		} finally {
+			// ensure beforeCommand() is always called
+			listener.beforeCommand();
+		}
+
+		CommandReader<ReferenceFileRegion> finalCmdReader = cmdReader;
+		return startPush(new DefaultCommandsPusher<>(this, cmdReader, listener,
+				referenceFileRegion -> sendRegion(finalCmdReader, listener, referenceFileRegion)));
+	}
+
+	protected CommandsPusher startPush(DefaultCommandsPusher<?> pusher) {
+		addPusher(pusher);
+		pusher.wakeup();
+		return pusher;
+	}
+
+	private ChannelFuture sendRegion(CommandReader<ReferenceFileRegion> cmdReader, CommandsListener listener,
+									 ReferenceFileRegion referenceFileRegion) throws IOException {
+
+		logger.debug("[sendRegion] {}", referenceFileRegion);
+
+		if(getDelayTraceLogger().isDebugEnabled()){
+			getDelayTraceLogger().debug("[write][begin]{}, {}", listener, referenceFileRegion.getTotalPos());
+		}
+		getCommandStoreDelay().beginSend(listener, referenceFileRegion.getTotalPos());
+
+		ChannelFuture future = listener.onCommand(cmdReader.getCurCmdFile(), cmdReader.position(), referenceFileRegion);
+
+		if(future != null){
+			future.addListener(new ChannelFutureListener() {
+				@Override
+				public void operationComplete(ChannelFuture future) throws Exception {
+
+					cmdReader.flushed(referenceFileRegion);
+					getCommandStoreDelay().flushSucceed(listener, referenceFileRegion.getTotalPos());
+					if(logger.isDebugEnabled()){
+						getDelayTraceLogger().debug("[write][ end ]{}, {}", listener, referenceFileRegion.getTotalPos());
+					}
+				}
+			});
+		}
+
+		return future;
+	}
+
 	@Override
 	public Logger getLogger() {
 		return logger;
@@ -0,0 +1,182 @@
+package com.ctrip.xpipe.redis.keeper.store;
+
+import com.ctrip.xpipe.redis.core.store.CommandFile;
+import com.ctrip.xpipe.redis.core.store.CommandReader;
+import com.ctrip.xpipe.redis.core.store.CommandsPusher;
+import com.ctrip.xpipe.redis.core.store.PushCommandsListener;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.EventLoop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read commands without blocking and send them on the event loop of listener.
+ * A push round is triggered by commands appending, listener writability and flushing of throttled reader,
+ * so no thread is parked for each slave.
+ */
+public class DefaultCommandsPusher<R> implements CommandsPusher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultCommandsPusher.class);
+
+    public static final String KEY_MAX_COMMANDS_PER_PUSH_ROUND = "maxCommandsPerPushRound";
+
+    private static final int MAX_COMMANDS_PER_ROUND = Integer.parseInt(System.getProperty(KEY_MAX_COMMANDS_PER_PUSH_ROUND, "64"));
+
+    private final AbstractCommandStore commandStore;
+
+    private final CommandReader<R> cmdReader;
+
+    private final PushCommandsListener listener;
+
+    private final CommandSender<R> sender;
+
+    private final EventLoop eventLoop;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private volatile boolean waitingFlush = false;
+
+    private final Runnable pushTask = this::push;
+
+    private final ChannelFutureListener flushListener = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            if (waitingFlush) wakeup();
+        }
+    };
+
+    public DefaultCommandsPusher(AbstractCommandStore commandStore, CommandReader<R> cmdReader,
+                                 PushCommandsListener listener, CommandSender<R> sender) {
+        this.commandStore = commandStore;
+        this.cmdReader = cmdReader;
+        this.listener = listener;
+        this.sender = sender;
+        this.eventLoop = listener.eventLoop();
+    }
+
+    @Override
+    public void wakeup() {
+        if (closed.get()) return;
+
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                eventLoop.execute(pushTask);
+            } catch (RejectedExecutionException e) {
+                logger.info("[wakeup][event loop rejected]{}", listener);
+                doClose();
+            }
+        }
+    }
+
+    private void push() {
+        scheduled.set(false);
+        waitingFlush = false;
+
+        if (closed.get()) return;
+        if (!listener.isOpen()) {
+            logger.info("[push][listener closed]{}", listener);
+            doClose();
+            return;
+        }
+
+        try {
+            // every read may refill from cmd files synchronously, so reads instead of commands sent are bounded
+            int reads = 0;
+            long lastIdleOffset = -1;
+            while (listener.isWritable()) {
+                if (reads >= MAX_COMMANDS_PER_ROUND) {
+                    // give way to other channels on the same event loop
+                    wakeup();
+                    return;
+                }
+
+                reads++;
+                R cmd = cmdReader.tryRead();
+                if (null == cmd) {
+                    if (cmdReader.isThrottled()) {
+                        // wait for flying commands flushed
+                        waitingFlush = true;
+                        if (cmdReader.isThrottled()) return;
+                        // flushed before waitingFlush set
+                        waitingFlush = false;
+                        continue;
+                    }
+
+                    // reader also stops at a command across buffer refills or at the end of a segment,
+                    // keep reading if it is not at the end of written commands and is still moving on
+                    long offset = readerOffset();
+                    if (offset < 0 || offset >= commandStore.writtenLength() || offset == lastIdleOffset) {
+                        // wait for commands appending
+                        return;
+                    }
+                    lastIdleOffset = offset;
+                    continue;
+                }
+
+                ChannelFuture future = sender.send(cmd);
+                if (null != future) future.addListener(flushListener);
+            }
+            // wait for listener writable
+        } catch (Throwable th) {
+            logger.error("[push][exit]" + listener, th);
+            doClose();
+        }
+    }
+
+    private long readerOffset() throws IOException {
+        CommandFile cmdFile = cmdReader.getCurCmdFile();
+        if (null == cmdFile) return -1;
+        return cmdFile.getStartOffset() + cmdReader.position();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed.get()) return;
+
+        if (eventLoop.inEventLoop()) {
+            doClose();
+        } else {
+            try {
+                eventLoop.execute(this::doClose);
+            } catch (RejectedExecutionException e) {
+                doClose();
+            }
+        }
+    }
+
+    private void doClose() {
+        if (closed.compareAndSet(false, true)) {
+            logger.info("[close]{}", listener);
+            commandStore.removePusher(this);
+            try {
+                cmdReader.close();
+            } catch (IOException e) {
+                logger.info("[close][reader close fail]" + listener, e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pusher:%s, %s", listener, cmdReader);
+    }
+
+    public interface CommandSender<R> {
+
+        ChannelFuture send(R cmd) throws IOException;
+
+    }
+
+}
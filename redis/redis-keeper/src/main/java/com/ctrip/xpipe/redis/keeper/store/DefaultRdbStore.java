@@ -14,6 +14,8 @@ import com.ctrip.xpipe.redis.core.store.RdbStoreListener;
 import com.ctrip.xpipe.redis.core.store.OffsetReplicationProgress;
 import com.ctrip.xpipe.utils.DefaultControllableFile;
 import com.ctrip.xpipe.utils.SizeControllableFile;
+import com.ctrip.xpipe.utils.XpipeThreadFactory;
+import com.google.common.util.concurrent.SettableFuture;
 import io.netty.buffer.ByteBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,6 +57,10 @@ public class DefaultRdbStore extends AbstractStore implements RdbStore {
 	private Object truncateLock = new Object();
 
 	private AtomicReference<Type> typeRef;
+
+	private volatile RdbFileBroadcaster broadcaster;
+
+	private Object broadcasterLock = new Object();
 	
 	public DefaultRdbStore(File file, String replId, long rdbOffset, EofType eofType) throws IOException {
 
@@ -107,6 +113,7 @@ public class DefaultRdbStore extends AbstractStore implements RdbStore {
 		makeSureOpen();
 
 		int wrote = ByteBufUtils.writeByteBufToFileChannel(byteBuf, channel);
+		wakeupBroadcaster();
 		return wrote;
 	}
 
@@ -142,6 +149,8 @@ public class DefaultRdbStore extends AbstractStore implements RdbStore {
 	}
 
 	protected void notifyListenersEndRdb() {
+
+		wakeupBroadcaster();
 		
 		for(RdbStoreListener listener : rdbStoreListeners){
 			try{
@@ -213,6 +222,13 @@ public class DefaultRdbStore extends AbstractStore implements RdbStore {
 		return false;
 	}
 
+	private void wakeupBroadcaster() {
+		RdbFileBroadcaster current = broadcaster;
+		if (null != current) {
+			current.wakeup();
+		}
+	}
+
 	@Override
 	public void readRdbFile(final RdbFileListener rdbFileListener) throws IOException {
 		
@@ -221,9 +237,28 @@ public class DefaultRdbStore extends AbstractStore implements RdbStore {
 		rdbFileListener.beforeFileData();
 		refCount.incrementAndGet();
 
-		try (ReferenceFileChannel channel = new ReferenceFileChannel(createControllableFile())) {
-			doReadRdbFileInfo(rdbFileListener);
-			doReadRdbFile(rdbFileListener, channel);
+		try {
+			if (isRdbWriting(status.get())) {
+				doReadRdbFileInfo(rdbFileListener);
+				SettableFuture<Void> future = attachToBroadcaster(rdbFileListener);
+				if (null != future) {
+					// all listeners of a writing rdb share one reader, just wait here
+					future.get();
+					return;
+				}
+				try (ReferenceFileChannel channel = new ReferenceFileChannel(createControllableFile())) {
+					doReadRdbFile(rdbFileListener, channel);
+				}
+			} else {
+				try (ReferenceFileChannel channel = new ReferenceFileChannel(createControllableFile())) {
+					doReadRdbFileInfo(rdbFileListener);
+					doReadRdbFile(rdbFileListener, channel);
+				}
+			}
+		} catch (InterruptedException e) {
+			getLogger().error("[readRdbFile]interrupted" + file, e);
+			Thread.currentThread().interrupt();
+			rdbFileListener.exception(e);
 		} catch (Exception e) {
 			getLogger().error("[readRdbFile]Error read rdb file" + file, e);
 			rdbFileListener.exception(e);
@@ -232,6 +267,24 @@ public class DefaultRdbStore extends AbstractStore implements RdbStore {
 		}
 	}
 
+	private SettableFuture<Void> attachToBroadcaster(RdbFileListener rdbFileListener) throws IOException {
+
+		synchronized (broadcasterLock) {
+			if (null != broadcaster) {
+				SettableFuture<Void> future = broadcaster.attach(rdbFileListener);
+				if (null != future) return future;
+			}
+
+			if (!isRdbWriting(status.get())) return null;
+
+			RdbFileBroadcaster newBroadcaster = new RdbFileBroadcaster(this, new ReferenceFileChannel(createControllableFile()));
+			SettableFuture<Void> future = newBroadcaster.attach(rdbFileListener);
+			broadcaster = newBroadcaster;
+			XpipeThreadFactory.create("RdbFileBroadcaster-" + file.getName()).newThread(newBroadcaster).start();
+			return future;
+		}
+	}
+
 	protected void doReadRdbFileInfo(RdbFileListener rdbFileListener) {
 		if (!rdbFileListener.supportProgress(OffsetReplicationProgress.class)) {
 			throw new UnsupportedOperationException("offset progress not support");
@@ -264,6 +317,10 @@ public class DefaultRdbStore extends AbstractStore implements RdbStore {
 		}
 
 		getLogger().info("[doReadRdbFile] done with status {}", status.get());
+		notifyReadRdbFileFinish(rdbFileListener);
+	}
+
+	protected void notifyReadRdbFileFinish(RdbFileListener rdbFileListener) {
 
 		switch (status.get()) {
 			case Success:
@@ -8,10 +8,13 @@ import com.ctrip.xpipe.redis.core.store.*;
 import com.ctrip.xpipe.redis.keeper.config.KeeperConfig;
 import com.ctrip.xpipe.redis.keeper.exception.replication.UnexpectedReplIdException;
 import com.ctrip.xpipe.redis.keeper.monitor.KeeperMonitor;
+import com.ctrip.xpipe.redis.keeper.store.cmd.ColdCommandFileMover;
+import com.ctrip.xpipe.redis.keeper.store.cmd.CommandFileCompressor;
 import com.ctrip.xpipe.redis.keeper.store.cmd.OffsetCommandReaderWriterFactory;
 import com.ctrip.xpipe.redis.core.store.OffsetReplicationProgress;
 import com.ctrip.xpipe.redis.keeper.store.meta.DefaultMetaStore;
 import com.ctrip.xpipe.utils.FileUtils;
+import com.ctrip.xpipe.utils.StringUtil;
 import io.netty.buffer.ByteBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -82,7 +85,11 @@ public class DefaultReplicationStore extends AbstractStore implements Replicatio
 		this.keeperMonitor = keeperMonitor;
 		this.cmdReaderWriterFactory = cmdReaderWriterFactory;
 
-		metaStore = new DefaultMetaStore(baseDir, keeperRunid);
+		DefaultMetaStore defaultMetaStore = new DefaultMetaStore(baseDir, keeperRunid);
+		if (config.isReplicationStoreMetaAsyncPersist()) {
+			defaultMetaStore.enableAsyncPersist(keeperMonitor.getReplicationStoreStats());
+		}
+		metaStore = defaultMetaStore;
 
 		ReplicationStoreMeta meta = metaStore.dupReplicationStoreMeta();
 
@@ -234,6 +241,15 @@ public class DefaultReplicationStore extends AbstractStore implements Replicatio
 				cmdReaderWriterFactory, keeperMonitor);
 		try {
 			cmdStore.initialize();
+			cmdStore.enableBacklogBuffer(config.getReplicationStoreCommandBacklogBufferBytes());
+			cmdStore.enableWriteBehind(config.getReplicationStoreCommandWriteBehindBytes());
+			if (config.isReplicationStoreCommandFileCompressEnabled()) {
+				cmdStore.enableCompression(new CommandFileCompressor(config.getReplicationStoreCommandFileCompressLevel()));
+			}
+			File coldDir = coldDirOf(config, baseDir);
+			if (null != coldDir) {
+				cmdStore.enableColdTier(new ColdCommandFileMover(coldDir), config::getReplicationStoreCommandFileColdAfterSeconds);
+			}
 		} catch (Exception e) {
 			logger.info("[createCommandStore] init fail", e);
 			throw new XpipeRuntimeException("cmdStore init fail", e);
@@ -351,6 +367,21 @@ public class DefaultReplicationStore extends AbstractStore implements Replicatio
 		}
 	}
 
+	/**
+	 * @return current rdb with ref count incremented for {@link RdbCompactor}, null if not ok
+	 */
+	RdbStore retainRdbForCompaction() {
+		synchronized (lock) {
+			RdbStore rdbStore = rdbStoreRef.get();
+			if (null == rdbStore || !rdbStore.checkOk() || null == cmdStore) {
+				getLogger().info("[retainRdbForCompaction][false]{}", rdbStore);
+				return null;
+			}
+			rdbStore.incrementRefCount();
+			return rdbStore;
+		}
+	}
+
 	protected FullSyncContext lockAndCheckIfFullSyncPossible(RdbStore rdbStore) {
 		if (rdbStore == null || !rdbStore.checkOk()) {
 			getLogger().info("[lockAndCheckIfFullSyncPossible][false]{}", rdbStore);
@@ -453,6 +484,19 @@ public class DefaultReplicationStore extends AbstractStore implements Replicatio
 		}
 	}
 
+	@Override
+	public CommandsPusher addPushCommandsListener(ReplicationProgress<?> progress, PushCommandsListener commandsListener) throws IOException {
+
+		makeSureOpen();
+
+		if (progress instanceof OffsetReplicationProgress) {
+			long realOffset = ((OffsetReplicationProgress) progress).getProgress() - metaStore.beginOffset();
+			return cmdStore.addPushCommandsListener(new OffsetReplicationProgress(realOffset), commandsListener);
+		} else {
+			return cmdStore.addPushCommandsListener(progress, commandsListener);
+		}
+	}
+
 	@Override
 	public FULLSYNC_FAIL_CAUSE createIndexIfPossible(ExecutorService indexingExecutors) {
 		throw new UnsupportedOperationException();
@@ -485,6 +529,12 @@ public class DefaultReplicationStore extends AbstractStore implements Replicatio
 		return cmdStore.appendCommands(byteBuf);
 	}
 
+	@Override
+	public boolean checkCommandsBacklog(Runnable onDrained) {
+		CommandStore current = cmdStore;
+		return null == current || current.checkCommandsBacklog(onDrained);
+	}
+
 	@Override
 	public boolean awaitCommandsOffset(long offset, int timeMilli) throws InterruptedException {
 		return cmdStore.awaitCommandsOffset(offset, timeMilli);
@@ -540,6 +590,8 @@ public class DefaultReplicationStore extends AbstractStore implements Replicatio
 			if (cmdStore != null) {
 				cmdStore.close();
 			}
+
+			metaStore.flush();
 		}else{
 			getLogger().warn("[close][already closed!]{}", this);
 		}
@@ -550,6 +602,20 @@ public class DefaultReplicationStore extends AbstractStore implements Replicatio
 
 		getLogger().info("[destroy]{}", this);
 		FileUtils.recursiveDelete(baseDir);
+		File coldDir = coldDirOf(config, baseDir);
+		if (null != coldDir) {
+			FileUtils.recursiveDelete(coldDir);
+		}
+	}
+
+	/**
+	 * @return dir of cold cmd files of the store, null if cold tier disabled
+	 */
+	protected static File coldDirOf(KeeperConfig config, File baseDir) {
+		String coldRoot = config.getReplicationStoreCommandFileColdDir();
+		if (StringUtil.isEmpty(coldRoot)) return null;
+		// replication_store_{port}/{replId}/{store}
+		return ColdCommandFileMover.mirrorDir(new File(coldRoot), baseDir, 3);
 	}
 
 	private void gcRdbIfNeeded(AtomicReference<RdbStore> rdbStoreRef) throws IOException {
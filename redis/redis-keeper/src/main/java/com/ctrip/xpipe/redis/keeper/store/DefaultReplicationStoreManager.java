@@ -9,8 +9,10 @@ import com.ctrip.xpipe.redis.core.util.NonFinalizeFileInputStream;
 import com.ctrip.xpipe.redis.core.util.NonFinalizeFileOutputStream;
 import com.ctrip.xpipe.redis.keeper.config.KeeperConfig;
 import com.ctrip.xpipe.redis.keeper.monitor.KeeperMonitor;
+import com.ctrip.xpipe.redis.keeper.store.cmd.ColdCommandFileMover;
 import com.ctrip.xpipe.redis.keeper.util.KeeperReplIdAwareThreadFactory;
 import com.ctrip.xpipe.utils.FileUtils;
+import com.ctrip.xpipe.utils.StringUtil;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.slf4j.Logger;
@@ -277,6 +279,10 @@ public class DefaultReplicationStoreManager extends AbstractLifecycleObservable
                     if (System.currentTimeMillis() - dir.lastModified() > keeperConfig.getReplicationStoreMinTimeMilliToGcAfterCreate()) {
                         logger.info("[GC] directory {}", dir.getCanonicalPath());
                         FileUtils.recursiveDelete(dir);
+                        File coldDir = DefaultReplicationStore.coldDirOf(keeperConfig, dir);
+                        if (null != coldDir) {
+                            FileUtils.recursiveDelete(coldDir);
+                        }
                     } else {
                         logger.warn("[GC][directory is created too short, do not gc]{}, {}", dir, new Date(dir.lastModified()));
                     }
@@ -295,6 +301,11 @@ public class DefaultReplicationStoreManager extends AbstractLifecycleObservable
     public void destroy() throws Exception {
         logger.info("[destroy]{}", this);
         FileUtils.recursiveDelete(this.baseDir);
+        String coldRoot = keeperConfig.getReplicationStoreCommandFileColdDir();
+        if (!StringUtil.isEmpty(coldRoot)) {
+            // replication_store_{port}/{replId}
+            FileUtils.recursiveDelete(ColdCommandFileMover.mirrorDir(new File(coldRoot), this.baseDir, 2));
+        }
     }
 
     public long getGcCount() {
@@ -1,7 +1,7 @@
 package com.ctrip.xpipe.redis.keeper.store;
 
 import com.ctrip.xpipe.gtid.GtidSet;
-import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.netty.filechannel.ReferenceFileRegion;
 import com.ctrip.xpipe.redis.core.store.*;
 import com.ctrip.xpipe.redis.keeper.monitor.KeeperMonitor;
 import io.netty.channel.ChannelFuture;
@@ -34,12 +34,12 @@ public class GtidCommandStore extends DefaultCommandStore implements CommandStor
         return logger;
     }
 
-    private CommandReader<RedisOp> beginRead(GtidSetReplicationProgress replicationProgress) throws IOException {
+    private CommandReader<?> beginRead(GtidSetReplicationProgress replicationProgress, CommandsListener listener) throws IOException {
 
         makeSureOpen();
 
-        CommandReader<RedisOp> reader = cmdReaderWriterFactory.createCmdReader(replicationProgress, this,
-                offsetNotifier, commandReaderFlyingThreshold);
+        CommandReader<?> reader = cmdReaderWriterFactory.createCmdReader(replicationProgress, this,
+                offsetNotifier, commandReaderFlyingThreshold, listener.supportRawCommands());
         addReader(reader);
         return reader;
     }
@@ -56,10 +56,10 @@ public class GtidCommandStore extends DefaultCommandStore implements CommandStor
         logger.info("[addCommandsListener][begin] from gtidset {}, {}", progress, listener);
 
 
-        CommandReader<RedisOp> cmdReader = null;
+        CommandReader<?> cmdReader = null;
 
         try {
-            cmdReader = beginRead((GtidSetReplicationProgress) progress);
+            cmdReader = beginRead((GtidSetReplicationProgress) progress, listener);
         } finally {
             // ensure beforeCommand() is always called
             listener.beforeCommand();
@@ -68,33 +68,88 @@ public class GtidCommandStore extends DefaultCommandStore implements CommandStor
         logger.info("[addCommandsListener] from {}, {}", progress, cmdReader);
 
         try {
-            while (listener.isOpen() && !Thread.currentThread().isInterrupted()) {
+            readCommands(cmdReader, listener);
+        } catch (Throwable th) {
+            logger.error("[readCommands][exit]" + listener, th);
+        } finally {
+            cmdReader.close();
+        }
+        logger.info("[addCommandsListener][end] from {}, {}", progress, listener);
+    }
 
-                final RedisOp redisOp = cmdReader.read(1000);
+    private <R> void readCommands(CommandReader<R> cmdReader, CommandsListener listener) throws IOException {
+        while (listener.isOpen() && !Thread.currentThread().isInterrupted()) {
 
-                if (null == redisOp) continue;
+            final R cmd = cmdReader.read(1000);
 
-                logger.debug("[addCommandsListener] {}", redisOp);
+            if (null == cmd) continue;
 
-                // TODO: monitor send delay
-                ChannelFuture future = listener.onCommand(cmdReader.getCurCmdFile(), cmdReader.position(), redisOp);
+            sendCommand(cmdReader, listener, cmd);
+        }
+    }
 
-                if(future != null){
-                    CommandReader<RedisOp> finalCmdReader = cmdReader;
-                    future.addListener(new ChannelFutureListener() {
-                        @Override
-                        public void operationComplete(ChannelFuture future) throws Exception {
-                            finalCmdReader.flushed(redisOp);
-                        }
-                    });
-                }
-            }
-        } catch (Throwable th) {
-            logger.error("[readCommands][exit]" + listener, th);
+    @Override
+    public CommandsPusher addPushCommandsListener(ReplicationProgress<?> progress, PushCommandsListener listener) throws IOException {
+
+        if (!(progress instanceof GtidSetReplicationProgress)) {
+            return super.addPushCommandsListener(progress, listener);
+        }
+
+        makeSureOpen();
+        logger.info("[addPushCommandsListener] from gtidset {}, {}", progress, listener);
+
+        CommandReader<?> cmdReader = null;
+
+        try {
+            cmdReader = beginRead((GtidSetReplicationProgress) progress, listener);
         } finally {
-            cmdReader.close();
+            // ensure beforeCommand() is always called
+            listener.beforeCommand();
         }
-        logger.info("[addCommandsListener][end] from {}, {}", progress, listener);
+
+        return startPush(createPusher(cmdReader, listener));
+    }
+
+    private <R> DefaultCommandsPusher<R> createPusher(CommandReader<R> cmdReader, PushCommandsListener listener) {
+        return new DefaultCommandsPusher<>(this, cmdReader, listener, cmd -> sendCommand(cmdReader, listener, cmd));
+    }
+
+    // cmd is RedisOp or ReferenceFileRegion of cmds never parsed
+    private <R> ChannelFuture sendCommand(CommandReader<R> cmdReader, CommandsListener listener, R cmd) throws IOException {
+
+        logger.debug("[sendCommand] {}", cmd);
+
+        long sendOffset = sendOffsetOf(cmdReader, cmd);
+        if(getDelayTraceLogger().isDebugEnabled()){
+            getDelayTraceLogger().debug("[write][begin]{}, {}", listener, sendOffset);
+        }
+        getCommandStoreDelay().beginSend(listener, sendOffset);
+
+        ChannelFuture future = listener.onCommand(cmdReader.getCurCmdFile(), cmdReader.position(), cmd);
+
+        if(future != null){
+            future.addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) throws Exception {
+                    cmdReader.flushed(cmd);
+                    getCommandStoreDelay().flushSucceed(listener, sendOffset);
+                    if(logger.isDebugEnabled()){
+                        getDelayTraceLogger().debug("[write][ end ]{}, {}", listener, sendOffset);
+                    }
+                }
+            });
+        }
+
+        return future;
+    }
+
+    // end of cmd sent in cmd files, exclusive
+    private <R> long sendOffsetOf(CommandReader<R> cmdReader, R cmd) throws IOException {
+        if (cmd instanceof ReferenceFileRegion) {
+            return ((ReferenceFileRegion) cmd).getTotalPos();
+        }
+        // reader stays right after the op just read
+        return cmdReader.getCurCmdFile().getStartOffset() + cmdReader.position();
     }
 
     @Override
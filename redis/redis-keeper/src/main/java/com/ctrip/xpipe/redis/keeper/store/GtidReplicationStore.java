@@ -9,6 +9,8 @@ import com.ctrip.xpipe.redis.core.store.*;
 import com.ctrip.xpipe.redis.keeper.Gtid2OffsetIndexGenerator;
 import com.ctrip.xpipe.redis.keeper.config.KeeperConfig;
 import com.ctrip.xpipe.redis.keeper.monitor.KeeperMonitor;
+import com.ctrip.xpipe.redis.keeper.store.cmd.ColdCommandFileMover;
+import com.ctrip.xpipe.redis.keeper.store.cmd.CommandFileCompressor;
 import com.ctrip.xpipe.redis.keeper.store.cmd.GtidSetCommandReaderWriterFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,7 +37,8 @@ public class GtidReplicationStore extends DefaultReplicationStore {
     public GtidReplicationStore(File baseDir, KeeperConfig config, String keeperRunid,
                                 KeeperMonitor keeperMonitor, RedisOpParser redisOpParser) throws IOException {
         super(baseDir, config, keeperRunid,
-                new GtidSetCommandReaderWriterFactory(redisOpParser, config.getCommandIndexBytesInterval()),
+                new GtidSetCommandReaderWriterFactory(redisOpParser, config.getCommandIndexBytesInterval(),
+                        config.isGtidCommandsZeroCopyEnabled()),
                 keeperMonitor);
     }
 
@@ -54,6 +57,15 @@ public class GtidReplicationStore extends DefaultReplicationStore {
 
         try {
             cmdStore.initialize();
+            cmdStore.enableBacklogBuffer(config.getReplicationStoreCommandBacklogBufferBytes());
+            cmdStore.enableWriteBehind(config.getReplicationStoreCommandWriteBehindBytes());
+            if (config.isReplicationStoreCommandFileCompressEnabled()) {
+                cmdStore.enableCompression(new CommandFileCompressor(config.getReplicationStoreCommandFileCompressLevel()));
+            }
+            File coldDir = coldDirOf(config, baseDir);
+            if (null != coldDir) {
+                cmdStore.enableColdTier(new ColdCommandFileMover(coldDir), config::getReplicationStoreCommandFileColdAfterSeconds);
+            }
         } catch (Exception e) {
             logger.info("[createCommandStore] init fail", e);
             throw new XpipeRuntimeException("cmdStore init fail", e);
@@ -0,0 +1,250 @@
+package com.ctrip.xpipe.redis.keeper.store;
+
+import com.ctrip.xpipe.api.utils.ControllableFile;
+import com.ctrip.xpipe.redis.core.protocal.RedisClientProtocol;
+import com.ctrip.xpipe.redis.core.protocal.protocal.BulkStringArrayParser;
+import com.ctrip.xpipe.redis.core.protocal.protocal.LenEofType;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
+import com.ctrip.xpipe.redis.core.redis.rdb.RdbParseListener;
+import com.ctrip.xpipe.redis.core.redis.rdb.RdbParser;
+import com.ctrip.xpipe.redis.core.redis.rdb.RdbWriter;
+import com.ctrip.xpipe.redis.core.redis.rdb.parser.DefaultRdbParser;
+import com.ctrip.xpipe.redis.core.store.CommandFile;
+import com.ctrip.xpipe.redis.core.store.CommandsGuarantee;
+import com.ctrip.xpipe.redis.core.store.DumpedRdbStore;
+import com.ctrip.xpipe.redis.core.store.RdbStore;
+import com.ctrip.xpipe.redis.keeper.store.cmd.CommandFileCompressor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compacts a new rdb locally instead of dumping from master: the current rdb of store is parsed into
+ * {@link RdbKeyspace}, commands retained after it are replayed on the keyspace, and the keyspace is written as
+ * rdb at the offset of the last command replayed out of transaction.
+ * Stores with gtid and streams with ops not supported by {@link RdbKeyspace} can't be compacted.
+ */
+public class RdbCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RdbCompactor.class);
+
+    private static final int READ_CHUNK_SIZE = 1 << 16;
+
+    private static final String AUX_REPL_ID = "repl-id";
+
+    private static final String AUX_REPL_OFFSET = "repl-offset";
+
+    private static final String AUX_REPL_STREAM_DB = "repl-stream-db";
+
+    private final DefaultReplicationStore store;
+
+    private final RedisOpParser redisOpParser;
+
+    private final long maxBytes;
+
+    private final RdbKeyspace keyspace = new RdbKeyspace();
+
+    private final Map<String, String> aux = new LinkedHashMap<>();
+
+    private volatile boolean finished;
+
+    private Throwable parseError;
+
+    public RdbCompactor(DefaultReplicationStore store, RedisOpParser redisOpParser, long maxBytes) {
+        this.store = store;
+        this.redisOpParser = redisOpParser;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return offset of the compacted rdb, which is ended but not confirmed to store yet
+     */
+    public long compact(DumpedRdbStore target) throws IOException {
+        RdbStore base = store.retainRdbForCompaction();
+        if (null == base) throw new IllegalStateException("no rdb for compaction " + store);
+
+        try {
+            if (base.supportGtidSet() || RdbStore.Type.NORMAL != base.getRdbType()) {
+                throw new UnsupportedOperationException("rdb " + base.getRdbType() + ", gtid:" + base.supportGtidSet());
+            }
+
+            long localBegin = base.rdbOffset() + 1 - store.beginOffset();
+            if (!store.cmdStore.retainCommands(new CompactionCommandsGuarantee(localBegin, store.commandsRetainTimeoutMilli))) {
+                throw new IllegalStateException("miss cmd after rdb " + base);
+            }
+            String replId = store.getMetaStore().getReplId();
+            long localEnd = store.cmdStore.totalLength();
+            if (base.rdbFileLength() + localEnd - localBegin > maxBytes) {
+                throw new IllegalStateException(String.format("too large, rdb:%d, cmd:%d, max:%d",
+                        base.rdbFileLength(), localEnd - localBegin, maxBytes));
+            }
+
+            long begin = System.currentTimeMillis();
+            loadRdb(base.getRdbFile());
+            long replayed = replayCommands(localBegin, localEnd);
+            long rdbOffset = base.rdbOffset() + replayed;
+            long length = writeRdb(target, replId, rdbOffset);
+
+            target.setReplId(replId);
+            target.setRdbOffset(rdbOffset);
+            target.setEofType(new LenEofType(length));
+            target.updateRdbType(RdbStore.Type.NORMAL);
+            target.endRdb();
+            logger.info("[compact][{}] base:{}, replayed:{}, keys:{}, length:{}, cost:{}ms", store, base.rdbOffset(),
+                    replayed, keyspace.keys(), length, System.currentTimeMillis() - begin);
+            return rdbOffset;
+        } finally {
+            finished = true;
+            base.decrementRefCount();
+        }
+    }
+
+    private void loadRdb(File rdbFile) throws IOException {
+        RdbParser<?> rdbParser = new DefaultRdbParser();
+        rdbParser.registerListener(new RdbParseListener() {
+            @Override
+            public void onRedisOp(RedisOp redisOp) {
+                if (null != parseError) return;
+                try {
+                    keyspace.apply(redisOp);
+                } catch (Throwable th) {
+                    parseError = th;
+                }
+            }
+
+            @Override
+            public void onAux(String key, String value) {
+                aux.put(key, value);
+            }
+
+            @Override
+            public void onFinish(RdbParser<?> parser) {
+            }
+
+            @Override
+            public void onAuxFinish(Map<String, String> auxMap) {
+            }
+        });
+
+        try (FileChannel channel = FileChannel.open(rdbFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuf byteBuf = Unpooled.buffer(READ_CHUNK_SIZE);
+            while (!rdbParser.isFinish() && null == parseError) {
+                byteBuf.clear();
+                if (byteBuf.writeBytes(channel, READ_CHUNK_SIZE) <= 0) break;
+                rdbParser.read(byteBuf);
+            }
+        }
+
+        if (null != parseError) throw new UnsupportedOperationException("rdb op unsupported", parseError);
+        if (!rdbParser.isFinish()) throw new IllegalStateException("rdb not finished " + rdbFile);
+        if (aux.containsKey(AUX_REPL_STREAM_DB)) {
+            keyspace.select(Integer.parseInt(aux.get(AUX_REPL_STREAM_DB)));
+        }
+    }
+
+    /**
+     * @return length of commands replayed, ended out of transaction
+     */
+    private long replayCommands(long localBegin, long localEnd) throws IOException {
+        BulkStringArrayParser protocolParser = new BulkStringArrayParser();
+        long replayedEnd = localBegin;
+        long chunkBegin = localBegin;
+
+        CommandFile cmdFile = store.cmdStore.findFileForOffset(localBegin);
+        if (null == cmdFile) throw new IllegalStateException("no cmd file for " + localBegin);
+        long filePosition = localBegin - cmdFile.getStartOffset();
+        ByteBuf byteBuf = Unpooled.buffer(READ_CHUNK_SIZE);
+
+        while (null != cmdFile && chunkBegin < localEnd) {
+            try (ControllableFile controllableFile = CommandFileCompressor.openCmdFile(cmdFile.getFile())) {
+                FileChannel channel = controllableFile.getFileChannel();
+                channel.position(filePosition);
+                while (chunkBegin < localEnd) {
+                    byteBuf.clear();
+                    int read = byteBuf.writeBytes(channel, (int) Math.min(READ_CHUNK_SIZE, localEnd - chunkBegin));
+                    if (read <= 0) break;
+
+                    while (byteBuf.isReadable()) {
+                        RedisClientProtocol<Object[]> protocol = protocolParser.read(byteBuf);
+                        if (null == protocol) break;
+
+                        keyspace.apply(redisOpParser.parse(protocol.getPayload()));
+                        protocolParser.reset();
+                        if (!keyspace.inTransaction()) replayedEnd = chunkBegin + byteBuf.readerIndex();
+                    }
+                    chunkBegin += read;
+                }
+            }
+            cmdFile = store.cmdStore.findNextFile(cmdFile.getFile());
+            filePosition = 0;
+        }
+
+        return replayedEnd - localBegin;
+    }
+
+    private long writeRdb(DumpedRdbStore target, String replId, long rdbOffset) throws IOException {
+        RdbWriter writer = new RdbWriter(byteBuf -> {
+            try {
+                target.writeRdb(byteBuf);
+            } finally {
+                byteBuf.release();
+            }
+        });
+
+        writer.writeHeader();
+        aux.remove(AUX_REPL_ID);
+        aux.remove(AUX_REPL_OFFSET);
+        aux.remove(AUX_REPL_STREAM_DB);
+        for (Map.Entry<String, String> entry : aux.entrySet()) {
+            writer.writeAux(entry.getKey(), entry.getValue());
+        }
+        writer.writeAux(AUX_REPL_STREAM_DB, String.valueOf(keyspace.getSelectedDb()));
+        writer.writeAux(AUX_REPL_ID, replId);
+        writer.writeAux(AUX_REPL_OFFSET, String.valueOf(rdbOffset));
+        keyspace.writeTo(writer);
+        writer.writeEof();
+        return writer.length();
+    }
+
+    @Override
+    public String toString() {
+        return "RdbCompactor:" + store;
+    }
+
+    private class CompactionCommandsGuarantee implements CommandsGuarantee {
+
+        private final long neededCommandOffset;
+
+        private final long timeoutAt;
+
+        CompactionCommandsGuarantee(long neededCommandOffset, long timeoutMilli) {
+            this.neededCommandOffset = neededCommandOffset;
+            this.timeoutAt = System.currentTimeMillis() + timeoutMilli;
+        }
+
+        @Override
+        public long getNeededCommandOffset() {
+            return neededCommandOffset;
+        }
+
+        @Override
+        public boolean isFinish() {
+            return finished;
+        }
+
+        @Override
+        public boolean isTimeout() {
+            return System.currentTimeMillis() > timeoutAt;
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.ctrip.xpipe.redis.keeper.store;
+
+import com.ctrip.xpipe.netty.filechannel.ReferenceFileChannel;
+import com.ctrip.xpipe.netty.filechannel.ReferenceFileRegion;
+import com.ctrip.xpipe.redis.core.store.RdbFileListener;
+import com.google.common.util.concurrent.SettableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tail a writing rdb file with one thread and one file channel,
+ * fan out regions to all attached listeners when the writer makes progress.
+ */
+public class RdbFileBroadcaster implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RdbFileBroadcaster.class);
+
+    private static final long WAIT_WRITE_MILLI = 1000;
+
+    private final DefaultRdbStore rdbStore;
+
+    private final ReferenceFileChannel referenceFileChannel;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final Object signal = new Object();
+
+    private boolean changed = false;
+
+    private boolean finished = false;
+
+    public RdbFileBroadcaster(DefaultRdbStore rdbStore, ReferenceFileChannel referenceFileChannel) {
+        this.rdbStore = rdbStore;
+        this.referenceFileChannel = referenceFileChannel;
+    }
+
+    /**
+     * @return future done when all data sent to listener, null if broadcaster already finished
+     */
+    public synchronized SettableFuture<Void> attach(RdbFileListener rdbFileListener) {
+        if (finished) return null;
+
+        Subscriber subscriber = new Subscriber(rdbFileListener);
+        subscribers.add(subscriber);
+        logger.info("[attach]{}, subscribers:{}", rdbFileListener, subscribers.size());
+        wakeup();
+        return subscriber.future;
+    }
+
+    /**
+     * called by rdb writer when data appended or rdb status changed
+     */
+    public void wakeup() {
+        synchronized (signal) {
+            changed = true;
+            signal.notifyAll();
+        }
+    }
+
+    @Override
+    public void run() {
+        logger.info("[run][begin]{}", rdbStore);
+
+        try {
+            while (true) {
+                // check status before reading file size, so that no data is missed after writing done
+                boolean writing = rdbStore.isWriting();
+                broadcast();
+
+                if (!writing) {
+                    finishAll();
+                    break;
+                }
+                if (finishIfNoSubscribers()) {
+                    break;
+                }
+
+                awaitChange();
+            }
+        } catch (Throwable th) {
+            logger.error("[run]" + rdbStore, th);
+            failAll(th);
+        } finally {
+            try {
+                referenceFileChannel.close();
+            } catch (IOException e) {
+                logger.error("[run][close]" + referenceFileChannel, e);
+            }
+        }
+
+        logger.info("[run][end]{}", rdbStore);
+    }
+
+    private void broadcast() throws IOException {
+        long fileSize = referenceFileChannel.size();
+
+        for (Subscriber subscriber : subscribers) {
+            RdbFileListener listener = subscriber.listener;
+            if (!listener.isOpen()) {
+                logger.info("[broadcast][listener closed]{}", listener);
+                finish(subscriber);
+                continue;
+            }
+
+            if (subscriber.position >= fileSize) continue;
+
+            ReferenceFileRegion referenceFileRegion = referenceFileChannel.readRegion(subscriber.position, fileSize - subscriber.position);
+            subscriber.position = fileSize;
+            try {
+                listener.onFileData(referenceFileRegion);
+            } catch (Throwable th) {
+                logger.error("[broadcast]" + listener, th);
+                subscribers.remove(subscriber);
+                listener.exception(new Exception("[broadcast] send rdb fail", th));
+                subscriber.future.set(null);
+            }
+        }
+    }
+
+    private void awaitChange() throws InterruptedException {
+        synchronized (signal) {
+            if (!changed) {
+                signal.wait(WAIT_WRITE_MILLI);
+            }
+            changed = false;
+        }
+    }
+
+    private synchronized boolean finishIfNoSubscribers() {
+        if (subscribers.isEmpty()) {
+            finished = true;
+        }
+        return finished;
+    }
+
+    private synchronized void finishAll() throws IOException {
+        finished = true;
+        // listeners attached after last broadcast
+        broadcast();
+        for (Subscriber subscriber : subscribers) {
+            finish(subscriber);
+        }
+    }
+
+    private void finish(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        try {
+            rdbStore.notifyReadRdbFileFinish(subscriber.listener);
+        } finally {
+            subscriber.future.set(null);
+        }
+    }
+
+    private synchronized void failAll(Throwable th) {
+        finished = true;
+        for (Subscriber subscriber : subscribers) {
+            subscribers.remove(subscriber);
+            subscriber.future.setException(th);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RdbFileBroadcaster:%s, subscribers:%d", referenceFileChannel, subscribers.size());
+    }
+
+    private static class Subscriber {
+
+        private final RdbFileListener listener;
+
+        private final SettableFuture<Void> future = SettableFuture.create();
+
+        private long position = 0;
+
+        private Subscriber(RdbFileListener listener) {
+            this.listener = listener;
+        }
+    }
+
+}
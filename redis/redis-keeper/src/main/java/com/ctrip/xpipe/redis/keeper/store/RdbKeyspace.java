@@ -0,0 +1,540 @@
+package com.ctrip.xpipe.redis.keeper.store;
+
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOpType;
+import com.ctrip.xpipe.redis.core.redis.rdb.RdbConstant;
+import com.ctrip.xpipe.redis.core.redis.rdb.RdbWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Keys of all dbs rebuilt in memory by applying redis ops, which are emitted by rdb parser or parsed from commands
+ * replicated after the rdb. Only ops whose effect on replica is deterministic are applied,
+ * others like relative expires, scripts and streams throw {@link UnsupportedOperationException}.
+ * Ops between MULTI and EXEC are applied on EXEC.
+ */
+public class RdbKeyspace {
+
+    private final Map<Integer, Map<ByteBuffer, Entry>> dbs = new TreeMap<>();
+
+    private int selectedDb = 0;
+
+    private List<RedisOp> transaction;
+
+    private long keys = 0;
+
+    public void apply(RedisOp redisOp) {
+        if (null != redisOp.getOpGtid()) {
+            throw new UnsupportedOperationException("gtid op " + redisOp);
+        }
+
+        RedisOpType type = redisOp.getOpType();
+        if (null != transaction && type != RedisOpType.EXEC) {
+            if (type == RedisOpType.MULTI) throw new UnsupportedOperationException("nested multi");
+            transaction.add(redisOp);
+            return;
+        }
+
+        switch (type) {
+            case MULTI:
+                transaction = new ArrayList<>();
+                break;
+            case EXEC:
+                if (null == transaction) throw new UnsupportedOperationException("exec without multi");
+                List<RedisOp> ops = transaction;
+                transaction = null;
+                for (RedisOp op : ops) apply(op);
+                break;
+            default:
+                apply(type, redisOp.buildRawOpArgs());
+        }
+    }
+
+    public boolean inTransaction() {
+        return null != transaction;
+    }
+
+    public int getSelectedDb() {
+        return selectedDb;
+    }
+
+    public void select(int dbId) {
+        this.selectedDb = dbId;
+    }
+
+    public long keys() {
+        return keys;
+    }
+
+    public void writeTo(RdbWriter writer) throws IOException {
+        for (Map.Entry<Integer, Map<ByteBuffer, Entry>> db : dbs.entrySet()) {
+            if (db.getValue().isEmpty()) continue;
+
+            writer.writeSelectDb(db.getKey());
+            for (Map.Entry<ByteBuffer, Entry> kv : db.getValue().entrySet()) {
+                byte[] key = kv.getKey().array();
+                Entry entry = kv.getValue();
+                writer.writeExpireAt(entry.expireAt);
+                switch (entry.type) {
+                    case RdbConstant.REDIS_RDB_TYPE_STRING:
+                        writer.writeString(key, (byte[]) entry.value);
+                        break;
+                    case RdbConstant.REDIS_RDB_TYPE_LIST:
+                        writer.writeList(key, entry.list());
+                        break;
+                    case RdbConstant.REDIS_RDB_TYPE_SET:
+                        List<byte[]> members = new ArrayList<>(entry.set().size());
+                        for (ByteBuffer member : entry.set()) members.add(member.array());
+                        writer.writeSet(key, members);
+                        break;
+                    case RdbConstant.REDIS_RDB_TYPE_HASH:
+                        writer.writeHash(key, unwrapKeys(entry.hash()));
+                        break;
+                    case RdbConstant.REDIS_RDB_TYPE_ZSET2:
+                        writer.writeZSet(key, unwrapKeys(entry.zset()));
+                        break;
+                    default:
+                        throw new IllegalStateException("unexpected type " + entry.type);
+                }
+            }
+        }
+    }
+
+    private void apply(RedisOpType type, byte[][] args) {
+        switch (type) {
+            case SELECT:
+                selectedDb = parseInt(args[1]);
+                break;
+            case PING:
+            case PUBLISH:
+                break;
+
+            case SET:
+                set(args);
+                break;
+            case SETNX:
+                if (null == db().get(wrap(args[1]))) putString(args[1], args[2], -1);
+                break;
+            case GETSET:
+                putString(args[1], args[2], -1);
+                break;
+            case MSETNX:
+                for (int i = 1; i < args.length; i += 2) {
+                    if (null != db().get(wrap(args[i]))) return;
+                }
+                // fall through
+            case MSET:
+                for (int i = 1; i < args.length; i += 2) putString(args[i], args[i + 1], -1);
+                break;
+            case INCR:
+                incrBy(args[1], 1);
+                break;
+            case DECR:
+                incrBy(args[1], -1);
+                break;
+            case INCRBY:
+                incrBy(args[1], parseLong(args[2]));
+                break;
+            case DECRBY:
+                incrBy(args[1], -parseLong(args[2]));
+                break;
+            case APPEND:
+                setRange(args[1], -1, args[2]);
+                break;
+            case SETRANGE:
+                setRange(args[1], parseLong(args[2]), args[3]);
+                break;
+            case DEL:
+            case UNLINK:
+                for (int i = 1; i < args.length; i++) remove(args[i]);
+                break;
+
+            case LPUSH:
+            case LPUSHX:
+            case RPUSH:
+            case RPUSHX:
+                push(type, args);
+                break;
+            case LPOP:
+            case RPOP:
+                pop(type == RedisOpType.LPOP, args);
+                break;
+            case LSET:
+                lset(args);
+                break;
+            case LREM:
+                lrem(args);
+                break;
+            case LTRIM:
+                ltrim(args);
+                break;
+            case LINSERT:
+                linsert(args);
+                break;
+
+            case HSET:
+            case HMSET:
+                Map<ByteBuffer, byte[]> hash = getOrCreate(args[1], RdbConstant.REDIS_RDB_TYPE_HASH).hash();
+                for (int i = 2; i < args.length; i += 2) hash.put(wrap(args[i]), args[i + 1]);
+                break;
+            case HSETNX:
+                getOrCreate(args[1], RdbConstant.REDIS_RDB_TYPE_HASH).hash().putIfAbsent(wrap(args[2]), args[3]);
+                break;
+            case HINCRBY:
+                hincrBy(args);
+                break;
+            case HDEL:
+                removeMembers(args, RdbConstant.REDIS_RDB_TYPE_HASH);
+                break;
+
+            case SADD:
+                Set<ByteBuffer> set = getOrCreate(args[1], RdbConstant.REDIS_RDB_TYPE_SET).set();
+                for (int i = 2; i < args.length; i++) set.add(wrap(args[i]));
+                break;
+            case SREM:
+                removeMembers(args, RdbConstant.REDIS_RDB_TYPE_SET);
+                break;
+
+            case ZADD:
+                zadd(args);
+                break;
+            case ZINCRBY:
+                Map<ByteBuffer, Double> zset = getOrCreate(args[1], RdbConstant.REDIS_RDB_TYPE_ZSET2).zset();
+                zset.merge(wrap(args[3]), parseScore(args[2]), Double::sum);
+                break;
+            case ZREM:
+                removeMembers(args, RdbConstant.REDIS_RDB_TYPE_ZSET2);
+                break;
+
+            case EXPIREAT:
+                expireAt(args, parseLong(args[2]) * 1000);
+                break;
+            case PEXPIREAT:
+                expireAt(args, parseLong(args[2]));
+                break;
+            case PERSIST:
+                Entry entry = db().get(wrap(args[1]));
+                if (null != entry) entry.expireAt = -1;
+                break;
+
+            case UNKNOWN:
+                String name = str(args[0]);
+                if ("flushall".equalsIgnoreCase(name)) {
+                    dbs.clear();
+                    keys = 0;
+                    break;
+                } else if ("flushdb".equalsIgnoreCase(name)) {
+                    Map<ByteBuffer, Entry> db = dbs.remove(selectedDb);
+                    if (null != db) keys -= db.size();
+                    break;
+                }
+                throw new UnsupportedOperationException(name);
+            default:
+                throw new UnsupportedOperationException(type.name());
+        }
+    }
+
+    private void set(byte[][] args) {
+        Entry current = db().get(wrap(args[1]));
+        long expireAt = -1;
+        for (int i = 3; i < args.length; i++) {
+            String option = str(args[i]).toUpperCase();
+            switch (option) {
+                case "NX":
+                    if (null != current) return;
+                    break;
+                case "XX":
+                    if (null == current) return;
+                    break;
+                case "GET":
+                    break;
+                case "KEEPTTL":
+                    expireAt = null == current ? -1 : current.expireAt;
+                    break;
+                case "EXAT":
+                    expireAt = parseLong(args[++i]) * 1000;
+                    break;
+                case "PXAT":
+                    expireAt = parseLong(args[++i]);
+                    break;
+                default:
+                    // EX, PX are relative to the time master executed, which is unknown
+                    throw new UnsupportedOperationException("SET " + option);
+            }
+        }
+        putString(args[1], args[2], expireAt);
+    }
+
+    private void incrBy(byte[] key, long incr) {
+        Entry entry = get(key, RdbConstant.REDIS_RDB_TYPE_STRING);
+        long value = null == entry ? 0 : parseLong((byte[]) entry.value);
+        byte[] result = String.valueOf(Math.addExact(value, incr)).getBytes(StandardCharsets.US_ASCII);
+        putString(key, result, null == entry ? -1 : entry.expireAt);
+    }
+
+    private void setRange(byte[] key, long offset, byte[] value) {
+        Entry entry = get(key, RdbConstant.REDIS_RDB_TYPE_STRING);
+        byte[] current = null == entry ? new byte[0] : (byte[]) entry.value;
+        int begin = offset < 0 ? current.length : (int) offset;
+        byte[] result = Arrays.copyOf(current, Math.max(current.length, begin + value.length));
+        System.arraycopy(value, 0, result, begin, value.length);
+        putString(key, result, null == entry ? -1 : entry.expireAt);
+    }
+
+    private void push(RedisOpType type, byte[][] args) {
+        boolean onlyExist = type == RedisOpType.LPUSHX || type == RedisOpType.RPUSHX;
+        if (onlyExist && null == get(args[1], RdbConstant.REDIS_RDB_TYPE_LIST)) return;
+
+        List<byte[]> list = getOrCreate(args[1], RdbConstant.REDIS_RDB_TYPE_LIST).list();
+        boolean head = type == RedisOpType.LPUSH || type == RedisOpType.LPUSHX;
+        for (int i = 2; i < args.length; i++) {
+            if (head) list.add(0, args[i]);
+            else list.add(args[i]);
+        }
+    }
+
+    private void pop(boolean head, byte[][] args) {
+        Entry entry = get(args[1], RdbConstant.REDIS_RDB_TYPE_LIST);
+        if (null == entry) return;
+
+        List<byte[]> list = entry.list();
+        long count = args.length > 2 ? parseLong(args[2]) : 1;
+        for (long i = 0; i < count && !list.isEmpty(); i++) {
+            list.remove(head ? 0 : list.size() - 1);
+        }
+        removeIfEmpty(args[1], list);
+    }
+
+    private void lset(byte[][] args) {
+        Entry entry = get(args[1], RdbConstant.REDIS_RDB_TYPE_LIST);
+        if (null == entry) throw new UnsupportedOperationException("LSET no such key");
+        List<byte[]> list = entry.list();
+        list.set(listIndex(list, parseLong(args[2])), args[3]);
+    }
+
+    private void lrem(byte[][] args) {
+        Entry entry = get(args[1], RdbConstant.REDIS_RDB_TYPE_LIST);
+        if (null == entry) return;
+
+        List<byte[]> list = entry.list();
+        long count = parseLong(args[2]);
+        long limit = 0 == count ? Long.MAX_VALUE : Math.abs(count);
+        ListIterator<byte[]> iterator = count < 0 ? list.listIterator(list.size()) : list.listIterator();
+        while (limit > 0 && (count < 0 ? iterator.hasPrevious() : iterator.hasNext())) {
+            byte[] element = count < 0 ? iterator.previous() : iterator.next();
+            if (Arrays.equals(element, args[3])) {
+                iterator.remove();
+                limit--;
+            }
+        }
+        removeIfEmpty(args[1], list);
+    }
+
+    private void ltrim(byte[][] args) {
+        Entry entry = get(args[1], RdbConstant.REDIS_RDB_TYPE_LIST);
+        if (null == entry) return;
+
+        List<byte[]> list = entry.list();
+        long size = list.size();
+        long start = parseLong(args[2]), stop = parseLong(args[3]);
+        if (start < 0) start = Math.max(0, size + start);
+        if (stop < 0) stop = size + stop;
+        stop = Math.min(stop, size - 1);
+
+        if (start > stop) {
+            list.clear();
+        } else {
+            list.subList((int) stop + 1, (int) size).clear();
+            list.subList(0, (int) start).clear();
+        }
+        removeIfEmpty(args[1], list);
+    }
+
+    private void linsert(byte[][] args) {
+        Entry entry = get(args[1], RdbConstant.REDIS_RDB_TYPE_LIST);
+        if (null == entry) return;
+
+        List<byte[]> list = entry.list();
+        boolean before = "BEFORE".equalsIgnoreCase(str(args[2]));
+        for (int i = 0; i < list.size(); i++) {
+            if (Arrays.equals(list.get(i), args[3])) {
+                list.add(before ? i : i + 1, args[4]);
+                return;
+            }
+        }
+    }
+
+    private void hincrBy(byte[][] args) {
+        Map<ByteBuffer, byte[]> hash = getOrCreate(args[1], RdbConstant.REDIS_RDB_TYPE_HASH).hash();
+        byte[] current = hash.get(wrap(args[2]));
+        long value = null == current ? 0 : parseLong(current);
+        hash.put(wrap(args[2]), String.valueOf(Math.addExact(value, parseLong(args[3]))).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void zadd(byte[][] args) {
+        boolean nx = false, xx = false, gt = false, lt = false, incr = false;
+        int i = 2;
+        for (; i < args.length; i++) {
+            String option = str(args[i]).toUpperCase();
+            if ("NX".equals(option)) nx = true;
+            else if ("XX".equals(option)) xx = true;
+            else if ("GT".equals(option)) gt = true;
+            else if ("LT".equals(option)) lt = true;
+            else if ("INCR".equals(option)) incr = true;
+            else if (!"CH".equals(option)) break;
+        }
+
+        Entry entry = get(args[1], RdbConstant.REDIS_RDB_TYPE_ZSET2);
+        if (null == entry && xx) return;
+        Map<ByteBuffer, Double> zset = getOrCreate(args[1], RdbConstant.REDIS_RDB_TYPE_ZSET2).zset();
+        for (; i + 1 < args.length; i += 2) {
+            ByteBuffer member = wrap(args[i + 1]);
+            Double current = zset.get(member);
+            double score = parseScore(args[i]);
+            if (null == current) {
+                if (!xx) zset.put(member, score);
+                continue;
+            }
+            if (nx) continue;
+            if (incr) score += current;
+            if ((gt && score <= current) || (lt && score >= current)) continue;
+            zset.put(member, score);
+        }
+        removeIfEmpty(args[1], zset.keySet());
+    }
+
+    private void expireAt(byte[][] args, long expireAtMilli) {
+        if (args.length > 3) throw new UnsupportedOperationException("expire with options");
+        Entry entry = db().get(wrap(args[1]));
+        if (null != entry) entry.expireAt = expireAtMilli;
+    }
+
+    private void removeMembers(byte[][] args, short type) {
+        Entry entry = get(args[1], type);
+        if (null == entry) return;
+
+        Collection<ByteBuffer> members = entry.value instanceof Map ? ((Map<ByteBuffer, ?>) entry.value).keySet()
+                : (Set<ByteBuffer>) entry.value;
+        for (int i = 2; i < args.length; i++) members.remove(wrap(args[i]));
+        removeIfEmpty(args[1], members);
+    }
+
+    private int listIndex(List<byte[]> list, long index) {
+        long real = index < 0 ? list.size() + index : index;
+        if (real < 0 || real >= list.size()) throw new UnsupportedOperationException("index out of range " + index);
+        return (int) real;
+    }
+
+    private Map<ByteBuffer, Entry> db() {
+        return dbs.computeIfAbsent(selectedDb, db -> new LinkedHashMap<>());
+    }
+
+    private Entry get(byte[] key, short type) {
+        Entry entry = db().get(wrap(key));
+        if (null != entry && entry.type != type) {
+            throw new UnsupportedOperationException("WRONGTYPE " + str(key));
+        }
+        return entry;
+    }
+
+    private Entry getOrCreate(byte[] key, short type) {
+        Entry entry = get(key, type);
+        if (null != entry) return entry;
+
+        entry = new Entry(type, newValue(type), -1);
+        db().put(wrap(key), entry);
+        keys++;
+        return entry;
+    }
+
+    private void putString(byte[] key, byte[] value, long expireAt) {
+        if (null == db().put(wrap(key), new Entry(RdbConstant.REDIS_RDB_TYPE_STRING, value, expireAt))) keys++;
+    }
+
+    private void remove(byte[] key) {
+        if (null != db().remove(wrap(key))) keys--;
+    }
+
+    private void removeIfEmpty(byte[] key, Collection<?> values) {
+        if (values.isEmpty()) remove(key);
+    }
+
+    private static Object newValue(short type) {
+        switch (type) {
+            case RdbConstant.REDIS_RDB_TYPE_LIST:
+                return new ArrayList<byte[]>();
+            case RdbConstant.REDIS_RDB_TYPE_SET:
+                return new LinkedHashSet<ByteBuffer>();
+            case RdbConstant.REDIS_RDB_TYPE_HASH:
+            case RdbConstant.REDIS_RDB_TYPE_ZSET2:
+                return new LinkedHashMap<>();
+            default:
+                throw new IllegalArgumentException("unexpected type " + type);
+        }
+    }
+
+    private static <V> Map<byte[], V> unwrapKeys(Map<ByteBuffer, V> map) {
+        Map<byte[], V> unwrapped = new LinkedHashMap<>(map.size() * 2);
+        for (Map.Entry<ByteBuffer, V> entry : map.entrySet()) unwrapped.put(entry.getKey().array(), entry.getValue());
+        return unwrapped;
+    }
+
+    private static ByteBuffer wrap(byte[] bytes) {
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static String str(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int parseInt(byte[] bytes) {
+        return Integer.parseInt(str(bytes));
+    }
+
+    private static long parseLong(byte[] bytes) {
+        return Long.parseLong(str(bytes));
+    }
+
+    private static double parseScore(byte[] bytes) {
+        String score = str(bytes);
+        if ("inf".equalsIgnoreCase(score) || "+inf".equalsIgnoreCase(score)) return Double.POSITIVE_INFINITY;
+        if ("-inf".equalsIgnoreCase(score)) return Double.NEGATIVE_INFINITY;
+        return Double.parseDouble(score);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static class Entry {
+
+        private final short type;
+
+        private final Object value;
+
+        private long expireAt;
+
+        Entry(short type, Object value, long expireAt) {
+            this.type = type;
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        List<byte[]> list() {
+            return (List<byte[]>) value;
+        }
+
+        Set<ByteBuffer> set() {
+            return (Set<ByteBuffer>) value;
+        }
+
+        Map<ByteBuffer, byte[]> hash() {
+            return (Map<ByteBuffer, byte[]>) value;
+        }
+
+        Map<ByteBuffer, Double> zset() {
+            return (Map<ByteBuffer, Double>) value;
+        }
+    }
+
+}
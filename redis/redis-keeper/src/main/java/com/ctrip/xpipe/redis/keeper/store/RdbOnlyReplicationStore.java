@@ -247,6 +247,11 @@ public class RdbOnlyReplicationStore implements ReplicationStore {
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public CommandsPusher addPushCommandsListener(ReplicationProgress<?> progress, PushCommandsListener commandsListener) throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
 	@Override
 	public FULLSYNC_FAIL_CAUSE createIndexIfPossible(ExecutorService indexingExecutors) {
 		throw new UnsupportedOperationException();
@@ -43,6 +43,21 @@ public abstract class AbstractFlyingThresholdCommandReader<R> implements Command
         return read(-1);
     }
 
+    @Override
+    public R tryRead() throws IOException {
+        if (!gate.isOpen()) return null;
+
+        R cmdContent = doRead(0);
+
+        if (null != cmdContent) checkCloseGate(flying.incrementAndGet());
+        return cmdContent;
+    }
+
+    @Override
+    public boolean isThrottled() {
+        return !gate.isOpen();
+    }
+
     private void checkCloseGate(long current) {
 
         debugPrint(current);
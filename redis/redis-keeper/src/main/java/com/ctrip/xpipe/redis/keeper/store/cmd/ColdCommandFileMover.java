@@ -0,0 +1,175 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.concurrent.AbstractExceptionLogTask;
+import com.ctrip.xpipe.utils.OsUtils;
+import com.ctrip.xpipe.utils.XpipeThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+/**
+ * Moves cmd files to the cold dir, e.g. on a large HDD volume, while the hot dir keeps the files being written.
+ * A file moved is replaced by a symbolic link to the cold file, so that it is found, opened and sent as before.
+ * The file is copied in background, then replaced by {@link #link} which the store calls under its gc lock,
+ * as the file may be deleted in the meantime.
+ */
+public class ColdCommandFileMover {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColdCommandFileMover.class);
+
+    private static final String TMP_SUFFIX = ".cold.tmp";
+
+    // refill size of readers for cold files, as larger sequential reads suit disks
+    public static final int COLD_FILE_READ_SIZE = 1 << 16;
+
+    private final File coldDir;
+
+    private final Executor executor;
+
+    private final Set<File> moving = ConcurrentHashMap.newKeySet();
+
+    public ColdCommandFileMover(File coldDir) {
+        this(coldDir, MoveExecutorHolder.EXECUTOR);
+    }
+
+    public ColdCommandFileMover(File coldDir, Executor executor) {
+        this.coldDir = coldDir;
+        this.executor = executor;
+    }
+
+    /**
+     * @param onCopied called with the file and its cold copy, which is expected to call {@link #link} or delete the copy
+     * @return false if the file is cold or being moved already
+     */
+    public boolean copyAsync(File file, BiConsumer<File, File> onCopied) {
+        if (isCold(file) || !moving.add(file)) return false;
+
+        try {
+            executor.execute(new AbstractExceptionLogTask() {
+                @Override
+                protected void doRun() throws Exception {
+                    try {
+                        onCopied.accept(file, copy(file));
+                    } finally {
+                        moving.remove(file);
+                    }
+                }
+            });
+        } catch (Throwable th) {
+            moving.remove(file);
+            throw th;
+        }
+        return true;
+    }
+
+    /**
+     * @return the cold copy of file, with modified time kept
+     */
+    public File copy(File file) throws IOException {
+        if (!coldDir.isDirectory() && !coldDir.mkdirs() && !coldDir.isDirectory()) {
+            throw new IOException("fail to create cold dir " + coldDir);
+        }
+
+        File coldFile = new File(coldDir, file.getName());
+        File tmpFile = new File(coldDir, file.getName() + TMP_SUFFIX);
+        long begin = System.currentTimeMillis();
+        try {
+            Files.copy(file.toPath(), tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            try (FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tmpFile.toPath(), coldFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            logger.info("[copy][{}] {} to {}, cost:{}ms", file.getName(), file.length(), coldDir,
+                    System.currentTimeMillis() - begin);
+            return coldFile;
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                logger.warn("[copy][{}] fail to delete", tmpFile);
+            }
+        }
+    }
+
+    /**
+     * Replaces file by a symbolic link to its cold copy atomically, readers opened it read on as before
+     */
+    public void link(File file, File coldFile) throws IOException {
+        Path tmpLink = new File(file.getPath() + TMP_SUFFIX).toPath();
+        Files.deleteIfExists(tmpLink);
+        Files.createSymbolicLink(tmpLink, coldFile.getAbsoluteFile().toPath());
+        try {
+            Files.move(tmpLink, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmpLink);
+            throw e;
+        }
+    }
+
+    public File getColdDir() {
+        return coldDir;
+    }
+
+    public static boolean isCold(File file) {
+        return Files.isSymbolicLink(file.toPath());
+    }
+
+    /**
+     * @return true if cmd file, or its compressed file, is moved to cold dir
+     */
+    public static boolean isCmdFileCold(File cmdFile) {
+        return isCold(cmdFile) || isCold(CommandFileCompressor.compressedFileOf(cmdFile));
+    }
+
+    public static boolean isTmpFile(File file) {
+        return file.getName().endsWith(TMP_SUFFIX);
+    }
+
+    /**
+     * Deletes file, together with its cold copy if it's cold
+     */
+    public static boolean delete(File file) {
+        Path path = file.toPath();
+        if (Files.isSymbolicLink(path)) {
+            try {
+                Files.deleteIfExists(Files.readSymbolicLink(path));
+            } catch (IOException e) {
+                logger.warn("[delete][{}] fail to delete cold file", file, e);
+            }
+        }
+        return file.delete();
+    }
+
+    /**
+     * Mirrors the last levels of dir under cold root, e.g. replication_store_{port}/{replId}/{store},
+     * so that dirs of keepers sharing the cold root don't conflict
+     */
+    public static File mirrorDir(File coldRoot, File dir, int levels) {
+        String path = dir.getName();
+        File parent = dir.getAbsoluteFile().getParentFile();
+        for (int i = 1; i < levels && null != parent; i++) {
+            path = parent.getName() + File.separator + path;
+            parent = parent.getParentFile();
+        }
+        return new File(coldRoot, path);
+    }
+
+    private static class MoveExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Math.max(1, OsUtils.getCpuCount() / 8),
+                XpipeThreadFactory.create("CmdFileColdMover", true));
+
+    }
+
+}
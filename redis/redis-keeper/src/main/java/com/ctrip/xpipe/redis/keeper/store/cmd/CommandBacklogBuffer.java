@@ -0,0 +1,172 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.api.utils.ControllableFile;
+import com.ctrip.xpipe.redis.core.store.CommandFile;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Off-heap ring buffer of the latest command bytes appended, indexed by global offset.
+ * Cmd files opened by {@link #openCmdFile} read and transfer from the buffer when the position is inside it,
+ * and from the file otherwise, so that slaves caught up don't read disk.
+ * There is a single writer, readers copy optimistically and fall back to the file if overwritten meanwhile.
+ */
+public class CommandBacklogBuffer {
+
+    private static final int MAX_OPTIMISTIC_READ_TIMES = 3;
+
+    private final int capacity;
+
+    private final ByteBuffer ring;
+
+    private final StampedLock lock = new StampedLock();
+
+    // bytes of global offset in [startOffset, endOffset) are in ring, guarded by lock
+    private long startOffset;
+
+    private long endOffset;
+
+    public CommandBacklogBuffer(int capacity, long offset) {
+        this.capacity = capacity;
+        this.ring = ByteBuffer.allocateDirect(capacity);
+        this.startOffset = offset;
+        this.endOffset = offset;
+    }
+
+    /**
+     * Appends bytes of byteBuf from index, which are written at global offset, without changing byteBuf indexes
+     */
+    public void append(long offset, ByteBuf byteBuf, int index, int length) {
+        if (length <= 0) return;
+
+        long stamp = lock.writeLock();
+        try {
+            if (offset != endOffset) {
+                // not continuous, e.g. partially written, drop bytes before
+                startOffset = endOffset = offset;
+            }
+            if (length > capacity) {
+                offset += length - capacity;
+                index += length - capacity;
+                length = capacity;
+                startOffset = endOffset = offset;
+            }
+
+            int ringPosition = (int) (offset % capacity);
+            int first = Math.min(length, capacity - ringPosition);
+            byteBuf.getBytes(index, slice(ringPosition, first));
+            if (first < length) {
+                byteBuf.getBytes(index + first, slice(0, length - first));
+            }
+
+            endOffset = offset + length;
+            startOffset = Math.max(startOffset, endOffset - capacity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Copies bytes from global offset til limitOffset at most into dst
+     * @return bytes copied, 0 if offset not in buffer, in which case dst is left untouched
+     */
+    public int read(long offset, ByteBuffer dst, long limitOffset) {
+        int dstPosition = dst.position();
+        for (int i = 0; i < MAX_OPTIMISTIC_READ_TIMES; i++) {
+            long stamp = lock.tryOptimisticRead();
+            if (0 == stamp) continue;
+
+            long end = Math.min(endOffset, limitOffset);
+            if (offset < startOffset || offset >= end) {
+                return 0;
+            }
+
+            // fields read may be inconsistent before validation, keep copy in bounds anyway
+            int length = (int) Math.min(Math.min(dst.remaining(), end - offset), capacity);
+            int ringPosition = (int) (offset % capacity);
+            int first = Math.min(length, capacity - ringPosition);
+            dst.put(slice(ringPosition, first));
+            if (first < length) {
+                dst.put(slice(0, length - first));
+            }
+
+            if (lock.validate(stamp)) {
+                return length;
+            }
+            dst.position(dstPosition);
+        }
+        return 0;
+    }
+
+    private ByteBuffer slice(int position, int length) {
+        ByteBuffer slice = ring.duplicate();
+        slice.position(position);
+        slice.limit(position + length);
+        return slice;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Opens cmd file to read through backlogBuffer if not null
+     */
+    public static ControllableFile openCmdFile(CommandBacklogBuffer backlogBuffer, CommandFile cmdFile) throws IOException {
+        ControllableFile file = CommandFileCompressor.openCmdFile(cmdFile.getFile());
+        if (null == backlogBuffer) return file;
+        return new BufferedControllableFile(file, backlogBuffer, cmdFile.getStartOffset());
+    }
+
+    private static class BufferedControllableFile implements ControllableFile {
+
+        private final ControllableFile file;
+
+        private final CommandBacklogBuffer backlogBuffer;
+
+        private final long startOffset;
+
+        private CommandBacklogFileChannel channel;
+
+        BufferedControllableFile(ControllableFile file, CommandBacklogBuffer backlogBuffer, long startOffset) {
+            this.file = file;
+            this.backlogBuffer = backlogBuffer;
+            this.startOffset = startOffset;
+        }
+
+        @Override
+        public synchronized FileChannel getFileChannel() throws IOException {
+            FileChannel fileChannel = file.getFileChannel();
+            // file may be reopened
+            if (null == channel || !channel.isBackedBy(fileChannel)) {
+                channel = new CommandBacklogFileChannel(fileChannel, backlogBuffer, startOffset);
+            }
+            return channel;
+        }
+
+        @Override
+        public long size() {
+            return file.size();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+
+        @Override
+        public String toString() {
+            return file.toString();
+        }
+    }
+
+}
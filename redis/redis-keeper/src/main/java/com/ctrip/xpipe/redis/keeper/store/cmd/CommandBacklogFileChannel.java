@@ -0,0 +1,161 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Channel of a cmd file which reads and transfers from {@link CommandBacklogBuffer} when the position is inside it,
+ * and from the file otherwise. Positions and size are those of the file.
+ */
+public class CommandBacklogFileChannel extends FileChannel {
+
+    private static final int TRANSFER_CHUNK_SIZE = 1 << 16;
+
+    // transferTo runs on event loops, chunks are copied to the buffer of the thread before written to target
+    private static final ThreadLocal<ByteBuffer> TRANSFER_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(TRANSFER_CHUNK_SIZE));
+
+    private final FileChannel channel;
+
+    private final CommandBacklogBuffer backlogBuffer;
+
+    // global offset of file begin
+    private final long startOffset;
+
+    public CommandBacklogFileChannel(FileChannel channel, CommandBacklogBuffer backlogBuffer, long startOffset) {
+        this.channel = channel;
+        this.backlogBuffer = backlogBuffer;
+        this.startOffset = startOffset;
+    }
+
+    boolean isBackedBy(FileChannel fileChannel) {
+        return channel == fileChannel && isOpen();
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        long position = channel.position();
+        int read = backlogBuffer.read(startOffset + position, dst, startOffset + channel.size());
+        if (read > 0) {
+            channel.position(position + read);
+            return read;
+        }
+        return channel.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        return channel.read(dsts, offset, length);
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        int read = backlogBuffer.read(startOffset + position, dst, startOffset + channel.size());
+        if (read > 0) return read;
+        return channel.read(dst, position);
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long size = channel.size();
+        count = Math.min(count, size - position);
+        if (count <= 0) return 0;
+
+        ByteBuffer buffer = TRANSFER_BUFFER.get();
+        long transferred = 0;
+        while (transferred < count) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), count - transferred));
+            int read = backlogBuffer.read(startOffset + position + transferred, buffer, startOffset + size);
+            if (read <= 0) {
+                // not in buffer any more
+                return transferred + channel.transferTo(position + transferred, count - transferred, target);
+            }
+
+            buffer.flip();
+            int written = target.write(buffer);
+            transferred += written;
+            // target not writable for now
+            if (written < read) break;
+        }
+        return transferred;
+    }
+
+    @Override
+    public long position() throws IOException {
+        return channel.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        channel.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        return channel.write(src);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        return channel.write(srcs, offset, length);
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+        return channel.write(src, position);
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        channel.truncate(size);
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        channel.force(metaData);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+        return channel.transferFrom(src, position, count);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        return channel.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CommandBacklogFileChannel{start:%d, %s}", startOffset, channel);
+    }
+
+}
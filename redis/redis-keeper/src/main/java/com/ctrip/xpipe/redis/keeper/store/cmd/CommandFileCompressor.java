@@ -0,0 +1,201 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.api.utils.ControllableFile;
+import com.ctrip.xpipe.concurrent.AbstractExceptionLogTask;
+import com.ctrip.xpipe.redis.core.store.CommandFile;
+import com.ctrip.xpipe.utils.DefaultControllableFile;
+import com.ctrip.xpipe.utils.OsUtils;
+import com.ctrip.xpipe.utils.XpipeThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Compresses cmd files no longer written into {@link ZstdBlockFile} in background.
+ * The compressed file is named after the cmd file with {@link #COMPRESSED_SUFFIX} and appears by rename when completed,
+ * it is read in preference to the cmd file as soon as it exists, see {@link #openCmdFile(File)}.
+ * The cmd file is deleted later by the store.
+ */
+public class CommandFileCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandFileCompressor.class);
+
+    public static final String COMPRESSED_SUFFIX = ".zst";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 17;
+
+    private final Executor executor;
+
+    private final int blockSize;
+
+    private final int level;
+
+    private final Set<File> compressing = ConcurrentHashMap.newKeySet();
+
+    public CommandFileCompressor(int level) {
+        this(CompressExecutorHolder.EXECUTOR, DEFAULT_BLOCK_SIZE, level);
+    }
+
+    public CommandFileCompressor(Executor executor, int blockSize, int level) {
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.level = level;
+    }
+
+    /**
+     * @param onCompressed called after compressed file appears
+     * @return false if the cmd file is being compressed already
+     */
+    public boolean compressAsync(CommandFile commandFile, Consumer<CommandFile> onCompressed) {
+        File cmdFile = commandFile.getFile();
+        if (!compressing.add(cmdFile)) return false;
+
+        try {
+            executor.execute(new AbstractExceptionLogTask() {
+                @Override
+                protected void doRun() throws Exception {
+                    try {
+                        compress(cmdFile);
+                        onCompressed.accept(commandFile);
+                    } finally {
+                        compressing.remove(cmdFile);
+                    }
+                }
+            });
+        } catch (Throwable th) {
+            compressing.remove(cmdFile);
+            throw th;
+        }
+        return true;
+    }
+
+    /**
+     * @return length of the cmd file compressed
+     */
+    public long compress(File cmdFile) throws IOException {
+        File compressedFile = compressedFileOf(cmdFile);
+        File tmpFile = new File(compressedFile.getPath() + TMP_SUFFIX);
+        long begin = System.currentTimeMillis();
+        long length = cmdFile.length();
+        long lastModified = cmdFile.lastModified();
+
+        try {
+            long compressedLength = ZstdBlockFile.compress(cmdFile, tmpFile, blockSize, level);
+            // keep modified time of cmd file, on which gc depends
+            if (!tmpFile.setLastModified(lastModified)) {
+                logger.warn("[compress][{}] fail to set last modified", tmpFile);
+            }
+            Files.move(tmpFile.toPath(), compressedFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            logger.info("[compress][{}] {} -> {}, cost:{}ms", cmdFile.getName(), length, compressedLength,
+                    System.currentTimeMillis() - begin);
+            return length;
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                logger.warn("[compress][{}] fail to delete", tmpFile);
+            }
+        }
+    }
+
+    public static File compressedFileOf(File cmdFile) {
+        return new File(cmdFile.getPath() + COMPRESSED_SUFFIX);
+    }
+
+    public static boolean isCompressedFile(File file) {
+        return file.getName().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    public static boolean isTmpFile(File file) {
+        return file.getName().endsWith(COMPRESSED_SUFFIX + TMP_SUFFIX);
+    }
+
+    /**
+     * @return the cmd file, given either the cmd file or its compressed file
+     */
+    public static File cmdFileOf(File file) {
+        if (!isCompressedFile(file)) return file;
+        String path = file.getPath();
+        return new File(path.substring(0, path.length() - COMPRESSED_SUFFIX.length()));
+    }
+
+    public static long rawLengthOf(File compressedFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(compressedFile.toPath(), StandardOpenOption.READ)) {
+            return ZstdBlockFile.load(channel).getRawLength();
+        }
+    }
+
+    /**
+     * Opens the compressed file of cmd file if exists, the cmd file otherwise
+     */
+    public static ControllableFile openCmdFile(File cmdFile) throws IOException {
+        File compressedFile = compressedFileOf(cmdFile);
+        if (compressedFile.isFile()) {
+            return new CompressedControllableFile(compressedFile);
+        }
+        return new DefaultControllableFile(cmdFile);
+    }
+
+    private static class CompressedControllableFile implements ControllableFile {
+
+        private final File file;
+
+        private final ZstdBlockFileChannel channel;
+
+        CompressedControllableFile(File file) throws IOException {
+            this.file = file;
+            FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                this.channel = new ZstdBlockFileChannel(fileChannel);
+            } catch (IOException e) {
+                fileChannel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public FileChannel getFileChannel() {
+            return channel;
+        }
+
+        @Override
+        public long size() {
+            return channel.size();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        @Override
+        public String toString() {
+            return file.getName();
+        }
+    }
+
+    private static class CompressExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Math.max(1, OsUtils.getCpuCount() / 8),
+                XpipeThreadFactory.create("CmdFileCompressor", true));
+
+    }
+
+}
@@ -0,0 +1,241 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.utils.OsUtils;
+import com.ctrip.xpipe.utils.XpipeThreadFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Write commands behind the caller thread. Appended bufs are retained into a backlog and drained
+ * by at most one task at a time, consecutive bufs reach the file in one gathering write.
+ * The backlog is bounded by the caller: stop reading when {@link #checkBacklog(Runnable)} returns false,
+ * resume when the backlog drops under half of max bytes.
+ * A failed write fails all appends after it, as bytes accepted are lost, the owner should close the file on it.
+ */
+public class GroupCommitCommandAppender implements Closeable {
+
+    public interface BatchWriter {
+
+        void write(ByteBuf batch) throws IOException;
+
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitCommandAppender.class);
+
+    private static final int MAX_BUFS_PER_BATCH = 256;
+
+    private final BatchWriter batchWriter;
+
+    private final Executor executor;
+
+    private final long maxBacklogBytes;
+
+    private final Queue<ByteBuf> backlog = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong backlogBytes = new AtomicLong(0);
+
+    // file length after all accepted bufs written
+    private final AtomicLong acceptedLength;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private final Queue<Runnable> drainedListeners = new ConcurrentLinkedQueue<>();
+
+    private final Object drainLock = new Object();
+
+    // no buf is accepted after close
+    private final Object acceptLock = new Object();
+
+    private boolean closed = false;
+
+    private volatile IOException failure;
+
+    private final Consumer<IOException> onWriteFail;
+
+    public GroupCommitCommandAppender(long initLength, long maxBacklogBytes, BatchWriter batchWriter,
+                                      Consumer<IOException> onWriteFail) {
+        this(initLength, maxBacklogBytes, batchWriter, onWriteFail, DrainExecutorHolder.EXECUTOR);
+    }
+
+    public GroupCommitCommandAppender(long initLength, long maxBacklogBytes, BatchWriter batchWriter,
+                                      Consumer<IOException> onWriteFail, Executor executor) {
+        this.acceptedLength = new AtomicLong(initLength);
+        this.maxBacklogBytes = maxBacklogBytes;
+        this.batchWriter = batchWriter;
+        this.onWriteFail = onWriteFail;
+        this.executor = executor;
+    }
+
+    /**
+     * @throws IOException if closed or any write failed, the buf is left to the caller
+     */
+    public int append(ByteBuf byteBuf) throws IOException {
+        int readable = byteBuf.readableBytes();
+        if (readable <= 0) return 0;
+
+        synchronized (acceptLock) {
+            if (null != failure) throw new IOException("[append] write behind failed", failure);
+            if (closed) throw new IOException("[append] write behind closed");
+
+            backlog.offer(byteBuf.retainedSlice());
+            byteBuf.skipBytes(readable);
+            backlogBytes.addAndGet(readable);
+            acceptedLength.addAndGet(readable);
+        }
+
+        scheduleDrain();
+        return readable;
+    }
+
+    /**
+     * @return false if backlog is full, onDrained runs once when it drops under half of max bytes
+     */
+    public boolean checkBacklog(Runnable onDrained) {
+        if (backlogBytes.get() < maxBacklogBytes) return true;
+
+        drainedListeners.offer(onDrained);
+        // drained before listener added
+        if (backlogBytes.get() <= maxBacklogBytes / 2) notifyDrained();
+        return false;
+    }
+
+    /**
+     * @throws IllegalStateException if any write failed, since bytes accepted never reach the file
+     */
+    public long acceptedLength() {
+        IOException current = failure;
+        if (null != current) throw new IllegalStateException("[acceptedLength] write behind failed", current);
+        return acceptedLength.get();
+    }
+
+    public long backlogBytes() {
+        return backlogBytes.get();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        IOException writeFail = null;
+        try {
+            synchronized (drainLock) {
+                writeFail = drainBacklog();
+            }
+        } finally {
+            draining.set(false);
+            // bufs offered after the last poll
+            if (null == failure && !backlog.isEmpty()) scheduleDrain();
+        }
+
+        if (null != writeFail) {
+            try {
+                onWriteFail.accept(writeFail);
+            } catch (Throwable th) {
+                logger.warn("[drain][onWriteFail fail]", th);
+            }
+        }
+    }
+
+    /**
+     * @return the failure if a write failed in this round
+     */
+    private IOException drainBacklog() {
+        if (null != failure) {
+            discardBacklog();
+            return null;
+        }
+
+        List<ByteBuf> bufs = new ArrayList<>();
+        while (true) {
+            bufs.clear();
+            long bytes = 0;
+            ByteBuf buf;
+            while (bufs.size() < MAX_BUFS_PER_BATCH && null != (buf = backlog.poll())) {
+                bufs.add(buf);
+                bytes += buf.readableBytes();
+            }
+            if (bufs.isEmpty()) return null;
+
+            // take the ownership of bufs
+            ByteBuf batch = Unpooled.wrappedBuffer(bufs.toArray(new ByteBuf[0]));
+            try {
+                batchWriter.write(batch);
+            } catch (Throwable th) {
+                logger.error("[drainBacklog][write fail] {} bytes", bytes, th);
+                synchronized (acceptLock) {
+                    failure = th instanceof IOException ? (IOException) th : new IOException(th);
+                }
+                backlogBytes.addAndGet(-bytes);
+                discardBacklog();
+                return failure;
+            } finally {
+                batch.release();
+            }
+
+            if (backlogBytes.addAndGet(-bytes) <= maxBacklogBytes / 2) {
+                notifyDrained();
+            }
+        }
+    }
+
+    // bufs accepted after a failed write are never written
+    private void discardBacklog() {
+        ByteBuf buf;
+        while (null != (buf = backlog.poll())) {
+            backlogBytes.addAndGet(-buf.readableBytes());
+            buf.release();
+        }
+        notifyDrained();
+    }
+
+    private void notifyDrained() {
+        Runnable onDrained;
+        while (null != (onDrained = drainedListeners.poll())) {
+            try {
+                onDrained.run();
+            } catch (Throwable th) {
+                logger.info("[notifyDrained][fail]", th);
+            }
+        }
+    }
+
+    /**
+     * write all bufs accepted before close on the caller thread, appends after it are rejected
+     */
+    @Override
+    public void close() {
+        synchronized (acceptLock) {
+            closed = true;
+        }
+        synchronized (drainLock) {
+            drainBacklog();
+        }
+        notifyDrained();
+    }
+
+    private static class DrainExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Math.max(2, OsUtils.getCpuCount() / 2),
+                XpipeThreadFactory.create("CommandWriteBehind", true));
+
+    }
+
+}
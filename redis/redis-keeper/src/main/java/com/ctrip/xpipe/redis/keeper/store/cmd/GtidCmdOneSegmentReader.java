@@ -6,7 +6,6 @@ import com.ctrip.xpipe.redis.core.protocal.RedisClientProtocol;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
 import com.ctrip.xpipe.redis.core.store.*;
-import com.ctrip.xpipe.utils.DefaultControllableFile;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import org.slf4j.Logger;
@@ -44,9 +43,21 @@ public class GtidCmdOneSegmentReader implements CommandReader<RedisOp> {
 
     private static final int FILE_BUFFER_SIZE = 4096;
 
+    private int fileBufferSize = FILE_BUFFER_SIZE;
+
+    // null if reading cmd files only
+    private CommandBacklogBuffer backlogBuffer;
+
     public GtidCmdOneSegmentReader(CommandStore commandStore, CommandFileSegment segment,
                                    RedisClientProtocol<Object[]> protocolParser, RedisOpParser opParser) throws IOException {
+        this(commandStore, segment, protocolParser, opParser, null);
+    }
+
+    public GtidCmdOneSegmentReader(CommandStore commandStore, CommandFileSegment segment,
+                                   RedisClientProtocol<Object[]> protocolParser, RedisOpParser opParser,
+                                   CommandBacklogBuffer backlogBuffer) throws IOException {
         this.commandStore = commandStore;
+        this.backlogBuffer = backlogBuffer;
         this.segment = segment;
         this.protocolParser = protocolParser;
         this.opParser = opParser;
@@ -60,6 +71,16 @@ public class GtidCmdOneSegmentReader implements CommandReader<RedisOp> {
         return read();
     }
 
+    @Override
+    public RedisOp tryRead() throws IOException {
+        return read();
+    }
+
+    @Override
+    public boolean isThrottled() {
+        return false;
+    }
+
     @Override
     public RedisOp read() throws IOException {
         if (finished.get()) return null;
@@ -107,9 +128,9 @@ public class GtidCmdOneSegmentReader implements CommandReader<RedisOp> {
                 throw new XpipeRuntimeException("read beyond segment " + segment + ", current position " + curFilePosition);
             }
 
-            cmdBuffer = ByteBuffer.allocateDirect((int)Math.max(Math.min(FILE_BUFFER_SIZE, endOffset - curFilePosition), 0));
+            cmdBuffer = ByteBuffer.allocateDirect((int)Math.max(Math.min(fileBufferSize, endOffset - curFilePosition), 0));
         } else {
-            cmdBuffer = ByteBuffer.allocateDirect(FILE_BUFFER_SIZE);
+            cmdBuffer = ByteBuffer.allocateDirect(fileBufferSize);
         }
 
         curBuf = Unpooled.wrappedBuffer(cmdBuffer);
@@ -123,13 +144,13 @@ public class GtidCmdOneSegmentReader implements CommandReader<RedisOp> {
 
     @Override
     public long position() throws IOException {
-        return filePosition() - curBuf.readableBytes();
+        return null == curBuf ? filePosition() : filePosition() - curBuf.readableBytes();
     }
 
     private synchronized void setCmdFile(CommandFile cmdFile, long filePosition) throws IOException {
         tryCloseFile(controllableFile);
         this.curCmdFile = cmdFile;
-        this.controllableFile = new DefaultControllableFile(cmdFile.getFile());
+        this.controllableFile = CommandBacklogBuffer.openCmdFile(backlogBuffer, cmdFile);
 
         try {
             this.controllableFile.getFileChannel().position(filePosition);
@@ -137,6 +158,7 @@ public class GtidCmdOneSegmentReader implements CommandReader<RedisOp> {
             tryCloseFile(this.controllableFile);
             throw ioException;
         }
+        this.fileBufferSize = ColdCommandFileMover.isCmdFileCold(cmdFile.getFile()) ? ColdCommandFileMover.COLD_FILE_READ_SIZE : FILE_BUFFER_SIZE;
     }
 
     private void tryCloseFile(ControllableFile file) {
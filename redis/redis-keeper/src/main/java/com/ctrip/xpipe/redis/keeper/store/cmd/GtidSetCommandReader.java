@@ -7,7 +7,6 @@ import com.ctrip.xpipe.redis.core.protocal.RedisClientProtocol;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
 import com.ctrip.xpipe.redis.core.store.*;
-import com.ctrip.xpipe.utils.DefaultControllableFile;
 import com.ctrip.xpipe.utils.OffsetNotifier;
 import com.ctrip.xpipe.utils.StringUtil;
 import io.netty.buffer.ByteBuf;
@@ -49,12 +48,40 @@ public class GtidSetCommandReader extends AbstractFlyingThresholdCommandReader<R
 
     private static final int FILE_BUFFER_SIZE = Integer.parseInt(System.getProperty("CMD_FILE_BUFFER_SIZE", "4096"));
 
+    private static final int FILE_BUFFER_MAX_SIZE = Math.max(FILE_BUFFER_SIZE,
+            Integer.parseInt(System.getProperty("CMD_FILE_BUFFER_MAX_SIZE", "65536")));
+
+    // reused by every refill, reallocated only when adaptive size changes
+    private ByteBuf readBuf = null;
+
+    private int readBufSize = FILE_BUFFER_SIZE;
+
+    // cold files are on disks which favor large sequential reads
+    private int minReadBufSize = FILE_BUFFER_SIZE;
+
+    private boolean shrinkNext = false;
+
+    private long refillCount = 0;
+
+    private long refillBytes = 0;
+
+    // null if reading cmd files only
+    private CommandBacklogBuffer backlogBuffer;
+
     public GtidSetCommandReader(CommandStore commandStore, GtidSet excludedGtidSet,
                                 RedisClientProtocol<Object[]> protocolParser, RedisOpParser opParser,
                                 OffsetNotifier offsetNotifier, long flyingThreshold) throws IOException {
+        this(commandStore, excludedGtidSet, protocolParser, opParser, offsetNotifier, flyingThreshold, null);
+    }
+
+    public GtidSetCommandReader(CommandStore commandStore, GtidSet excludedGtidSet,
+                                RedisClientProtocol<Object[]> protocolParser, RedisOpParser opParser,
+                                OffsetNotifier offsetNotifier, long flyingThreshold,
+                                CommandBacklogBuffer backlogBuffer) throws IOException {
         super(commandStore, flyingThreshold);
         this.commandStore = commandStore;
         this.offsetNotifier = offsetNotifier;
+        this.backlogBuffer = backlogBuffer;
         this.excludedGtidSet = excludedGtidSet.clone();
         this.protocolParser = protocolParser;
         this.opParser = opParser;
@@ -90,19 +117,63 @@ public class GtidSetCommandReader extends AbstractFlyingThresholdCommandReader<R
     private void refillBufIfNecessary(long milliSeconds) throws IOException {
         if (null != curBuf && curBuf.readableBytes() > 0) return;
 
-        ByteBuffer cmdBuffer;
+        int expected;
         if (!currentFileSegment.rightBoundOpen() && currentFileSegment.getEndIdx().getCommandFile().equals(curCmdFile)) {
             long endOffset = currentFileSegment.getEndIdx().getFileOffset();
-            cmdBuffer = ByteBuffer.allocateDirect((int)Math.max(Math.min(FILE_BUFFER_SIZE, endOffset - filePosition()), 0));
+            expected = (int)Math.max(Math.min(readBufSize, endOffset - filePosition()), 0);
         } else {
             tryWaitOffset(milliSeconds);
             if (!hasAnyThingToRead()) return;
-            cmdBuffer = ByteBuffer.allocateDirect(FILE_BUFFER_SIZE);
+            expected = readBufSize;
         }
 
-        curBuf = Unpooled.wrappedBuffer(cmdBuffer);
-        controllableFile.getFileChannel().read(cmdBuffer);
-        if (cmdBuffer.position() < cmdBuffer.capacity()) curBuf.capacity(cmdBuffer.position());
+        curBuf = prepareReadBuf();
+        int read = expected > 0 ? curBuf.writeBytes(controllableFile.getFileChannel(), expected) : 0;
+        if (read > 0) {
+            refillCount++;
+            refillBytes += read;
+        }
+
+        // a read bounded by segment end says nothing about the proper buffer size
+        if (expected == readBufSize) adjustReadBufSize(read);
+    }
+
+    private ByteBuf prepareReadBuf() {
+        if (null == readBuf || readBuf.capacity() != readBufSize) {
+            // direct memory of the replaced buffer is reclaimed by gc, which happens rarely as size is adaptive
+            readBuf = Unpooled.wrappedBuffer(ByteBuffer.allocateDirect(readBufSize));
+        }
+        readBuf.clear();
+        return readBuf;
+    }
+
+    private void adjustReadBufSize(int read) {
+        if (read >= readBufSize) {
+            readBufSize = Math.max(Math.min(readBufSize << 1, FILE_BUFFER_MAX_SIZE), minReadBufSize);
+            shrinkNext = false;
+        } else if (read <= readBufSize >> 2 && readBufSize > minReadBufSize) {
+            // shrink only when the buffer is too large for two refills in a row
+            if (shrinkNext) {
+                readBufSize = Math.max(readBufSize >> 1, minReadBufSize);
+                shrinkNext = false;
+            } else {
+                shrinkNext = true;
+            }
+        } else {
+            shrinkNext = false;
+        }
+    }
+
+    public long getRefillCount() {
+        return refillCount;
+    }
+
+    public long getRefillBytes() {
+        return refillBytes;
+    }
+
+    public int getReadBufSize() {
+        return readBufSize;
     }
 
     private boolean hasAnyThingToRead() throws IOException {
@@ -165,13 +236,14 @@ public class GtidSetCommandReader extends AbstractFlyingThresholdCommandReader<R
 
     @Override
     public long position() throws IOException {
-        return filePosition() - curBuf.readableBytes();
+        // buf is cleared when rolling to next segment
+        return null == curBuf ? filePosition() : filePosition() - curBuf.readableBytes();
     }
 
     private synchronized void setCmdFile(CommandFile cmdFile, long filePosition, boolean clearBuf) throws IOException {
         tryCloseFile(controllableFile);
         this.curCmdFile = cmdFile;
-        this.controllableFile = new DefaultControllableFile(cmdFile.getFile());
+        this.controllableFile = CommandBacklogBuffer.openCmdFile(backlogBuffer, cmdFile);
 
         try {
             this.controllableFile.getFileChannel().position(filePosition);
@@ -180,6 +252,9 @@ public class GtidSetCommandReader extends AbstractFlyingThresholdCommandReader<R
             throw ioException;
         }
 
+        this.minReadBufSize = ColdCommandFileMover.isCmdFileCold(cmdFile.getFile()) ? ColdCommandFileMover.COLD_FILE_READ_SIZE : FILE_BUFFER_SIZE;
+        this.readBufSize = Math.max(readBufSize, minReadBufSize);
+
         if (clearBuf) {
             this.curBuf = null;
             this.protocolParser.reset();
@@ -210,6 +285,8 @@ public class GtidSetCommandReader extends AbstractFlyingThresholdCommandReader<R
 
     @Override
     public void close() throws IOException {
+        logger.info("[close][refill] count:{}, bytes:{}, avg:{}", refillCount, refillBytes,
+                refillCount == 0 ? 0 : refillBytes / refillCount);
         commandStore.removeReader(this);
         tryCloseFile(controllableFile);
     }
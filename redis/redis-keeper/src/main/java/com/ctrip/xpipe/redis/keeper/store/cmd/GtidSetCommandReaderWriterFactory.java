@@ -1,7 +1,6 @@
 package com.ctrip.xpipe.redis.keeper.store.cmd;
 
-import com.ctrip.xpipe.redis.core.protocal.protocal.ArrayParser;
-import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.protocal.protocal.BulkStringArrayParser;
 import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
 import com.ctrip.xpipe.redis.core.store.*;
 import com.ctrip.xpipe.utils.OffsetNotifier;
@@ -19,17 +18,31 @@ public class GtidSetCommandReaderWriterFactory extends OffsetCommandReaderWriter
 
     private int bytesBetweenIndex;
 
+    private boolean zeroCopy;
+
     public GtidSetCommandReaderWriterFactory(RedisOpParser redisOpParser, int bytesBetweenIndex) {
+        this(redisOpParser, bytesBetweenIndex, false);
+    }
+
+    public GtidSetCommandReaderWriterFactory(RedisOpParser redisOpParser, int bytesBetweenIndex, boolean zeroCopy) {
         this.redisOpParser = redisOpParser;
         this.bytesBetweenIndex = bytesBetweenIndex;
+        this.zeroCopy = zeroCopy;
     }
 
     @Override
-    public CommandReader<RedisOp> createCmdReader(GtidSetReplicationProgress replProgress,
-                                                  CommandStore cmdStore,
-                                                  OffsetNotifier offsetNotifier, long commandReaderFlyingThreshold) throws IOException {
+    public CommandReader<?> createCmdReader(GtidSetReplicationProgress replProgress,
+                                            CommandStore cmdStore,
+                                            OffsetNotifier offsetNotifier, long commandReaderFlyingThreshold,
+                                            boolean rawCommandsSupported) throws IOException {
+        // listeners such as the index generator need every command parsed
+        if (zeroCopy && rawCommandsSupported) {
+            return new GtidSetZeroCopyCommandReader(cmdStore, replProgress.getProgress(),
+                    redisOpParser, offsetNotifier, commandReaderFlyingThreshold, backlogBufferOf(cmdStore));
+        }
+
         return new GtidSetCommandReader(cmdStore, replProgress.getProgress(),
-                new ArrayParser(), redisOpParser, offsetNotifier, commandReaderFlyingThreshold);
+                new BulkStringArrayParser(), redisOpParser, offsetNotifier, commandReaderFlyingThreshold, backlogBufferOf(cmdStore));
     }
 
 }
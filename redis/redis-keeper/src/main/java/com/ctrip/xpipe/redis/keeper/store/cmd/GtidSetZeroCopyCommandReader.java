@@ -0,0 +1,237 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.gtid.GtidSet;
+import com.ctrip.xpipe.netty.filechannel.ReferenceFileChannel;
+import com.ctrip.xpipe.netty.filechannel.ReferenceFileRegion;
+import com.ctrip.xpipe.redis.core.protocal.protocal.BulkStringArrayParser;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
+import com.ctrip.xpipe.redis.core.store.*;
+import com.ctrip.xpipe.utils.OffsetNotifier;
+import com.ctrip.xpipe.utils.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Read cmds for gtid slave segment by segment.
+ * Segment whose cmds are all needed by slave, as well as the right-bound-open segment,
+ * is sent as {@link ReferenceFileRegion} without parsing,
+ * other segments are parsed into {@link RedisOp} so that gtid read can be tracked.
+ */
+public class GtidSetZeroCopyCommandReader extends AbstractFlyingThresholdCommandReader<Object> implements CommandReader<Object> {
+
+    private CommandStore commandStore;
+
+    private OffsetNotifier offsetNotifier;
+
+    private RedisOpParser opParser;
+
+    private GtidSet excludedGtidSet;
+
+    private Set<String> interestedSrcIds;
+
+    private CommandFileSegment currentFileSegment;
+
+    // null for right-bound-open segment
+    private GtidSet segmentIncludedGtidSet;
+
+    private boolean segmentDone = false;
+
+    // for segment sent as file region
+    private CommandFile curCmdFile;
+
+    private ReferenceFileChannel referenceFileChannel;
+
+    private long filePosition;
+
+    // for segment partially needed
+    private GtidCmdOneSegmentReader opReader;
+
+    // null if reading cmd files only
+    private CommandBacklogBuffer backlogBuffer;
+
+    private static final Logger logger = LoggerFactory.getLogger(GtidSetZeroCopyCommandReader.class);
+
+    public GtidSetZeroCopyCommandReader(CommandStore commandStore, GtidSet excludedGtidSet, RedisOpParser opParser,
+                                        OffsetNotifier offsetNotifier, long flyingThreshold) throws IOException {
+        this(commandStore, excludedGtidSet, opParser, offsetNotifier, flyingThreshold, null);
+    }
+
+    public GtidSetZeroCopyCommandReader(CommandStore commandStore, GtidSet excludedGtidSet, RedisOpParser opParser,
+                                        OffsetNotifier offsetNotifier, long flyingThreshold,
+                                        CommandBacklogBuffer backlogBuffer) throws IOException {
+        super(commandStore, flyingThreshold);
+        this.commandStore = commandStore;
+        this.offsetNotifier = offsetNotifier;
+        this.backlogBuffer = backlogBuffer;
+        this.opParser = opParser;
+        this.excludedGtidSet = excludedGtidSet.clone();
+        this.interestedSrcIds = excludedGtidSet.getUUIDs();
+        nextSegment();
+    }
+
+    @Override
+    protected Object doRead(long milliSeconds) throws IOException {
+        commandStore.makeSureOpen();
+
+        while (true) {
+            if (segmentDone) nextSegment();
+
+            Object cmd = null != opReader ? readOp() : readRegion(milliSeconds);
+            if (null != cmd || !segmentDone) return cmd;
+        }
+    }
+
+    private void nextSegment() throws IOException {
+        closeSegment();
+
+        CommandFileSegment segment = commandStore.findFirstFileSegment(excludedGtidSet);
+        CommandFileOffsetGtidIndex startIndex = segment.getStartIdx();
+        this.currentFileSegment = segment;
+        this.segmentDone = false;
+
+        if (segment.rightBoundOpen()) {
+            this.segmentIncludedGtidSet = null;
+        } else {
+            GtidSet leftBoundExcludedGtidSet = startIndex.getExcludedGtidSet().filterGtid(interestedSrcIds);
+            GtidSet rightBoundExcludedGtidSet = segment.getEndIdx().getExcludedGtidSet().filterGtid(interestedSrcIds);
+            this.segmentIncludedGtidSet = rightBoundExcludedGtidSet.subtract(leftBoundExcludedGtidSet);
+        }
+
+        if (null == segmentIncludedGtidSet || segmentIncludedGtidSet.retainAll(excludedGtidSet).isEmpty()) {
+            logger.info("[nextSegment][{}] send as region {}", excludedGtidSet, segment);
+            setCmdFile(startIndex.getCommandFile(), startIndex.getFileOffset());
+        } else {
+            logger.info("[nextSegment][{}] send as op {}", excludedGtidSet, segment);
+            this.opReader = new GtidCmdOneSegmentReader(commandStore, segment, new BulkStringArrayParser(), opParser, backlogBuffer);
+        }
+    }
+
+    private RedisOp readOp() throws IOException {
+        while (!opReader.isFinish()) {
+            RedisOp redisOp = opReader.read();
+            if (null == redisOp) continue;
+
+            if (!StringUtil.isEmpty(redisOp.getOpGtid())) excludedGtidSet.add(redisOp.getOpGtid());
+            // needed gtid cmd in segment has been read completely
+            if (segmentIncludedGtidSet.isContainedWithin(excludedGtidSet)) finishSegment();
+            return redisOp;
+        }
+
+        finishSegment();
+        return null;
+    }
+
+    private ReferenceFileRegion readRegion(long milliSeconds) throws IOException {
+        boolean waited = false;
+
+        while (true) {
+            long limit = isSegmentEndFile() ? currentFileSegment.getEndIdx().getFileOffset() : referenceFileChannel.size();
+            if (filePosition < limit) {
+                ReferenceFileRegion referenceFileRegion = referenceFileChannel.readRegion(filePosition, limit - filePosition);
+                filePosition = limit;
+                referenceFileRegion.setTotalPos(curCmdFile.getStartOffset() + filePosition);
+                return referenceFileRegion;
+            }
+
+            if (isSegmentEndFile()) {
+                finishSegment();
+                return null;
+            }
+
+            CommandFile nextCommandFile = commandStore.findNextFile(curCmdFile.getFile());
+            if (null != nextCommandFile) {
+                // cmds may be appended to current file just before rotation
+                if (filePosition < referenceFileChannel.size()) continue;
+                setCmdFile(nextCommandFile, 0);
+                continue;
+            }
+
+            if (!currentFileSegment.rightBoundOpen()) {
+                throw new IllegalStateException("segment end file not found, " + currentFileSegment);
+            }
+            if (waited) return null;
+
+            tryWaitOffset(milliSeconds);
+            waited = true;
+        }
+    }
+
+    private boolean isSegmentEndFile() {
+        return !currentFileSegment.rightBoundOpen() && currentFileSegment.getEndIdx().getCommandFile().equals(curCmdFile);
+    }
+
+    private void tryWaitOffset(long milliSeconds) {
+        try {
+            long globalOffset = curCmdFile.getStartOffset() + filePosition;
+            if (milliSeconds < 0) offsetNotifier.await(globalOffset);
+            else offsetNotifier.await(globalOffset, milliSeconds);
+        } catch (InterruptedException e) {
+            logger.info("[doRead]", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void finishSegment() {
+        if (null != segmentIncludedGtidSet) {
+            excludedGtidSet = excludedGtidSet.union(segmentIncludedGtidSet);
+        }
+        segmentDone = true;
+    }
+
+    private void setCmdFile(CommandFile cmdFile, long filePosition) throws IOException {
+        tryCloseChannel();
+        this.curCmdFile = cmdFile;
+        this.referenceFileChannel = new ReferenceFileChannel(CommandBacklogBuffer.openCmdFile(backlogBuffer, cmdFile), filePosition);
+        this.filePosition = filePosition;
+    }
+
+    private void closeSegment() {
+        tryCloseChannel();
+        if (null != opReader) {
+            opReader.close();
+            opReader = null;
+        }
+    }
+
+    private void tryCloseChannel() {
+        if (null == referenceFileChannel) return;
+
+        try {
+            // file is closed after all regions released
+            referenceFileChannel.close();
+        } catch (IOException e) {
+            logger.error("[tryCloseChannel]" + referenceFileChannel, e);
+        }
+        referenceFileChannel = null;
+    }
+
+    @Override
+    public CommandFile getCurCmdFile() {
+        return null != opReader ? opReader.getCurCmdFile() : curCmdFile;
+    }
+
+    @Override
+    public long position() throws IOException {
+        return null != opReader ? opReader.position() : filePosition;
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public void close() throws IOException {
+        commandStore.removeReader(this);
+        closeSegment();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GtidSetZeroCopyCommandReader{%s, %s}", currentFileSegment, excludedGtidSet);
+    }
+}
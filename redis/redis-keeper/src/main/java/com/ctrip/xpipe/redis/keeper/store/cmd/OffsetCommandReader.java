@@ -5,7 +5,6 @@ import com.ctrip.xpipe.netty.filechannel.ReferenceFileRegion;
 import com.ctrip.xpipe.redis.core.store.CommandFile;
 import com.ctrip.xpipe.redis.core.store.CommandReader;
 import com.ctrip.xpipe.redis.core.store.CommandStore;
-import com.ctrip.xpipe.utils.DefaultControllableFile;
 import com.ctrip.xpipe.utils.OffsetNotifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,17 +27,27 @@ public class OffsetCommandReader extends AbstractFlyingThresholdCommandReader<Re
 
     private OffsetNotifier offsetNotifier;
 
+    // null if reading cmd files only
+    private CommandBacklogBuffer backlogBuffer;
+
     private static final Logger logger = LoggerFactory.getLogger(OffsetCommandReader.class);
 
     public OffsetCommandReader(CommandFile commandFile, long globalPosition, long filePosition, CommandStore commandStore,
                                OffsetNotifier offsetNotifier, long flyingThreshold)
             throws IOException {
+        this(commandFile, globalPosition, filePosition, commandStore, offsetNotifier, flyingThreshold, null);
+    }
+
+    public OffsetCommandReader(CommandFile commandFile, long globalPosition, long filePosition, CommandStore commandStore,
+                               OffsetNotifier offsetNotifier, long flyingThreshold, CommandBacklogBuffer backlogBuffer)
+            throws IOException {
         super(commandStore, flyingThreshold);
         this.commandStore = commandStore;
         this.offsetNotifier = offsetNotifier;
+        this.backlogBuffer = backlogBuffer;
         this.curCmdFile = commandFile;
         curPosition = globalPosition;
-        referenceFileChannel = new ReferenceFileChannel(new DefaultControllableFile(curCmdFile.getFile()), filePosition);
+        referenceFileChannel = new ReferenceFileChannel(CommandBacklogBuffer.openCmdFile(backlogBuffer, curCmdFile), filePosition);
     }
 
     @Override
@@ -76,7 +85,7 @@ public class OffsetCommandReader extends AbstractFlyingThresholdCommandReader<Re
             if (nextCommandFile != null) {
                 curCmdFile = nextCommandFile;
                 referenceFileChannel.close();
-                referenceFileChannel = new ReferenceFileChannel(new DefaultControllableFile(curCmdFile.getFile()));
+                referenceFileChannel = new ReferenceFileChannel(CommandBacklogBuffer.openCmdFile(backlogBuffer, curCmdFile));
             }
         }
     }
@@ -1,8 +1,8 @@
 package com.ctrip.xpipe.redis.keeper.store.cmd;
 
 import com.ctrip.xpipe.netty.filechannel.ReferenceFileRegion;
-import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
 import com.ctrip.xpipe.redis.core.store.*;
+import com.ctrip.xpipe.redis.keeper.store.AbstractCommandStore;
 import com.ctrip.xpipe.utils.OffsetNotifier;
 import org.slf4j.Logger;
 
@@ -32,12 +32,17 @@ public class OffsetCommandReaderWriterFactory implements CommandReaderWriterFact
         }
 
         return new OffsetCommandReader(commandFile, currentOffset, currentOffset - commandFile.getStartOffset(),
-                cmdStore, offsetNotifier, commandReaderFlyingThreshold);
+                cmdStore, offsetNotifier, commandReaderFlyingThreshold, backlogBufferOf(cmdStore));
+    }
+
+    protected CommandBacklogBuffer backlogBufferOf(CommandStore cmdStore) {
+        return cmdStore instanceof AbstractCommandStore ? ((AbstractCommandStore) cmdStore).getBacklogBuffer() : null;
     }
 
     @Override
-    public CommandReader<RedisOp> createCmdReader(GtidSetReplicationProgress replProgress, CommandStore cmdStore,
-                                                  OffsetNotifier offsetNotifier, long commandReaderFlyingThreshold) throws IOException {
+    public CommandReader<?> createCmdReader(GtidSetReplicationProgress replProgress, CommandStore cmdStore,
+                                            OffsetNotifier offsetNotifier, long commandReaderFlyingThreshold,
+                                            boolean rawCommandsSupported) throws IOException {
         throw new UnsupportedOperationException();
     }
 }
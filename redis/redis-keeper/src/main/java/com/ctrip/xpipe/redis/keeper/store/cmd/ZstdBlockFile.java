@@ -0,0 +1,169 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Seekable compressed file: content is split into blocks of the same size, each compressed as an independent
+ * zstd frame, followed by a table of frame offsets and a fixed length footer.
+ * A position is read by decompressing only the block containing it.
+ * <pre>
+ * [frame 0]...[frame n-1][frame offset 0: 8]...[frame offset n-1: 8][raw length: 8][block size: 4][block count: 4][magic: 8]
+ * </pre>
+ */
+public class ZstdBlockFile {
+
+    static final long MAGIC = 0x5850434d445a5354L;
+
+    static final int FOOTER_LENGTH = 24;
+
+    private final long rawLength;
+
+    private final int blockSize;
+
+    // frame offsets of blocks, ended with the offset of the table
+    private final long[] frameOffsets;
+
+    private ZstdBlockFile(long rawLength, int blockSize, long[] frameOffsets) {
+        this.rawLength = rawLength;
+        this.blockSize = blockSize;
+        this.frameOffsets = frameOffsets;
+    }
+
+    public static ZstdBlockFile load(FileChannel channel) throws IOException {
+        long fileLength = channel.size();
+        if (fileLength < FOOTER_LENGTH) throw new IOException("too short for zstd block file: " + fileLength);
+
+        ByteBuffer footer = readFully(channel, fileLength - FOOTER_LENGTH, FOOTER_LENGTH);
+        long rawLength = footer.getLong();
+        int blockSize = footer.getInt();
+        int blockCount = footer.getInt();
+        if (footer.getLong() != MAGIC) throw new IOException("not zstd block file, magic mismatch");
+
+        long tableOffset = fileLength - FOOTER_LENGTH - 8L * blockCount;
+        if (blockSize <= 0 || blockCount < 0 || tableOffset < 0
+                || (long) blockSize * blockCount < rawLength || (long) blockSize * (blockCount - 1) >= Math.max(rawLength, 1)) {
+            throw new IOException(String.format("illegal footer, raw:%d, block size:%d, blocks:%d", rawLength, blockSize, blockCount));
+        }
+
+        long[] frameOffsets = new long[blockCount + 1];
+        ByteBuffer table = readFully(channel, tableOffset, 8 * blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            frameOffsets[i] = table.getLong();
+        }
+        frameOffsets[blockCount] = tableOffset;
+        return new ZstdBlockFile(rawLength, blockSize, frameOffsets);
+    }
+
+    /**
+     * @return length of the compressed file
+     */
+    public static long compress(File src, File dst, int blockSize, int level) throws IOException {
+        try (FileChannel in = FileChannel.open(src.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(dst.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer raw = ByteBuffer.allocateDirect(blockSize);
+            ByteBuffer frame = ByteBuffer.allocateDirect((int) Zstd.compressBound(blockSize));
+            ByteBuffer table = ByteBuffer.allocate(8 * 1024);
+            long rawLength = 0;
+            int blockCount = 0;
+
+            while (true) {
+                raw.clear();
+                while (raw.hasRemaining()) {
+                    if (in.read(raw) < 0) break;
+                }
+                if (raw.position() == 0) break;
+
+                raw.flip();
+                rawLength += raw.remaining();
+                frame.clear();
+                Zstd.compress(frame, raw, level);
+                frame.flip();
+
+                if (!table.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(table.capacity() << 1);
+                    table.flip();
+                    larger.put(table);
+                    table = larger;
+                }
+                table.putLong(out.position());
+                blockCount++;
+                writeFully(out, frame);
+            }
+
+            table.flip();
+            writeFully(out, table);
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_LENGTH);
+            footer.putLong(rawLength).putInt(blockSize).putInt(blockCount).putLong(MAGIC);
+            footer.flip();
+            writeFully(out, footer);
+            out.force(true);
+            return out.size();
+        }
+    }
+
+    public long getRawLength() {
+        return rawLength;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getBlockCount() {
+        return frameOffsets.length - 1;
+    }
+
+    int blockOf(long position) {
+        return (int) (position / blockSize);
+    }
+
+    long blockStart(int block) {
+        return (long) block * blockSize;
+    }
+
+    int rawBlockLength(int block) {
+        return (int) Math.min(blockSize, rawLength - blockStart(block));
+    }
+
+    long frameOffset(int block) {
+        return frameOffsets[block];
+    }
+
+    int frameLength(int block) {
+        return (int) (frameOffsets[block + 1] - frameOffsets[block]);
+    }
+
+    static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+        readFully(channel, position, byteBuffer);
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+
+    static void readFully(FileChannel channel, long position, ByteBuffer dst) throws IOException {
+        while (dst.hasRemaining()) {
+            int read = channel.read(dst, position);
+            if (read < 0) throw new IOException("unexpected end of zstd block file at " + position);
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ZstdBlockFile{raw:%d, block size:%d, blocks:%d}", rawLength, blockSize, getBlockCount());
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Read only channel over the raw content of a {@link ZstdBlockFile}, positions and size are those of the raw content.
+ * The last block decompressed is cached, as reads are mostly sequential.
+ * {@link #transferTo} copies decompressed bytes to the target, so that file regions over it are sent as usual.
+ */
+public class ZstdBlockFileChannel extends FileChannel {
+
+    private final FileChannel channel;
+
+    private final ZstdBlockFile blockFile;
+
+    private long position;
+
+    private int cachedBlock = -1;
+
+    private ByteBuffer cachedRaw;
+
+    private ByteBuffer frame;
+
+    public ZstdBlockFileChannel(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.blockFile = ZstdBlockFile.load(channel);
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        int read = read(dst, position);
+        if (read > 0) position += read;
+        return read;
+    }
+
+    @Override
+    public synchronized long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int read = read(dsts[i]);
+            if (read < 0) return total > 0 ? total : -1;
+            total += read;
+            if (dsts[i].hasRemaining()) break;
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst, long position) throws IOException {
+        ensureOpen();
+        if (position >= blockFile.getRawLength()) return -1;
+
+        int total = 0;
+        while (dst.hasRemaining() && position < blockFile.getRawLength()) {
+            ByteBuffer raw = rawAt(position, dst.remaining());
+            total += raw.remaining();
+            position += raw.remaining();
+            dst.put(raw);
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        ensureOpen();
+        long transferred = 0;
+        while (transferred < count && position + transferred < blockFile.getRawLength()) {
+            ByteBuffer raw = rawAt(position + transferred, count - transferred);
+            int expected = raw.remaining();
+            int written = target.write(raw);
+            transferred += written;
+            // target not writable for now
+            if (written < expected) break;
+        }
+        return transferred;
+    }
+
+    // raw bytes from position til the end of its block at most
+    private ByteBuffer rawAt(long position, long maxLength) throws IOException {
+        int block = blockFile.blockOf(position);
+        loadBlock(block);
+        int from = (int) (position - blockFile.blockStart(block));
+        ByteBuffer raw = cachedRaw.duplicate();
+        raw.position(from);
+        raw.limit((int) Math.min(raw.limit(), from + maxLength));
+        return raw;
+    }
+
+    private void loadBlock(int block) throws IOException {
+        if (block == cachedBlock) return;
+
+        int frameLength = blockFile.frameLength(block);
+        if (null == frame || frame.capacity() < frameLength) {
+            frame = ByteBuffer.allocateDirect(frameLength);
+        }
+        if (null == cachedRaw) {
+            cachedRaw = ByteBuffer.allocateDirect(blockFile.getBlockSize());
+        }
+
+        cachedBlock = -1;
+        frame.clear();
+        frame.limit(frameLength);
+        ZstdBlockFile.readFully(channel, blockFile.frameOffset(block), frame);
+        frame.flip();
+
+        int rawLength = blockFile.rawBlockLength(block);
+        cachedRaw.clear();
+        int decompressed = Zstd.decompress(cachedRaw, frame);
+        if (decompressed != rawLength) {
+            throw new IOException(String.format("block %d decompressed %d, expected %d", block, decompressed, rawLength));
+        }
+        cachedRaw.flip();
+        cachedBlock = block;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!isOpen()) throw new ClosedChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        return position;
+    }
+
+    @Override
+    public synchronized FileChannel position(long newPosition) throws IOException {
+        if (newPosition < 0) throw new IllegalArgumentException("negative position " + newPosition);
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() {
+        return blockFile.getRawLength();
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public FileChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public void force(boolean metaData) {
+        // nothing written
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) {
+        throw new UnsupportedOperationException("map compressed file");
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("lock compressed file");
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("lock compressed file");
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ZstdBlockFileChannel{%s, pos:%d}", blockFile, position);
+    }
+
+}
@@ -11,13 +11,17 @@ import com.ctrip.xpipe.redis.core.store.ReplicationStoreMeta;
 import com.ctrip.xpipe.redis.core.store.exception.BadMetaStoreException;
 import com.ctrip.xpipe.redis.keeper.exception.RedisKeeperRuntimeException;
 import com.ctrip.xpipe.redis.keeper.exception.replication.UnexpectedReplIdException;
+import com.ctrip.xpipe.redis.keeper.monitor.ReplicationStoreStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unidal.helper.Files.IO;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -35,6 +39,8 @@ public abstract class AbstractMetaStore implements MetaStore{
 	
 	protected String keeperRunid;
 
+	private volatile AsyncMetaPersister asyncPersister;
+
 	public AbstractMetaStore(File baseDir, String keeperRunid) {
 		this.baseDir = baseDir;
 		this.keeperRunid = keeperRunid;
@@ -82,9 +88,23 @@ public abstract class AbstractMetaStore implements MetaStore{
 	}
 
 
+	/**
+	 * Persist meta off the caller thread with updates coalesced. Updates replication position depends on
+	 * still wait until persisted, but out of the lock of the store.
+	 */
+	public void enableAsyncPersist(ReplicationStoreStats stats) {
+		synchronized (metaRef) {
+			if (null != asyncPersister) return;
+
+			logger.info("[enableAsyncPersist]{}", baseDir);
+			asyncPersister = new AsyncMetaPersister(new File(baseDir, META_FILE), stats);
+		}
+	}
+
 	@Override
 	public void updateKeeperRunid(String keeperRunid) throws IOException {
-		
+
+		CompletableFuture<Void> persisted;
 		synchronized (metaRef) {
 
 			ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
@@ -92,8 +112,9 @@ public abstract class AbstractMetaStore implements MetaStore{
 				logger.warn("[keeperRunIdChanged]{}->{}", metaDup.getKeeperRunid(), keeperRunid);
 			}
 			metaDup.setKeeperRunid(keeperRunid);
-			saveMeta(metaDup);
+			persisted = saveMeta(metaDup);
 		}
+		waitPersisted(persisted);
 	}
 
 	@Override
@@ -102,12 +123,42 @@ public abstract class AbstractMetaStore implements MetaStore{
 	}
 
 
-	protected final void saveMeta(ReplicationStoreMeta newMeta) throws IOException {
+	/**
+	 * @return completed when persisted, callers needing durability wait on it by {@link #waitPersisted}
+	 * after leaving the lock
+	 */
+	protected final CompletableFuture<Void> saveMeta(ReplicationStoreMeta newMeta) throws IOException {
 		
 		logger.info("[Metasaved]\nold:{}\nnew:{}", metaRef.get(), newMeta);
 		metaRef.set(newMeta);
+		AsyncMetaPersister persister = asyncPersister;
+		if (null != persister) {
+			return persister.persist(newMeta);
+		}
 		// TODO sync with fs?
 		saveMetaToFile(new File(baseDir, META_FILE), metaRef.get());
+		return CompletableFuture.completedFuture(null);
+	}
+
+	protected void waitPersisted(CompletableFuture<Void> persisted) throws IOException {
+		try {
+			persisted.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("wait meta persisted: " + baseDir);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			throw new IOException("persist meta: " + baseDir, cause);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		AsyncMetaPersister persister = asyncPersister;
+		if (null != persister) {
+			waitPersisted(persister.flushFuture());
+		}
 	}
 
 
@@ -159,9 +210,11 @@ public abstract class AbstractMetaStore implements MetaStore{
 	@Override
 	public ReplicationStoreMeta checkReplIdAndUpdateRdbInfo(String rdbFile, RdbStore.Type type, EofType eofType,
 															long rdbOffset, String gtidSet, String expectedReplId) throws IOException {
+		ReplicationStoreMeta metaDup;
+		CompletableFuture<Void> persisted;
 		synchronized (metaRef) {
 
-			ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
+			metaDup = dupReplicationStoreMeta();
 
 			if (!Objects.equals(expectedReplId, metaDup.getReplId())) {
 				throw new UnexpectedReplIdException(expectedReplId, metaDup.getReplId());
@@ -183,18 +236,20 @@ public abstract class AbstractMetaStore implements MetaStore{
 				throw new IllegalStateException("unknown type " + (type == null?"null":type.name()));
 			}
 
-			saveMeta(metaDup);
-
-			return metaDup;
+			persisted = saveMeta(metaDup);
 		}
+		waitPersisted(persisted);
+		return metaDup;
 	}
 
 	@Override
 	public ReplicationStoreMeta checkReplIdAndUpdateRdbInfo(String rdbFile, EofType eofType, long rdbOffset, String expectedReplId) throws IOException {
 		
+		ReplicationStoreMeta metaDup;
+		CompletableFuture<Void> persisted;
 		synchronized (metaRef) {
 			
-			ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
+			metaDup = dupReplicationStoreMeta();
 
 			if (!Objects.equals(expectedReplId, metaDup.getReplId())) {
 			    throw new UnexpectedReplIdException(expectedReplId, metaDup.getReplId());
@@ -205,10 +260,10 @@ public abstract class AbstractMetaStore implements MetaStore{
 			metaDup.setRdbLastOffset(rdbOffset);
 			
 			logger.info("[rdbUpdated] update rdbLastOffset to {}", rdbOffset);
-			saveMeta(metaDup);
-
-			return metaDup;
+			persisted = saveMeta(metaDup);
 		}
+		waitPersisted(persisted);
+		return metaDup;
 	}
 
 	protected void setRdbFileInfo(ReplicationStoreMeta metaDup, EofType eofType) {
@@ -0,0 +1,143 @@
+package com.ctrip.xpipe.redis.keeper.store.meta;
+
+import com.ctrip.xpipe.api.codec.Codec;
+import com.ctrip.xpipe.concurrent.AbstractExceptionLogTask;
+import com.ctrip.xpipe.redis.core.store.ReplicationStoreMeta;
+import com.ctrip.xpipe.redis.keeper.monitor.ReplicationStoreStats;
+import com.ctrip.xpipe.utils.OsUtils;
+import com.ctrip.xpipe.utils.XpipeThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persists meta of one store off the caller thread. Metas arriving while a flush is pending are coalesced
+ * and only the latest is written, to a temp file renamed over the meta file. At most one flush of a store
+ * runs at a time, so flushes are in order.
+ */
+public class AsyncMetaPersister {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncMetaPersister.class);
+
+    private final File metaFile;
+
+    private final File tmpFile;
+
+    private final Executor executor;
+
+    private final ReplicationStoreStats stats;
+
+    private ReplicationStoreMeta pending;
+
+    private CompletableFuture<Void> pendingFuture;
+
+    private int pendingRequests;
+
+    private boolean flushing;
+
+    public AsyncMetaPersister(File metaFile, ReplicationStoreStats stats) {
+        this(metaFile, stats, FlushExecutorHolder.EXECUTOR);
+    }
+
+    public AsyncMetaPersister(File metaFile, ReplicationStoreStats stats, Executor executor) {
+        this.metaFile = metaFile;
+        this.tmpFile = new File(metaFile.getParentFile(), metaFile.getName() + ".tmp");
+        this.stats = stats;
+        this.executor = executor;
+    }
+
+    /**
+     * @return completed when the meta or a later one is persisted
+     */
+    public synchronized CompletableFuture<Void> persist(ReplicationStoreMeta meta) {
+        pending = meta;
+        pendingRequests++;
+        if (null == pendingFuture) {
+            pendingFuture = new CompletableFuture<>();
+        }
+        CompletableFuture<Void> future = pendingFuture;
+
+        if (!flushing) {
+            flushing = true;
+            scheduleFlush();
+        }
+        return future;
+    }
+
+    public synchronized CompletableFuture<Void> flushFuture() {
+        return null == pendingFuture ? CompletableFuture.completedFuture(null) : pendingFuture;
+    }
+
+    private void scheduleFlush() {
+        executor.execute(new AbstractExceptionLogTask() {
+            @Override
+            protected void doRun() throws Exception {
+                flush();
+            }
+        });
+    }
+
+    private void flush() {
+        ReplicationStoreMeta meta;
+        CompletableFuture<Void> future;
+        int requests;
+        synchronized (this) {
+            meta = pending;
+            future = pendingFuture;
+            requests = pendingRequests;
+            pending = null;
+            pendingFuture = null;
+            pendingRequests = 0;
+        }
+
+        try {
+            long begin = System.nanoTime();
+            writeAtomically(meta);
+            stats.metaFlushed(requests, (System.nanoTime() - begin) / 1000);
+            future.complete(null);
+        } catch (Throwable th) {
+            logger.error("[flush][fail]{}", metaFile, th);
+            future.completeExceptionally(th);
+        } finally {
+            synchronized (this) {
+                if (null != pending) {
+                    scheduleFlush();
+                } else {
+                    flushing = false;
+                }
+            }
+        }
+    }
+
+    private void writeAtomically(ReplicationStoreMeta meta) throws IOException {
+        logger.debug("[writeAtomically]{}, {}", metaFile, meta);
+        try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+            out.write(Codec.DEFAULT.encode(meta).getBytes(StandardCharsets.UTF_8));
+            out.getChannel().force(true);
+        }
+        Files.move(tmpFile.toPath(), metaFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncMetaPersister:" + metaFile;
+    }
+
+    private static class FlushExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Math.max(2, OsUtils.getCpuCount() / 4),
+                XpipeThreadFactory.create("MetaFlusher", true));
+
+    }
+
+}
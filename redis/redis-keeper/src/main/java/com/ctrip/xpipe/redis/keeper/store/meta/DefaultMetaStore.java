@@ -8,6 +8,7 @@ import com.ctrip.xpipe.utils.ObjectUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author wenchao.meng
@@ -53,8 +54,10 @@ public class DefaultMetaStore extends AbstractMetaStore{
 	@Override
 	public ReplicationStoreMeta rdbConfirm(String replId, long beginOffset, String gtidSet, String rdbFile, RdbStore.Type type,
 										 EofType eofType, String cmdFilePrefix) throws IOException {
+		ReplicationStoreMeta metaDup;
+		CompletableFuture<Void> persisted;
 		synchronized (metaRef) {
-			ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
+			metaDup = dupReplicationStoreMeta();
 
 			if (RdbStore.Type.NORMAL.equals(type)) {
 				metaDup.setRdbFile(rdbFile);
@@ -77,17 +80,19 @@ public class DefaultMetaStore extends AbstractMetaStore{
 			metaDup.setCmdFilePrefix(cmdFilePrefix);
 			clearReplicationId2(metaDup);
 
-			saveMeta(metaDup);
-			return metaDup;
+			persisted = saveMeta(metaDup);
 		}
-
+		waitPersisted(persisted);
+		return metaDup;
 	}
 
 	@Override
 	public ReplicationStoreMeta rdbBegun(String replId, long beginOffset, String rdbFile, EofType eofType,
 			String cmdFilePrefix) throws IOException {
+		ReplicationStoreMeta metaDup;
+		CompletableFuture<Void> persisted;
 		synchronized (metaRef) {
-			ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
+			metaDup = dupReplicationStoreMeta();
 
 			metaDup.setReplId(replId);
 			metaDup.setBeginOffset(beginOffset);
@@ -99,9 +104,10 @@ public class DefaultMetaStore extends AbstractMetaStore{
 			
 			clearReplicationId2(metaDup);
 			
-			saveMeta(metaDup);
-			return metaDup;
+			persisted = saveMeta(metaDup);
 		}
+		waitPersisted(persisted);
+		return metaDup;
 	}
 
 	@Override
@@ -120,17 +126,20 @@ public class DefaultMetaStore extends AbstractMetaStore{
 
 	@Override
 	public ReplicationStoreMeta continueFromOffset(String replId, long beginOffset, String cmdFilePrefix) throws IOException {
+		ReplicationStoreMeta metaDup;
+		CompletableFuture<Void> persisted;
 		synchronized (metaRef) {
-			ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
+			metaDup = dupReplicationStoreMeta();
 
 			metaDup.setReplId(replId);
 			metaDup.setBeginOffset(beginOffset);
 			metaDup.setCmdFilePrefix(cmdFilePrefix);
 			clearRdb(metaDup);
 
-			saveMeta(metaDup);
-			return metaDup;
+			persisted = saveMeta(metaDup);
 		}
+		waitPersisted(persisted);
+		return metaDup;
 	}
 
 	@Override
@@ -149,8 +158,10 @@ public class DefaultMetaStore extends AbstractMetaStore{
 	@Override
 	public ReplicationStoreMeta shiftReplicationId(String newReplId, Long currentOffset) throws IOException {
 		
+		ReplicationStoreMeta metaDup;
+		CompletableFuture<Void> persisted;
 		synchronized (metaRef) {
-			ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
+			metaDup = dupReplicationStoreMeta();
 
 			String currentReplId = metaDup.getReplId();
 			if(ObjectUtils.equals(currentReplId, newReplId)){
@@ -162,13 +173,15 @@ public class DefaultMetaStore extends AbstractMetaStore{
 			metaDup.setReplId2(currentReplId);
 			metaDup.setSecondReplIdOffset(currentOffset + 1);
 			
-			saveMeta(metaDup);
-			return metaDup;
+			persisted = saveMeta(metaDup);
 		}
+		waitPersisted(persisted);
+		return metaDup;
 	}
 
 	@Override
 	public void releaseRdbFile(String rdbFile) throws IOException {
+		CompletableFuture<Void> persisted = CompletableFuture.completedFuture(null);
 		synchronized (metaRef) {
 			ReplicationStoreMeta currentMeta = metaRef.get();
 			String currentRdbFile = currentMeta.getRdbFile();
@@ -177,15 +190,17 @@ public class DefaultMetaStore extends AbstractMetaStore{
 			if (currentRdbFile != null && currentRdbFile.equals(rdbFile)) {
 				ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
 				clearRdb(metaDup);
-				saveMeta(metaDup);
+				persisted = saveMeta(metaDup);
 			} else if (currentRordbFile != null && currentRordbFile.equals(rdbFile)) {
 				ReplicationStoreMeta metaDup = dupReplicationStoreMeta();
 				clearRordb(metaDup);
-				saveMeta(metaDup);
+				persisted = saveMeta(metaDup);
 			} else {
 				logger.info("[releaseRdbFile][{}] currentRdb:{} currentRordb:{}, skip", rdbFile, currentRdbFile, currentRordbFile);
 			}
 		}
+		// rdb file is deleted after released
+		waitPersisted(persisted);
 	}
 
 	private void clearRdb(ReplicationStoreMeta metaDup) {
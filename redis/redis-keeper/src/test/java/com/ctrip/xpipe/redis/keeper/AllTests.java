@@ -9,6 +9,7 @@ import com.ctrip.xpipe.redis.keeper.handler.keeper.*;
 import com.ctrip.xpipe.redis.keeper.health.DiskHealthCheckerTest;
 import com.ctrip.xpipe.redis.keeper.impl.*;
 import com.ctrip.xpipe.redis.keeper.impl.fakeredis.*;
+import com.ctrip.xpipe.redis.keeper.monitor.DelayHistogramTest;
 import com.ctrip.xpipe.redis.keeper.monitor.PsyncFailReasonTest;
 import com.ctrip.xpipe.redis.keeper.monitor.impl.DefaultKeeperStatsTest;
 import com.ctrip.xpipe.redis.keeper.monitor.impl.DefaultMasterStatsTest;
@@ -21,6 +22,11 @@ import com.ctrip.xpipe.redis.keeper.ratelimit.RateLimitTest;
 import com.ctrip.xpipe.redis.keeper.store.*;
 import com.ctrip.xpipe.redis.keeper.store.cmd.GtidCmdOneSegmentReaderTest;
 import com.ctrip.xpipe.redis.keeper.store.cmd.GtidSetCommandReaderTest;
+import com.ctrip.xpipe.redis.keeper.store.cmd.CommandBacklogBufferTest;
+import com.ctrip.xpipe.redis.keeper.store.cmd.GroupCommitCommandAppenderTest;
+import com.ctrip.xpipe.redis.keeper.store.cmd.GtidSetZeroCopyCommandReaderTest;
+import com.ctrip.xpipe.redis.keeper.store.cmd.ZstdBlockFileChannelTest;
+import com.ctrip.xpipe.redis.keeper.store.meta.AsyncMetaPersisterTest;
 import com.ctrip.xpipe.redis.keeper.store.meta.DefaultMetaStoreTest;
 import com.ctrip.xpipe.redis.keeper.store.meta.TestAbstractMetaStoreTest;
 import org.junit.runner.RunWith;
@@ -50,10 +56,14 @@ import org.junit.runners.Suite.SuiteClasses;
         DefaultReplicationStoreManagerTest.class,
         DefaultRedisKeeperServerTest.class,
         DefaultReplicationStoreTest.class,
+        RdbCompactorTest.class,
         DefaultRdbStoreTest.class,
         DefaultRdbStoreEofMarkTest.class,
         DefaultCommandStoreTest.class,
+        DefaultCommandsPusherTest.class,
+        Gtid2OffsetIndexGeneratorTest.class,
         DefaultRedisSlaveTest.class,
+        CommandsFlushBatcherTest.class,
         RoleCommandHandlerTest.class,
         DefaultKeeperConfigTest.class,
         FakeRedisExceptionTest.class,
@@ -67,12 +77,14 @@ import org.junit.runners.Suite.SuiteClasses;
         ApplierCommandHandlerTest.class,
 
         DefaultKeeperStatsTest.class,
+        DelayHistogramTest.class,
         DefaultLeakyBucketTest.class,
         CompositeLeakyBucketTest.class,
         RateLimitTest.class,
         LeakyBucketBasedMasterReplicationListenerTest.class,
         DefaultReplicationStoreStatsTest.class,
         DefaultMetaStoreTest.class,
+        AsyncMetaPersisterTest.class,
         TestAbstractMetaStoreTest.class,
         PsyncFailReasonTest.class,
         DefaultMasterStatsTest.class,
@@ -81,6 +93,10 @@ import org.junit.runners.Suite.SuiteClasses;
 
         GtidCmdOneSegmentReaderTest.class,
         GtidSetCommandReaderTest.class,
+        GtidSetZeroCopyCommandReaderTest.class,
+        GroupCommitCommandAppenderTest.class,
+        ZstdBlockFileChannelTest.class,
+        CommandBacklogBufferTest.class,
 
         DiskHealthCheckerTest.class,
 
@@ -0,0 +1,92 @@
+package com.ctrip.xpipe.redis.keeper;
+
+import com.ctrip.xpipe.gtid.GtidSet;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisKey;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOpType;
+import com.ctrip.xpipe.redis.core.redis.operation.op.RedisOpSingleKey;
+import com.ctrip.xpipe.redis.core.store.CommandFile;
+import com.ctrip.xpipe.redis.core.store.CommandStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * allocations per command of {@link Gtid2OffsetIndexGenerator} against cloning gtid set for each command,
+ * see gc.alloc.rate.norm reported by the gc profiler in main()
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(Gtid2OffsetIndexGeneratorBenchmark.COMMANDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Gtid2OffsetIndexGeneratorBenchmark {
+
+    static final int COMMANDS = 1 << 14;
+
+    @Param({"1", "16", "128"})
+    public int sources;
+
+    private RedisOp[] redisOps;
+
+    private CommandStore cmdStore;
+
+    private CommandFile cmdFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        File dir = Files.createTempDirectory("Gtid2OffsetIndexGeneratorBenchmark").toFile();
+        cmdFile = new CommandFile(new File(dir, "cmd_0"), 0);
+        cmdStore = mock(CommandStore.class);
+        when(cmdStore.findIndexFile(cmdFile)).thenReturn(new File(dir, "idx_cmd_0"));
+
+        redisOps = new RedisOp[COMMANDS];
+        for (int i = 0; i < COMMANDS; i++) {
+            String sourceId = String.format("%040d", i % sources);
+            String gtid = sourceId + ":" + (i / sources + 1);
+            redisOps[i] = new RedisOpSingleKey(RedisOpType.SET, new byte[][] {"SET".getBytes(), "k".getBytes(), "v".getBytes()},
+                    new RedisKey("k"), "v".getBytes(), gtid);
+        }
+    }
+
+    @Benchmark
+    public void incremental(Blackhole blackhole) {
+        Gtid2OffsetIndexGenerator generator = new Gtid2OffsetIndexGenerator(cmdStore, new GtidSet(GtidSet.EMPTY_GTIDSET));
+        for (RedisOp redisOp : redisOps) {
+            blackhole.consume(generator.onCommand(cmdFile, 0, redisOp));
+        }
+    }
+
+    @Benchmark
+    public void cloneEveryCommand(Blackhole blackhole) {
+        GtidSet received = new GtidSet(GtidSet.EMPTY_GTIDSET);
+        GtidSet lastIndexed = received.clone();
+        for (RedisOp redisOp : redisOps) {
+            received.add(redisOp.getOpGtid());
+            blackhole.consume(received.clone());
+            if (received.lwmDistance(lastIndexed) >= 1024) {
+                lastIndexed = received.clone();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(Gtid2OffsetIndexGeneratorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}
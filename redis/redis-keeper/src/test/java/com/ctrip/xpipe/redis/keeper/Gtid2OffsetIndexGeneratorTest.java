@@ -0,0 +1,87 @@
+package com.ctrip.xpipe.redis.keeper;
+
+import com.ctrip.xpipe.AbstractTest;
+import com.ctrip.xpipe.gtid.GtidSet;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.store.CommandFile;
+import com.ctrip.xpipe.redis.core.store.CommandFileOffsetGtidIndex;
+import com.ctrip.xpipe.redis.core.store.CommandStore;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+
+import static org.mockito.Mockito.*;
+
+public class Gtid2OffsetIndexGeneratorTest extends AbstractTest {
+
+    private static final String SRC_A = "a1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2";
+
+    private static final String SRC_B = "b1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2";
+
+    private CommandStore cmdStore;
+
+    private CommandFile cmdFile;
+
+    private Gtid2OffsetIndexGenerator generator;
+
+    @Before
+    public void beforeGtid2OffsetIndexGeneratorTest() throws Exception {
+        cmdStore = mock(CommandStore.class);
+        cmdFile = new CommandFile(new File(getTestFileDir(), "cmd_0"), 0);
+        when(cmdStore.findIndexFile(cmdFile)).thenReturn(new File(getTestFileDir(), "idx_cmd_0"));
+        generator = new Gtid2OffsetIndexGenerator(cmdStore, new GtidSet(SRC_A + ":1-10"));
+    }
+
+    @Test
+    public void testEndGtidSetSnapshot() {
+        Assert.assertNull(generator.getEndGtidSet());
+
+        onCommand(SRC_A + ":11", 0);
+        GtidSet snapshot = generator.getEndGtidSet();
+        Assert.assertEquals(new GtidSet(SRC_A + ":1-11"), snapshot);
+        Assert.assertSame(snapshot, generator.getEndGtidSet());
+
+        onCommand(SRC_A + ":11", 10);
+        Assert.assertSame(snapshot, generator.getEndGtidSet());
+
+        onCommand(SRC_B + ":3", 20);
+        Assert.assertEquals(new GtidSet(SRC_A + ":1-11," + SRC_B + ":3"), generator.getEndGtidSet());
+        Assert.assertEquals(new GtidSet(SRC_A + ":1-11"), snapshot);
+    }
+
+    @Test
+    public void testInsertIndexByLwmDistance() {
+        for (int i = 11; i < 11 + 1000; i++) {
+            onCommand(SRC_A + ":" + i, i);
+        }
+        // lwm of B not rise until the gap filled
+        for (int i = 2; i <= 24; i++) {
+            onCommand(SRC_B + ":" + i, 2000 + i);
+        }
+        verify(cmdStore, never()).addIndex(any());
+
+        onCommand(SRC_B + ":1", 3000);
+
+        ArgumentCaptor<CommandFileOffsetGtidIndex> captor = ArgumentCaptor.forClass(CommandFileOffsetGtidIndex.class);
+        verify(cmdStore, times(1)).addIndex(captor.capture());
+        Assert.assertEquals(new GtidSet(SRC_A + ":1-1010," + SRC_B + ":1-24"), captor.getValue().getExcludedGtidSet());
+        Assert.assertEquals(3000, captor.getValue().getFileOffset());
+
+        for (int i = 1011; i < 1011 + 1023; i++) {
+            onCommand(SRC_A + ":" + i, i);
+        }
+        verify(cmdStore, times(1)).addIndex(any());
+        onCommand(SRC_A + ":2034", 4000);
+        verify(cmdStore, times(2)).addIndex(any());
+    }
+
+    private void onCommand(String gtid, long filePosition) {
+        RedisOp redisOp = mock(RedisOp.class);
+        when(redisOp.getOpGtid()).thenReturn(gtid);
+        generator.onCommand(cmdFile, filePosition, redisOp);
+    }
+
+}
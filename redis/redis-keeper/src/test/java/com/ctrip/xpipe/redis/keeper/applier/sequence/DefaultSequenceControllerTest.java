@@ -4,6 +4,7 @@ import com.ctrip.xpipe.AbstractTest;
 import com.ctrip.xpipe.redis.keeper.applier.command.RedisOpDataCommand;
 import com.ctrip.xpipe.redis.keeper.applier.sequence.mocks.TestLwmManager;
 import com.ctrip.xpipe.redis.keeper.applier.sequence.mocks.TestMSetCommand;
+import com.ctrip.xpipe.redis.keeper.applier.sequence.mocks.TestMultiCommand;
 import com.ctrip.xpipe.redis.keeper.applier.sequence.mocks.TestMultiDataCommandWrapper;
 import com.ctrip.xpipe.redis.keeper.applier.sequence.mocks.TestSetCommand;
 import com.ctrip.xpipe.utils.ClusterShardAwareThreadFactory;
@@ -12,7 +13,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -89,4 +94,118 @@ public class DefaultSequenceControllerTest extends AbstractTest {
 
         assertEquals(1, lwmManager.count);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void stripedLanesKeepOrder() throws Exception {
+
+        DefaultSequenceController striped = createStripedController(4);
+
+        TestSetCommand firstA = new TestSetCommand(100, "SET", "A", "V1");
+        TestSetCommand firstB = new TestSetCommand(100, "SET", "B", "V1");
+        TestMSetCommand mset = new TestMSetCommand(50, "MSET", "A", "V2", "B", "V2");
+        TestSetCommand secondA = new TestSetCommand(0, "SET", "A", "V3");
+        TestMultiCommand obstacle = new TestMultiCommand(50, "MULTI");
+        TestSetCommand afterObstacle = new TestSetCommand(0, "SET", "C", "V1");
+
+        try {
+            striped.submit(firstA, 0);
+            striped.submit(firstB, 0);
+            striped.submit(mset, 0);
+            striped.submit(secondA, 0);
+            striped.submit(obstacle, 0);
+            striped.submit(afterObstacle, 0);
+
+            afterObstacle.future().get(5, TimeUnit.SECONDS);
+
+            assertTrue(mset.startTime >= firstA.endTime);
+            assertTrue(mset.startTime >= firstB.endTime);
+            assertTrue(secondA.startTime >= mset.endTime);
+            assertTrue(obstacle.startTime >= secondA.endTime);
+            assertTrue(afterObstacle.startTime >= obstacle.endTime);
+
+            waitConditionUntilTimeOut(() -> Arrays.stream(striped.getLanes()).allMatch(lane -> lane.getPending() == 0));
+            assertEquals(4, striped.getLanes().length);
+        } finally {
+            disposeStriped(striped);
+        }
+    }
+
+    @Test
+    public void stripedLanesRunInParallel() throws Exception {
+
+        DefaultSequenceController striped = createStripedController(4);
+
+        List<TestSetCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            commands.add(new TestSetCommand(200, "SET", "K" + i, "V"));
+        }
+
+        try {
+            for (TestSetCommand command : commands) {
+                striped.submit(command, 1);
+            }
+            for (TestSetCommand command : commands) {
+                command.future().get(5, TimeUnit.SECONDS);
+            }
+
+            // commands on different keys are not sequenced, so some of them ran at the same time
+            boolean overlapped = false;
+            for (TestSetCommand one : commands) {
+                for (TestSetCommand other : commands) {
+                    if (one != other && one.startTime < other.endTime && other.startTime < one.endTime) {
+                        overlapped = true;
+                    }
+                }
+            }
+            assertTrue(overlapped);
+            waitConditionUntilTimeOut(() -> striped.offsetRecorder.get() == 8);
+        } finally {
+            disposeStriped(striped);
+        }
+    }
+
+    @Test
+    public void stripedRepeatedKeyInMultiKeyCommand() throws Exception {
+
+        DefaultSequenceController striped = createStripedController(4);
+
+        TestMSetCommand mset = new TestMSetCommand(0, "MSET", "A", "V1", "A", "V2");
+        TestSetCommand afterMset = new TestSetCommand(0, "SET", "A", "V3");
+
+        try {
+            striped.submit(mset, 1);
+            striped.submit(afterMset, 1);
+
+            mset.future().get(5, TimeUnit.SECONDS);
+            afterMset.future().get(5, TimeUnit.SECONDS);
+
+            assertTrue(afterMset.startTime >= mset.endTime);
+            waitConditionUntilTimeOut(() -> striped.offsetRecorder.get() == 2);
+            waitConditionUntilTimeOut(() -> Arrays.stream(striped.getLanes()).allMatch(lane -> lane.getPending() == 0));
+        } finally {
+            disposeStriped(striped);
+        }
+    }
+
+    private void disposeStriped(DefaultSequenceController striped) throws Exception {
+        striped.dispose();
+        for (ExecutorService laneThread : striped.laneThreads) {
+            laneThread.shutdownNow();
+        }
+    }
+
+    private DefaultSequenceController createStripedController(int lanes) throws Exception {
+        DefaultSequenceController striped = new DefaultSequenceController();
+        striped.stateThread = controller.stateThread;
+        striped.workerThreads = controller.workerThreads;
+        striped.scheduled = scheduled;
+        striped.offsetRecorder = new AtomicLong(0);
+        striped.laneThreads = new ExecutorService[lanes];
+        for (int i = 0; i < lanes; i++) {
+            striped.laneThreads[i] = Executors.newFixedThreadPool(1,
+                    ClusterShardAwareThreadFactory.create("test-cluster", "test-shard", "lane-test-thread-" + i));
+        }
+        striped.initialize();
+        return striped;
+    }
+}
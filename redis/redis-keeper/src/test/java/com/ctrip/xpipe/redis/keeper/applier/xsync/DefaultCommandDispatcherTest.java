@@ -69,18 +69,18 @@ public class DefaultCommandDispatcherTest {
 
         dispatcher.updateGtidState("A:5");
         assertEquals(new GtidSet("A:1-5"), dispatcher.gtid_executed.get());
-        assertEquals(new GtidSet("A:1-5"), dispatcher.gtid_received);
+        assertEquals(new GtidSet("A:1-5"), dispatcher.gtid_received.toGtidSet());
         assertTrue(dispatcher.receivedSids.contains("A"));
 
         dispatcher.updateGtidState("A:7");
 
         assertEquals(new GtidSet("A:1-6"), dispatcher.gtid_executed.get());
-        assertEquals(new GtidSet("A:1-7"), dispatcher.gtid_received);
+        assertEquals(new GtidSet("A:1-7"), dispatcher.gtid_received.toGtidSet());
 
         dispatcher.updateGtidState("A:9");
 
         assertEquals(new GtidSet("A:1-6:8"), dispatcher.gtid_executed.get());
-        assertEquals(new GtidSet("A:1-9"), dispatcher.gtid_received);
+        assertEquals(new GtidSet("A:1-9"), dispatcher.gtid_received.toGtidSet());
 
     }
 
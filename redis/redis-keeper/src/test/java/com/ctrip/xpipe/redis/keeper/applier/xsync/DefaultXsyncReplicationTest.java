@@ -2,6 +2,7 @@ package com.ctrip.xpipe.redis.keeper.applier.xsync;
 
 import com.ctrip.xpipe.endpoint.DefaultEndPoint;
 import com.ctrip.xpipe.gtid.GtidSet;
+import com.ctrip.xpipe.gtid.PackedGtidSet;
 import com.ctrip.xpipe.netty.commands.NettyClient;
 import com.ctrip.xpipe.pool.XpipeNettyClientKeyedObjectPool;
 import com.ctrip.xpipe.redis.core.AbstractRedisTest;
@@ -109,13 +110,13 @@ public class DefaultXsyncReplicationTest extends AbstractRedisTest {
 
         waitConditionUntilTimeOut(()-> {
             try {
-                GtidSet gtid_received = getFieldFrom(xsyncReplication.dispatcher, "gtid_received");
+                PackedGtidSet gtid_received = getFieldFrom(xsyncReplication.dispatcher, "gtid_received");
                 return gtid_received != null;
             } catch (Exception ignore) {}
             return false;
         });
 
-        GtidSet gtid_received = getFieldFrom(xsyncReplication.dispatcher, "gtid_received");
+        PackedGtidSet gtid_received = getFieldFrom(xsyncReplication.dispatcher, "gtid_received");
         gtid_received.rise("mockRunId:10");
 
         NettyClient nettyClient = waitXsyncNettyClientConnected(xsync);
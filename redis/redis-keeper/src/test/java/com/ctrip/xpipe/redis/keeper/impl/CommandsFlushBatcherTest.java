@@ -0,0 +1,76 @@
+package com.ctrip.xpipe.redis.keeper.impl;
+
+import com.ctrip.xpipe.AbstractTest;
+import com.ctrip.xpipe.redis.keeper.monitor.KeeperStats;
+import com.ctrip.xpipe.redis.keeper.monitor.impl.DefaultKeeperStats;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CommandsFlushBatcherTest extends AbstractTest {
+
+    private EmbeddedChannel channel;
+
+    private KeeperStats keeperStats;
+
+    @Before
+    public void beforeCommandsFlushBatcherTest() {
+        channel = new EmbeddedChannel();
+        keeperStats = new DefaultKeeperStats("test", scheduled);
+    }
+
+    @After
+    public void afterCommandsFlushBatcherTest() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlushByBytes() {
+        CommandsFlushBatcher batcher = new CommandsFlushBatcher(channel, 100, 10 * 1000 * 1000, keeperStats);
+
+        // first write after idle is flushed at once
+        batcher.write(Unpooled.wrappedBuffer(new byte[30]));
+        Assert.assertEquals(1, channel.outboundMessages().size());
+
+        for (int i = 0; i < 3; i++) {
+            batcher.write(Unpooled.wrappedBuffer(new byte[30]));
+        }
+        Assert.assertEquals(1, channel.outboundMessages().size());
+
+        ChannelFuture future = batcher.write(Unpooled.wrappedBuffer(new byte[30]));
+        Assert.assertTrue(future.isSuccess());
+        Assert.assertEquals(5, channel.outboundMessages().size());
+
+        Assert.assertEquals(2, batcher.getFlushCount());
+        Assert.assertEquals(5, batcher.getFlushedWrites());
+        Assert.assertEquals(2, keeperStats.getCommandsFlushCount());
+        Assert.assertEquals(5, keeperStats.getCommandsFlushedWrites());
+    }
+
+    @Test
+    public void testFlushByDelay() throws Exception {
+        CommandsFlushBatcher batcher = new CommandsFlushBatcher(channel, 1 << 20, 100 * 1000, keeperStats);
+
+        batcher.write(Unpooled.wrappedBuffer(new byte[10]));
+        batcher.write(Unpooled.wrappedBuffer(new byte[10]));
+        batcher.write(Unpooled.wrappedBuffer(new byte[10]));
+        Assert.assertEquals(1, channel.outboundMessages().size());
+
+        sleep(150);
+        channel.runScheduledPendingTasks();
+        Assert.assertEquals(3, channel.outboundMessages().size());
+        Assert.assertEquals(2, batcher.getFlushCount());
+
+        // idle after delay, flushed at once
+        sleep(150);
+        batcher.write(Unpooled.wrappedBuffer(new byte[10]));
+        Assert.assertEquals(4, channel.outboundMessages().size());
+        Assert.assertEquals(3, batcher.getFlushCount());
+        Assert.assertEquals(4, batcher.getFlushedWrites());
+    }
+
+}
@@ -16,6 +16,7 @@ import com.ctrip.xpipe.redis.core.server.FakeRedisServer;
 import com.ctrip.xpipe.redis.core.store.ReplicationStore;
 import com.ctrip.xpipe.redis.keeper.AbstractFakeRedisTest;
 import com.ctrip.xpipe.redis.keeper.config.KeeperConfig;
+import com.ctrip.xpipe.redis.keeper.config.TestKeeperConfig;
 import io.netty.buffer.ByteBuf;
 import org.junit.After;
 import org.junit.Assert;
@@ -84,6 +85,42 @@ public class GtidRedisKeeperServerTest extends AbstractFakeRedisTest implements
         Assert.assertEquals("GTID a1:5 set k5 v5", redisOps.get(4).toString());
     }
 
+    @Test
+    public void testIndexWithZeroCopy() throws Exception {
+        TestKeeperConfig keeperConfig = (TestKeeperConfig) newTestKeeperConfig();
+        keeperConfig.setGtidCommandsZeroCopyEnabled(true);
+        KeeperMeta keeperMeta = createKeeperMeta();
+        DefaultRedisKeeperServer keeperServer = new DefaultRedisKeeperServer(getReplId().id(), keeperMeta, keeperConfig,
+                getReplicationStoreManagerBaseDir(keeperMeta), getRegistry().getComponent(LeaderElectorManager.class),
+                createkeepersMonitorManager(), getResourceManager(), parser);
+        keeperServer.initialize();
+        keeperServer.start();
+
+        ReplicationStore replicationStore = keeperServer.getCurrentReplicationStore();
+        keeperServer.getRedisKeeperServerState().becomeActive(new DefaultEndPoint("127.0.0.1", fakeRedisServer.getPort()));
+
+        waitConditionUntilTimeOut(() -> MASTER_STATE.REDIS_REPL_CONNECTED.equals(keeperServer.getRedisMaster().getMasterState()));
+
+        for (int i = 1; i < 6; i++) {
+            RedisOp redisOp = parser.parse(Arrays.asList("GTID", "a1:"+i, "set", "k" + i, "v" + i).toArray());
+            fakeRedisServer.propagate(redisOp.buildRESP().toString(Codec.defaultCharset));
+        }
+
+        // the index generator still gets parsed commands, so it goes on indexing
+        waitConditionUntilTimeOut(() -> {
+            GtidSet endGtidSet = replicationStore.getEndGtidSet();
+            return null != endGtidSet && new GtidSet("a1:1-5").isContainedWithin(endGtidSet);
+        });
+
+        DefaultXsync xsync = new DefaultXsync("127.0.0.1", keeperServer.getListeningPort(), new GtidSet("a1:0"), null, scheduled);
+        xsync.addXsyncObserver(this);
+        xsync.execute(executors);
+
+        waitConditionUntilTimeOut(() -> 5 == redisOps.size());
+        Assert.assertEquals("GTID a1:1 set k1 v1", redisOps.get(0).toString());
+        Assert.assertEquals("GTID a1:5 set k5 v5", redisOps.get(4).toString());
+    }
+
     @Override
     public void onFullSync(GtidSet rdbGtidSet, long rdbOffset) {
 
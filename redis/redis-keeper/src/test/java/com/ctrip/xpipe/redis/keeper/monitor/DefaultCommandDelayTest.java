@@ -41,7 +41,7 @@ public class DefaultCommandDelayTest extends AbstractRedisKeeperTest {
 	public void testOffsetOverrideNoSend(){
 
 		long offset = 0;
-		for (int i = 0; i < DefaultCommandStoreDelay.SUPPORT_SLAVES -1; i++) {
+		for (int i = 0; i < DefaultCommandStoreDelay.SUPPORT_OFFSETS + 1; i++) {
 			
 			offset++;
 			commandDelay.beginWrite();
@@ -57,12 +57,12 @@ public class DefaultCommandDelayTest extends AbstractRedisKeeperTest {
 	public void testOffsetOverrideSendNoFlush(){
 
 		long offset = 0;
-		for (int i = 0; i < DefaultCommandStoreDelay.SUPPORT_SLAVES -1; i++) {
+		for (int i = 0; i < DefaultCommandStoreDelay.SUPPORT_OFFSETS + 1; i++) {
 			
 			offset++;
 			commandDelay.beginWrite();
 			commandDelay.endWrite(offset);
-			commandDelay.beginSend(mock(CommandsListener.class), offset);
+			commandDelay.beginSend(mock(CommandsListener.class), offset + 1);
 		}
 		
 		commandDelay.beginWrite();
@@ -102,12 +102,10 @@ public class DefaultCommandDelayTest extends AbstractRedisKeeperTest {
 			commandDelay.endWrite(offset);
 			sleep((delayLogLimitMicro / 1000) + 2);
 
-			for (int j = 0; j < DefaultCommandStoreDelay.SUPPORT_SLAVES * 2; j++) {
+			for (int j = 0; j < 20; j++) {
 
-				commandDelay.beginSend(mock(CommandsListener.class), offset);
-				if (j < DefaultCommandStoreDelay.SUPPORT_SLAVES) {
-					expectedLogCount++;
-				}
+				commandDelay.beginSend(mock(CommandsListener.class), offset + 1);
+				expectedLogCount++;
 				Assert.assertEquals(expectedLogCount, logCount.get());
 			}
 		}
@@ -126,18 +124,69 @@ public class DefaultCommandDelayTest extends AbstractRedisKeeperTest {
 			commandDelay.beginWrite();
 			commandDelay.endWrite(offset);
 
-			commandDelay.beginSend(commandsListener, offset);
+			commandDelay.beginSend(commandsListener, offset + 1);
 			sleep((delayLogLimitMicro / 1000) + 2);
 
-			commandDelay.flushSucceed(commandsListener, offset);
+			commandDelay.flushSucceed(commandsListener, offset + 1);
 			Assert.assertEquals(i+1, logCount.get());
 
-			commandDelay.flushSucceed(mock(CommandsListener.class), offset);
+			commandDelay.flushSucceed(commandsListener, offset + 1);
+			commandDelay.flushSucceed(mock(CommandsListener.class), offset + 1);
 			Assert.assertEquals(i+1, logCount.get());
 
 		}
 	}
 
+	@Test
+	public void testRecordDelays() {
+
+		CommandsListener commandsListener = mock(CommandsListener.class);
+		for (long offset = 100; offset < 110; offset++) {
+			commandDelay.beginWrite();
+			commandDelay.endWrite(offset);
+		}
+		sleep(5);
+
+		// region covering several writes and sent in two pieces, flushed in order
+		commandDelay.beginSend(commandsListener, 105);
+		commandDelay.beginSend(commandsListener, 110);
+		commandDelay.flushSucceed(commandsListener, 105);
+		commandDelay.flushSucceed(commandsListener, 110);
+
+		ReplDelayStats stats = commandDelay.getReplDelayStats(commandsListener);
+		Assert.assertEquals(2, stats.getSendDelay().getCount());
+		Assert.assertTrue(stats.getSendDelay().percentile(50) >= 5000);
+		Assert.assertEquals(2, stats.getFlushDelay().getCount());
+
+		// not written yet
+		commandDelay.beginSend(commandsListener, 111);
+		Assert.assertEquals(2, stats.getSendDelay().getCount());
+		// flush of a region sent later with smaller offset is ignored
+		commandDelay.beginSend(commandsListener, 110);
+		commandDelay.flushSucceed(commandsListener, 110);
+		commandDelay.flushSucceed(commandsListener, 111);
+		Assert.assertEquals(3, stats.getFlushDelay().getCount());
+	}
+
+	@Test
+	public void testSendLaggingBehind() {
+
+		CommandsListener commandsListener = mock(CommandsListener.class);
+		commandDelay.beginWrite();
+		commandDelay.endWrite(0);
+		sleep(20);
+		for (int i = 1; i <= DefaultCommandStoreDelay.SUPPORT_OFFSETS * 2; i++) {
+			commandDelay.beginWrite();
+			commandDelay.endWrite(i);
+		}
+
+		// write of the offset is out of the ring, the delay is not less than the one of the oldest write kept
+		commandDelay.beginSend(commandsListener, 1);
+		ReplDelayStats stats = commandDelay.getReplDelayStats(commandsListener);
+		Assert.assertEquals(1, stats.getSendDelay().getCount());
+		Assert.assertTrue(stats.getSendDelay().getMax() < 20000);
+	}
+
 	public class TestCommandDelay extends DefaultCommandStoreDelay {
 
 		public TestCommandDelay(CommandStore commandStore, int delayLogLimitMicro) {
@@ -0,0 +1,65 @@
+package com.ctrip.xpipe.redis.keeper.monitor;
+
+import com.ctrip.xpipe.AbstractTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+public class DelayHistogramTest extends AbstractTest {
+
+    private DelayHistogram histogram = new DelayHistogram();
+
+    @Test
+    public void testBucketBoundary() {
+        long previous = -1;
+        for (long value : new long[] {0, 1, 31, 32, 33, 63, 64, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = DelayHistogram.bucketIndex(value);
+            long highest = DelayHistogram.highestEquivalentValue(index);
+            Assert.assertTrue(highest >= value);
+            Assert.assertTrue(value < 32 ? highest == value : highest - value <= value / 16);
+            Assert.assertTrue(highest >= previous);
+            previous = highest;
+        }
+        Assert.assertEquals(DelayHistogram.bucketIndex(63) + 1, DelayHistogram.bucketIndex(64));
+    }
+
+    @Test
+    public void testPercentile() {
+        Assert.assertEquals(0, histogram.percentile(99));
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertAround(500, histogram.percentile(50));
+        assertAround(990, histogram.percentile(99));
+        Assert.assertEquals(1000, histogram.percentile(99.9 + 0.1));
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000, histogram.getMax());
+
+        histogram.record(-1);
+        Assert.assertEquals(0, histogram.percentile(0.01));
+    }
+
+    @Test
+    public void testConcurrentRecord() throws Exception {
+        int threads = 4, records = 10000;
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executors.execute(() -> {
+                for (int j = 0; j < records; j++) {
+                    histogram.record(j);
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        Assert.assertEquals(threads * records, histogram.getCount());
+        Assert.assertEquals(records - 1, histogram.getMax());
+    }
+
+    private void assertAround(long expected, long actual) {
+        Assert.assertTrue(actual + " not around " + expected, actual >= expected && actual <= expected * 17 / 16);
+    }
+
+}
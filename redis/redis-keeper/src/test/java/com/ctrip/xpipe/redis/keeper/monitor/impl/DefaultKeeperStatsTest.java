@@ -2,8 +2,10 @@ package com.ctrip.xpipe.redis.keeper.monitor.impl;
 
 import com.ctrip.xpipe.AbstractTest;
 import com.ctrip.xpipe.concurrent.AbstractExceptionLogTask;
+import com.ctrip.xpipe.redis.core.store.CommandsListener;
 import com.ctrip.xpipe.redis.keeper.monitor.KeeperStats;
 import com.ctrip.xpipe.redis.keeper.monitor.PsyncFailReason;
+import com.ctrip.xpipe.redis.keeper.monitor.ReplDelayStats;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
@@ -13,6 +15,9 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 /**
  * @author chen.zhu
  * <p>
@@ -158,6 +163,29 @@ public class DefaultKeeperStatsTest extends AbstractTest {
         Assert.assertEquals(stats, stats2);
     }
 
+    @Test
+    public void testReplDelayStats() {
+        CommandsListener slave1 = mock(CommandsListener.class);
+        CommandsListener slave2 = mock(CommandsListener.class);
+        when(slave1.isOpen()).thenReturn(true);
+
+        ReplDelayStats stats1 = keeperStats.getReplDelayStats(slave1);
+        Assert.assertSame(stats1, keeperStats.getReplDelayStats(slave1));
+        stats1.recordSendDelay(10);
+        keeperStats.getReplDelayStats(slave2).recordSendDelay(20);
+        keeperStats.getReplDelayStats(slave2).recordFlushDelay(30);
+
+        Assert.assertEquals(2, keeperStats.getReplDelayStats().getSendDelay().getCount());
+        Assert.assertEquals(20, keeperStats.getReplDelayStats().getSendDelay().getMax());
+        Assert.assertEquals(30, keeperStats.getReplDelayStats().getFlushDelay().percentile(99));
+
+        // closed slave removed on a new slave coming
+        ReplDelayStats stats2 = keeperStats.getReplDelayStats(slave2);
+        keeperStats.getReplDelayStats(mock(CommandsListener.class));
+        Assert.assertNotSame(stats2, keeperStats.getReplDelayStats(slave2));
+        Assert.assertSame(stats1, keeperStats.getReplDelayStats(slave1));
+    }
+
     //manually test
     @Test
     @Ignore
@@ -4,10 +4,15 @@ import com.ctrip.xpipe.concurrent.AbstractExceptionLogTask;
 import com.ctrip.xpipe.netty.filechannel.ReferenceFileRegion;
 import com.ctrip.xpipe.redis.core.store.*;
 import com.ctrip.xpipe.redis.keeper.AbstractRedisKeeperTest;
+import com.ctrip.xpipe.redis.keeper.store.cmd.ColdCommandFileMover;
+import com.ctrip.xpipe.redis.keeper.store.cmd.CommandFileCompressor;
 import com.ctrip.xpipe.redis.keeper.store.cmd.OffsetCommandReaderWriterFactory;
 import com.google.common.util.concurrent.SettableFuture;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -235,6 +240,79 @@ public class DefaultCommandStoreTest extends AbstractRedisKeeperTest {
 
 	}
 
+	@Test
+	public void testPushAsSoonAsMessageWritten() throws Exception {
+
+		final StringBuilder sb = new StringBuilder();
+		final Semaphore semaphore = new Semaphore(0);
+		final AtomicBoolean writable = new AtomicBoolean(true);
+		EventLoopGroup eventLoopGroup = new NioEventLoopGroup(1);
+
+		try {
+			CommandsPusher pusher = commandStore.addPushCommandsListener(new OffsetReplicationProgress(0), new PushCommandsListener() {
+
+				@Override
+				public EventLoop eventLoop() {
+					return eventLoopGroup.next();
+				}
+
+				@Override
+				public boolean isWritable() {
+					return writable.get();
+				}
+
+				@Override
+				public ChannelFuture onCommand(CommandFile currentFile, long filePosition, Object referenceFileRegion) {
+
+					sb.append(readFileChannelInfoMessageAsString((ReferenceFileRegion)referenceFileRegion));
+					semaphore.release();
+					return null;
+				}
+
+				@Override
+				public boolean isOpen() {
+					return true;
+				}
+
+				@Override
+				public void beforeCommand() {
+
+				}
+
+				@Override
+				public Long processedOffset() {
+					return null;
+				}
+			});
+
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < (1 << 8); i++) {
+
+				byte random = (byte) randomInt('a', 'z');
+				semaphore.drainPermits();
+				expected.append((char) random);
+				commandStore.appendCommands(Unpooled.wrappedBuffer(new byte[] { random }));
+
+				Assert.assertTrue(semaphore.tryAcquire(1000, TimeUnit.MILLISECONDS));
+				Assert.assertEquals(expected.toString(), sb.toString());
+			}
+
+			writable.set(false);
+			commandStore.appendCommands(Unpooled.wrappedBuffer(new byte[] { 'a' }));
+			Assert.assertFalse(semaphore.tryAcquire(100, TimeUnit.MILLISECONDS));
+
+			writable.set(true);
+			pusher.wakeup();
+			Assert.assertTrue(semaphore.tryAcquire(1000, TimeUnit.MILLISECONDS));
+			Assert.assertEquals(expected.append('a').toString(), sb.toString());
+
+			pusher.close();
+			waitConditionUntilTimeOut(pusher::isClosed);
+		} finally {
+			eventLoopGroup.shutdownGracefully();
+		}
+	}
+
 	@Test
 	public void testConcurrentRotateGetFileLength() throws IOException, InterruptedException, ExecutionException, Exception {
 
@@ -390,6 +468,107 @@ public class DefaultCommandStoreTest extends AbstractRedisKeeperTest {
 		Assert.assertTrue(sb.toString().equals(result));
 	}
 
+	@Test
+	public void testReadWriteBehind() throws Exception {
+
+		commandStore.enableWriteBehind(1 << 12);
+
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < minWritten) {
+			String random = randomString(randomInt(100, 500));
+			sb.append(random);
+			commandStore.appendCommands(Unpooled.wrappedBuffer(random.getBytes()));
+		}
+		Assert.assertEquals(sb.length(), commandStore.totalLength());
+
+		String result = readCommandStoreTilNoMessage(commandStore, sb.length());
+		Assert.assertEquals(sb.toString(), result);
+
+		commandStore.close();
+		Assert.assertTrue(commandStore.checkCommandsBacklog(() -> {}));
+	}
+
+
+	@Test
+	public void testReadBacklogBuffer() throws Exception {
+
+		commandStore.enableBacklogBuffer(minWritten >> 2);
+
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < minWritten) {
+			String random = randomString(randomInt(100, 500));
+			sb.append(random);
+			commandStore.appendCommands(Unpooled.wrappedBuffer(random.getBytes()));
+		}
+
+		// read from files, then from buffer
+		Assert.assertEquals(sb.toString(), readCommandStoreTilNoMessage(commandStore, sb.length()));
+
+		int offset = randomInt(sb.length() - (minWritten >> 2), sb.length() - 1);
+		Assert.assertEquals(sb.substring(offset), readCommandStoreTilNoMessage(offset, commandStore, sb.length() - offset));
+	}
+
+	@Test
+	public void testReadCompressed() throws Exception {
+
+		commandStore.enableCompression(new CommandFileCompressor(Runnable::run, 64, 3));
+
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < minWritten) {
+			String random = randomString(randomInt(100, 500));
+			sb.append(random);
+			commandStore.appendCommands(Unpooled.wrappedBuffer(random.getBytes()));
+		}
+		commandStore.gc();
+
+		File firstFile = commandStore.findFileForOffset(0).getFile();
+		Assert.assertTrue(CommandFileCompressor.compressedFileOf(firstFile).isFile());
+		Assert.assertFalse(CommandFileCompressor.compressedFileOf(commandStore.findLatestFile().getFile()).exists());
+
+		int offset = randomInt(0, sb.length() - 1);
+		Assert.assertEquals(sb.substring(offset), readCommandStoreTilNoMessage(offset, commandStore, sb.length() - offset));
+
+		// cmd files compressed already are deleted on load
+		commandStore.close();
+		commandStore = new DefaultCommandStore(commandTemplate, maxFileSize, commandReaderWriterFactory, createkeeperMonitor());
+		commandStore.initialize();
+		Assert.assertFalse(firstFile.exists());
+		Assert.assertEquals(sb.length(), commandStore.totalLength());
+		Assert.assertEquals(sb.toString(), readCommandStoreTilNoMessage(commandStore, sb.length()));
+	}
+
+	@Test
+	public void testReadCold() throws Exception {
+
+		File coldDir = new File(getTestFileDir(), "cold");
+		commandStore.enableColdTier(new ColdCommandFileMover(coldDir, Runnable::run), () -> 0);
+
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < minWritten) {
+			String random = randomString(randomInt(100, 500));
+			sb.append(random);
+			commandStore.appendCommands(Unpooled.wrappedBuffer(random.getBytes()));
+		}
+		commandStore.gc();
+
+		File firstFile = commandStore.findFileForOffset(0).getFile();
+		Assert.assertTrue(ColdCommandFileMover.isCold(firstFile));
+		Assert.assertTrue(new File(coldDir, firstFile.getName()).isFile());
+		Assert.assertFalse(ColdCommandFileMover.isCold(commandStore.findLatestFile().getFile()));
+
+		int offset = randomInt(0, sb.length() - 1);
+		Assert.assertEquals(sb.substring(offset), readCommandStoreTilNoMessage(offset, commandStore, sb.length() - offset));
+
+		// cold files are loaded through links
+		commandStore.close();
+		commandStore = new DefaultCommandStore(commandTemplate, maxFileSize, commandReaderWriterFactory, createkeeperMonitor());
+		commandStore.initialize();
+		Assert.assertEquals(sb.length(), commandStore.totalLength());
+		Assert.assertEquals(sb.toString(), readCommandStoreTilNoMessage(commandStore, sb.length()));
+
+		commandStore.destroy();
+		Assert.assertFalse(new File(coldDir, firstFile.getName()).exists());
+	}
 
 	@Test
 	public void testGcOldCmdFile() throws Exception {
@@ -442,6 +621,32 @@ public class DefaultCommandStoreTest extends AbstractRedisKeeperTest {
 		Assert.assertEquals(0, commandStore.lowestAvailableOffset());
 	}
 
+	@Test
+	public void testFindFileAfterRotateAndGc() throws Exception {
+		commandStore = new DefaultCommandStore(commandTemplate, 100, () -> 3600, 0,
+				() -> 1, DEFAULT_COMMAND_READER_FLYING_THRESHOLD, commandReaderWriterFactory, createkeeperMonitor());
+		commandStore.initialize();
+		appendCommandsToStore(4, 100);
+
+		Assert.assertEquals(0, commandStore.findFileForOffset(50).getStartOffset());
+		Assert.assertEquals(200, commandStore.findFileForOffset(250).getStartOffset());
+		Assert.assertEquals(300, commandStore.findLatestFile().getStartOffset());
+		CommandFile commandFile = commandStore.findFileForOffset(100);
+		Assert.assertEquals(200, commandStore.findNextFile(commandFile.getFile()).getStartOffset());
+
+		commandStore.gc();
+		Assert.assertEquals(200, commandStore.lowestAvailableOffset());
+		Assert.assertNull(commandStore.findFileForOffset(50));
+		Assert.assertEquals(200, commandStore.findFileForOffset(250).getStartOffset());
+
+		commandStore.close();
+		commandStore = new DefaultCommandStore(commandTemplate, 100, () -> 3600, 0,
+				() -> 1, DEFAULT_COMMAND_READER_FLYING_THRESHOLD, commandReaderWriterFactory, createkeeperMonitor());
+		commandStore.initialize();
+		Assert.assertEquals(200, commandStore.lowestAvailableOffset());
+		Assert.assertEquals(300, commandStore.findLatestFile().getStartOffset());
+	}
+
 	@Test
 	public void testRetainCommandsButTimeout() throws Exception {
 		int fileNumToKeep = 2;
@@ -0,0 +1,127 @@
+package com.ctrip.xpipe.redis.keeper.store;
+
+import com.ctrip.xpipe.AbstractTest;
+import com.ctrip.xpipe.redis.core.store.CommandFile;
+import com.ctrip.xpipe.redis.core.store.CommandReader;
+import com.ctrip.xpipe.redis.core.store.PushCommandsListener;
+import io.netty.channel.EventLoop;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class DefaultCommandsPusherTest extends AbstractTest {
+
+    @Mock
+    private AbstractCommandStore commandStore;
+
+    @Mock
+    private CommandReader<String> cmdReader;
+
+    @Mock
+    private PushCommandsListener listener;
+
+    @Mock
+    private EventLoop eventLoop;
+
+    private Queue<Runnable> tasks = new LinkedList<>();
+
+    private List<String> sent = new LinkedList<>();
+
+    private DefaultCommandsPusher<String> pusher;
+
+    @Before
+    public void beforeDefaultCommandsPusherTest() throws Exception {
+        doAnswer(invocation -> tasks.offer(invocation.getArgument(0))).when(eventLoop).execute(any());
+        when(listener.eventLoop()).thenReturn(eventLoop);
+        when(listener.isOpen()).thenReturn(true);
+        when(listener.isWritable()).thenReturn(true);
+        when(cmdReader.getCurCmdFile()).thenReturn(new CommandFile(new File("cmd_0"), 0));
+        when(commandStore.writtenLength()).thenReturn(100L);
+
+        pusher = new DefaultCommandsPusher<>(commandStore, cmdReader, listener, cmd -> {
+            sent.add(cmd);
+            return null;
+        });
+    }
+
+    @Test
+    public void testKeepReadingAfterPartialCommand() throws Exception {
+        // command across buffer refills
+        when(cmdReader.tryRead()).thenReturn(null, "cmd1", null);
+        when(cmdReader.position()).thenReturn(10L, 100L);
+
+        pusher.wakeup();
+        tasks.poll().run();
+
+        Assert.assertEquals(1, sent.size());
+        Assert.assertEquals("cmd1", sent.get(0));
+        verify(cmdReader, times(3)).tryRead();
+    }
+
+    @Test
+    public void testWaitAppendAtEndOfWritten() throws Exception {
+        when(cmdReader.tryRead()).thenReturn(null);
+        when(cmdReader.position()).thenReturn(100L);
+
+        pusher.wakeup();
+        tasks.poll().run();
+
+        Assert.assertTrue(sent.isEmpty());
+        verify(cmdReader, times(1)).tryRead();
+    }
+
+    @Test
+    public void testWaitAppendIfReaderNotMoving() throws Exception {
+        when(cmdReader.tryRead()).thenReturn(null);
+        when(cmdReader.position()).thenReturn(10L);
+
+        pusher.wakeup();
+        tasks.poll().run();
+
+        Assert.assertTrue(sent.isEmpty());
+        verify(cmdReader, times(2)).tryRead();
+    }
+
+    @Test
+    public void testReadsBoundedPerRound() throws Exception {
+        when(cmdReader.tryRead()).thenReturn(null);
+        // moving on within a large command
+        AtomicLong position = new AtomicLong();
+        when(cmdReader.position()).thenAnswer(invocation -> position.incrementAndGet());
+
+        pusher.wakeup();
+        tasks.poll().run();
+        verify(cmdReader, times(64)).tryRead();
+        Assert.assertEquals(1, tasks.size());
+
+        tasks.poll().run();
+        verify(cmdReader, times(100)).tryRead();
+        Assert.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testWaitFlushWhenThrottled() throws Exception {
+        when(cmdReader.tryRead()).thenReturn(null);
+        when(cmdReader.isThrottled()).thenReturn(true);
+
+        pusher.wakeup();
+        tasks.poll().run();
+
+        Assert.assertTrue(sent.isEmpty());
+        verify(cmdReader, times(1)).tryRead();
+        verify(cmdReader, never()).position();
+    }
+
+}
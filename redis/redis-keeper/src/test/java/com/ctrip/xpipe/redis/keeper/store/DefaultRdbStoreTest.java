@@ -67,6 +67,26 @@ public class DefaultRdbStoreTest extends AbstractRedisKeeperTest{
 		Assert.assertEquals(message.length, readLen.get());
 	}
 
+	@Test
+	public void testConcurrentReadWritingRdb() throws IOException, TimeoutException {
+
+		byte[] message = randomString().getBytes();
+		DefaultRdbStore rdbStore = new DefaultRdbStore(rdbFile, "replId", 1L, new LenEofType(2L * message.length));
+
+		int readers = 3;
+		for (int i = 0; i < readers; i++) {
+			readRdbInNewThread(rdbStore);
+		}
+
+		rdbStore.writeRdb(Unpooled.wrappedBuffer(message));
+		sleep(10);
+		rdbStore.writeRdb(Unpooled.wrappedBuffer(message));
+		rdbStore.endRdb();
+
+		waitConditionUntilTimeOut(() -> readLen.get() == 2L * message.length * readers);
+		Assert.assertNull(exception.get());
+	}
+
 	private void readRdbInNewThread(final DefaultRdbStore rdbStore) {
 		
 		new Thread(new Runnable() {
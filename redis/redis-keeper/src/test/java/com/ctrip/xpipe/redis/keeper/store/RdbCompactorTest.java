@@ -0,0 +1,161 @@
+package com.ctrip.xpipe.redis.keeper.store;
+
+import com.ctrip.xpipe.redis.core.protocal.protocal.BulkStringArrayParser;
+import com.ctrip.xpipe.redis.core.protocal.protocal.LenEofType;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParser;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParserFactory;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOpParserManager;
+import com.ctrip.xpipe.redis.core.redis.operation.parser.DefaultRedisOpParserManager;
+import com.ctrip.xpipe.redis.core.redis.operation.parser.GeneralRedisOpParser;
+import com.ctrip.xpipe.redis.core.redis.rdb.RdbParseListener;
+import com.ctrip.xpipe.redis.core.redis.rdb.RdbParser;
+import com.ctrip.xpipe.redis.core.redis.rdb.RdbWriter;
+import com.ctrip.xpipe.redis.core.redis.rdb.parser.DefaultRdbParser;
+import com.ctrip.xpipe.redis.core.store.DumpedRdbStore;
+import com.ctrip.xpipe.redis.core.store.RdbStore;
+import com.ctrip.xpipe.redis.keeper.AbstractRedisKeeperTest;
+import com.ctrip.xpipe.redis.keeper.config.TestKeeperConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+public class RdbCompactorTest extends AbstractRedisKeeperTest {
+
+    private static final long RDB_OFFSET = 100;
+
+    private DefaultReplicationStore store;
+
+    private RedisOpParser redisOpParser;
+
+    private String replId = randomKeeperRunid();
+
+    @Before
+    public void beforeRdbCompactorTest() throws Exception {
+        store = new DefaultReplicationStore(new File(getTestFileDir()), new TestKeeperConfig(), randomKeeperRunid(), createkeeperMonitor());
+
+        RedisOpParserManager redisOpParserManager = new DefaultRedisOpParserManager();
+        RedisOpParserFactory.getInstance().registerParsers(redisOpParserManager);
+        redisOpParser = new GeneralRedisOpParser(redisOpParserManager);
+
+        ByteBuf rdb = Unpooled.buffer();
+        RdbWriter writer = new RdbWriter(byteBuf -> {
+            rdb.writeBytes(byteBuf);
+            byteBuf.release();
+        });
+        writer.writeHeader();
+        writer.writeAux("redis-ver", "6.2.6");
+        writer.writeAux("repl-stream-db", "0");
+        writer.writeSelectDb(0);
+        writer.writeExpireAt(4102444800000L);
+        writer.writeString("k1".getBytes(), "v1".getBytes());
+        writer.writeList("l".getBytes(), Arrays.asList("a".getBytes(), "b".getBytes()));
+        writer.writeString("n".getBytes(), "10".getBytes());
+        writer.writeEof();
+
+        RdbStore rdbStore = store.prepareRdb(replId, RDB_OFFSET, new LenEofType(rdb.readableBytes()));
+        rdbStore.updateRdbType(RdbStore.Type.NORMAL);
+        store.confirmRdb(rdbStore);
+        rdbStore.writeRdb(rdb);
+        rdbStore.endRdb();
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        long replayed = appendCommands(
+                cmd("SET", "k2", "v2", "PXAT", "4102444800000"),
+                cmd("RPUSH", "l", "c"),
+                cmd("LPOP", "l"),
+                cmd("INCRBY", "n", "5"),
+                cmd("DEL", "k1"),
+                cmd("MULTI"),
+                cmd("SELECT", "1"),
+                cmd("SADD", "s", "m1", "m2"),
+                cmd("SREM", "s", "m1"),
+                cmd("HSET", "h", "f", "v"),
+                cmd("ZADD", "z", "1", "a", "2", "b"),
+                cmd("ZINCRBY", "z", "2", "a"),
+                cmd("EXEC"));
+        // not replayed for transaction not finished yet
+        appendCommands(cmd("MULTI"), cmd("SET", "k3", "v3"));
+
+        DumpedRdbStore target = store.prepareNewRdb();
+        long rdbOffset = new RdbCompactor(store, redisOpParser, 1 << 20).compact(target);
+        Assert.assertEquals(RDB_OFFSET + replayed, rdbOffset);
+        Assert.assertEquals(rdbOffset, target.rdbOffset());
+        Assert.assertTrue(target.checkOk());
+
+        Map<String, String> aux = new HashMap<>();
+        List<String> ops = parse(target.getRdbFile(), aux);
+        Assert.assertEquals("6.2.6", aux.get("redis-ver"));
+        Assert.assertEquals("1", aux.get("repl-stream-db"));
+        Assert.assertEquals(replId, aux.get("repl-id"));
+        Assert.assertEquals(String.valueOf(rdbOffset), aux.get("repl-offset"));
+        Assert.assertEquals(Arrays.asList("SELECT 0", "RPUSH l b", "RPUSH l c", "SET n 15",
+                "SET k2 v2", "PEXPIREAT k2 4102444800000",
+                "SELECT 1", "SADD s m2", "HSET h f v", "ZADD z 3.0 a", "ZADD z 2.0 b"), ops);
+
+        store.checkReplIdAndUpdateRdb(target);
+        Assert.assertEquals(target, store.getRdbStore());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRelativeExpireUnsupported() throws Exception {
+        appendCommands(cmd("SET", "k2", "v2"), cmd("EXPIRE", "k2", "10"));
+        new RdbCompactor(store, redisOpParser, 1 << 20).compact(store.prepareNewRdb());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTooLarge() throws Exception {
+        appendCommands(cmd("SET", "k2", randomString(1024)));
+        new RdbCompactor(store, redisOpParser, 1024).compact(store.prepareNewRdb());
+    }
+
+    private long appendCommands(byte[][]... cmds) throws Exception {
+        long length = 0;
+        for (byte[][] cmd : cmds) {
+            length += store.appendCommands(new BulkStringArrayParser(cmd).format());
+        }
+        return length;
+    }
+
+    private byte[][] cmd(String... args) {
+        byte[][] cmd = new byte[args.length][];
+        for (int i = 0; i < args.length; i++) cmd[i] = args[i].getBytes();
+        return cmd;
+    }
+
+    private List<String> parse(File rdbFile, Map<String, String> aux) throws Exception {
+        List<String> ops = new ArrayList<>();
+        RdbParser<?> parser = new DefaultRdbParser();
+        parser.registerListener(new RdbParseListener() {
+            @Override
+            public void onRedisOp(RedisOp redisOp) {
+                ops.add(redisOp.toString());
+            }
+
+            @Override
+            public void onAux(String key, String value) {
+                aux.put(key, value);
+            }
+
+            @Override
+            public void onFinish(RdbParser<?> parser) {
+            }
+
+            @Override
+            public void onAuxFinish(Map<String, String> auxMap) {
+            }
+        });
+        parser.read(Unpooled.wrappedBuffer(Files.readAllBytes(rdbFile.toPath())));
+        Assert.assertTrue(parser.isFinish());
+        return ops;
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.AbstractTest;
+import com.ctrip.xpipe.payload.ByteArrayWritableByteChannel;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+public class CommandBacklogBufferTest extends AbstractTest {
+
+    private static final int CAPACITY = 100;
+
+    private CommandBacklogBuffer backlogBuffer;
+
+    @Before
+    public void beforeCommandBacklogBufferTest() {
+        backlogBuffer = new CommandBacklogBuffer(CAPACITY, 1000);
+    }
+
+    @Test
+    public void testAppendAndRead() {
+        byte[] content = randomString(250).getBytes();
+        int appended = 0;
+        while (appended < content.length) {
+            int length = Math.min(randomInt(1, 60), content.length - appended);
+            backlogBuffer.append(1000 + appended, Unpooled.wrappedBuffer(content), appended, length);
+            appended += length;
+        }
+
+        ByteBuffer dst = ByteBuffer.allocate(content.length);
+        Assert.assertEquals(0, backlogBuffer.read(1000 + 149, dst, Long.MAX_VALUE));
+        Assert.assertEquals(0, dst.position());
+        Assert.assertEquals(0, backlogBuffer.read(1000 + 250, dst, Long.MAX_VALUE));
+
+        for (int i = 0; i < 10; i++) {
+            int position = randomInt(150, 249);
+            dst = ByteBuffer.allocate(randomInt(1, 120));
+            int read = backlogBuffer.read(1000 + position, dst, Long.MAX_VALUE);
+            Assert.assertEquals(Math.min(dst.capacity(), 250 - position), read);
+            Assert.assertEquals(ByteBuffer.wrap(content, position, read), (ByteBuffer) dst.flip());
+        }
+
+        dst = ByteBuffer.allocate(CAPACITY);
+        Assert.assertEquals(30, backlogBuffer.read(1000 + 200, dst, 1000 + 230));
+    }
+
+    @Test
+    public void testAppendLargerThanCapacity() {
+        byte[] content = randomString(CAPACITY * 2 + 10).getBytes();
+        backlogBuffer.append(1000, Unpooled.wrappedBuffer(content), 0, content.length);
+
+        ByteBuffer dst = ByteBuffer.allocate(content.length);
+        Assert.assertEquals(0, backlogBuffer.read(1000 + CAPACITY + 9, dst, Long.MAX_VALUE));
+        Assert.assertEquals(CAPACITY, backlogBuffer.read(1000 + CAPACITY + 10, dst, Long.MAX_VALUE));
+        Assert.assertEquals(ByteBuffer.wrap(content, CAPACITY + 10, CAPACITY), (ByteBuffer) dst.flip());
+    }
+
+    @Test
+    public void testAppendNotContinuous() {
+        byte[] content = randomString(20).getBytes();
+        backlogBuffer.append(1000, Unpooled.wrappedBuffer(content), 0, 10);
+        backlogBuffer.append(1020, Unpooled.wrappedBuffer(content), 10, 10);
+
+        ByteBuffer dst = ByteBuffer.allocate(20);
+        Assert.assertEquals(0, backlogBuffer.read(1005, dst, Long.MAX_VALUE));
+        Assert.assertEquals(10, backlogBuffer.read(1020, dst, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testFileChannel() throws Exception {
+        // bytes in buffer differ from those in file, to tell where they are read from
+        byte[] fileContent = randomString(200).getBytes();
+        byte[] bufferContent = randomString(200).getBytes();
+        File file = new File(getTestFileDir(), getTestName());
+        Files.write(file.toPath(), fileContent);
+        backlogBuffer.append(1000, Unpooled.wrappedBuffer(bufferContent), 0, bufferContent.length);
+
+        try (FileChannel channel = new CommandBacklogFileChannel(FileChannel.open(file.toPath(), StandardOpenOption.READ),
+                backlogBuffer, 1000)) {
+            ByteBuffer dst = ByteBuffer.allocate(50);
+            channel.position(50);
+            Assert.assertEquals(50, channel.read(dst));
+            Assert.assertEquals(ByteBuffer.wrap(fileContent, 50, 50), (ByteBuffer) dst.flip());
+
+            dst.clear();
+            channel.position(150);
+            Assert.assertEquals(50, channel.read(dst));
+            Assert.assertEquals(200, channel.position());
+            Assert.assertEquals(ByteBuffer.wrap(bufferContent, 150, 50), (ByteBuffer) dst.flip());
+
+            ByteArrayWritableByteChannel target = new ByteArrayWritableByteChannel();
+            Assert.assertEquals(40, channel.transferTo(160, 100, target));
+            Assert.assertArrayEquals(new String(bufferContent).substring(160).getBytes(), target.getResult());
+
+            target = new ByteArrayWritableByteChannel();
+            Assert.assertEquals(20, channel.transferTo(80, 20, target));
+            Assert.assertArrayEquals(new String(fileContent).substring(80, 100).getBytes(), target.getResult());
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.AbstractTest;
+import com.ctrip.xpipe.netty.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class GroupCommitCommandAppenderTest extends AbstractTest {
+
+    private Queue<Runnable> tasks = new LinkedList<>();
+
+    private List<String> batches = new LinkedList<>();
+
+    private GroupCommitCommandAppender appender;
+
+    private AtomicReference<IOException> writeFail = new AtomicReference<>();
+
+    @Before
+    public void beforeGroupCommitCommandAppenderTest() {
+        appender = new GroupCommitCommandAppender(100, 10,
+                batch -> batches.add(ByteBufUtils.readToString(batch)), writeFail::set, tasks::offer);
+    }
+
+    @Test
+    public void testAppendInBatch() throws Exception {
+        ByteBuf first = Unpooled.wrappedBuffer("abc".getBytes());
+        Assert.assertEquals(3, appender.append(first));
+        Assert.assertEquals(0, first.readableBytes());
+        Assert.assertEquals(3, appender.append(Unpooled.wrappedBuffer("de".getBytes())));
+
+        Assert.assertEquals(105, appender.acceptedLength());
+        Assert.assertEquals(5, appender.backlogBytes());
+        Assert.assertTrue(batches.isEmpty());
+        Assert.assertEquals(1, tasks.size());
+
+        tasks.poll().run();
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals("abcde", batches.get(0));
+        Assert.assertEquals(0, appender.backlogBytes());
+
+        appender.append(Unpooled.wrappedBuffer("f".getBytes()));
+        Assert.assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        AtomicInteger drained = new AtomicInteger();
+
+        appender.append(Unpooled.wrappedBuffer("abcde".getBytes()));
+        Assert.assertTrue(appender.checkBacklog(drained::incrementAndGet));
+        appender.append(Unpooled.wrappedBuffer("fghij".getBytes()));
+        Assert.assertFalse(appender.checkBacklog(drained::incrementAndGet));
+        Assert.assertEquals(0, drained.get());
+
+        tasks.poll().run();
+        Assert.assertEquals(1, drained.get());
+        Assert.assertTrue(appender.checkBacklog(drained::incrementAndGet));
+    }
+
+    @Test
+    public void testCloseWriteAll() throws Exception {
+        appender.append(Unpooled.wrappedBuffer("abc".getBytes()));
+        appender.close();
+
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals("abc", batches.get(0));
+
+        // drain task scheduled before close finds nothing to write
+        tasks.poll().run();
+        Assert.assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testAppendAfterCloseRejected() throws Exception {
+        appender.close();
+
+        ByteBuf byteBuf = Unpooled.wrappedBuffer("abc".getBytes());
+        try {
+            appender.append(byteBuf);
+            Assert.fail();
+        } catch (IOException e) {
+            // expected
+        }
+        Assert.assertEquals(3, byteBuf.readableBytes());
+        Assert.assertEquals(1, byteBuf.refCnt());
+        Assert.assertEquals(0, appender.backlogBytes());
+        Assert.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testWriteFailNotBlock() throws Exception {
+        appender = new GroupCommitCommandAppender(0, 10, batch -> {
+            throw new IllegalStateException("disk fail");
+        }, writeFail::set, tasks::offer);
+        ByteBuf byteBuf = Unpooled.wrappedBuffer("abcdefghijk".getBytes());
+        appender.append(byteBuf);
+        AtomicInteger drained = new AtomicInteger();
+        Assert.assertFalse(appender.checkBacklog(drained::incrementAndGet));
+
+        tasks.poll().run();
+        Assert.assertEquals(0, appender.backlogBytes());
+        Assert.assertEquals(1, drained.get());
+        // only the reference of caller left
+        Assert.assertEquals(1, byteBuf.refCnt());
+    }
+
+    @Test
+    public void testWriteFailKept() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        ByteBuf duringWrite = Unpooled.wrappedBuffer("de".getBytes());
+        appender = new GroupCommitCommandAppender(100, 10, batch -> {
+            writes.incrementAndGet();
+            appender.append(duringWrite);
+            throw new IOException("disk fail");
+        }, writeFail::set, tasks::offer);
+
+        ByteBuf first = Unpooled.wrappedBuffer("abc".getBytes());
+        appender.append(first);
+        tasks.poll().run();
+
+        Assert.assertEquals(1, writes.get());
+        Assert.assertEquals("disk fail", writeFail.get().getMessage());
+        // bufs accepted after the failed batch are released, never written
+        Assert.assertEquals(1, first.refCnt());
+        Assert.assertEquals(1, duringWrite.refCnt());
+        Assert.assertEquals(0, appender.backlogBytes());
+        Assert.assertTrue(tasks.isEmpty());
+
+        try {
+            appender.append(Unpooled.wrappedBuffer("f".getBytes()));
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertSame(writeFail.get(), e.getCause());
+        }
+        try {
+            appender.acceptedLength();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // offset never written is not reported
+        }
+    }
+
+}
@@ -97,6 +97,8 @@ public class GtidSetCommandReaderTest extends AbstractRedisOpParserTest {
             i++;
         }
 
+        Assert.assertEquals(563 - 112 + 295, reader.getRefillBytes());
+
         reader.read(); // roll to next segment
         Mockito.verify(commandStore, Mockito.times(2)).findFirstFileSegment(any());
     }
@@ -159,6 +161,38 @@ public class GtidSetCommandReaderTest extends AbstractRedisOpParserTest {
         }
     }
 
+    @Test
+    public void testReadBufferGrowWithBacklog() throws IOException {
+        File file = new File(getTestFileDir() + "/cmd_0");
+        String value = randomString(250);
+        int cmdCount = 350;
+        try (ControllableFile controllableFile = new DefaultControllableFile(file)) {
+            for (int i = 2; i <= cmdCount; i++) {
+                String rawCmd = mockCmdRaw("a1:" + i, "k" + i, value);
+                controllableFile.getFileChannel().write(ByteBuffer.wrap(rawCmd.getBytes()));
+            }
+        }
+
+        CommandFileOffsetGtidIndex startIndex = new CommandFileOffsetGtidIndex(new GtidSet("a1:1"),
+                new CommandFile(file, 0), 0);
+        Mockito.when(commandStore.findFirstFileSegment(any())).thenReturn(new CommandFileSegment(startIndex));
+
+        GtidSetCommandReader reader = new GtidSetCommandReader(commandStore, new GtidSet("a1:1"), new ArrayParser(), parser, notifier, Integer.MAX_VALUE);
+        for (int i = 2; i <= cmdCount;) {
+            RedisOp redisOp = reader.read();
+            if (null == redisOp) continue;
+
+            Assert.assertEquals("a1:" + i, redisOp.getOpGtid());
+            Assert.assertArrayEquals(value.getBytes(), ((RedisSingleKeyOp) redisOp).getValue());
+            i++;
+        }
+
+        Assert.assertEquals(file.length(), reader.getRefillBytes());
+        Assert.assertTrue(reader.getReadBufSize() > 4096);
+        Assert.assertTrue(reader.getRefillCount() < file.length() / 4096);
+        reader.close();
+    }
+
     @Test
     public void testReadFromHugeFilePosition() throws IOException {
 
@@ -0,0 +1,107 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.gtid.GtidSet;
+import com.ctrip.xpipe.netty.filechannel.ReferenceFileRegion;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisOp;
+import com.ctrip.xpipe.redis.core.redis.operation.RedisSingleKeyOp;
+import com.ctrip.xpipe.redis.core.redis.parser.AbstractRedisOpParserTest;
+import com.ctrip.xpipe.redis.core.store.CommandFile;
+import com.ctrip.xpipe.redis.core.store.CommandFileOffsetGtidIndex;
+import com.ctrip.xpipe.redis.core.store.CommandFileSegment;
+import com.ctrip.xpipe.redis.core.store.CommandStore;
+import com.ctrip.xpipe.utils.OffsetNotifier;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.mockito.ArgumentMatchers.any;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GtidSetZeroCopyCommandReaderTest extends AbstractRedisOpParserTest {
+
+    @Mock
+    private CommandStore commandStore;
+
+    @Mock
+    private OffsetNotifier notifier;
+
+    private CommandFile cmdFile0 = new CommandFile(new File("./src/test/resources/GtidSetCommandReaderTest/cmd_0"), 0);
+
+    private CommandFile cmdFile1 = new CommandFile(new File("./src/test/resources/GtidSetCommandReaderTest/cmd_1"), 0);
+
+    private CommandFile cmdFile2 = new CommandFile(new File("./src/test/resources/GtidSetCommandReaderTest/cmd_2"), 0);
+
+    private CommandFileSegment closedSegment = new CommandFileSegment(
+            new CommandFileOffsetGtidIndex(new GtidSet("a1:1-2,b1:1-5"), cmdFile0, 112),
+            new CommandFileOffsetGtidIndex(new GtidSet("a1:1-15,b1:1-5"), cmdFile1, 295));
+
+    private CommandFileSegment openSegment = new CommandFileSegment(
+            new CommandFileOffsetGtidIndex(new GtidSet("a1:1-15,b1:1-5"), cmdFile1, 295));
+
+    @Before
+    public void setupGtidSetZeroCopyCommandReaderTest() throws Exception {
+        Mockito.when(commandStore.simpleDesc()).thenReturn("test");
+        Mockito.when(commandStore.findFirstFileSegment(any())).thenReturn(closedSegment, openSegment);
+    }
+
+    @Test
+    public void testReadAllNeededSegmentAsRegion() throws IOException {
+        Mockito.when(commandStore.findNextFile(cmdFile0.getFile())).thenReturn(cmdFile1);
+        Mockito.when(commandStore.findNextFile(cmdFile1.getFile())).thenReturn(cmdFile2);
+
+        GtidSetZeroCopyCommandReader reader = new GtidSetZeroCopyCommandReader(commandStore, new GtidSet("a1:1-2"),
+                parser, notifier, 100);
+
+        assertRegion(reader.read(), 112, 563 - 112);
+        assertRegion(reader.read(), 0, 295);
+        Mockito.verify(commandStore, Mockito.times(1)).findFirstFileSegment(any());
+
+        // roll to right bound open segment
+        assertRegion(reader.read(), 295, 590 - 295);
+        Mockito.verify(commandStore, Mockito.times(2)).findFirstFileSegment(any());
+        assertRegion(reader.read(), 0, 590);
+
+        Assert.assertNull(reader.read(10));
+        reader.close();
+    }
+
+    @Test
+    public void testReadPartialNeededSegmentAsOp() throws IOException {
+        Mockito.when(commandStore.findNextFile(cmdFile0.getFile())).thenReturn(cmdFile1);
+
+        GtidSetZeroCopyCommandReader reader = new GtidSetZeroCopyCommandReader(commandStore, new GtidSet("a1:1-5"),
+                parser, notifier, 100);
+
+        for (int i = 3; i <= 15; i++) {
+            Object cmd = reader.read();
+            Assert.assertTrue(cmd instanceof RedisOp);
+
+            RedisOp redisOp = (RedisOp) cmd;
+            Assert.assertEquals("a1:" + i, redisOp.getOpGtid());
+            Assert.assertArrayEquals(("k" + i).getBytes(), ((RedisSingleKeyOp) redisOp).getKey().get());
+            Assert.assertArrayEquals(("v" + i).getBytes(), ((RedisSingleKeyOp) redisOp).getValue());
+        }
+        Mockito.verify(commandStore, Mockito.times(1)).findFirstFileSegment(any());
+
+        assertRegion(reader.read(), 295, 590 - 295);
+        Mockito.verify(commandStore, Mockito.times(2)).findFirstFileSegment(any());
+        reader.close();
+    }
+
+    private void assertRegion(Object cmd, long position, long count) {
+        Assert.assertTrue(cmd instanceof ReferenceFileRegion);
+
+        ReferenceFileRegion referenceFileRegion = (ReferenceFileRegion) cmd;
+        Assert.assertEquals(position, referenceFileRegion.position());
+        Assert.assertEquals(count, referenceFileRegion.count());
+        referenceFileRegion.release();
+    }
+
+}
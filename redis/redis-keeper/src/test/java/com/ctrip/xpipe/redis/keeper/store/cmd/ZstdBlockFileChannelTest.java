@@ -0,0 +1,111 @@
+package com.ctrip.xpipe.redis.keeper.store.cmd;
+
+import com.ctrip.xpipe.AbstractTest;
+import com.ctrip.xpipe.payload.ByteArrayWritableByteChannel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+public class ZstdBlockFileChannelTest extends AbstractTest {
+
+    private static final int BLOCK_SIZE = 100;
+
+    private File rawFile;
+
+    private File compressedFile;
+
+    private byte[] content;
+
+    @Before
+    public void beforeZstdBlockFileChannelTest() throws Exception {
+        rawFile = new File(getTestFileDir(), "cmd_" + getTestName());
+        compressedFile = CommandFileCompressor.compressedFileOf(rawFile);
+        content = randomString(1050).getBytes();
+        Files.write(rawFile.toPath(), content);
+    }
+
+    @Test
+    public void testCompressAndRead() throws Exception {
+        long compressedLength = ZstdBlockFile.compress(rawFile, compressedFile, BLOCK_SIZE, 3);
+        Assert.assertEquals(compressedFile.length(), compressedLength);
+
+        try (FileChannel channel = open()) {
+            Assert.assertEquals(content.length, channel.size());
+
+            ByteBuffer dst = ByteBuffer.allocate(content.length + 10);
+            Assert.assertEquals(content.length, channel.read(dst));
+            Assert.assertEquals(content.length, channel.position());
+            Assert.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+            dst.flip();
+            Assert.assertEquals(ByteBuffer.wrap(content), dst);
+
+            for (int i = 0; i < 10; i++) {
+                int position = randomInt(0, content.length - 1);
+                int length = Math.min(randomInt(1, 300), content.length - position);
+                channel.position(position);
+                dst = ByteBuffer.allocate(length);
+                Assert.assertEquals(length, channel.read(dst));
+                Assert.assertEquals(ByteBuffer.wrap(content, position, length), (ByteBuffer) dst.flip());
+            }
+        }
+    }
+
+    @Test
+    public void testTransferTo() throws Exception {
+        ZstdBlockFile.compress(rawFile, compressedFile, BLOCK_SIZE, 3);
+
+        try (FileChannel channel = open()) {
+            ByteArrayWritableByteChannel target = new ByteArrayWritableByteChannel();
+            Assert.assertEquals(content.length - 50, channel.transferTo(50, content.length, target));
+            Assert.assertArrayEquals(new String(content).substring(50).getBytes(), target.getResult());
+            Assert.assertEquals(0, channel.transferTo(content.length, 10, target));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        Files.write(rawFile.toPath(), new byte[0]);
+        ZstdBlockFile.compress(rawFile, compressedFile, BLOCK_SIZE, 3);
+
+        try (FileChannel channel = open()) {
+            Assert.assertEquals(0, channel.size());
+            Assert.assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+        }
+        Assert.assertEquals(0, CommandFileCompressor.rawLengthOf(compressedFile));
+    }
+
+    @Test
+    public void testCompressor() throws Exception {
+        CommandFileCompressor compressor = new CommandFileCompressor(Runnable::run, BLOCK_SIZE, 3);
+        Assert.assertEquals(content.length, compressor.compress(rawFile));
+        Assert.assertTrue(compressedFile.isFile());
+        Assert.assertEquals(rawFile.lastModified(), compressedFile.lastModified());
+        Assert.assertEquals(rawFile, CommandFileCompressor.cmdFileOf(compressedFile));
+
+        Assert.assertTrue(rawFile.delete());
+        ByteBuffer dst = ByteBuffer.allocate(content.length);
+        try (FileChannel channel = CommandFileCompressor.openCmdFile(rawFile).getFileChannel()) {
+            channel.position(10);
+            channel.read(dst);
+        }
+        Assert.assertEquals(ByteBuffer.wrap(content, 10, content.length - 10), (ByteBuffer) dst.flip());
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotCompressed() throws Exception {
+        Files.copy(rawFile.toPath(), compressedFile.toPath());
+        open();
+    }
+
+    private FileChannel open() throws IOException {
+        return new ZstdBlockFileChannel(FileChannel.open(compressedFile.toPath(), StandardOpenOption.READ));
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.ctrip.xpipe.redis.keeper.store.meta;
+
+import com.ctrip.xpipe.AbstractTest;
+import com.ctrip.xpipe.redis.core.meta.KeeperState;
+import com.ctrip.xpipe.redis.core.protocal.protocal.LenEofType;
+import com.ctrip.xpipe.redis.core.store.MetaStore;
+import com.ctrip.xpipe.redis.core.store.ReplicationStoreMeta;
+import com.ctrip.xpipe.redis.keeper.monitor.impl.DefaultReplicationStoreStats;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncMetaPersisterTest extends AbstractTest {
+
+    private Queue<Runnable> tasks = new LinkedList<>();
+
+    private DefaultReplicationStoreStats stats = new DefaultReplicationStoreStats();
+
+    private File metaFile;
+
+    private AsyncMetaPersister persister;
+
+    @Before
+    public void beforeAsyncMetaPersisterTest() {
+        metaFile = new File(getTestFileDir(), MetaStore.META_FILE);
+        metaFile.getParentFile().mkdirs();
+        persister = new AsyncMetaPersister(metaFile, stats, tasks::offer);
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        CompletableFuture<Void> first = persister.persist(meta(1));
+        CompletableFuture<Void> second = persister.persist(meta(2));
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, tasks.size());
+        Assert.assertFalse(metaFile.exists());
+
+        tasks.poll().run();
+        Assert.assertTrue(first.isDone());
+        Assert.assertEquals(2L, (long) loadBeginOffset());
+        Assert.assertEquals(2, stats.getMetaUpdateCount());
+        Assert.assertEquals(1, stats.getMetaFlushCount());
+        Assert.assertTrue(persister.flushFuture().isDone());
+        Assert.assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testPersistWhileFlushing() throws Exception {
+        CompletableFuture<CompletableFuture<Void>> during = new CompletableFuture<>();
+        persister = new AsyncMetaPersister(metaFile, new DefaultReplicationStoreStats() {
+            @Override
+            public void metaFlushed(int coalescedUpdates, long latencyMicro) {
+                super.metaFlushed(coalescedUpdates, latencyMicro);
+                if (!during.isDone()) during.complete(persister.persist(meta(2)));
+            }
+        }, tasks::offer);
+
+        CompletableFuture<Void> first = persister.persist(meta(1));
+        tasks.poll().run();
+        Assert.assertTrue(first.isDone());
+
+        CompletableFuture<Void> second = during.get();
+        Assert.assertNotSame(first, second);
+        Assert.assertFalse(second.isDone());
+        // scheduled after the flush running finished
+        Assert.assertEquals(1, tasks.size());
+        tasks.poll().run();
+        Assert.assertTrue(second.isDone());
+        Assert.assertEquals(2L, (long) loadBeginOffset());
+    }
+
+    @Test
+    public void testFlushFail() {
+        persister = new AsyncMetaPersister(new File(getTestFileDir(), "absent/" + MetaStore.META_FILE), stats, tasks::offer);
+        CompletableFuture<Void> future = persister.persist(meta(1));
+        tasks.poll().run();
+        Assert.assertTrue(future.isCompletedExceptionally());
+        Assert.assertEquals(0, stats.getMetaFlushCount());
+    }
+
+    @Test
+    public void testMetaStoreAsyncPersist() throws Exception {
+        DefaultMetaStore metaStore = new DefaultMetaStore(metaFile.getParentFile(), "keeper-runid");
+        metaStore.enableAsyncPersist(stats);
+
+        metaStore.rdbBegun("replid", 100, "rdb", new LenEofType(10), "cmd_");
+        Assert.assertEquals(100L, (long) loadBeginOffset());
+
+        metaStore.becomeActive();
+        metaStore.flush();
+        Assert.assertEquals(KeeperState.ACTIVE,
+                AbstractMetaStore.loadMetaCreateIfEmpty(metaFile.getParentFile(), MetaStore.META_FILE).getKeeperState());
+        Assert.assertTrue(stats.getMetaFlushCount() >= 1);
+    }
+
+    private Long loadBeginOffset() throws Exception {
+        return AbstractMetaStore.loadMetaCreateIfEmpty(metaFile.getParentFile(), MetaStore.META_FILE).getBeginOffset();
+    }
+
+    private ReplicationStoreMeta meta(long beginOffset) {
+        ReplicationStoreMeta meta = new ReplicationStoreMeta();
+        meta.setBeginOffset(beginOffset);
+        return meta;
+    }
+
+}
@@ -7,6 +7,7 @@ import com.ctrip.xpipe.redis.proxy.handler.InternalNetworkHandler;
 import com.ctrip.xpipe.redis.proxy.handler.ProxyProtocolDecoder;
 import com.ctrip.xpipe.redis.proxy.handler.ProxyProtocolHandler;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.PingStatsManager;
+import com.ctrip.xpipe.redis.proxy.mux.MuxLinkDetector;
 import com.ctrip.xpipe.redis.proxy.resource.ResourceManager;
 import com.ctrip.xpipe.redis.proxy.tunnel.TunnelManager;
 import com.ctrip.xpipe.utils.OsUtils;
@@ -14,6 +15,11 @@ import com.ctrip.xpipe.utils.VisibleForTesting;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
@@ -87,6 +93,7 @@ public class DefaultProxyServer implements ProxyServer {
 
                 ChannelPipeline p = ch.pipeline();
                 p.addLast(new InternalNetworkHandler(config.getInternalNetworkPrefix()));
+                p.addLast(new MuxLinkDetector(muxStreamInitializer()));
                 p.addLast(loggingHandler);
                 p.addLast(new ProxyProtocolDecoder(ProxyProtocolDecoder.DEFAULT_MAX_LENGTH));
                 p.addLast(new ProxyProtocolHandler(tunnelManager, resourceManager, pingStatsManager));
@@ -113,6 +120,7 @@ public class DefaultProxyServer implements ProxyServer {
                 if(!config.noTlsNettyHandler()) {
                     p.addLast(resourceManager.getServerSslHandlerFactory().createSslHandler(ch));
                 }
+                p.addLast(new MuxLinkDetector(muxStreamInitializer()));
                 p.addLast(loggingHandler);
                 p.addLast(new ProxyProtocolDecoder(ProxyProtocolDecoder.DEFAULT_MAX_LENGTH));
                 p.addLast(new ProxyProtocolHandler(tunnelManager, resourceManager, pingStatsManager));
@@ -122,13 +130,37 @@ public class DefaultProxyServer implements ProxyServer {
         tlsFuture = b.bind(config.frontendTlsPort()).sync();
     }
 
+    // streams of mux links from other proxies, initialized as channels accepted
+    private ChannelHandler muxStreamInitializer() {
+        return new ChannelInitializer<Channel>() {
+            @Override
+            public void initChannel(Channel ch) {
+                ChannelPipeline p = ch.pipeline();
+                p.addLast(loggingHandler);
+                p.addLast(new ProxyProtocolDecoder(ProxyProtocolDecoder.DEFAULT_MAX_LENGTH));
+                p.addLast(new ProxyProtocolHandler(tunnelManager, resourceManager, pingStatsManager));
+            }
+        };
+    }
+
     private ServerBootstrap bootstrap(String prefix) {
 
         ServerBootstrap bootstrap = new ServerBootstrap();
-        bootstrap.group(new NioEventLoopGroup(1, FastThreadLocalThreadFactory.create("boss-" + prefix)),
-                new NioEventLoopGroup(Math.min(OsUtils.getCpuCount() * 2, 8), FastThreadLocalThreadFactory.create("worker-" + prefix)))
-                .channel(NioServerSocketChannel.class)
-                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+        int workers = Math.min(OsUtils.getCpuCount() * 2, 8);
+        if(useNativeTransport()) {
+            // backend sessions share the event loops of frontend, so they run on epoll as well
+            bootstrap.group(new EpollEventLoopGroup(1, FastThreadLocalThreadFactory.create("boss-" + prefix)),
+                    new EpollEventLoopGroup(workers, FastThreadLocalThreadFactory.create("worker-" + prefix)))
+                    .channel(EpollServerSocketChannel.class);
+            if(config.isSpliceEnabled()) {
+                bootstrap.childOption(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED);
+            }
+        } else {
+            bootstrap.group(new NioEventLoopGroup(1, FastThreadLocalThreadFactory.create("boss-" + prefix)),
+                    new NioEventLoopGroup(workers, FastThreadLocalThreadFactory.create("worker-" + prefix)))
+                    .channel(NioServerSocketChannel.class);
+        }
+        bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                 .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                 .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(WRITE_LOW_WATER_MARK, WRITE_HIGH_WATER_MARK))
                 .childOption(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(config.getFixedRecvBufferSize()))
@@ -136,6 +168,17 @@ public class DefaultProxyServer implements ProxyServer {
         return bootstrap;
     }
 
+    private boolean useNativeTransport() {
+        if(!config.isNativeTransportEnabled()) {
+            return false;
+        }
+        if(!Epoll.isAvailable()) {
+            logger.warn("[useNativeTransport] epoll not available, use nio", Epoll.unavailabilityCause());
+            return false;
+        }
+        return true;
+    }
+
     @Override
     public void stop() {
         if(tcpFuture != null) {
@@ -5,10 +5,13 @@ import com.ctrip.xpipe.api.foundation.FoundationService;
 import com.ctrip.xpipe.api.proxy.CompressAlgorithm;
 import com.ctrip.xpipe.config.CompositeConfig;
 import com.ctrip.xpipe.config.DefaultFileConfig;
+import com.ctrip.xpipe.redis.proxy.handler.AdaptiveCompressPolicy;
 import com.ctrip.xpipe.redis.proxy.handler.ZstdDecoder;
+import com.ctrip.xpipe.redis.proxy.handler.ZstdDictionary;
 import com.ctrip.xpipe.redis.proxy.handler.ZstdEncoder;
 import com.ctrip.xpipe.spring.AbstractProfile;
 import com.ctrip.xpipe.utils.IpUtils;
+import com.ctrip.xpipe.utils.StringUtil;
 import com.ctrip.xpipe.utils.XpipeThreadFactory;
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.ByteToMessageDecoder;
@@ -17,10 +20,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 
+import java.io.IOException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import static com.ctrip.xpipe.redis.proxy.handler.ZstdConstants.VERSION_BLOCK;
+import static com.ctrip.xpipe.redis.proxy.handler.ZstdConstants.VERSION_DICTIONARY;
+
 
 /**
  * @author chen.zhu
@@ -43,6 +50,8 @@ public class DefaultProxyConfig implements ProxyConfig {
 
     private static final String KEY_PROXY_SOCKET_STATS_CHECK_INTERVAL = "proxy.socket.stats.check.interval.milli";
 
+    private static final String KEY_PROXY_SOCKET_STATS_IN_PROCESS = "proxy.socket.stats.in.process.enabled";
+
     private static final String KEY_TRAFFIC_REPORT_INTERVAL = "proxy.traffic.report.interval.milli";
 
     private static final String KEY_FRONTEND_TCP_PORT = "proxy.frontend.tcp.port";
@@ -65,8 +74,24 @@ public class DefaultProxyConfig implements ProxyConfig {
 
     private static final String KEY_PROXY_COMPRESS_ALGORITHM_VERSION = "proxy.compress.algorithm.version";
 
+    private static final String KEY_PROXY_COMPRESS_DICTIONARY_PATH = "proxy.compress.zstd.dictionary.path";
+
+    private static final String KEY_PROXY_COMPRESS_ADAPTIVE = "proxy.compress.adaptive.enabled";
+
     private static final String KEY_PROXY_REPORT_TRAFFIC = "proxy.report.traffic";
 
+    private static final String KEY_PROXY_NATIVE_TRANSPORT_ENABLED = "proxy.native.transport.enabled";
+
+    private static final String KEY_PROXY_SPLICE_ENABLED = "proxy.splice.enabled";
+
+    private static final String KEY_PROXY_MUX_ENABLED = "proxy.mux.enabled";
+
+    private static final String KEY_PROXY_MUX_LINKS_PER_ENDPOINT = "proxy.mux.links.per.endpoint";
+
+    private static final String KEY_PROXY_MUX_STREAM_WINDOW_BYTES = "proxy.mux.stream.window.bytes";
+
+    private volatile ZstdDictionary compressDictionary;
+
     private ScheduledExecutorService scheduled = Executors.newScheduledThreadPool(1, XpipeThreadFactory.create("DefaultProxyConfig"));
 
     public DefaultProxyConfig() {
@@ -124,6 +149,11 @@ public class DefaultProxyConfig implements ProxyConfig {
         return getIntProperty(KEY_PROXY_SOCKET_STATS_CHECK_INTERVAL, 1000);
     }
 
+    @Override
+    public boolean isSocketStatsInProcess() {
+        return getBooleanProperty(KEY_PROXY_SOCKET_STATS_IN_PROCESS, false);
+    }
+
     @Override
     public boolean noTlsNettyHandler() {
         return getBooleanProperty(KEY_NO_TLS_NETTY_HANDLER, false);
@@ -155,12 +185,17 @@ public class DefaultProxyConfig implements ProxyConfig {
         return getBooleanProperty(KEY_PROXY_COMPRESS_ENABLED, Boolean.TRUE);
     }
 
+    @Override
+    public boolean isCompressAdaptive() {
+        return getBooleanProperty(KEY_PROXY_COMPRESS_ADAPTIVE, false);
+    }
+
     @Override
     public CompressAlgorithm getCompressAlgorithm() {
         return new CompressAlgorithm() {
             @Override
             public String version() {
-                return getProperty(KEY_PROXY_COMPRESS_ALGORITHM_VERSION, "1.0");
+                return getProperty(KEY_PROXY_COMPRESS_ALGORITHM_VERSION, VERSION_BLOCK);
             }
 
             @Override
@@ -176,13 +211,82 @@ public class DefaultProxyConfig implements ProxyConfig {
     }
 
     @Override
-    public ByteToMessageDecoder getCompressDecoder() {
+    public boolean isNativeTransportEnabled() {
+        return getBooleanProperty(KEY_PROXY_NATIVE_TRANSPORT_ENABLED, false);
+    }
+
+    @Override
+    public boolean isSpliceEnabled() {
+        return getBooleanProperty(KEY_PROXY_SPLICE_ENABLED, false);
+    }
+
+    @Override
+    public boolean isMuxEnabled() {
+        return getBooleanProperty(KEY_PROXY_MUX_ENABLED, false);
+    }
+
+    @Override
+    public int getMuxLinksPerEndpoint() {
+        return getIntProperty(KEY_PROXY_MUX_LINKS_PER_ENDPOINT, 2);
+    }
+
+    @Override
+    public int getMuxStreamWindowBytes() {
+        return getIntProperty(KEY_PROXY_MUX_STREAM_WINDOW_BYTES, 8 * 1024 * 1024);
+    }
+
+    @Override
+    public boolean isCompressAlgorithmSupported(CompressAlgorithm algorithm) {
+        if(algorithm.getType() != CompressAlgorithm.AlgorithmType.ZSTD) {
+            return false;
+        }
+        if(VERSION_DICTIONARY.equalsIgnoreCase(algorithm.version())) {
+            return getCompressDictionary() != null;
+        }
+        return VERSION_BLOCK.equalsIgnoreCase(algorithm.version());
+    }
+
+    @Override
+    public ByteToMessageDecoder getCompressDecoder(CompressAlgorithm algorithm) {
+        if(VERSION_DICTIONARY.equalsIgnoreCase(algorithm.version())) {
+            return new ZstdDecoder(getCompressDictionary());
+        }
         return new ZstdDecoder();
     }
 
     @Override
-    public MessageToByteEncoder<ByteBuf> getCompressEncoder() {
-        return new ZstdEncoder();
+    public MessageToByteEncoder<ByteBuf> getCompressEncoder(CompressAlgorithm algorithm) {
+        AdaptiveCompressPolicy compressPolicy = isCompressAdaptive() ? new AdaptiveCompressPolicy() : null;
+        if(VERSION_DICTIONARY.equalsIgnoreCase(algorithm.version())) {
+            return new ZstdEncoder(getCompressDictionary(), compressPolicy);
+        }
+        return new ZstdEncoder(null, compressPolicy);
+    }
+
+    // loaded once per path, as proxies on both sides need the same dictionary
+    private ZstdDictionary getCompressDictionary() {
+        String path = getProperty(KEY_PROXY_COMPRESS_DICTIONARY_PATH, null);
+        if(StringUtil.isEmpty(path)) {
+            return null;
+        }
+        ZstdDictionary current = compressDictionary;
+        if(current != null && path.equals(current.getPath())) {
+            return current;
+        }
+        synchronized (this) {
+            current = compressDictionary;
+            if(current == null || !path.equals(current.getPath())) {
+                try {
+                    current = ZstdDictionary.load(path);
+                    compressDictionary = current;
+                    logger.info("[getCompressDictionary] loaded {}", path);
+                } catch (IOException e) {
+                    logger.error("[getCompressDictionary] fail to load {}", path, e);
+                    return null;
+                }
+            }
+            return current;
+        }
     }
 
     @Override
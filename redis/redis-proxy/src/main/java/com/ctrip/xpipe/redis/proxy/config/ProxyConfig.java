@@ -24,6 +24,9 @@ public interface ProxyConfig extends TLSConfig {
 
     int socketStatsCheckInterval();
 
+    // read socket stats from /proc/net/tcp and tcp_info in process, instead of forking `ss`
+    boolean isSocketStatsInProcess();
+
     boolean noTlsNettyHandler();
 
     int getFixedRecvBufferSize();
@@ -37,12 +40,30 @@ public interface ProxyConfig extends TLSConfig {
 
     boolean isCompressEnabled();
 
+    // pick compress level of each block by link backlog and achieved ratio, instead of a fixed level
+    boolean isCompressAdaptive();
+
     CompressAlgorithm getCompressAlgorithm();
 
-    ByteToMessageDecoder getCompressDecoder();
+    // whether codec of the algorithm, which may be requested by previous proxy, could be installed
+    boolean isCompressAlgorithmSupported(CompressAlgorithm algorithm);
 
-    MessageToByteEncoder<ByteBuf> getCompressEncoder();
+    ByteToMessageDecoder getCompressDecoder(CompressAlgorithm algorithm);
+
+    MessageToByteEncoder<ByteBuf> getCompressEncoder(CompressAlgorithm algorithm);
 
     boolean shouldReportTraffic();
 
+    boolean isNativeTransportEnabled();
+
+    // forward plaintext tunnels by splice(2) between sockets, works with native transport only
+    boolean isSpliceEnabled();
+
+    // carry tunnels to next proxy as streams of a few long-lived links
+    boolean isMuxEnabled();
+
+    int getMuxLinksPerEndpoint();
+
+    int getMuxStreamWindowBytes();
+
 }
@@ -0,0 +1,135 @@
+package com.ctrip.xpipe.redis.proxy.handler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the level of each block of a tunnel by what the last sample window achieved:
+ * compress harder while the link backs up, as long as encoding keeps up with the input,
+ * send blocks as is while the link is idle or the content doesn't compress,
+ * and compress fast otherwise. Blocks are still compressed now and then when sent as is, to keep sampling the ratio.
+ * Once high level falls behind the input, its throughput is remembered, and high level is only tried again
+ * when the input drops well below it, or after a while, so a cpu bound link doesn't flip levels every window.
+ * Not thread safe, it's called by the encoder on the event loop only.
+ */
+public class AdaptiveCompressPolicy {
+
+    static final long SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // compressing less than this doesn't pay for the cpu
+    static final double MIN_RATIO = 1.1;
+
+    // link carrying less than this is treated as under-utilized
+    static final long IDLE_BYTES_PER_SECOND = 64 * 1024;
+
+    static final int PROBE_BLOCKS = 16;
+
+    // input must be below this share of the remembered high level throughput to try high level again
+    static final double HIGH_HEADROOM = 0.8;
+
+    // windows after which a remembered high level throughput is no longer trusted
+    static final int HIGH_RETRY_WINDOWS = 30;
+
+    // backlog above this means the link is saturated
+    public static final long DEFAULT_HIGH_BACKLOG_BYTES = 1024 * 1024;
+
+    private final long highBacklogBytes;
+
+    private CompressLevel level = CompressLevel.FAST;
+
+    private long windowStartNanos = -1;
+
+    private long inputBytes;
+
+    private long rawBytes;
+
+    private long compressedBytes;
+
+    private long compressNanos;
+
+    private long maxBacklog;
+
+    private int blocksSinceProbe;
+
+    private double highBytesPerSecond = -1;
+
+    private int windowsSinceHighFallback;
+
+    public AdaptiveCompressPolicy() {
+        this(DEFAULT_HIGH_BACKLOG_BYTES);
+    }
+
+    public AdaptiveCompressPolicy(long highBacklogBytes) {
+        this.highBacklogBytes = highBacklogBytes;
+    }
+
+    /**
+     * @param backlog bytes pending in the outbound buffer of the channel
+     * @return level of the next block
+     */
+    public CompressLevel nextBlock(long backlog, long nowNanos) {
+        if(windowStartNanos < 0) {
+            windowStartNanos = nowNanos;
+        }
+        maxBacklog = Math.max(maxBacklog, backlog);
+        if(nowNanos - windowStartNanos >= SAMPLE_INTERVAL_NANOS) {
+            level = decide(nowNanos - windowStartNanos);
+            resetWindow(nowNanos);
+        }
+        if(level == CompressLevel.NONE && ++blocksSinceProbe >= PROBE_BLOCKS) {
+            blocksSinceProbe = 0;
+            return CompressLevel.FAST;
+        }
+        return level;
+    }
+
+    public void record(CompressLevel blockLevel, int raw, int compressed, long nanos) {
+        inputBytes += raw;
+        if(blockLevel != CompressLevel.NONE) {
+            rawBytes += raw;
+            compressedBytes += compressed;
+            compressNanos += nanos;
+        }
+    }
+
+    public CompressLevel getLevel() {
+        return level;
+    }
+
+    private CompressLevel decide(long elapsedNanos) {
+        if(compressedBytes > 0 && (double) rawBytes / compressedBytes < MIN_RATIO) {
+            return CompressLevel.NONE;
+        }
+        double inputRate = inputBytes * 1e9 / elapsedNanos;
+        if(maxBacklog >= highBacklogBytes) {
+            // cpu becomes the bottleneck if encoding at high level is slower than input
+            if(level == CompressLevel.HIGH) {
+                if(compressNanos > 0 && rawBytes * 1e9 / compressNanos < inputRate) {
+                    highBytesPerSecond = rawBytes * 1e9 / compressNanos;
+                    windowsSinceHighFallback = 0;
+                    return CompressLevel.FAST;
+                }
+                return CompressLevel.HIGH;
+            }
+            if(highBytesPerSecond >= 0) {
+                if(++windowsSinceHighFallback < HIGH_RETRY_WINDOWS && inputRate >= highBytesPerSecond * HIGH_HEADROOM) {
+                    return CompressLevel.FAST;
+                }
+                highBytesPerSecond = -1;
+            }
+            return CompressLevel.HIGH;
+        }
+        if(maxBacklog == 0 && inputRate < IDLE_BYTES_PER_SECOND) {
+            return CompressLevel.NONE;
+        }
+        return CompressLevel.FAST;
+    }
+
+    private void resetWindow(long nowNanos) {
+        windowStartNanos = nowNanos;
+        inputBytes = 0;
+        rawBytes = 0;
+        compressedBytes = 0;
+        compressNanos = 0;
+        maxBacklog = 0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ctrip.xpipe.redis.proxy.handler;
+
+import static com.ctrip.xpipe.redis.proxy.handler.ZstdConstants.DEFAULT_COMPRESS_LEVEL;
+
+/**
+ * Level a block is compressed at, which only the encoder cares about, as decoders read blocks of any level
+ */
+public enum CompressLevel {
+
+    // block sent as is
+    NONE(0),
+
+    FAST(1),
+
+    DEFAULT(DEFAULT_COMPRESS_LEVEL),
+
+    HIGH(9);
+
+    private final int zstdLevel;
+
+    CompressLevel(int zstdLevel) {
+        this.zstdLevel = zstdLevel;
+    }
+
+    public int getZstdLevel() {
+        return zstdLevel;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ctrip.xpipe.redis.proxy.handler;
+
+/**
+ * Bytes and time of a compress codec, recorded by the event loop of its channel
+ */
+public class CompressStats {
+
+    private volatile long rawBytes;
+
+    private volatile long compressedBytes;
+
+    private volatile long nanos;
+
+    // level picked by the encoder, null for decoder
+    private volatile CompressLevel level;
+
+    public void record(int rawBytes, int compressedBytes, long nanos) {
+        this.rawBytes += rawBytes;
+        this.compressedBytes += compressedBytes;
+        this.nanos += nanos;
+    }
+
+    public void setLevel(CompressLevel level) {
+        this.level = level;
+    }
+
+    public CompressLevel getLevel() {
+        return level;
+    }
+
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getRatio() {
+        long compressed = compressedBytes;
+        return compressed == 0 ? 0 : (double) rawBytes / compressed;
+    }
+
+    // MB of raw bytes per second
+    public double getThroughput() {
+        long spent = nanos;
+        return spent == 0 ? 0 : rawBytes * 1000.0 / spent;
+    }
+
+    @Override
+    public String toString() {
+        String stats = String.format("raw: %d, compressed: %d, ratio: %.2f, throughput: %.2fMB/s",
+                rawBytes, compressedBytes, getRatio(), getThroughput());
+        return level == null ? stats : String.format("level: %s, %s", level, stats);
+    }
+}
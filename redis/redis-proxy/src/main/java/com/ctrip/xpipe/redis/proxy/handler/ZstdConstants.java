@@ -2,6 +2,12 @@ package com.ctrip.xpipe.redis.proxy.handler;
 
 public class ZstdConstants {
 
+    // blocks compressed independently
+    public static final String VERSION_BLOCK = "1.0";
+
+    // blocks compressed with a dictionary shared by both sides
+    public static final String VERSION_DICTIONARY = "2.0";
+
     static final int MAGIC_NUMBER = 'Z' << 24 | 'S' << 16 | 'T' << 8  | 'D';
 
     static final int HEADER_LENGTH = 4 +  // magic number
@@ -22,6 +28,8 @@ public class ZstdConstants {
 
 
     static final int MIN_BLOCK_SIZE = 64;
+    // small blocks still compress well with a dictionary
+    static final int DICTIONARY_MIN_BLOCK_SIZE = 16;
     static final int MAX_BLOCK_SIZE = 1 << COMPRESSION_LEVEL_BASE + 0x0F;   //  32 M
     static final int DEFAULT_BLOCK_SIZE = 1 << 16;  // 64 KB
 
@@ -38,12 +38,26 @@ public class ZstdDecoder extends ByteToMessageDecoder {
 
     private boolean validateCheckSum;
 
+    // null if blocks are compressed independently
+    private final ZstdDictionary dictionary;
+
+    private final CompressStats compressStats = new CompressStats();
+
     public ZstdDecoder() {
         this(true);
     }
 
     public ZstdDecoder(boolean validateCheckSum) {
+        this(validateCheckSum, null);
+    }
+
+    public ZstdDecoder(ZstdDictionary dictionary) {
+        this(true, dictionary);
+    }
+
+    public ZstdDecoder(boolean validateCheckSum, ZstdDictionary dictionary) {
         this.validateCheckSum = validateCheckSum;
+        this.dictionary = dictionary;
     }
 
     @Override
@@ -67,6 +81,7 @@ public class ZstdDecoder extends ByteToMessageDecoder {
                         }
 
                         ByteBuf uncompressed = null;
+                        long start = System.nanoTime();
 
                         try {
                             switch (blockType) {
@@ -78,9 +93,12 @@ public class ZstdDecoder extends ByteToMessageDecoder {
                                 case BLOCK_TYPE_COMPRESSED:
                                     uncompressed = ctx.alloc().buffer(decompressedLength, decompressedLength);
 
-                                    Zstd.decompress(
-                                            uncompressed.internalNioBuffer(uncompressed.writerIndex(), decompressedLength),
-                                            safeNioBuffer(in));
+                                    ByteBuffer outNioBuffer = uncompressed.internalNioBuffer(uncompressed.writerIndex(), decompressedLength);
+                                    if(dictionary == null) {
+                                        Zstd.decompress(outNioBuffer, safeNioBuffer(in));
+                                    } else {
+                                        Zstd.decompress(outNioBuffer, safeNioBuffer(in), dictionary.getDecompressDictionary());
+                                    }
                                     // Update the writerIndex now to reflect what we decompressed.
                                     uncompressed.writerIndex(uncompressed.writerIndex() + decompressedLength);
                                     break;
@@ -97,6 +115,7 @@ public class ZstdDecoder extends ByteToMessageDecoder {
                                 checkChecksum(uncompressed, currentChecksum);
                             }
 
+                            compressStats.record(decompressedLength, compressedLength + HEADER_LENGTH, System.nanoTime() - start);
                             out.add(uncompressed);
                             uncompressed = null;
                             currentState = State.INIT_BLOCK;
@@ -126,6 +145,10 @@ public class ZstdDecoder extends ByteToMessageDecoder {
         return currentState == State.FINISHED;
     }
 
+    public CompressStats getCompressStats() {
+        return compressStats;
+    }
+
     private void checkChecksum(ByteBuf uncompressed, int currentChecksum) {
         checksum.reset();
         checksum.update(uncompressed.nioBuffer(uncompressed.readerIndex(), uncompressed.readableBytes()));
@@ -0,0 +1,66 @@
+package com.ctrip.xpipe.redis.proxy.handler;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zstd dictionary shared by proxies on both sides of a tunnel, distributed as a file with proxy config.
+ * It's digested once and shared by all tunnels, as digesting costs far more than compressing a block.
+ */
+public class ZstdDictionary {
+
+    private final String path;
+
+    // level is fixed once digested
+    private final Map<CompressLevel, ZstdDictCompress> compressDictionaries = new EnumMap<>(CompressLevel.class);
+
+    private final ZstdDictDecompress decompressDictionary;
+
+    public ZstdDictionary(String path, byte[] dictionary) {
+        this.path = path;
+        for(CompressLevel level : CompressLevel.values()) {
+            if(level != CompressLevel.NONE) {
+                compressDictionaries.put(level, new ZstdDictCompress(dictionary, level.getZstdLevel()));
+            }
+        }
+        this.decompressDictionary = new ZstdDictDecompress(dictionary);
+    }
+
+    public static ZstdDictionary load(String path) throws IOException {
+        return new ZstdDictionary(path, Files.readAllBytes(Paths.get(path)));
+    }
+
+    /**
+     * Trains a dictionary from samples of the replication stream, e.g. commands captured from a tunnel
+     */
+    public static byte[] train(List<byte[]> samples, int dictionarySize) {
+        byte[] dictionary = new byte[dictionarySize];
+        long size = Zstd.trainFromBuffer(samples.toArray(new byte[0][]), dictionary);
+        if(Zstd.isError(size)) {
+            throw new IllegalArgumentException("train zstd dictionary fail: " + Zstd.getErrorName(size));
+        }
+        byte[] trained = new byte[(int) size];
+        System.arraycopy(dictionary, 0, trained, 0, trained.length);
+        return trained;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public ZstdDictCompress getCompressDictionary(CompressLevel level) {
+        return compressDictionaries.get(level);
+    }
+
+    public ZstdDictDecompress getDecompressDictionary() {
+        return decompressDictionary;
+    }
+}
@@ -44,6 +44,16 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
 
     private final int maxEncodeSize;
 
+    // null if blocks are compressed independently
+    private final ZstdDictionary dictionary;
+
+    private final int minCompressSize;
+
+    // null if blocks are compressed at default level
+    private final AdaptiveCompressPolicy compressPolicy;
+
+    private final CompressStats compressStats = new CompressStats();
+
     private volatile boolean finished;
 
     private volatile ChannelHandlerContext ctx;
@@ -53,12 +63,27 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
         this(DEFAULT_BLOCK_SIZE, MAX_BLOCK_SIZE);
     }
 
+    public ZstdEncoder(ZstdDictionary dictionary) {
+        this(dictionary, null);
+    }
+
+    public ZstdEncoder(ZstdDictionary dictionary, AdaptiveCompressPolicy compressPolicy) {
+        this(DEFAULT_BLOCK_SIZE, MAX_BLOCK_SIZE, dictionary, compressPolicy);
+    }
 
     public ZstdEncoder(int blockSize, int maxEncodeSize) {
+        this(blockSize, maxEncodeSize, null, null);
+    }
+
+    public ZstdEncoder(int blockSize, int maxEncodeSize, ZstdDictionary dictionary, AdaptiveCompressPolicy compressPolicy) {
         super(true);
         compressionLevel = compressionLevel(blockSize);
         this.blockSize = blockSize;
         this.maxEncodeSize = ObjectUtil.checkPositive(maxEncodeSize, "maxEncodeSize");
+        this.dictionary = dictionary;
+        this.minCompressSize = dictionary == null ? MIN_BLOCK_SIZE : DICTIONARY_MIN_BLOCK_SIZE;
+        this.compressPolicy = compressPolicy;
+        compressStats.setLevel(compressPolicy == null ? CompressLevel.DEFAULT : compressPolicy.getLevel());
         finished = false;
     }
 
@@ -92,7 +117,7 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
         while (remaining > 0) {
             int curSize = Math.min(blockSize, remaining);
             remaining -= curSize;
-            if(curSize <= MIN_BLOCK_SIZE) {
+            if(curSize <= minCompressSize) {
                 targetBufSize += curSize + HEADER_LENGTH;
             } else {
                 targetBufSize += Zstd.compressBound(curSize) + HEADER_LENGTH;
@@ -129,7 +154,7 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
             final int nextChunkSize = Math.min(length, buffer.writableBytes());
             in.readBytes(buffer, nextChunkSize);
 
-            if(nextChunkSize <= MIN_BLOCK_SIZE) {
+            if(nextChunkSize <= minCompressSize) {
                 writeUnCompressedData(out);
                 return;
             }
@@ -148,6 +173,13 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
         if (flushableBytes == 0) {
             return;
         }
+        // level is picked at block boundary, decoder doesn't care about it
+        CompressLevel level = compressPolicy == null ? CompressLevel.DEFAULT
+                : compressPolicy.nextBlock(outboundBacklog(), System.nanoTime());
+        if (level == CompressLevel.NONE) {
+            writeUnCompressedData(out);
+            return;
+        }
         checksum.reset();
         checksum.update(buffer.internalNioBuffer(buffer.readerIndex(), flushableBytes));
         final int check = (int) checksum.getValue();
@@ -156,12 +188,15 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
         out.ensureWritable(bufSize);
         final int idx = out.writerIndex();
         int compressedLength;
+        long start = System.nanoTime();
         try {
             ByteBuffer outNioBuffer = out.internalNioBuffer(idx + HEADER_LENGTH, out.writableBytes() - HEADER_LENGTH);
-            compressedLength = Zstd.compress(
-                    outNioBuffer,
-                    buffer.internalNioBuffer(buffer.readerIndex(), flushableBytes),
-                    DEFAULT_COMPRESS_LEVEL);
+            ByteBuffer inNioBuffer = buffer.internalNioBuffer(buffer.readerIndex(), flushableBytes);
+            if(dictionary == null) {
+                compressedLength = Zstd.compress(outNioBuffer, inNioBuffer, level.getZstdLevel());
+            } else {
+                compressedLength = Zstd.compress(outNioBuffer, inNioBuffer, dictionary.getCompressDictionary(level));
+            }
         } catch (Exception e) {
             throw new CompressionException(e);
         }
@@ -181,6 +216,7 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
         out.setIntLE(idx + CHECKSUM_OFFSET, check);
         out.writerIndex(idx + HEADER_LENGTH + compressedLength);
         buffer.clear();
+        recordBlock(level, flushableBytes, compressedLength + HEADER_LENGTH, System.nanoTime() - start);
     }
 
     private void writeUnCompressedData(ByteBuf out) {
@@ -203,6 +239,20 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
         out.setIntLE(idx + CHECKSUM_OFFSET, check);
         out.writerIndex(idx + HEADER_LENGTH + flushableBytes);
         buffer.clear();
+        recordBlock(CompressLevel.NONE, flushableBytes, flushableBytes + HEADER_LENGTH, 0);
+    }
+
+    private void recordBlock(CompressLevel level, int rawBytes, int compressedBytes, long nanos) {
+        compressStats.record(rawBytes, compressedBytes, nanos);
+        if (compressPolicy != null) {
+            compressPolicy.record(level, rawBytes, compressedBytes, nanos);
+            compressStats.setLevel(compressPolicy.getLevel());
+        }
+    }
+
+    private long outboundBacklog() {
+        ChannelOutboundBuffer outboundBuffer = ctx().channel().unsafe().outboundBuffer();
+        return outboundBuffer == null ? 0 : outboundBuffer.totalPendingWriteBytes();
     }
 
     @Override
@@ -243,6 +293,10 @@ public class ZstdEncoder extends MessageToByteEncoder<ByteBuf> {
         return finished;
     }
 
+    public CompressStats getCompressStats() {
+        return compressStats;
+    }
+
 
     public ChannelFuture close() {
         return close(ctx().newPromise());
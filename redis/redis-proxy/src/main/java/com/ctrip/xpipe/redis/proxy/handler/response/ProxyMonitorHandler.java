@@ -8,9 +8,12 @@ import com.ctrip.xpipe.redis.core.proxy.monitor.*;
 import com.ctrip.xpipe.redis.core.proxy.parser.monitor.ProxyMonitorParser;
 import com.ctrip.xpipe.redis.proxy.Tunnel;
 import com.ctrip.xpipe.redis.proxy.config.ProxyConfig;
+import com.ctrip.xpipe.redis.proxy.handler.CompressStats;
 import com.ctrip.xpipe.redis.proxy.monitor.session.SessionStats;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.PingStats;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.PingStatsManager;
+import com.ctrip.xpipe.redis.proxy.monitor.stats.TunnelStats;
+import com.ctrip.xpipe.redis.proxy.session.SESSION_TYPE;
 import com.ctrip.xpipe.redis.proxy.tunnel.TunnelManager;
 import com.google.common.collect.Lists;
 import io.netty.channel.Channel;
@@ -60,6 +63,9 @@ public class ProxyMonitorHandler extends AbstractProxyProtocolOptionHandler {
             case TrafficStats:
                 new TunnelTrafficResponser().response(channel);
                 break;
+            case CompressStats:
+                new TunnelCompressResponser().response(channel);
+                break;
             default:
                 break;
         }
@@ -178,4 +184,37 @@ public class ProxyMonitorHandler extends AbstractProxyProtocolOptionHandler {
             return new TunnelTrafficResult(tunnelId, frontend, backend).format();
         }
     }
+
+    private class TunnelCompressResponser extends AbstractResponser<Tunnel> {
+
+        @Override
+        protected List<Tunnel> getSamples() {
+            return tunnelManager.tunnels();
+        }
+
+        @Override
+        protected Object format(Tunnel tunnel) {
+            if (tunnel.getTunnelMonitor() == null || tunnel.getTunnelMonitor().getTunnelStats() == null) {
+                return null;
+            }
+            TunnelStats tunnelStats = tunnel.getTunnelMonitor().getTunnelStats();
+            SessionCompressResult frontendCompress = toResult(tunnelStats.getCompressStats(SESSION_TYPE.FRONTEND));
+            SessionCompressResult frontendDecompress = toResult(tunnelStats.getDecompressStats(SESSION_TYPE.FRONTEND));
+            SessionCompressResult backendCompress = toResult(tunnelStats.getCompressStats(SESSION_TYPE.BACKEND));
+            SessionCompressResult backendDecompress = toResult(tunnelStats.getDecompressStats(SESSION_TYPE.BACKEND));
+            if (frontendCompress == null && frontendDecompress == null && backendCompress == null && backendDecompress == null) {
+                return null;
+            }
+            return new TunnelCompressResult(tunnel.identity().toString(), frontendCompress, frontendDecompress,
+                    backendCompress, backendDecompress).format();
+        }
+
+        private SessionCompressResult toResult(CompressStats stats) {
+            if (stats == null) {
+                return null;
+            }
+            String level = stats.getLevel() == null ? null : stats.getLevel().name();
+            return new SessionCompressResult(level, stats.getRawBytes(), stats.getCompressedBytes(), stats.getNanos());
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.ctrip.xpipe.redis.proxy.monitor.stats;
 
 import com.ctrip.xpipe.api.observer.Observer;
 import com.ctrip.xpipe.redis.core.proxy.monitor.TunnelStatsResult;
+import com.ctrip.xpipe.redis.proxy.handler.CompressStats;
 import com.ctrip.xpipe.redis.proxy.model.TunnelIdentity;
 import com.ctrip.xpipe.redis.proxy.session.SESSION_TYPE;
 import com.ctrip.xpipe.redis.proxy.tunnel.TunnelEventHandler;
@@ -28,4 +29,10 @@ public interface TunnelStats extends TunnelEventHandler, Observer {
 
     TunnelStatsResult getTunnelStatsResult();
 
+    // null if content to the session is not compressed
+    CompressStats getCompressStats(SESSION_TYPE type);
+
+    // null if content from the session is not compressed
+    CompressStats getDecompressStats(SESSION_TYPE type);
+
 }
@@ -5,9 +5,13 @@ import com.ctrip.xpipe.redis.proxy.Session;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.AbstractStats;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.SocketStatsManager;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.SocketStats;
+import com.ctrip.xpipe.redis.proxy.mux.MuxStreamChannel;
 import com.ctrip.xpipe.utils.ChannelUtil;
 import com.google.common.collect.Lists;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelException;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.epoll.EpollTcpInfo;
 
 import java.net.InetSocketAddress;
 import java.util.concurrent.ScheduledExecutorService;
@@ -30,10 +34,23 @@ public class DefaultSocketStats extends AbstractStats implements SocketStats {
 
     private AtomicReference<SocketStatsResult> result = new AtomicReference<>(EMPTY_ONE);
 
+    private final int checkIntervalMilli;
+
     public DefaultSocketStats(ScheduledExecutorService scheduled, Session session, SocketStatsManager socketStatsManager) {
+        this(scheduled, session, socketStatsManager, 1000);
+    }
+
+    public DefaultSocketStats(ScheduledExecutorService scheduled, Session session, SocketStatsManager socketStatsManager,
+                              int checkIntervalMilli) {
         super(scheduled);
         this.session = session;
         this.socketStatsManager = socketStatsManager;
+        this.checkIntervalMilli = checkIntervalMilli;
+    }
+
+    @Override
+    protected int getCheckIntervalMilli() {
+        return checkIntervalMilli;
     }
 
     @Override
@@ -54,6 +71,11 @@ public class DefaultSocketStats extends AbstractStats implements SocketStats {
         }
 
         SocketStatsResult socketStatsResult = socketStatsManager.getSocketStatsResult(localPort, remotePort);
+        // streams of a mux link share the socket of the link
+        Channel socket = channel instanceof MuxStreamChannel ? channel.parent() : channel;
+        if (socket instanceof EpollSocketChannel) {
+            socketStatsResult = withTcpInfo((EpollSocketChannel) socket, socketStatsResult);
+        }
         if (socketStatsResult == null) {
             logger.warn("[doTask] fail to get socket stat of channel:{}", ChannelUtil.getDesc(channel));
             result.set(EMPTY_ONE);
@@ -62,4 +84,50 @@ public class DefaultSocketStats extends AbstractStats implements SocketStats {
             result.set(socketStatsResult);
         }
     }
+
+    // tcp_info read from the socket directly, with state and queues from the socket stats manager if any
+    private SocketStatsResult withTcpInfo(EpollSocketChannel channel, SocketStatsResult socketStatsResult) {
+        String address;
+        if (socketStatsResult != null && !socketStatsResult.getResult().isEmpty()) {
+            address = socketStatsResult.getResult().get(0);
+        } else {
+            // queues unknown, left out rather than reported as empty
+            address = String.format("%s %s", ChannelUtil.getSimpleIpport(channel.localAddress()),
+                    ChannelUtil.getSimpleIpport(channel.remoteAddress()));
+        }
+        EpollTcpInfo tcpInfo;
+        try {
+            tcpInfo = channel.tcpInfo();
+        } catch (ChannelException e) {
+            // socket closed in between, keep what the socket stats manager has
+            logger.debug("[withTcpInfo] fail to get tcp info of channel:{}", ChannelUtil.getDesc(channel), e);
+            return socketStatsResult;
+        }
+        return new SocketStatsResult(Lists.newArrayList(address, formatTcpInfo(tcpInfo)));
+    }
+
+    // formatted as `ss -i` does, times in milliseconds
+    protected static String formatTcpInfo(EpollTcpInfo info) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(" wscale:%d,%d rto:%.0f rtt:%.3f/%.3f ato:%.0f mss:%d cwnd:%d ssthresh:%d",
+                info.sndWscale(), info.rcvWscale(), info.rto() / 1000.0, info.rtt() / 1000.0, info.rttvar() / 1000.0,
+                info.ato() / 1000.0, info.sndMss(), info.sndCwnd(), info.sndSsthresh()));
+        if (info.rtt() > 0) {
+            sb.append(" send ").append(formatBps(info.sndCwnd() * info.sndMss() * 8 * 1000000.0 / info.rtt()));
+        }
+        sb.append(String.format(" unacked:%d retrans:%d/%d lost:%d rcv_rtt:%.3f rcv_space:%d",
+                info.unacked(), info.retrans(), info.totalRetrans(), info.lost(), info.rcvRtt() / 1000.0, info.rcvSpace()));
+        return sb.toString();
+    }
+
+    private static String formatBps(double bps) {
+        if (bps > 1000000000) {
+            return String.format("%.1fGbps", bps / 1000000000);
+        } else if (bps > 1000000) {
+            return String.format("%.1fMbps", bps / 1000000);
+        } else if (bps > 1000) {
+            return String.format("%.1fKbps", bps / 1000);
+        }
+        return String.format("%.0fbps", bps);
+    }
 }
@@ -17,6 +17,12 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
@@ -36,6 +42,8 @@ public class DefaultSocketStatsManager implements SocketStatsManager {
 
     private static final String PROXY_SOCKET_STATS_COLLECT = "Proxy.Socket.State.Collect";
 
+    private static final String[] PROC_NET_TCP_FILES = {"/proc/net/tcp", "/proc/net/tcp6"};
+
     private static final Map<LocalRemotePort, SocketStatsResult> EMPTY_MAP = Maps.newHashMap();
 
     private AtomicReference<Map<LocalRemotePort, SocketStatsResult>> allSocketStatsResult =  new AtomicReference<>(EMPTY_MAP);
@@ -54,6 +62,10 @@ public class DefaultSocketStatsManager implements SocketStatsManager {
         future = scheduled.scheduleWithFixedDelay(new AbstractExceptionLogTask() {
             @Override
             protected void doRun() throws Exception {
+                if (resourceManager.getProxyConfig().isSocketStatsInProcess()) {
+                    allSocketStatsResult.set(readProcNetTcp());
+                    return;
+                }
                 new SocketStatsScriptExecutor()
                         .execute()
                         .addListener(commandFuture -> {
@@ -75,6 +87,24 @@ public class DefaultSocketStatsManager implements SocketStatsManager {
         }
     }
 
+    // read in process rather than forking ss, which parses megabytes of text with thousands of sockets
+    private Map<LocalRemotePort, SocketStatsResult> readProcNetTcp() {
+        Map<LocalRemotePort, SocketStatsResult> newSocketStats = Maps.newHashMap();
+        for (String file : PROC_NET_TCP_FILES) {
+            Path path = Paths.get(file);
+            if (!Files.isReadable(path)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(path)) {
+                newSocketStats.putAll(ProcNetTcpParser.parse(reader.lines()::iterator));
+            } catch (IOException | UncheckedIOException e) {
+                logger.warn("[readProcNetTcp] {}", file, e);
+                EventMonitor.DEFAULT.logEvent(PROXY_SOCKET_STATS_COLLECT, e.getMessage());
+            }
+        }
+        return newSocketStats;
+    }
+
     @VisibleForTesting
     Map<LocalRemotePort, SocketStatsResult>  analyzeRawSocketStats(List<String> rawSocketStats) {
         Map<LocalRemotePort, SocketStatsResult> newSocketStats = Maps.newHashMap();
@@ -3,7 +3,11 @@ package com.ctrip.xpipe.redis.proxy.monitor.stats.impl;
 import com.ctrip.xpipe.api.observer.Observable;
 import com.ctrip.xpipe.endpoint.HostPort;
 import com.ctrip.xpipe.redis.core.proxy.monitor.TunnelStatsResult;
+import com.ctrip.xpipe.redis.proxy.Session;
 import com.ctrip.xpipe.redis.proxy.Tunnel;
+import com.ctrip.xpipe.redis.proxy.handler.CompressStats;
+import com.ctrip.xpipe.redis.proxy.handler.ZstdDecoder;
+import com.ctrip.xpipe.redis.proxy.handler.ZstdEncoder;
 import com.ctrip.xpipe.redis.proxy.model.TunnelIdentity;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.TunnelStats;
 import com.ctrip.xpipe.redis.proxy.session.SESSION_TYPE;
@@ -12,6 +16,7 @@ import com.ctrip.xpipe.redis.proxy.tunnel.TunnelState;
 import com.ctrip.xpipe.redis.proxy.tunnel.TunnelStateChangeEvent;
 import com.ctrip.xpipe.redis.proxy.tunnel.state.*;
 import com.ctrip.xpipe.utils.ChannelUtil;
+import io.netty.channel.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +88,25 @@ public class DefaultTunnelStats implements TunnelStats {
         return new TunnelStatsResult(tunnel.identity().toString(), tunnel.getState().name(), getProtocolRecTime(), getProtocolSendTime(), frontend, backend);
     }
 
+    @Override
+    public CompressStats getCompressStats(SESSION_TYPE type) {
+        Channel channel = sessionChannel(type);
+        ZstdEncoder encoder = channel == null ? null : channel.pipeline().get(ZstdEncoder.class);
+        return encoder == null ? null : encoder.getCompressStats();
+    }
+
+    @Override
+    public CompressStats getDecompressStats(SESSION_TYPE type) {
+        Channel channel = sessionChannel(type);
+        ZstdDecoder decoder = channel == null ? null : channel.pipeline().get(ZstdDecoder.class);
+        return decoder == null ? null : decoder.getCompressStats();
+    }
+
+    private Channel sessionChannel(SESSION_TYPE type) {
+        Session session = type == SESSION_TYPE.FRONTEND ? tunnel.frontend() : tunnel.backend();
+        return session == null ? null : session.getChannel();
+    }
+
     @Override
     public void onEstablished() {
         sendTimestamp = System.currentTimeMillis();
@@ -0,0 +1,146 @@
+package com.ctrip.xpipe.redis.proxy.monitor.stats.impl;
+
+import com.ctrip.xpipe.redis.core.proxy.monitor.SocketStatsResult;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/**
+ * Parses established sockets of /proc/net/tcp and /proc/net/tcp6 into lines formatted as `ss -itnm` does,
+ * so that analyzers of socket stats work the same, without forking ss.
+ * Only queues, rto, cwnd and ssthresh are there, rtt and retrans are available from tcp_info only.
+ */
+class ProcNetTcpParser {
+
+    private static final String STATE_ESTABLISHED = "01";
+
+    // rto and ato are in clock ticks of USER_HZ
+    private static final int MILLIS_PER_TICK = 10;
+
+    private static final int MIN_COLUMNS = 10;
+
+    private static final int COLUMN_RTO = 12, COLUMN_CWND = 15, COLUMN_SSTHRESH = 16;
+
+    private ProcNetTcpParser() {
+    }
+
+    static Map<DefaultSocketStatsManager.LocalRemotePort, SocketStatsResult> parse(Iterable<String> lines) {
+        Map<DefaultSocketStatsManager.LocalRemotePort, SocketStatsResult> result = Maps.newHashMap();
+        // offsets of columns, the line is only cut where a field is needed
+        int[] starts = new int[COLUMN_SSTHRESH + 1], ends = new int[COLUMN_SSTHRESH + 1];
+        for(String line : lines) {
+            int columns = split(line, starts, ends);
+            if(columns < MIN_COLUMNS || !isEstablished(line, starts[3], ends[3])) {
+                continue;
+            }
+            int localColon = colon(line, starts[1], ends[1]), remoteColon = colon(line, starts[2], ends[2]),
+                    queuesColon = colon(line, starts[4], ends[4]);
+            if(localColon < 0 || remoteColon < 0 || queuesColon < 0) {
+                continue;
+            }
+            try {
+                int localPort = (int) parseLong(line, localColon + 1, ends[1], 16);
+                int remotePort = (int) parseLong(line, remoteColon + 1, ends[2], 16);
+                String address = String.format("ESTAB %d %d %s:%d %s:%d",
+                        parseLong(line, queuesColon + 1, ends[4], 16), parseLong(line, starts[4], queuesColon, 16),
+                        parseAddress(line.substring(starts[1], localColon)), localPort,
+                        parseAddress(line.substring(starts[2], remoteColon)), remotePort);
+
+                StringBuilder info = new StringBuilder();
+                if(columns > COLUMN_SSTHRESH) {
+                    info.append(" rto:").append(parseLong(line, starts[COLUMN_RTO], ends[COLUMN_RTO], 10) * MILLIS_PER_TICK)
+                            .append(" cwnd:").append(line, starts[COLUMN_CWND], ends[COLUMN_CWND])
+                            .append(" ssthresh:").append(line, starts[COLUMN_SSTHRESH], ends[COLUMN_SSTHRESH]);
+                }
+                result.put(new DefaultSocketStatsManager.LocalRemotePort(localPort, remotePort),
+                        new SocketStatsResult(Lists.newArrayList(address, info.toString())));
+            } catch (NumberFormatException e) {
+                // malformed line, skip it
+            }
+        }
+        return result;
+    }
+
+    // fills offsets of the leading columns separated by whitespaces, returns how many are found
+    private static int split(String line, int[] starts, int[] ends) {
+        int columns = 0, i = 0, length = line.length();
+        while(columns < starts.length) {
+            while(i < length && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if(i >= length) {
+                break;
+            }
+            starts[columns] = i;
+            while(i < length && !Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            ends[columns++] = i;
+        }
+        return columns;
+    }
+
+    private static boolean isEstablished(String line, int start, int end) {
+        return end - start == STATE_ESTABLISHED.length() && line.startsWith(STATE_ESTABLISHED, start);
+    }
+
+    private static int colon(String line, int start, int end) {
+        int index = line.indexOf(':', start);
+        return index < 0 || index >= end ? -1 : index;
+    }
+
+    private static long parseLong(String line, int start, int end, int radix) {
+        if(start >= end) {
+            throw new NumberFormatException("empty field");
+        }
+        long value = 0;
+        for(int i = start; i < end; i++) {
+            int digit = Character.digit(line.charAt(i), radix);
+            if(digit < 0) {
+                throw new NumberFormatException(line.substring(start, end));
+            }
+            value = value * radix + digit;
+        }
+        return value;
+    }
+
+    // words of 4 bytes in host byte order, i.e. little endian
+    static String parseAddress(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for(int word = 0; word < bytes.length / 4; word++) {
+            for(int i = 0; i < 4; i++) {
+                int offset = (word * 4 + 3 - i) * 2;
+                bytes[word * 4 + i] = (byte) Integer.parseInt(hex.substring(offset, offset + 2), 16);
+            }
+        }
+        if(bytes.length == 4) {
+            return ipv4(bytes, 0);
+        }
+        if(isIpv4Mapped(bytes)) {
+            return "::ffff:" + ipv4(bytes, 12);
+        }
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < bytes.length; i += 2) {
+            if(i > 0) {
+                sb.append(':');
+            }
+            sb.append(Integer.toHexString(((bytes[i] & 0xff) << 8) | (bytes[i + 1] & 0xff)));
+        }
+        return sb.toString();
+    }
+
+    private static boolean isIpv4Mapped(byte[] bytes) {
+        for(int i = 0; i < 10; i++) {
+            if(bytes[i] != 0) {
+                return false;
+            }
+        }
+        return bytes[10] == (byte) 0xff && bytes[11] == (byte) 0xff;
+    }
+
+    private static String ipv4(byte[] bytes, int offset) {
+        return String.format("%d.%d.%d.%d", bytes[offset] & 0xff, bytes[offset + 1] & 0xff,
+                bytes[offset + 2] & 0xff, bytes[offset + 3] & 0xff);
+    }
+}
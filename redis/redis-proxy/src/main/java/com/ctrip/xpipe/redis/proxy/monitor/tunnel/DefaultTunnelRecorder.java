@@ -2,6 +2,7 @@ package com.ctrip.xpipe.redis.proxy.monitor.tunnel;
 
 import com.ctrip.xpipe.redis.core.protocal.RedisProtocol;
 import com.ctrip.xpipe.redis.proxy.Tunnel;
+import com.ctrip.xpipe.redis.proxy.handler.CompressStats;
 import com.ctrip.xpipe.redis.proxy.monitor.TunnelRecorder;
 import com.ctrip.xpipe.redis.proxy.session.SESSION_TYPE;
 import org.slf4j.Logger;
@@ -30,6 +31,7 @@ public class DefaultTunnelRecorder implements TunnelRecorder {
         sb.append(tunnel.getTunnelMonitor().getFrontendSessionMonitor().getSocketStats().getSocketStatsResult().toString())
                 .append(RedisProtocol.CRLF);
         sb.append(tunnel.getTunnelMonitor().getFrontendSessionMonitor().getSessionStats().toString()).append(RedisProtocol.CRLF);
+        appendCompressStats(sb, tunnel, SESSION_TYPE.FRONTEND);
 
         sb.append(SESSION_TYPE.BACKEND.name()).append(RedisProtocol.CRLF);
         sb.append("outbound buffer: ")
@@ -38,8 +40,20 @@ public class DefaultTunnelRecorder implements TunnelRecorder {
         sb.append(tunnel.getTunnelMonitor().getBackendSessionMonitor().getSocketStats().getSocketStatsResult().toString())
                 .append(RedisProtocol.CRLF);
         sb.append(tunnel.getTunnelMonitor().getBackendSessionMonitor().getSessionStats().toString()).append(RedisProtocol.CRLF);
+        appendCompressStats(sb, tunnel, SESSION_TYPE.BACKEND);
 
         sb.append(LINE_SPLITTER).append(RedisProtocol.CRLF);
         logger.info("{}", sb.toString());
     }
+
+    private void appendCompressStats(StringBuilder sb, Tunnel tunnel, SESSION_TYPE type) {
+        CompressStats compressStats = tunnel.getTunnelMonitor().getTunnelStats().getCompressStats(type);
+        if(compressStats != null) {
+            sb.append("compress: ").append(compressStats.toString()).append(RedisProtocol.CRLF);
+        }
+        CompressStats decompressStats = tunnel.getTunnelMonitor().getTunnelStats().getDecompressStats(type);
+        if(decompressStats != null) {
+            sb.append("decompress: ").append(decompressStats.toString()).append(RedisProtocol.CRLF);
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.ctrip.xpipe.redis.proxy.mux;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Frame on a mux link: stream id(4 bytes), type(1 byte), payload length(4 bytes), then payload.
+ * OPEN carries the flow control window of the stream, WINDOW_UPDATE the bytes consumed by the receiver.
+ */
+public class MuxFrame {
+
+    public static final byte OPEN = 1;
+
+    public static final byte DATA = 2;
+
+    public static final byte CLOSE = 3;
+
+    public static final byte WINDOW_UPDATE = 4;
+
+    public static final int HEADER_LENGTH = 9;
+
+    // data larger is split, so that streams share the link fairly
+    public static final int MAX_PAYLOAD_LENGTH = 1 << 16;
+
+    private final int streamId;
+
+    private final byte type;
+
+    private final ByteBuf payload;
+
+    public MuxFrame(int streamId, byte type, ByteBuf payload) {
+        this.streamId = streamId;
+        this.type = type;
+        this.payload = payload;
+    }
+
+    public int getStreamId() {
+        return streamId;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public ByteBuf getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return window of OPEN, or increment of WINDOW_UPDATE
+     */
+    public int getWindow() {
+        return payload.getInt(payload.readerIndex());
+    }
+
+    public void release() {
+        payload.release();
+    }
+
+    public static ByteBuf header(ByteBufAllocator allocator, int streamId, byte type, int length) {
+        ByteBuf header = allocator.buffer(HEADER_LENGTH);
+        header.writeInt(streamId);
+        header.writeByte(type);
+        header.writeInt(length);
+        return header;
+    }
+
+    public static ByteBuf windowFrame(ByteBufAllocator allocator, int streamId, byte type, int window) {
+        ByteBuf frame = header(allocator, streamId, type, Integer.BYTES);
+        frame.writeInt(window);
+        return frame;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MuxFrame{stream:%d, type:%d, length:%d}", streamId, type, payload.readableBytes());
+    }
+}
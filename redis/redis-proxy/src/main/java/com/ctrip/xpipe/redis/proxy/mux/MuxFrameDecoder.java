@@ -0,0 +1,37 @@
+package com.ctrip.xpipe.redis.proxy.mux;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.util.List;
+
+import static com.ctrip.xpipe.redis.proxy.mux.MuxFrame.HEADER_LENGTH;
+import static com.ctrip.xpipe.redis.proxy.mux.MuxFrame.MAX_PAYLOAD_LENGTH;
+
+/**
+ * Decodes bytes of a mux link into {@link MuxFrame}, whose payload is a retained slice of the bytes read
+ */
+public class MuxFrameDecoder extends ByteToMessageDecoder {
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        while(in.readableBytes() >= HEADER_LENGTH) {
+            int index = in.readerIndex();
+            int length = in.getInt(index + HEADER_LENGTH - Integer.BYTES);
+            if(length < 0 || length > MAX_PAYLOAD_LENGTH) {
+                throw new CorruptedFrameException("mux frame length " + length + " exceeds " + MAX_PAYLOAD_LENGTH);
+            }
+            if(in.readableBytes() < HEADER_LENGTH + length) {
+                return;
+            }
+
+            int streamId = in.readInt();
+            byte type = in.readByte();
+            in.skipBytes(Integer.BYTES);
+            out.add(new MuxFrame(streamId, type, in.readRetainedSlice(length)));
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.ctrip.xpipe.redis.proxy.mux;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-lived connection between two proxies carrying many tunnels as {@link MuxStreamChannel}s.
+ * The connecting side writes {@link #MUX_PROTOCOL} first, then opens streams, the accepting side
+ * initializes streams opened by peer with its stream initializer, as if they were accepted sockets.
+ */
+public class MuxLink extends ChannelInboundHandlerAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MuxLink.class);
+
+    public static final String MUX_PROTOCOL = "+PROXY MUX\r\n";
+
+    public static final byte[] MUX_PROTOCOL_BYTES = MUX_PROTOCOL.getBytes(StandardCharsets.US_ASCII);
+
+    // window of streams opened by this side
+    private final int window;
+
+    // null if streams opened by peer are refused
+    private final ChannelHandler remoteStreamInitializer;
+
+    private final Map<Integer, MuxStreamChannel> streams = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextStreamId = new AtomicInteger(1);
+
+    private volatile Channel channel;
+
+    // null if ready once added to the channel
+    private volatile ChannelFuture readyFuture;
+
+    /**
+     * Link of the connecting side, which opens streams
+     */
+    public MuxLink(int window) {
+        this.window = window;
+        this.remoteStreamInitializer = null;
+    }
+
+    /**
+     * Link of the accepting side, whose streams are opened by peer
+     */
+    public MuxLink(ChannelHandler remoteStreamInitializer) {
+        this.window = 0;
+        this.remoteStreamInitializer = remoteStreamInitializer;
+    }
+
+    /**
+     * Connects by bootstrap, whose handler is expected to add this link after the frame decoder
+     */
+    public ChannelFuture connect(Bootstrap bootstrap, String host, int port) {
+        ChannelFuture future = bootstrap.connect(host, port);
+        this.channel = future.channel();
+        future.addListener((ChannelFutureListener) f -> {
+            if(f.isSuccess()) {
+                f.channel().writeAndFlush(Unpooled.wrappedBuffer(MUX_PROTOCOL_BYTES));
+            }
+        });
+        this.readyFuture = future;
+        return future;
+    }
+
+    /**
+     * @return future of the stream registered, with initializer added to its pipeline
+     */
+    public ChannelFuture openStream(ChannelHandler initializer) {
+        ChannelFuture ready = readyFuture;
+        MuxStreamChannel stream = new MuxStreamChannel(this, nextStreamId.getAndAdd(2), window, true);
+        stream.pipeline().addLast(initializer);
+        ChannelPromise promise = new DefaultChannelPromise(stream, channel.eventLoop());
+        if(null == ready) {
+            register(stream, promise);
+        } else {
+            ready.addListener((ChannelFutureListener) f -> {
+                if(f.isSuccess()) {
+                    register(stream, promise);
+                } else {
+                    promise.setFailure(f.cause());
+                }
+            });
+        }
+        return promise;
+    }
+
+    private void register(MuxStreamChannel stream, ChannelPromise promise) {
+        if(!channel.isActive()) {
+            promise.setFailure(new ChannelException("mux link inactive: " + channel));
+            return;
+        }
+        streams.put(stream.streamId(), stream);
+        channel.eventLoop().register(promise);
+    }
+
+    public Channel channel() {
+        return channel;
+    }
+
+    public boolean isClosed() {
+        Channel current = channel;
+        ChannelFuture ready = readyFuture;
+        if(null != ready && !ready.isDone()) {
+            return false;
+        }
+        return null == current || !current.isActive();
+    }
+
+    public int streamCount() {
+        return streams.size();
+    }
+
+    void writeOpen(int streamId, int window) {
+        channel.writeAndFlush(MuxFrame.windowFrame(channel.alloc(), streamId, MuxFrame.OPEN, window));
+    }
+
+    void writeData(int streamId, ByteBuf data) {
+        channel.write(MuxFrame.header(channel.alloc(), streamId, MuxFrame.DATA, data.readableBytes()));
+        channel.write(data);
+    }
+
+    void writeWindowUpdate(int streamId, int increment) {
+        channel.writeAndFlush(MuxFrame.windowFrame(channel.alloc(), streamId, MuxFrame.WINDOW_UPDATE, increment));
+    }
+
+    void flush() {
+        channel.flush();
+    }
+
+    void removeStream(MuxStreamChannel stream, boolean notifyPeer) {
+        streams.remove(stream.streamId(), stream);
+        if(notifyPeer && channel.isActive()) {
+            channel.writeAndFlush(MuxFrame.header(channel.alloc(), stream.streamId(), MuxFrame.CLOSE, 0));
+        }
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.channel = ctx.channel();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if(!(msg instanceof MuxFrame)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        MuxFrame frame = (MuxFrame) msg;
+        MuxStreamChannel stream = streams.get(frame.getStreamId());
+        switch (frame.getType()) {
+            case MuxFrame.DATA:
+                if(null != stream) {
+                    stream.onData(frame.getPayload());
+                    return;
+                }
+                break;
+            case MuxFrame.OPEN:
+                onStreamOpened(frame.getStreamId(), frame.getWindow());
+                break;
+            case MuxFrame.WINDOW_UPDATE:
+                if(null != stream) {
+                    stream.onWindowUpdate(frame.getWindow());
+                }
+                break;
+            case MuxFrame.CLOSE:
+                if(null != stream) {
+                    stream.onPeerClosed();
+                }
+                break;
+            default:
+                logger.warn("[channelRead][unknown frame] {}, {}", frame, channel);
+        }
+        frame.release();
+    }
+
+    private void onStreamOpened(int streamId, int streamWindow) {
+        if(null == remoteStreamInitializer || streams.containsKey(streamId)) {
+            logger.warn("[onStreamOpened][refuse] {}, {}", streamId, channel);
+            channel.writeAndFlush(MuxFrame.header(channel.alloc(), streamId, MuxFrame.CLOSE, 0));
+            return;
+        }
+        MuxStreamChannel stream = new MuxStreamChannel(this, streamId, streamWindow, false);
+        stream.pipeline().addLast(remoteStreamInitializer);
+        streams.put(streamId, stream);
+        channel.eventLoop().register(stream);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        logger.info("[channelInactive] {}, streams: {}", channel, streams.size());
+        for(MuxStreamChannel stream : new ArrayList<>(streams.values())) {
+            stream.onLinkInactive();
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        logger.error("[exceptionCaught][close] {}", channel, cause);
+        ctx.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MuxLink{%s, streams:%d}", channel, streams.size());
+    }
+}
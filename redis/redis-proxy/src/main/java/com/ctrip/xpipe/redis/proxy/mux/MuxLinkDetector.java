@@ -0,0 +1,59 @@
+package com.ctrip.xpipe.redis.proxy.mux;
+
+import com.ctrip.xpipe.redis.proxy.handler.ProxyProtocolDecoder;
+import com.ctrip.xpipe.redis.proxy.handler.ProxyProtocolHandler;
+import com.ctrip.xpipe.utils.ChannelUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static com.ctrip.xpipe.redis.proxy.mux.MuxLink.MUX_PROTOCOL_BYTES;
+
+/**
+ * Installed ahead of {@link ProxyProtocolDecoder} on accepted channels. A channel starting with
+ * {@link MuxLink#MUX_PROTOCOL} is turned into a mux link, whose streams are initialized by streamInitializer,
+ * others are left to the proxy protocol handlers as before.
+ */
+public class MuxLinkDetector extends ByteToMessageDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(MuxLinkDetector.class);
+
+    private final ChannelHandler streamInitializer;
+
+    public MuxLinkDetector(ChannelHandler streamInitializer) {
+        this.streamInitializer = streamInitializer;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        int length = Math.min(in.readableBytes(), MUX_PROTOCOL_BYTES.length);
+        for(int i = 0; i < length; i++) {
+            if(in.getByte(in.readerIndex() + i) != MUX_PROTOCOL_BYTES[i]) {
+                ctx.pipeline().remove(this);
+                return;
+            }
+        }
+        if(length < MUX_PROTOCOL_BYTES.length) {
+            return;
+        }
+
+        in.skipBytes(MUX_PROTOCOL_BYTES.length);
+        logger.info("[decode][mux link] {}", ChannelUtil.getDesc(ctx.channel()));
+        ChannelPipeline pipeline = ctx.pipeline();
+        if(pipeline.get(ProxyProtocolDecoder.class) != null) {
+            pipeline.remove(ProxyProtocolDecoder.class);
+        }
+        if(pipeline.get(ProxyProtocolHandler.class) != null) {
+            pipeline.remove(ProxyProtocolHandler.class);
+        }
+        pipeline.addLast(new MuxFrameDecoder(), new MuxLink(streamInitializer));
+        pipeline.remove(this);
+    }
+
+}
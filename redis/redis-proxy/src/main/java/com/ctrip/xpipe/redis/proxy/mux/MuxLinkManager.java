@@ -0,0 +1,108 @@
+package com.ctrip.xpipe.redis.proxy.mux;
+
+import com.ctrip.xpipe.proxy.ProxyEndpoint;
+import com.ctrip.xpipe.redis.core.proxy.handler.NettySslHandlerFactory;
+import com.ctrip.xpipe.redis.proxy.config.ProxyConfig;
+import com.ctrip.xpipe.redis.proxy.tunnel.TunnelSplicer;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ctrip.xpipe.redis.proxy.DefaultProxyServer.WRITE_HIGH_WATER_MARK;
+import static com.ctrip.xpipe.redis.proxy.DefaultProxyServer.WRITE_LOW_WATER_MARK;
+
+/**
+ * Keeps a few mux links to each remote proxy, and opens streams on them round robin.
+ * A link closed is reconnected by the next stream opened on it.
+ */
+public class MuxLinkManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(MuxLinkManager.class);
+
+    private final ProxyConfig config;
+
+    private final NettySslHandlerFactory sslHandlerFactory;
+
+    private final EventLoopGroup eventLoopGroup;
+
+    private final Map<String, MuxLink[]> links = new ConcurrentHashMap<>();
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public MuxLinkManager(ProxyConfig config, NettySslHandlerFactory sslHandlerFactory, EventLoopGroup eventLoopGroup) {
+        this.config = config;
+        this.sslHandlerFactory = sslHandlerFactory;
+        this.eventLoopGroup = eventLoopGroup;
+    }
+
+    public ChannelFuture openStream(ProxyEndpoint endpoint, ChannelHandler initializer) {
+        return getOrConnect(endpoint).openStream(initializer);
+    }
+
+    private MuxLink getOrConnect(ProxyEndpoint endpoint) {
+        MuxLink[] endpointLinks = links.computeIfAbsent(endpoint.getUri(),
+                uri -> new MuxLink[Math.max(1, config.getMuxLinksPerEndpoint())]);
+        int index = Math.abs(counter.getAndIncrement() % endpointLinks.length);
+        synchronized (endpointLinks) {
+            MuxLink link = endpointLinks[index];
+            if(link == null || link.isClosed()) {
+                link = connect(endpoint);
+                endpointLinks[index] = link;
+            }
+            return link;
+        }
+    }
+
+    private MuxLink connect(ProxyEndpoint endpoint) {
+        logger.info("[connect] {}", endpoint);
+        MuxLink link = new MuxLink(config.getMuxStreamWindowBytes());
+        Bootstrap b = new Bootstrap();
+        b.group(eventLoopGroup)
+                .channel(TunnelSplicer.isEpoll(eventLoopGroup) ? EpollSocketChannel.class : NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 7 * 1000)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(WRITE_LOW_WATER_MARK, WRITE_HIGH_WATER_MARK))
+                .option(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(config.getFixedRecvBufferSize()))
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ChannelPipeline p = ch.pipeline();
+                        if(endpoint.isSslEnabled()) {
+                            p.addLast(sslHandlerFactory.createSslHandler(ch));
+                        }
+                        p.addLast(new MuxFrameDecoder());
+                        p.addLast(link);
+                    }
+                });
+        link.connect(b, endpoint.getHost(), endpoint.getPort()).addListener((ChannelFutureListener) future -> {
+            if(!future.isSuccess()) {
+                logger.error("[connect][fail] {}", endpoint, future.cause());
+            }
+        });
+        return link;
+    }
+
+    public void release() {
+        for(MuxLink[] endpointLinks : links.values()) {
+            synchronized (endpointLinks) {
+                for(MuxLink link : endpointLinks) {
+                    if(link != null && link.channel() != null) {
+                        link.channel().close();
+                    }
+                }
+            }
+        }
+        links.clear();
+    }
+}
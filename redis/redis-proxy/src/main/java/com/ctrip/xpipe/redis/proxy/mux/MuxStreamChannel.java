@@ -0,0 +1,244 @@
+package com.ctrip.xpipe.redis.proxy.mux;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static com.ctrip.xpipe.redis.proxy.DefaultProxyServer.WRITE_HIGH_WATER_MARK;
+import static com.ctrip.xpipe.redis.proxy.DefaultProxyServer.WRITE_LOW_WATER_MARK;
+
+/**
+ * A tunnel carried by a {@link MuxLink}, which sessions use as a socket channel.
+ * Bytes written are sent as DATA frames while the send window allows, the rest stays in the outbound buffer,
+ * so the channel turns unwritable like a socket whose peer doesn't read.
+ * Bytes received are fired when read, and the window is granted back to the peer only then,
+ * so a stream not reading, i.e. auto read off, stops its peer stream sending without blocking others on the link.
+ * All methods run on the event loop of the link.
+ */
+public class MuxStreamChannel extends AbstractChannel {
+
+    private static final ChannelMetadata METADATA = new ChannelMetadata(false);
+
+    private final MuxLink link;
+
+    private final int streamId;
+
+    // opened by this side, which sends the OPEN frame
+    private final boolean local;
+
+    private final int window;
+
+    private final ChannelConfig config;
+
+    private final Queue<ByteBuf> inbound = new ArrayDeque<>();
+
+    private int sendWindow;
+
+    // bytes read but not granted to peer yet
+    private int consumed;
+
+    private boolean readPending;
+
+    private boolean peerClosed;
+
+    private volatile boolean open = true;
+
+    private volatile boolean active;
+
+    public MuxStreamChannel(MuxLink link, int streamId, int window, boolean local) {
+        super(link.channel());
+        this.link = link;
+        this.streamId = streamId;
+        this.window = window;
+        this.sendWindow = window;
+        this.local = local;
+        this.config = new DefaultChannelConfig(this)
+                .setWriteBufferWaterMark(new WriteBufferWaterMark(WRITE_LOW_WATER_MARK, WRITE_HIGH_WATER_MARK));
+    }
+
+    public int streamId() {
+        return streamId;
+    }
+
+    void onData(ByteBuf data) {
+        if(!open) {
+            data.release();
+            return;
+        }
+        inbound.add(data);
+        if(readPending) {
+            readInbound();
+        }
+    }
+
+    void onWindowUpdate(int increment) {
+        sendWindow += increment;
+        ((MuxStreamUnsafe) unsafe()).flushNow();
+    }
+
+    void onPeerClosed() {
+        peerClosed = true;
+        // data received before is read first
+        if(inbound.isEmpty()) {
+            unsafe().close(unsafe().voidPromise());
+        }
+    }
+
+    void onLinkInactive() {
+        peerClosed = true;
+        unsafe().close(unsafe().voidPromise());
+    }
+
+    private void readInbound() {
+        ChannelPipeline pipeline = pipeline();
+        int read = 0;
+        ByteBuf data;
+        while(open && (data = inbound.poll()) != null) {
+            read += data.readableBytes();
+            pipeline.fireChannelRead(data);
+        }
+        pipeline.fireChannelReadComplete();
+        readPending = config.isAutoRead();
+
+        if(!open) {
+            return;
+        }
+        consumed += read;
+        if(consumed >= window / 2) {
+            link.writeWindowUpdate(streamId, consumed);
+            consumed = 0;
+        }
+        if(peerClosed && inbound.isEmpty()) {
+            unsafe().close(unsafe().voidPromise());
+        }
+    }
+
+    @Override
+    protected AbstractUnsafe newUnsafe() {
+        return new MuxStreamUnsafe();
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop == link.channel().eventLoop();
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return link.channel().localAddress();
+    }
+
+    @Override
+    protected SocketAddress remoteAddress0() {
+        return link.channel().remoteAddress();
+    }
+
+    @Override
+    protected void doRegister() {
+        active = true;
+        if(local) {
+            link.writeOpen(streamId, window);
+        }
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) {
+        throw new UnsupportedOperationException("bind of mux stream");
+    }
+
+    @Override
+    protected void doDisconnect() {
+        doClose();
+    }
+
+    @Override
+    protected void doClose() {
+        if(!open) {
+            return;
+        }
+        open = false;
+        active = false;
+        ByteBuf data;
+        while((data = inbound.poll()) != null) {
+            data.release();
+        }
+        link.removeStream(this, !peerClosed);
+    }
+
+    @Override
+    protected void doBeginRead() {
+        readPending = true;
+        if(!inbound.isEmpty()) {
+            readInbound();
+        }
+    }
+
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) {
+        boolean written = false;
+        Object msg;
+        while((msg = in.current()) != null) {
+            if(!(msg instanceof ByteBuf)) {
+                in.remove(new UnsupportedOperationException("unsupported message type: " + msg.getClass().getName()));
+                continue;
+            }
+            ByteBuf byteBuf = (ByteBuf) msg;
+            if(!byteBuf.isReadable()) {
+                in.remove();
+                continue;
+            }
+            // left in outbound buffer until peer grants window
+            if(sendWindow <= 0) {
+                break;
+            }
+            int length = Math.min(Math.min(byteBuf.readableBytes(), sendWindow), MuxFrame.MAX_PAYLOAD_LENGTH);
+            link.writeData(streamId, byteBuf.retainedSlice(byteBuf.readerIndex(), length));
+            sendWindow -= length;
+            in.removeBytes(length);
+            written = true;
+        }
+        if(written) {
+            link.flush();
+        }
+    }
+
+    @Override
+    public ChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public boolean isActive() {
+        return open && active;
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return METADATA;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[mux stream %d]%s", streamId, link.channel());
+    }
+
+    private class MuxStreamUnsafe extends AbstractUnsafe {
+
+        @Override
+        public void connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
+            promise.setFailure(new UnsupportedOperationException("connect of mux stream"));
+        }
+
+        void flushNow() {
+            flush0();
+        }
+    }
+}
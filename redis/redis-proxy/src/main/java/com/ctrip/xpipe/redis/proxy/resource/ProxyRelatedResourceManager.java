@@ -11,11 +11,19 @@ import com.ctrip.xpipe.redis.core.proxy.endpoint.*;
 import com.ctrip.xpipe.redis.core.proxy.handler.NettySslHandlerFactory;
 import com.ctrip.xpipe.redis.proxy.config.ProxyConfig;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.SocketStatsManager;
+import com.ctrip.xpipe.redis.proxy.mux.MuxLinkManager;
+import com.ctrip.xpipe.utils.FastThreadLocalThreadFactory;
+import com.ctrip.xpipe.utils.OsUtils;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -53,6 +61,10 @@ public class ProxyRelatedResourceManager implements ResourceManager {
 
     private volatile SimpleKeyedObjectPool<Endpoint, NettyClient> keyedObjectPool;
 
+    private volatile MuxLinkManager muxLinkManager;
+
+    private EventLoopGroup muxEventLoopGroup;
+
     @Override
     public NettySslHandlerFactory getClientSslHandlerFactory() {
         return clientSslHandlerFactory;
@@ -90,6 +102,42 @@ public class ProxyRelatedResourceManager implements ResourceManager {
         return keyedObjectPool;
     }
 
+    @Override
+    public MuxLinkManager getMuxLinkManager() {
+        if(muxLinkManager == null) {
+            synchronized (this) {
+                if(muxLinkManager == null) {
+                    muxEventLoopGroup = createMuxEventLoopGroup();
+                    muxLinkManager = new MuxLinkManager(config, clientSslHandlerFactory, muxEventLoopGroup);
+                }
+            }
+        }
+        return muxLinkManager;
+    }
+
+    // same transport choice as DefaultProxyServer, so mux links can be spliced like other sessions
+    private EventLoopGroup createMuxEventLoopGroup() {
+        int threads = Math.min(OsUtils.getCpuCount(), 4);
+        if(config.isNativeTransportEnabled() && Epoll.isAvailable()) {
+            return new EpollEventLoopGroup(threads, FastThreadLocalThreadFactory.create("mux-link"));
+        }
+        return new NioEventLoopGroup(threads, FastThreadLocalThreadFactory.create("mux-link"));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        synchronized (this) {
+            if(muxLinkManager != null) {
+                muxLinkManager.release();
+                muxLinkManager = null;
+            }
+            if(muxEventLoopGroup != null) {
+                muxEventLoopGroup.shutdownGracefully();
+                muxEventLoopGroup = null;
+            }
+        }
+    }
+
     @Override
     public ProxyEndpointSelector createProxyEndpointSelector(ProxyConnectProtocol protocol) {
         ProxyEndpointSelector selector = new DefaultProxyEndpointSelector(protocol.nextEndpoints(), endpointManager);
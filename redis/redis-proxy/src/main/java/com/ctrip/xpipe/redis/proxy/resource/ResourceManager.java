@@ -7,6 +7,7 @@ import com.ctrip.xpipe.redis.core.proxy.ProxyResourceManager;
 import com.ctrip.xpipe.redis.core.proxy.handler.NettySslHandlerFactory;
 import com.ctrip.xpipe.redis.proxy.config.ProxyConfig;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.SocketStatsManager;
+import com.ctrip.xpipe.redis.proxy.mux.MuxLinkManager;
 
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -28,4 +29,6 @@ public interface ResourceManager extends ProxyResourceManager {
     SocketStatsManager getSocketStatsManager();
 
     SimpleKeyedObjectPool<Endpoint, NettyClient> getKeyedObjectPool();
+
+    MuxLinkManager getMuxLinkManager();
 }
@@ -1,6 +1,7 @@
 package com.ctrip.xpipe.redis.proxy.session;
 
 import com.ctrip.xpipe.api.monitor.EventMonitor;
+import com.ctrip.xpipe.api.proxy.CompressAlgorithm;
 import com.ctrip.xpipe.concurrent.AbstractExceptionLogTask;
 import com.ctrip.xpipe.proxy.ProxyEndpoint;
 import com.ctrip.xpipe.redis.core.proxy.endpoint.ProxyEndpointSelector;
@@ -14,6 +15,7 @@ import com.ctrip.xpipe.redis.proxy.resource.ResourceManager;
 import com.ctrip.xpipe.redis.proxy.session.state.SessionClosed;
 import com.ctrip.xpipe.redis.proxy.session.state.SessionEstablished;
 import com.ctrip.xpipe.redis.proxy.session.state.SessionInit;
+import com.ctrip.xpipe.redis.proxy.tunnel.TunnelSplicer;
 import com.ctrip.xpipe.utils.ChannelUtil;
 import com.ctrip.xpipe.utils.VisibleForTesting;
 import io.netty.bootstrap.Bootstrap;
@@ -21,6 +23,9 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.logging.LogLevel;
@@ -94,7 +99,8 @@ public class DefaultBackendSession extends AbstractSession implements BackendSes
                     onChannelEstablished(future.channel());
                 } else {
                     logger.error("[tryConnect] fail to connect: {}, {}", getSessionMeta(), future.cause());
-                    future.channel().eventLoop()
+                    // stream failed to open on mux link is not registered to any event loop
+                    nioEventLoopGroup
                             .schedule(new AbstractExceptionLogTask() {
                                 @Override
                                 protected void doRun() throws Exception {
@@ -107,10 +113,26 @@ public class DefaultBackendSession extends AbstractSession implements BackendSes
     }
 
     private ChannelFuture initChannel(ProxyEndpoint endpoint) {
-        Bootstrap b = new Bootstrap();
         ProxyConfig config = resourceManager.getProxyConfig();
+        if(config.isMuxEnabled() && endpoint.isProxyProtocolSupported()) {
+            return resourceManager.getMuxLinkManager().openStream(endpoint, new ChannelInitializer<Channel>() {
+                @Override
+                public void initChannel(Channel ch) {
+                    initPipeline(ch.pipeline(), config);
+                }
+            });
+        }
+
+        Bootstrap b = new Bootstrap();
+        if(TunnelSplicer.isEpoll(nioEventLoopGroup)) {
+            b.channel(EpollSocketChannel.class);
+            if(config.isSpliceEnabled()) {
+                b.option(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED);
+            }
+        } else {
+            b.channel(NioSocketChannel.class);
+        }
         b.group(nioEventLoopGroup)
-                .channel(NioSocketChannel.class)
                 .option(ChannelOption.TCP_NODELAY, true)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 7 * 1000) //7 sec timeout, to avoid forever waiting
                 .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
@@ -123,14 +145,18 @@ public class DefaultBackendSession extends AbstractSession implements BackendSes
                         if(endpoint.isSslEnabled()) {
                             p.addLast(sslHandlerFactory.createSslHandler(ch));
                         }
-                        p.addLast(loggingHandler);
-                        p.addLast(new SessionTrafficReporter(trafficReportIntervalMillis, config::shouldReportTraffic, DefaultBackendSession.this));
-                        p.addLast(BACKEND_SESSION_HANDLER, new BackendSessionHandler(tunnel()));
+                        initPipeline(p, config);
                     }
                 });
         return b.connect(endpoint.getHost(), endpoint.getPort());
     }
 
+    private void initPipeline(ChannelPipeline p, ProxyConfig config) {
+        p.addLast(loggingHandler);
+        p.addLast(new SessionTrafficReporter(trafficReportIntervalMillis, config::shouldReportTraffic, DefaultBackendSession.this));
+        p.addLast(BACKEND_SESSION_HANDLER, new BackendSessionHandler(tunnel()));
+    }
+
     @Override
     public void sendAfterProtocol(ByteBuf byteBuf) throws Exception {
         if(sendAfterProtocol == null) {
@@ -147,10 +173,12 @@ public class DefaultBackendSession extends AbstractSession implements BackendSes
             getChannel().writeAndFlush(tunnel().getProxyProtocol().output());
         }
         ProxyConfig config = resourceManager.getProxyConfig();
-        if(config.isCompressEnabled() && tunnel().getProxyProtocol().isNextHopProxy()) {
-            logger.info("Backend compress codec installed: {}", ChannelUtil.getDesc(channel));
-            channel.pipeline().addBefore(BACKEND_SESSION_HANDLER, BACKEND_COMPRESS_DECODER, config.getCompressDecoder());
-            channel.pipeline().addBefore(BACKEND_SESSION_HANDLER, BACKEND_COMPRESS_ENCODER, config.getCompressEncoder());
+        if(config.isCompressEnabled() && tunnel().getProxyProtocol().isNextHopProxy()
+                && tunnel().getProxyProtocol().isCompressed()) {
+            CompressAlgorithm algorithm = tunnel().getProxyProtocol().getCompressAlgorithm();
+            logger.info("Backend compress codec installed: {}, {}", ChannelUtil.getDesc(channel), algorithm.version());
+            channel.pipeline().addBefore(BACKEND_SESSION_HANDLER, BACKEND_COMPRESS_DECODER, config.getCompressDecoder(algorithm));
+            channel.pipeline().addBefore(BACKEND_SESSION_HANDLER, BACKEND_COMPRESS_ENCODER, config.getCompressEncoder(algorithm));
         }
         if(sendAfterProtocol != null) {
             while(!sendAfterProtocol.isEmpty()) {
@@ -260,11 +260,11 @@ public class DefaultTunnel extends AbstractLifecycleObservable implements Tunnel
     private void installCompressCodecIfNecessary(ChannelPipeline pipeline) {
         if(protocol.isCompressed()) {
             CompressAlgorithm algorithm = protocol.getCompressAlgorithm();
-            if(algorithm.getType().equals(config.getCompressAlgorithm().getType())
-                    && algorithm.version().equalsIgnoreCase(config.getCompressAlgorithm().version())) {
-                logger.info("Frontend compress codec installed: {}", ChannelUtil.getDesc(pipeline.channel()));
-                pipeline.addLast(config.getCompressDecoder());
-                pipeline.addLast(config.getCompressEncoder());
+            // follow the version requested by previous proxy, so that versions could be rolled out proxy by proxy
+            if(config.isCompressAlgorithmSupported(algorithm)) {
+                logger.info("Frontend compress codec installed: {}, {}", ChannelUtil.getDesc(pipeline.channel()), algorithm.version());
+                pipeline.addLast(config.getCompressDecoder(algorithm));
+                pipeline.addLast(config.getCompressEncoder(algorithm));
             } else {
                 throw new ProxyProtocolParseException(String.format("compress algorithm not matched %s, %s", algorithm.getType(), algorithm.version()));
             }
@@ -274,8 +274,13 @@ public class DefaultTunnel extends AbstractLifecycleObservable implements Tunnel
     @VisibleForTesting
     protected void addCompressOptionToProtocolIfNeeded() {
         if(config.isCompressEnabled() && protocol.isNextHopProxy()) {
+            CompressAlgorithm algorithm = config.getCompressAlgorithm();
+            if(!config.isCompressAlgorithmSupported(algorithm)) {
+                logger.warn("Content Compress not supported, skip: {} {}", algorithm.getType(), algorithm.version());
+                return;
+            }
             logger.info("Content Compress add to protocol:{}", protocol.toString());
-            protocol.addCompression(config.getCompressAlgorithm());
+            protocol.addCompression(algorithm);
         }
     }
 
@@ -303,6 +308,9 @@ public class DefaultTunnel extends AbstractLifecycleObservable implements Tunnel
         @Override
         public void onEstablished() {
             identity.setBackend(backend.getChannel());
+            if(config.isSpliceEnabled()) {
+                TunnelSplicer.spliceIfPossible(frontend.getChannel(), backend.getChannel());
+            }
             frontend.markReadable();
         }
 
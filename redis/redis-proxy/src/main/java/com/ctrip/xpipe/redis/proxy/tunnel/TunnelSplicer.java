@@ -0,0 +1,96 @@
+package com.ctrip.xpipe.redis.proxy.tunnel;
+
+import com.ctrip.xpipe.utils.ChannelUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.AbstractEpollStreamChannel;
+import io.netty.channel.epoll.EpollChannelConfig;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.ssl.SslHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Forwards bytes between frontend and backend sockets of a tunnel by splice(2), without copying them into the JVM.
+ * Spliced bytes skip the pipelines, so it applies only when both channels are epoll channels in level-triggered mode
+ * on the same event loop, and no TLS or compress codec is installed on either.
+ * Bytes read before splicing goes through the pipelines as before.
+ */
+public class TunnelSplicer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TunnelSplicer.class);
+
+    private TunnelSplicer() {
+    }
+
+    /**
+     * @return true if splicing started in both directions
+     */
+    public static boolean spliceIfPossible(Channel frontend, Channel backend) {
+        if(!canSplice(frontend) || !canSplice(backend) || frontend.eventLoop() != backend.eventLoop()) {
+            return false;
+        }
+        logger.info("[spliceIfPossible] {} <-> {}", ChannelUtil.getDesc(frontend), ChannelUtil.getDesc(backend));
+        splice((AbstractEpollStreamChannel) frontend, (AbstractEpollStreamChannel) backend);
+        splice((AbstractEpollStreamChannel) backend, (AbstractEpollStreamChannel) frontend);
+        return true;
+    }
+
+    public static boolean canSplice(Channel channel) {
+        if(!(channel instanceof AbstractEpollStreamChannel) || !channel.isActive()) {
+            return false;
+        }
+        if(((EpollChannelConfig) channel.config()).getEpollMode() != EpollMode.LEVEL_TRIGGERED) {
+            return false;
+        }
+        for(Map.Entry<String, ChannelHandler> entry : channel.pipeline()) {
+            ChannelHandler handler = entry.getValue();
+            if(handler instanceof SslHandler || handler instanceof ByteToMessageDecoder
+                    || handler instanceof MessageToByteEncoder) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isEpoll(EventLoopGroup group) {
+        return group instanceof EpollEventLoopGroup
+                || (group instanceof EventLoop && ((EventLoop) group).parent() instanceof EpollEventLoopGroup);
+    }
+
+    private static void splice(AbstractEpollStreamChannel src, AbstractEpollStreamChannel dst) {
+        if(!dst.eventLoop().inEventLoop()) {
+            dst.eventLoop().execute(() -> splice(src, dst));
+            return;
+        }
+        if(!src.isActive() || !dst.isActive()) {
+            return;
+        }
+        // spliced bytes go to the socket directly, start after those written through the pipeline are all sent
+        ChannelOutboundBuffer outboundBuffer = dst.unsafe().outboundBuffer();
+        if(outboundBuffer != null && !outboundBuffer.isEmpty()) {
+            dst.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(future -> {
+                if(future.isSuccess()) {
+                    splice(src, dst);
+                }
+            });
+            return;
+        }
+        src.spliceTo(dst, Integer.MAX_VALUE).addListener(future -> {
+            if(!future.isSuccess() && src.isActive() && dst.isActive()) {
+                logger.warn("[splice][fail] {} -> {}, close", ChannelUtil.getDesc(src), ChannelUtil.getDesc(dst), future.cause());
+                src.close();
+            }
+        });
+    }
+
+}
@@ -13,7 +13,9 @@ import com.ctrip.xpipe.redis.proxy.monitor.stats.DefaultSocketStatsTest;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.impl.DefaultPingStatsManagerTest;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.impl.DefaultPingStatsTest;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.impl.DefaultSocketStatsManagerTest;
+import com.ctrip.xpipe.redis.proxy.monitor.stats.impl.ProcNetTcpParserTest;
 import com.ctrip.xpipe.redis.proxy.monitor.tunnel.DefaultTunnelMonitorTest;
+import com.ctrip.xpipe.redis.proxy.mux.MuxLinkTest;
 import com.ctrip.xpipe.redis.proxy.session.DefaultBackendSessionTest;
 import com.ctrip.xpipe.redis.proxy.session.DefaultFrontendSessionTest;
 import com.ctrip.xpipe.redis.proxy.session.state.SessionClosedTest;
@@ -23,6 +25,7 @@ import com.ctrip.xpipe.redis.proxy.session.state.SessionInitTest;
 import com.ctrip.xpipe.redis.proxy.tunnel.BothSessionTryWriteTest;
 import com.ctrip.xpipe.redis.proxy.tunnel.DefaultTunnelManagerTest;
 import com.ctrip.xpipe.redis.proxy.tunnel.DefaultTunnelTest;
+import com.ctrip.xpipe.redis.proxy.tunnel.TunnelSplicerTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -40,6 +43,8 @@ import org.junit.runners.Suite;
 
         ZstdEncoderTest.class,
         ZstdDecoderTest.class,
+        ZstdDictionaryTest.class,
+        AdaptiveCompressPolicyTest.class,
 
         AbstractSessionNettyHandlerTest.class,
         FrontendSessionNettyHandlerTest.class,
@@ -51,6 +56,7 @@ import org.junit.runners.Suite;
         DefaultFrontendSessionTest.class,
 
         DefaultSocketStatsManagerTest.class,
+        ProcNetTcpParserTest.class,
         DefaultSocketStatsTest.class,
 
         TestCloseOnBothSide.class,
@@ -68,6 +74,8 @@ import org.junit.runners.Suite;
         TestTLSWithTwoProxy.class,
         TestMassTCPPacketWithOneProxyServer.class,
         DefaultTunnelManagerTest.class,
+        TunnelSplicerTest.class,
+        MuxLinkTest.class,
 
 })
 public class AllTests {
@@ -2,12 +2,17 @@ package com.ctrip.xpipe.redis.proxy;
 
 import com.ctrip.xpipe.api.proxy.CompressAlgorithm;
 import com.ctrip.xpipe.redis.proxy.config.ProxyConfig;
+import com.ctrip.xpipe.redis.proxy.handler.AdaptiveCompressPolicy;
 import com.ctrip.xpipe.redis.proxy.handler.ZstdDecoder;
+import com.ctrip.xpipe.redis.proxy.handler.ZstdDictionary;
 import com.ctrip.xpipe.redis.proxy.handler.ZstdEncoder;
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.MessageToByteEncoder;
 
+import static com.ctrip.xpipe.redis.proxy.handler.ZstdConstants.VERSION_BLOCK;
+import static com.ctrip.xpipe.redis.proxy.handler.ZstdConstants.VERSION_DICTIONARY;
+
 /**
  * @author chen.zhu
  * <p>
@@ -21,6 +26,20 @@ public class TestProxyConfig implements ProxyConfig {
 
     private boolean compress = false;
 
+    private boolean compressAdaptive = false;
+
+    private boolean socketStatsInProcess = false;
+
+    private String compressVersion = VERSION_BLOCK;
+
+    private ZstdDictionary compressDictionary;
+
+    private boolean nativeTransport = false;
+
+    private boolean splice = false;
+
+    private boolean mux = false;
+
     @Override
     public int frontendTcpPort() {
         return frontendTcpPort;
@@ -46,6 +65,11 @@ public class TestProxyConfig implements ProxyConfig {
         return 1000;
     }
 
+    @Override
+    public boolean isSocketStatsInProcess() {
+        return socketStatsInProcess;
+    }
+
     @Override
     public boolean noTlsNettyHandler() {
         return false;
@@ -76,12 +100,17 @@ public class TestProxyConfig implements ProxyConfig {
         return compress;
     }
 
+    @Override
+    public boolean isCompressAdaptive() {
+        return compressAdaptive;
+    }
+
     @Override
     public CompressAlgorithm getCompressAlgorithm() {
         return new CompressAlgorithm() {
             @Override
             public String version() {
-                return "1.0";
+                return compressVersion;
             }
 
             @Override
@@ -97,13 +126,53 @@ public class TestProxyConfig implements ProxyConfig {
     }
 
     @Override
-    public ByteToMessageDecoder getCompressDecoder() {
+    public boolean isNativeTransportEnabled() {
+        return nativeTransport;
+    }
+
+    @Override
+    public boolean isSpliceEnabled() {
+        return splice;
+    }
+
+    @Override
+    public boolean isMuxEnabled() {
+        return mux;
+    }
+
+    @Override
+    public int getMuxLinksPerEndpoint() {
+        return 2;
+    }
+
+    @Override
+    public int getMuxStreamWindowBytes() {
+        return 1024 * 1024;
+    }
+
+    @Override
+    public boolean isCompressAlgorithmSupported(CompressAlgorithm algorithm) {
+        if(VERSION_DICTIONARY.equals(algorithm.version())) {
+            return compressDictionary != null;
+        }
+        return VERSION_BLOCK.equals(algorithm.version());
+    }
+
+    @Override
+    public ByteToMessageDecoder getCompressDecoder(CompressAlgorithm algorithm) {
+        if(VERSION_DICTIONARY.equals(algorithm.version())) {
+            return new ZstdDecoder(compressDictionary);
+        }
         return new ZstdDecoder();
     }
 
     @Override
-    public MessageToByteEncoder<ByteBuf> getCompressEncoder() {
-        return new ZstdEncoder();
+    public MessageToByteEncoder<ByteBuf> getCompressEncoder(CompressAlgorithm algorithm) {
+        AdaptiveCompressPolicy compressPolicy = compressAdaptive ? new AdaptiveCompressPolicy() : null;
+        if(VERSION_DICTIONARY.equals(algorithm.version())) {
+            return new ZstdEncoder(compressDictionary, compressPolicy);
+        }
+        return new ZstdEncoder(null, compressPolicy);
     }
 
     @Override
@@ -149,4 +218,39 @@ public class TestProxyConfig implements ProxyConfig {
     public void setCompress(boolean compress) {
         this.compress = compress;
     }
+
+    public TestProxyConfig setCompressAdaptive(boolean compressAdaptive) {
+        this.compressAdaptive = compressAdaptive;
+        return this;
+    }
+
+    public TestProxyConfig setSocketStatsInProcess(boolean socketStatsInProcess) {
+        this.socketStatsInProcess = socketStatsInProcess;
+        return this;
+    }
+
+    public TestProxyConfig setCompressVersion(String compressVersion) {
+        this.compressVersion = compressVersion;
+        return this;
+    }
+
+    public TestProxyConfig setCompressDictionary(ZstdDictionary compressDictionary) {
+        this.compressDictionary = compressDictionary;
+        return this;
+    }
+
+    public TestProxyConfig setNativeTransport(boolean nativeTransport) {
+        this.nativeTransport = nativeTransport;
+        return this;
+    }
+
+    public TestProxyConfig setSplice(boolean splice) {
+        this.splice = splice;
+        return this;
+    }
+
+    public TestProxyConfig setMux(boolean mux) {
+        this.mux = mux;
+        return this;
+    }
 }
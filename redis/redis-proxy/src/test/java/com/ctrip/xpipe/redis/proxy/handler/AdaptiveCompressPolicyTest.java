@@ -0,0 +1,138 @@
+package com.ctrip.xpipe.redis.proxy.handler;
+
+import com.ctrip.xpipe.AbstractTest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import static com.ctrip.xpipe.redis.proxy.handler.AdaptiveCompressPolicy.*;
+
+public class AdaptiveCompressPolicyTest extends AbstractTest {
+
+    private static final long HIGH_BACKLOG = 1024;
+
+    private AdaptiveCompressPolicy policy = new AdaptiveCompressPolicy(HIGH_BACKLOG);
+
+    private long now = 0;
+
+    @Test
+    public void testFastAtFirst() {
+        Assert.assertEquals(CompressLevel.FAST, policy.nextBlock(0, now));
+    }
+
+    @Test
+    public void testIdleLinkPassThrough() {
+        policy.nextBlock(0, now);
+        policy.record(CompressLevel.FAST, 1024, 256, 1000);
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.NONE, policy.nextBlock(0, now));
+
+        // still probe ratio now and then
+        int probes = 0;
+        for(int i = 0; i < PROBE_BLOCKS * 2; i++) {
+            if(policy.nextBlock(0, now) == CompressLevel.FAST) {
+                probes++;
+            }
+        }
+        Assert.assertEquals(2, probes);
+    }
+
+    @Test
+    public void testBusyLinkFast() {
+        policy.nextBlock(0, now);
+        policy.record(CompressLevel.FAST, 10 * 1024 * 1024, 2 * 1024 * 1024, TimeUnit.MILLISECONDS.toNanos(20));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.FAST, policy.nextBlock(10, now));
+    }
+
+    @Test
+    public void testBacklogCompressHigh() {
+        policy.nextBlock(HIGH_BACKLOG, now);
+        policy.record(CompressLevel.FAST, 10 * 1024 * 1024, 2 * 1024 * 1024, TimeUnit.MILLISECONDS.toNanos(20));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.HIGH, policy.nextBlock(HIGH_BACKLOG, now));
+
+        // encoding at high level keeps up with input
+        policy.record(CompressLevel.HIGH, 10 * 1024 * 1024, 1024 * 1024, TimeUnit.MILLISECONDS.toNanos(200));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.HIGH, policy.nextBlock(HIGH_BACKLOG, now));
+
+        // cpu bound
+        policy.record(CompressLevel.HIGH, 10 * 1024 * 1024, 1024 * 1024, TimeUnit.SECONDS.toNanos(2));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.FAST, policy.nextBlock(HIGH_BACKLOG, now));
+    }
+
+    @Test
+    public void testCpuBoundStaysFast() {
+        policy.nextBlock(HIGH_BACKLOG, now);
+        policy.record(CompressLevel.FAST, 10 * 1024 * 1024, 2 * 1024 * 1024, TimeUnit.MILLISECONDS.toNanos(20));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.HIGH, policy.nextBlock(HIGH_BACKLOG, now));
+
+        // high level encodes 5MB/s only
+        policy.record(CompressLevel.HIGH, 10 * 1024 * 1024, 1024 * 1024, TimeUnit.SECONDS.toNanos(2));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.FAST, policy.nextBlock(HIGH_BACKLOG, now));
+
+        // input still beyond what high level managed, two windows later
+        for(int i = 0; i < 2; i++) {
+            policy.record(CompressLevel.FAST, 10 * 1024 * 1024, 2 * 1024 * 1024, TimeUnit.MILLISECONDS.toNanos(20));
+            now += SAMPLE_INTERVAL_NANOS;
+            Assert.assertEquals(CompressLevel.FAST, policy.nextBlock(HIGH_BACKLOG, now));
+        }
+
+        // input drops well below it
+        policy.record(CompressLevel.FAST, 2 * 1024 * 1024, 512 * 1024, TimeUnit.MILLISECONDS.toNanos(4));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.HIGH, policy.nextBlock(HIGH_BACKLOG, now));
+    }
+
+    @Test
+    public void testCpuBoundRetryHighLater() {
+        policy.nextBlock(HIGH_BACKLOG, now);
+        policy.record(CompressLevel.FAST, 10 * 1024 * 1024, 2 * 1024 * 1024, TimeUnit.MILLISECONDS.toNanos(20));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.HIGH, policy.nextBlock(HIGH_BACKLOG, now));
+        policy.record(CompressLevel.HIGH, 10 * 1024 * 1024, 1024 * 1024, TimeUnit.SECONDS.toNanos(2));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.FAST, policy.nextBlock(HIGH_BACKLOG, now));
+
+        CompressLevel level = CompressLevel.FAST;
+        for(int i = 0; i < HIGH_RETRY_WINDOWS && level == CompressLevel.FAST; i++) {
+            policy.record(CompressLevel.FAST, 10 * 1024 * 1024, 2 * 1024 * 1024, TimeUnit.MILLISECONDS.toNanos(20));
+            now += SAMPLE_INTERVAL_NANOS;
+            level = policy.nextBlock(HIGH_BACKLOG, now);
+        }
+        Assert.assertEquals(CompressLevel.HIGH, level);
+    }
+
+    @Test
+    public void testIncompressiblePassThrough() {
+        policy.nextBlock(HIGH_BACKLOG, now);
+        policy.record(CompressLevel.FAST, 10 * 1024 * 1024, 10 * 1024 * 1024, TimeUnit.MILLISECONDS.toNanos(20));
+        now += SAMPLE_INTERVAL_NANOS;
+        Assert.assertEquals(CompressLevel.NONE, policy.nextBlock(HIGH_BACKLOG, now));
+    }
+
+    @Test
+    public void testEncodeWithPolicy() {
+        EmbeddedChannel encoder = new EmbeddedChannel(new ZstdEncoder(null, new AdaptiveCompressPolicy()));
+        EmbeddedChannel decoder = new EmbeddedChannel(new ZstdDecoder());
+        String sample = randomString(1024);
+        encoder.writeOutbound(Unpooled.copiedBuffer(sample, Charset.defaultCharset()));
+        decoder.writeInbound(encoder.<ByteBuf>readOutbound());
+        ByteBuf received = decoder.readInbound();
+        Assert.assertEquals(sample, received.toString(Charset.defaultCharset()));
+        received.release();
+
+        CompressStats stats = encoder.pipeline().get(ZstdEncoder.class).getCompressStats();
+        Assert.assertEquals(CompressLevel.FAST, stats.getLevel());
+        Assert.assertEquals(1024, stats.getRawBytes());
+    }
+}
@@ -0,0 +1,88 @@
+package com.ctrip.xpipe.redis.proxy.handler;
+
+import com.ctrip.xpipe.AbstractTest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ZstdDictionaryTest extends AbstractTest {
+
+    private ZstdDictionary dictionary;
+
+    @Before
+    public void beforeZstdDictionaryTest() {
+        List<byte[]> samples = new ArrayList<>();
+        for(int i = 0; i < 2000; i++) {
+            samples.add(command(i).getBytes());
+        }
+        dictionary = new ZstdDictionary("test", ZstdDictionary.train(samples, 16 * 1024));
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        EmbeddedChannel encoder = new EmbeddedChannel(new ZstdEncoder(dictionary));
+        EmbeddedChannel decoder = new EmbeddedChannel(new ZstdDecoder(dictionary));
+
+        StringBuilder expected = new StringBuilder();
+        for(int i = 0; i < 100; i++) {
+            String command = command(randomInt(0, 100000));
+            expected.append(command);
+            encoder.writeOutbound(Unpooled.copiedBuffer(command, Charset.defaultCharset()));
+        }
+
+        StringBuilder received = new StringBuilder();
+        ByteBuf byteBuf;
+        while((byteBuf = encoder.readOutbound()) != null) {
+            decoder.writeInbound(byteBuf);
+        }
+        while((byteBuf = decoder.readInbound()) != null) {
+            received.append(byteBuf.toString(Charset.defaultCharset()));
+            byteBuf.release();
+        }
+        Assert.assertEquals(expected.toString(), received.toString());
+
+        CompressStats stats = encoder.pipeline().get(ZstdEncoder.class).getCompressStats();
+        Assert.assertEquals(expected.length(), stats.getRawBytes());
+        Assert.assertEquals(stats.getCompressedBytes(), decoder.pipeline().get(ZstdDecoder.class).getCompressStats().getCompressedBytes());
+        Assert.assertTrue(stats.getRatio() > 1);
+    }
+
+    @Test
+    public void testSmallBlocksCompressBetter() {
+        EmbeddedChannel withDictionary = new EmbeddedChannel(new ZstdEncoder(dictionary));
+        EmbeddedChannel withoutDictionary = new EmbeddedChannel(new ZstdEncoder());
+        for(int i = 0; i < 100; i++) {
+            String command = command(randomInt(0, 100000));
+            withDictionary.writeOutbound(Unpooled.copiedBuffer(command, Charset.defaultCharset()));
+            withoutDictionary.writeOutbound(Unpooled.copiedBuffer(command, Charset.defaultCharset()));
+        }
+        CompressStats dictionaryStats = withDictionary.pipeline().get(ZstdEncoder.class).getCompressStats();
+        CompressStats stats = withoutDictionary.pipeline().get(ZstdEncoder.class).getCompressStats();
+        logger.info("[dictionary] {}", dictionaryStats);
+        logger.info("[no dictionary] {}", stats);
+        Assert.assertTrue(dictionaryStats.getCompressedBytes() < stats.getCompressedBytes());
+        withDictionary.finishAndReleaseAll();
+        withoutDictionary.finishAndReleaseAll();
+    }
+
+    @Test(expected = Exception.class)
+    public void testDecodeWithoutDictionary() {
+        EmbeddedChannel encoder = new EmbeddedChannel(new ZstdEncoder(dictionary));
+        EmbeddedChannel decoder = new EmbeddedChannel(new ZstdDecoder());
+        encoder.writeOutbound(Unpooled.copiedBuffer(command(1) + command(2), Charset.defaultCharset()));
+        decoder.writeInbound(encoder.<ByteBuf>readOutbound());
+    }
+
+    private String command(int i) {
+        String key = "xpipe-test-key:" + i;
+        String value = "xpipe-test-value-" + (i * 31) + "-" + (i % 7);
+        return String.format("*3\r\n$3\r\nSET\r\n$%d\r\n%s\r\n$%d\r\n%s\r\n", key.length(), key, value.length(), value);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ctrip.xpipe.redis.proxy.monitor.stats.impl;
+
+import com.ctrip.xpipe.redis.core.proxy.monitor.SocketStatsResult;
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProcNetTcpParserTest {
+
+    private static final String HEADER = "  sl  local_address rem_address   st tx_queue rx_queue tr tm->when retrnsmt   uid  timeout inode";
+
+    @Test
+    public void testParseTcp() {
+        List<String> lines = Lists.newArrayList(HEADER,
+                "   0: 0100007F:1F90 0100007F:C350 01 00000010:00000020 00:00000000 00000000  1000        0 12345 1 0000000000000000 20 4 30 10 -1",
+                "   1: 00000000:1F90 00000000:0000 0A 00000000:00000000 00:00000000 00000000  1000        0 12346 1 0000000000000000 100 0 0 10 0");
+
+        Map<DefaultSocketStatsManager.LocalRemotePort, SocketStatsResult> result = ProcNetTcpParser.parse(lines);
+        Assert.assertEquals(1, result.size());
+
+        SocketStatsResult socketStatsResult = result.get(new DefaultSocketStatsManager.LocalRemotePort(8080, 50000));
+        Assert.assertNotNull(socketStatsResult);
+        Assert.assertEquals("ESTAB 32 16 127.0.0.1:8080 127.0.0.1:50000", socketStatsResult.getResult().get(0));
+        Assert.assertEquals(" rto:200 cwnd:10 ssthresh:-1", socketStatsResult.getResult().get(1));
+    }
+
+    @Test
+    public void testParseTcp6() {
+        List<String> lines = Lists.newArrayList(HEADER,
+                "   0: 0000000000000000FFFF00000100007F:1F90 0000000000000000FFFF00000100007F:C350 01 00000000:00000000 00:00000000 00000000  1000        0 12345 1 0000000000000000 20 4 30 10 -1");
+
+        SocketStatsResult socketStatsResult = ProcNetTcpParser.parse(lines)
+                .get(new DefaultSocketStatsManager.LocalRemotePort(8080, 50000));
+        Assert.assertEquals("ESTAB 0 0 ::ffff:127.0.0.1:8080 ::ffff:127.0.0.1:50000", socketStatsResult.getResult().get(0));
+    }
+
+    @Test
+    public void testParseAddress() {
+        Assert.assertEquals("10.2.3.4", ProcNetTcpParser.parseAddress("0403020A"));
+        Assert.assertEquals("::ffff:10.2.3.4", ProcNetTcpParser.parseAddress("0000000000000000FFFF00000403020A"));
+        Assert.assertEquals("0:0:0:0:0:0:0:1", ProcNetTcpParser.parseAddress("00000000000000000000000001000000"));
+    }
+
+    @Test
+    public void testParseMalformed() {
+        Assert.assertTrue(ProcNetTcpParser.parse(Lists.newArrayList("", "garbage", HEADER)).isEmpty());
+    }
+
+    @Test
+    public void testSkipMalformedLine() {
+        List<String> lines = Lists.newArrayList(HEADER,
+                "   0: 0100007F:1FZ0 0100007F:C350 01 00000010:00000020 00:00000000 00000000  1000        0 12345 1 0000000000000000 20 4 30 10 -1",
+                "   1: 0100007F:1F90 0100007F:C350 01 00000010:00000020 00:00000000 00000000  1000        0 12345 1 0000000000000000 20 4 30 10 -1");
+
+        Map<DefaultSocketStatsManager.LocalRemotePort, SocketStatsResult> result = ProcNetTcpParser.parse(lines);
+        Assert.assertEquals(1, result.size());
+        Assert.assertNotNull(result.get(new DefaultSocketStatsManager.LocalRemotePort(8080, 50000)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.ctrip.xpipe.redis.proxy.mux;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MuxLinkTest {
+
+    private static final int WINDOW = 16;
+
+    private EmbeddedChannel client;
+
+    private EmbeddedChannel server;
+
+    private MuxLink clientLink;
+
+    private AtomicReference<Channel> serverStream = new AtomicReference<>();
+
+    private StringBuffer serverReceived = new StringBuffer();
+
+    private boolean serverAutoRead = true;
+
+    @Before
+    public void beforeMuxLinkTest() {
+        clientLink = new MuxLink(WINDOW);
+        client = new EmbeddedChannel(new MuxFrameDecoder(), clientLink);
+        server = new EmbeddedChannel(new MuxLinkDetector(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                ch.config().setAutoRead(serverAutoRead);
+                ch.pipeline().addLast(new ReceiveHandler(serverReceived));
+                serverStream.set(ch);
+            }
+        }));
+        client.writeOutbound(Unpooled.wrappedBuffer(MuxLink.MUX_PROTOCOL_BYTES));
+    }
+
+    @After
+    public void afterMuxLinkTest() {
+        client.finishAndReleaseAll();
+        server.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testReadWrite() {
+        StringBuffer clientReceived = new StringBuffer();
+        ChannelFuture future = clientLink.openStream(new ReceiveHandler(clientReceived));
+        Assert.assertTrue(future.isSuccess());
+        Channel stream = future.channel();
+        Assert.assertTrue(stream.isActive());
+
+        stream.writeAndFlush(Unpooled.copiedBuffer("hello", Charset.defaultCharset()));
+        pump(client, server);
+        Assert.assertNotNull(server.pipeline().get(MuxLink.class));
+        Assert.assertEquals("hello", serverReceived.toString());
+
+        serverStream.get().writeAndFlush(Unpooled.copiedBuffer("world", Charset.defaultCharset()));
+        pump(server, client);
+        Assert.assertEquals("world", clientReceived.toString());
+
+        stream.close();
+        pump(client, server);
+        Assert.assertFalse(serverStream.get().isActive());
+        Assert.assertEquals(0, clientLink.streamCount());
+        Assert.assertEquals(0, server.pipeline().get(MuxLink.class).streamCount());
+    }
+
+    @Test
+    public void testFlowControl() {
+        serverAutoRead = false;
+        Channel stream = clientLink.openStream(new ChannelInboundHandlerAdapter()).channel();
+        String content = "0123456789abcdefghijklmnopqrstuvwxyz";
+        stream.writeAndFlush(Unpooled.copiedBuffer(content, Charset.defaultCharset()));
+        pump(client, server);
+        Assert.assertEquals("", serverReceived.toString());
+
+        // a window of bytes is sent before granted
+        serverStream.get().read();
+        Assert.assertEquals(content.substring(0, WINDOW), serverReceived.toString());
+        pump(client, server);
+        serverStream.get().read();
+        Assert.assertEquals(content.substring(0, WINDOW), serverReceived.toString());
+
+        for(int i = 0; i < 3; i++) {
+            pump(server, client);
+            pump(client, server);
+            serverStream.get().read();
+        }
+        Assert.assertEquals(content, serverReceived.toString());
+    }
+
+    @Test
+    public void testLinkClosed() {
+        Channel stream = clientLink.openStream(new ChannelInboundHandlerAdapter()).channel();
+        pump(client, server);
+        Assert.assertTrue(serverStream.get().isActive());
+
+        client.close();
+        server.close();
+        Assert.assertFalse(stream.isActive());
+        Assert.assertFalse(serverStream.get().isActive());
+    }
+
+    @Test
+    public void testNotMuxLink() {
+        EmbeddedChannel channel = new EmbeddedChannel(new MuxLinkDetector(new ChannelInboundHandlerAdapter()));
+        channel.writeInbound(Unpooled.copiedBuffer("+PROXY ROUTE", Charset.defaultCharset()));
+        Assert.assertNull(channel.pipeline().get(MuxLinkDetector.class));
+        ByteBuf received = channel.readInbound();
+        Assert.assertEquals("+PROXY ROUTE", received.toString(Charset.defaultCharset()));
+        received.release();
+    }
+
+    private void pump(EmbeddedChannel from, EmbeddedChannel to) {
+        Object msg;
+        while((msg = from.readOutbound()) != null) {
+            to.writeInbound(msg);
+        }
+    }
+
+    private static class ReceiveHandler extends ChannelInboundHandlerAdapter {
+
+        private StringBuffer received;
+
+        ReceiveHandler(StringBuffer received) {
+            this.received = received;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf byteBuf = (ByteBuf) msg;
+            received.append(byteBuf.toString(Charset.defaultCharset()));
+            byteBuf.release();
+        }
+    }
+}
@@ -14,7 +14,9 @@ import com.ctrip.xpipe.redis.proxy.TestProxyConfig;
 import com.ctrip.xpipe.redis.proxy.config.ProxyConfig;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.SocketStatsManager;
 import com.ctrip.xpipe.redis.proxy.monitor.stats.impl.DefaultSocketStatsManager;
+import com.ctrip.xpipe.redis.proxy.mux.MuxLinkManager;
 import com.ctrip.xpipe.utils.XpipeThreadFactory;
+import io.netty.channel.nio.NioEventLoopGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +48,8 @@ public class TestResourceManager implements ResourceManager {
 
     private volatile SimpleKeyedObjectPool<Endpoint, NettyClient> keyedObjectPool;
 
+    private volatile MuxLinkManager muxLinkManager;
+
     @Override
     public NettySslHandlerFactory getClientSslHandlerFactory() {
         return clientSslHandlerFactory;
@@ -90,6 +94,18 @@ public class TestResourceManager implements ResourceManager {
         return keyedObjectPool;
     }
 
+    @Override
+    public MuxLinkManager getMuxLinkManager() {
+        if(muxLinkManager == null) {
+            synchronized (this) {
+                if(muxLinkManager == null) {
+                    muxLinkManager = new MuxLinkManager(getProxyConfig(), clientSslHandlerFactory, new NioEventLoopGroup(1));
+                }
+            }
+        }
+        return muxLinkManager;
+    }
+
     public TestResourceManager setConfig(ProxyConfig config) {
         this.config = config;
         return this;
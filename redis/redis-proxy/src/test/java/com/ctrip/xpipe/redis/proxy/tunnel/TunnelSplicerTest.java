@@ -0,0 +1,104 @@
+package com.ctrip.xpipe.redis.proxy.tunnel;
+
+import com.ctrip.xpipe.AbstractTest;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.epoll.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TunnelSplicerTest extends AbstractTest {
+
+    private EventLoopGroup group;
+
+    @After
+    public void afterTunnelSplicerTest() {
+        if(group != null) {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testNotEpoll() {
+        group = new NioEventLoopGroup(1);
+        Assert.assertFalse(TunnelSplicer.isEpoll(group));
+        Assert.assertFalse(TunnelSplicer.isEpoll(group.next()));
+        Assert.assertFalse(TunnelSplicer.canSplice(new EmbeddedChannel()));
+        Assert.assertFalse(TunnelSplicer.spliceIfPossible(new EmbeddedChannel(), new EmbeddedChannel()));
+    }
+
+    @Test
+    public void testSplice() throws Exception {
+        Assume.assumeTrue(Epoll.isAvailable());
+        group = new EpollEventLoopGroup(1);
+        Assert.assertTrue(TunnelSplicer.isEpoll(group));
+        Assert.assertTrue(TunnelSplicer.isEpoll(group.next()));
+
+        StringBuffer serverReceived = new StringBuffer();
+        int serverPort = randomPort();
+        new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                .childHandler(new ReceiveHandler(serverReceived, "world"))
+                .bind(serverPort).sync();
+
+        AtomicBoolean spliced = new AtomicBoolean();
+        int proxyPort = randomPort();
+        new ServerBootstrap().group(group).channel(EpollServerSocketChannel.class)
+                .childOption(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        Channel frontend = ctx.channel();
+                        new Bootstrap().group(frontend.eventLoop()).channel(EpollSocketChannel.class)
+                                .option(EpollChannelOption.EPOLL_MODE, EpollMode.LEVEL_TRIGGERED)
+                                .handler(new ChannelInboundHandlerAdapter())
+                                .connect("127.0.0.1", serverPort)
+                                .addListener((ChannelFutureListener) future ->
+                                        spliced.set(TunnelSplicer.spliceIfPossible(frontend, future.channel())));
+                    }
+                })
+                .bind(proxyPort).sync();
+
+        StringBuffer clientReceived = new StringBuffer();
+        Channel client = new Bootstrap().group(group).channel(EpollSocketChannel.class)
+                .handler(new ReceiveHandler(clientReceived, null))
+                .connect("127.0.0.1", proxyPort).sync().channel();
+        waitConditionUntilTimeOut(spliced::get);
+
+        client.writeAndFlush(Unpooled.copiedBuffer("hello", Charset.defaultCharset()));
+        waitConditionUntilTimeOut(() -> "hello".equals(serverReceived.toString()));
+        waitConditionUntilTimeOut(() -> "world".equals(clientReceived.toString()));
+    }
+
+    private static class ReceiveHandler extends ChannelInboundHandlerAdapter {
+
+        private StringBuffer received;
+
+        private String reply;
+
+        ReceiveHandler(StringBuffer received, String reply) {
+            this.received = received;
+            this.reply = reply;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf byteBuf = (ByteBuf) msg;
+            received.append(byteBuf.toString(Charset.defaultCharset()));
+            byteBuf.release();
+            if(reply != null) {
+                ctx.writeAndFlush(Unpooled.copiedBuffer(reply, Charset.defaultCharset()));
+            }
+        }
+    }
+
+}